@@ -0,0 +1,280 @@
+package com.tienda.benchmarks;
+
+import com.tienda.GeneradorPDF;
+import com.tienda.Inventario;
+import com.tienda.MotorPrecios;
+import com.tienda.Producto;
+import com.tienda.ServicioCatalogo;
+import com.tienda.ServicioCompra;
+import com.tienda.web.ServidorTienda;
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Prueba de carga del servidor HTTP: muchos clientes simultáneos repiten una visita completa a la
+ * tienda y al final se informan las peticiones por segundo y las latencias (p50, p99 y máxima)
+ * de cada ruta.
+ * <p>
+ * Cada cliente es un hilo virtual con su propia sesión. Una visita pide las categorías, una
+ * categoría, una búsqueda, agrega dos productos, revisa el carrito, se registra (solo la primera
+ * vez), cierra la compra y, una de cada diez veces, descarga el ticket PDF.
+ * <p>
+ * Sin `--url` levanta el servidor en el mismo proceso, con un catálogo sintético de 1000
+ * productos y existencias de sobra. Uso:
+ * <pre>
+ * java -cp target/benchmarks.jar com.tienda.benchmarks.CargaHttp [--clientes 64] [--segundos 10] [--url http://host:puerto]
+ * </pre>
+ * La latencia se mide desde que el cliente manda la petición hasta que termina de leer la
+ * respuesta, así que incluye la espera en la cola del servidor.
+ */
+public final class CargaHttp {
+
+    // Operaciones de la visita, en el orden en que se reportan.
+    private static final String[] OPERACIONES = {
+        "categorias", "productos", "buscar", "agregar", "carrito", "registro", "compra", "ticket"
+    };
+    private static final String[] BUSQUEDAS = { "fresa", "chocolate lala", "limon", "vainilla 12", "ariel" };
+
+    private final HttpClient http;
+    private final String base;
+
+    private CargaHttp(String base) {
+        this.base = base;
+        this.http = HttpClient.newBuilder()
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        int clientes = 64;
+        int segundos = 10;
+        String url = null;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--clientes": clientes = Integer.parseInt(args[i + 1]); break;
+                case "--segundos": segundos = Integer.parseInt(args[i + 1]); break;
+                case "--url": url = args[i + 1]; break;
+                default: throw new IllegalArgumentException("Opcion desconocida: " + args[i]);
+            }
+        }
+
+        ServidorTienda local = null;
+        if (url == null) {
+            ServidorTienda.desactivarNagle();
+            local = servidorLocal();
+            local.iniciar();
+            url = "http://localhost:" + local.getPuerto();
+        }
+        try {
+            new CargaHttp(url).correr(clientes, segundos);
+        } finally {
+            if (local != null) {
+                local.detener(0);
+            }
+        }
+    }
+
+    /**
+     * Servidor en el mismo proceso, con un catálogo sintético y un generador de tickets por
+     * procesador (si están las fuentes).
+     */
+    private static ServidorTienda servidorLocal() throws IOException {
+        Producto[] catalogo = Datos.catalogo(1000);
+        String[] skus = new String[catalogo.length];
+        int[] unidades = new int[catalogo.length];
+        for (int i = 0; i < catalogo.length; i++) {
+            skus[i] = catalogo[i].getSku();
+            unidades[i] = 1_000_000_000;
+        }
+        Inventario inventario = new Inventario(skus, unidades, Inventario.VIGENCIA_PREDETERMINADA_MS);
+        ServicioCompra servicio = new ServicioCompra(ServicioCatalogo.de(catalogo, inventario), MotorPrecios.ESTANDAR);
+
+        List<GeneradorPDF> generadores = new ArrayList<>();
+        String regular = System.getProperty(GeneradorPDF.PROPIEDAD_FUENTE_REGULAR, "/usr/share/fonts/truetype/dejavu/DejaVuSans.ttf");
+        String negrita = System.getProperty(GeneradorPDF.PROPIEDAD_FUENTE_NEGRITA, "/usr/share/fonts/truetype/dejavu/DejaVuSans-Bold.ttf");
+        if (new File(regular).isFile() && new File(negrita).isFile()) {
+            for (int i = 0; i < Runtime.getRuntime().availableProcessors(); i++) {
+                generadores.add(new GeneradorPDF(regular, negrita, null));
+            }
+        } else {
+            System.err.println("Sin fuentes: la descarga de tickets respondera 503.");
+        }
+        return new ServidorTienda(0, servicio, generadores);
+    }
+
+    private void correr(int clientes, int segundos) throws Exception {
+        System.out.printf("Carga sobre %s: %d clientes durante %d s%n", base, clientes, segundos);
+        long fin = System.nanoTime() + Duration.ofSeconds(segundos).toNanos();
+        long inicio = System.nanoTime();
+
+        List<Future<Cliente>> resultados = new ArrayList<>(clientes);
+        try (ExecutorService hilos = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clientes; i++) {
+                Cliente cliente = new Cliente(i);
+                resultados.add(hilos.submit(() -> cliente.visitar(fin)));
+            }
+        }
+        double transcurrido = (System.nanoTime() - inicio) / 1e9;
+
+        // Se juntan las latencias de todos los clientes, por operación.
+        Latencias[] porOperacion = new Latencias[OPERACIONES.length];
+        for (int o = 0; o < OPERACIONES.length; o++) {
+            porOperacion[o] = new Latencias();
+        }
+        Latencias total = new Latencias();
+        long errores = 0;
+        for (Future<Cliente> resultado : resultados) {
+            Cliente cliente = resultado.get();
+            for (int o = 0; o < OPERACIONES.length; o++) {
+                porOperacion[o].agregar(cliente.latencias[o]);
+                total.agregar(cliente.latencias[o]);
+            }
+            errores += cliente.errores;
+        }
+
+        System.out.printf("%n%-12s %10s %10s %10s %10s %10s%n", "operacion", "peticiones", "pet/s", "p50 ms", "p99 ms", "max ms");
+        for (int o = 0; o < OPERACIONES.length; o++) {
+            imprimir(OPERACIONES[o], porOperacion[o], transcurrido);
+        }
+        imprimir("total", total, transcurrido);
+        System.out.printf("%nerrores: %d%n", errores);
+    }
+
+    private static void imprimir(String nombre, Latencias latencias, double segundos) {
+        latencias.ordenar();
+        System.out.printf(Locale.ROOT, "%-12s %10d %10.0f %10.2f %10.2f %10.2f%n", nombre, latencias.tamano,
+            latencias.tamano / segundos, latencias.percentil(0.50) / 1e6, latencias.percentil(0.99) / 1e6,
+            latencias.percentil(1.0) / 1e6);
+    }
+
+    /**
+     * Un cliente de la tienda, con su sesión y sus mediciones.
+     */
+    private final class Cliente {
+        final Latencias[] latencias = new Latencias[OPERACIONES.length];
+        final int semilla;
+        String cookie;
+        boolean registrado;
+        long errores;
+
+        Cliente(int semilla) {
+            this.semilla = semilla;
+            for (int o = 0; o < OPERACIONES.length; o++) {
+                latencias[o] = new Latencias();
+            }
+        }
+
+        Cliente visitar(long fin) {
+            int visita = 0;
+            while (System.nanoTime() < fin) {
+                int n = semilla * 7919 + visita++;
+                try {
+                    pedir(0, "GET", "/catalogo/categorias", null);
+                    pedir(1, "GET", "/catalogo/productos?categoria=" + codificar(Datos.CATEGORIAS[n % Datos.CATEGORIAS.length]), null);
+                    pedir(2, "GET", "/catalogo/buscar?q=" + codificar(BUSQUEDAS[n % BUSQUEDAS.length]), null);
+                    pedir(3, "POST", "/carrito/agregar", "sku=" + String.format("SKU-%07d", n % 1000) + "&cantidad=" + (1 + n % 4));
+                    pedir(3, "POST", "/carrito/agregar", "sku=" + String.format("SKU-%07d", (n + 500) % 1000) + "&cantidad=1");
+                    pedir(4, "GET", "/carrito", null);
+                    if (!registrado) {
+                        registrado = pedir(5, "POST", "/sesion/registro",
+                            "nombre=Cliente+" + semilla + "&email=cliente" + semilla + "%40tienda.com&direccion=Calle+1+%232");
+                    }
+                    pedir(6, "POST", "/compra", "");
+                    if (visita % 10 == 0) {
+                        pedir(7, "GET", "/compra/ticket.pdf", null);
+                    }
+                } catch (IOException e) {
+                    errores++;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            return this;
+        }
+
+        /**
+         * Manda una petición y registra su latencia.
+         *
+         * @return true si respondió 2xx.
+         */
+        boolean pedir(int operacion, String metodo, String ruta, String formulario) throws IOException, InterruptedException {
+            HttpRequest.Builder peticion = HttpRequest.newBuilder(URI.create(base + ruta)).timeout(Duration.ofSeconds(30));
+            if (cookie != null) {
+                peticion.header("Cookie", cookie);
+            }
+            if (formulario != null) {
+                peticion.header("Content-Type", "application/x-www-form-urlencoded")
+                    .POST(HttpRequest.BodyPublishers.ofString(formulario));
+            }
+            long antes = System.nanoTime();
+            HttpResponse<byte[]> respuesta = http.send(peticion.build(), HttpResponse.BodyHandlers.ofByteArray());
+            latencias[operacion].agregar(System.nanoTime() - antes);
+
+            if (cookie == null) {
+                respuesta.headers().firstValue("Set-Cookie").ifPresent(c -> cookie = c.substring(0, c.indexOf(';')));
+            }
+            boolean correcta = respuesta.statusCode() / 100 == 2;
+            if (!correcta) {
+                errores++;
+            }
+            return correcta;
+        }
+    }
+
+    private static String codificar(String texto) {
+        return URLEncoder.encode(texto, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Latencias en nanosegundos, en un arreglo que crece.
+     */
+    private static final class Latencias {
+        long[] valores = new long[1024];
+        int tamano;
+
+        void agregar(long nanos) {
+            if (tamano == valores.length) {
+                valores = Arrays.copyOf(valores, tamano * 2);
+            }
+            valores[tamano++] = nanos;
+        }
+
+        void agregar(Latencias otras) {
+            for (int i = 0; i < otras.tamano; i++) {
+                agregar(otras.valores[i]);
+            }
+        }
+
+        void ordenar() {
+            Arrays.sort(valores, 0, tamano);
+        }
+
+        /**
+         * @param fraccion De 0 a 1; 1 es el máximo. Requiere haber ordenado.
+         */
+        long percentil(double fraccion) {
+            if (tamano == 0) {
+                return 0;
+            }
+            int indice = (int) Math.ceil(fraccion * tamano) - 1;
+            return valores[Math.max(0, Math.min(tamano - 1, indice))];
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.tienda.benchmarks;
+
+import com.tienda.Carrito;
+import com.tienda.Producto;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Operaciones del carrito con distintos tamaños.
+ * <p>
+ * Cada operación deja el carrito como estaba (agregar y remover, o cambiar una cantidad y
+ * regresarla), así el tamaño medido es siempre el del parámetro.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CarritoBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int lineas;
+
+    private Carrito carrito;
+    private Producto nuevo;       // Producto que no está en el carrito.
+    private Producto unidad;      // Una unidad más de un producto que ya está en el carrito.
+    private String skuMedio;
+
+    @Setup(Level.Trial)
+    public void preparar() throws Exception {
+        Producto[] catalogo = Datos.catalogo(lineas + 1);
+        carrito = new Carrito(lineas);
+        for (int i = 0; i < lineas; i++) {
+            Producto p = catalogo[i];
+            carrito.agregarProducto(Producto.conPrecioCentavos(p.getSku(), p.getNombre(), p.getCategoria(),
+                p.getSubcategoria(), p.getPrecioCentavos(), 1 + i % 8));
+        }
+        Producto ultimo = catalogo[lineas];
+        nuevo = Producto.conPrecioCentavos(ultimo.getSku(), ultimo.getNombre(), ultimo.getCategoria(),
+            ultimo.getSubcategoria(), ultimo.getPrecioCentavos(), 2);
+        Producto medio = carrito.obtenerProducto(lineas / 2);
+        skuMedio = medio.getSku();
+        unidad = Producto.conPrecioCentavos(skuMedio, medio.getNombre(), medio.getCategoria(),
+            medio.getSubcategoria(), medio.getPrecioCentavos(), 1);
+    }
+
+    /** Agrega una línea nueva y la quita por SKU. */
+    @Benchmark
+    public Producto agregarYRemoverPorSku() throws Exception {
+        carrito.agregarProducto(nuevo);
+        return carrito.removerProducto(nuevo.getSku());
+    }
+
+    /** Agrega una línea nueva y la quita por índice (la API de las pantallas). */
+    @Benchmark
+    public Producto agregarYRemoverPorIndice() throws Exception {
+        carrito.agregarProducto(nuevo);
+        return carrito.removerProducto(carrito.getContador() - 1);
+    }
+
+    /** Agrega una unidad a una línea existente (se combina) y regresa la cantidad. */
+    @Benchmark
+    public long agregarExistente() throws Exception {
+        Producto linea = carrito.obtenerProducto(skuMedio);
+        int cantidad = linea.getStock();
+        carrito.agregarProducto(unidad);
+        carrito.actualizarCantidad(skuMedio, cantidad);
+        return carrito.calcularTotalCentavos();
+    }
+
+    /** Total con descuentos: se mantiene acumulado. */
+    @Benchmark
+    public long calcularTotal() {
+        return carrito.calcularTotalCentavos();
+    }
+
+    /** Total recorriendo todas las líneas, como se hacía antes de mantenerlo acumulado. */
+    @Benchmark
+    public long recalcularTotal() {
+        long total = 0;
+        for (Producto p : carrito.getProductos()) {
+            total += carrito.getMotorPrecios().subtotalConDescuento(p);
+        }
+        return total;
+    }
+}
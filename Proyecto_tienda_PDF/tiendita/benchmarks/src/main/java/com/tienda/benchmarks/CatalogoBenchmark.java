@@ -0,0 +1,150 @@
+package com.tienda.benchmarks;
+
+import com.tienda.BuscadorProductos;
+import com.tienda.CargadorCatalogo;
+import com.tienda.CatalogoRepositorio;
+import com.tienda.Producto;
+import com.tienda.SnapshotCatalogo;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Consultas y carga del catálogo.
+ * <ul>
+ *   <li>Productos de una categoría: recorrido lineal (como lo hacía `Controlador` antes de
+ *       {@link CatalogoRepositorio}) contra el índice.</li>
+ *   <li>Búsqueda de texto con {@link BuscadorProductos}.</li>
+ *   <li>Carga del catálogo desde CSV contra la carga desde un snapshot binario (con y sin los
+ *       índices), y solo la apertura del snapshot.</li>
+ * </ul>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CatalogoBenchmark {
+
+    @Param({"1000", "100000"})
+    public int productos;
+
+    private Producto[] catalogo;
+    private CatalogoRepositorio repositorio;
+    private BuscadorProductos buscador;
+    private String categoria;
+    private String subcategoria;
+    private Path directorio;
+    private Path csv;
+    private Path snapshot;
+    private int consulta;
+
+    private static final String[] CONSULTAS = { "lala fre", "choc", "santa clara vainilla", "limon 99", "sabritas" };
+
+    @Setup(Level.Trial)
+    public void preparar() throws IOException {
+        catalogo = Datos.catalogo(productos);
+        repositorio = new CatalogoRepositorio(catalogo);
+        buscador = new BuscadorProductos(Arrays.asList(catalogo));
+        categoria = Datos.CATEGORIAS[7];
+        subcategoria = catalogo[7].getSubcategoria();
+
+        directorio = Files.createTempDirectory("catalogo-bench");
+        csv = directorio.resolve("catalogo.csv");
+        try (Writer w = Files.newBufferedWriter(csv, StandardCharsets.UTF_8)) {
+            w.write("sku,nombre,categoria,subcategoria,precio\n");
+            for (Producto p : catalogo) {
+                w.write(p.getSku() + "," + p.getNombre() + "," + p.getCategoria() + "," + p.getSubcategoria()
+                    + "," + p.getPrecio() + "\n");
+            }
+        }
+        snapshot = directorio.resolve("catalogo.bin");
+        SnapshotCatalogo.escribir(catalogo, snapshot);
+    }
+
+    @TearDown(Level.Trial)
+    public void limpiar() throws IOException {
+        Files.deleteIfExists(csv);
+        Files.deleteIfExists(snapshot);
+        Files.deleteIfExists(directorio);
+    }
+
+    /** Productos de una categoría recorriendo todo el catálogo. */
+    @Benchmark
+    public List<Producto> categoriaRecorrido() {
+        List<Producto> resultado = new ArrayList<>();
+        for (Producto p : catalogo) {
+            if (p.getCategoria().equals(categoria)) {
+                resultado.add(p);
+            }
+        }
+        return resultado;
+    }
+
+    /** Productos de una categoría desde el índice. */
+    @Benchmark
+    public List<Producto> categoriaIndice() {
+        return repositorio.getProductos(categoria);
+    }
+
+    /** Productos de una subcategoría desde el índice. */
+    @Benchmark
+    public List<Producto> subcategoriaIndice() {
+        return repositorio.getProductos(categoria, subcategoria);
+    }
+
+    /** Búsqueda de texto (las consultas se alternan). */
+    @Benchmark
+    public List<Producto> buscar() {
+        consulta = (consulta + 1) % CONSULTAS.length;
+        return buscador.buscar(CONSULTAS[consulta], 20);
+    }
+
+    /** Carga completa del catálogo desde CSV. */
+    @Benchmark
+    public Producto[] cargarCsv() throws IOException {
+        return CargadorCatalogo.cargar(csv);
+    }
+
+    /**
+     * Carga completa desde el snapshot, como la usa la tienda: abrirlo y crear todos los
+     * productos. Es el número que se compara con {@link #cargarCsv()}.
+     */
+    @Benchmark
+    public Producto[] cargarSnapshot() throws IOException {
+        return CargadorCatalogo.cargar(snapshot);
+    }
+
+    /** Carga desde el snapshot y construcción de los índices del repositorio (el arranque completo). */
+    @Benchmark
+    public CatalogoRepositorio cargarSnapshotEIndexar() throws IOException {
+        return new CatalogoRepositorio(CargadorCatalogo.cargar(snapshot));
+    }
+
+    /** Solo abrir el snapshot binario y leer un producto; no es lo que paga el arranque. */
+    @Benchmark
+    public Producto abrirSnapshot() throws IOException {
+        SnapshotCatalogo s = SnapshotCatalogo.abrir(snapshot);
+        return s.producto(s.tamano() / 2);
+    }
+}
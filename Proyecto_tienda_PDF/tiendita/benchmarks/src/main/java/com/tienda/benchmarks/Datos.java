@@ -0,0 +1,57 @@
+package com.tienda.benchmarks;
+
+import com.tienda.GeneradorPDF;
+import com.tienda.Producto;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Datos sintéticos compartidos por los benchmarks.
+ * Son deterministas, así dos ejecuciones miden exactamente el mismo trabajo.
+ */
+final class Datos {
+    static final String[] CATEGORIAS = {
+        "Lacteos", "Snacks", "Limpieza", "Bebidas", "Panaderia", "Frutas", "Verduras", "Carnes",
+        "Congelados", "Higiene", "Mascotas", "Bebes", "Vinos", "Cereales", "Enlatados", "Salsas",
+        "Dulces", "Cafe", "Papeleria", "Hogar"
+    };
+    static final String[] MARCAS = { "Lala", "Alpura", "Santa Clara", "Marinela", "Sabritas", "Ariel" };
+    static final String[] SABORES = { "Fresa", "Chocolate", "Vainilla", "Limon", "Original" };
+
+    private Datos() {
+    }
+
+    /**
+     * Genera un catálogo de `n` productos repartidos en 20 categorías y 300 subcategorías.
+     */
+    static Producto[] catalogo(int n) {
+        Producto[] productos = new Producto[n];
+        for (int i = 0; i < n; i++) {
+            String categoria = CATEGORIAS[i % CATEGORIAS.length];
+            productos[i] = Producto.conPrecioCentavos(
+                String.format("SKU-%07d", i),
+                MARCAS[i % MARCAS.length] + " " + SABORES[i % SABORES.length] + " " + i + " g",
+                categoria,
+                categoria + " " + (i % 300 / CATEGORIAS.length),
+                500 + (i * 37L) % 20_000,
+                0);
+        }
+        return productos;
+    }
+
+    /**
+     * Genera `n` líneas de ticket con cantidades de 1 a 8 (así hay líneas con y sin descuento).
+     */
+    static List<GeneradorPDF.Producto> lineasTicket(int n) {
+        List<GeneradorPDF.Producto> lineas = new ArrayList<>(n);
+        Producto[] productos = catalogo(n);
+        for (int i = 0; i < n; i++) {
+            Producto p = productos[i];
+            int cantidad = 1 + i % 8;
+            int descuento = cantidad >= 7 ? 1500 : cantidad >= 5 ? 1000 : cantidad >= 3 ? 500 : 0;
+            lineas.add(GeneradorPDF.Producto.enCentavos(p.getNombre(), p.getCategoria(), p.getSubcategoria(),
+                String.valueOf(cantidad), p.getPrecioCentavos(), descuento));
+        }
+        return lineas;
+    }
+}
@@ -0,0 +1,103 @@
+package com.tienda.benchmarks;
+
+import com.tienda.Carrito;
+import com.tienda.Compra;
+import com.tienda.DiarioPedidos;
+import com.tienda.Inventario;
+import com.tienda.MotorPrecios;
+import com.tienda.Producto;
+import com.tienda.ServicioCatalogo;
+import com.tienda.ServicioCompra;
+import com.tienda.Usuario;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Pedidos por segundo en el {@link DiarioPedidos}, con 8 hilos guardando una compra de cinco
+ * líneas a la vez.
+ * <p>
+ * `modo` compara `grupal` (cada hilo espera a que su pedido esté en disco, y el diario agrupa las
+ * escrituras), `porPedido` (un pedido a la vez, cada uno con su propia escritura a disco, como
+ * haría un archivo con fsync tras cada compra) y `sinEspera` (nadie espera el disco).
+ * <p>
+ * El diario se crea en el directorio temporal; el resultado depende mucho del disco.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+public class DiarioBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Diario {
+        @Param({"grupal", "porPedido", "sinEspera"})
+        public String modo;
+
+        DiarioPedidos diario;
+        Compra compra;
+        private Path directorio;
+
+        @Setup(Level.Trial)
+        public void preparar() throws Exception {
+            Producto[] catalogo = Datos.catalogo(5);
+            String[] skus = new String[catalogo.length];
+            int[] unidades = new int[catalogo.length];
+            for (int i = 0; i < catalogo.length; i++) {
+                skus[i] = catalogo[i].getSku();
+                unidades[i] = 100;
+            }
+            Inventario inventario = new Inventario(skus, unidades, Inventario.VIGENCIA_PREDETERMINADA_MS);
+            ServicioCompra servicio = new ServicioCompra(ServicioCatalogo.de(catalogo, inventario), MotorPrecios.ESTANDAR);
+            Carrito carrito = servicio.nuevoCarrito();
+            for (int i = 0; i < catalogo.length; i++) {
+                servicio.agregar(carrito, skus[i], 1 + i);
+            }
+            compra = servicio.cerrarCompra(new Usuario("Cliente Uno", "cliente@tienda.com", "Calle 1 #2"), carrito);
+
+            directorio = Files.createTempDirectory("diario-benchmark");
+            diario = new DiarioPedidos(directorio, DiarioPedidos.SEGMENTO_PREDETERMINADO);
+        }
+
+        @TearDown(Level.Trial)
+        public void cerrar() throws IOException {
+            diario.close();
+            try (Stream<Path> archivos = Files.walk(directorio)) {
+                archivos.sorted(Comparator.reverseOrder()).forEach(archivo -> archivo.toFile().delete());
+            }
+        }
+    }
+
+    @Benchmark
+    public long guardarPedido(Diario d) throws IOException {
+        switch (d.modo) {
+            case "grupal":
+                return d.diario.registrar(d.compra);
+            case "porPedido":
+                synchronized (d) {
+                    return d.diario.registrar(d.compra);
+                }
+            default:
+                return d.diario.agregar(d.compra);
+        }
+    }
+}
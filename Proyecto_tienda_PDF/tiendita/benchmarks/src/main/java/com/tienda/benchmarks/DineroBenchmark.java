@@ -0,0 +1,107 @@
+package com.tienda.benchmarks;
+
+import com.tienda.Dinero;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Cálculo y formato de las líneas de un ticket: el camino con `double` y `String.format`
+ * que se usaba antes, contra centavos en `long` con {@link Dinero}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DineroBenchmark {
+
+    @Param({"100"})
+    public int lineas;
+
+    private double[] precios;
+    private double[] descuentos;
+    private long[] preciosCentavos;
+    private int[] descuentosPuntosBase;
+    private int[] cantidades;
+    private final StringBuilder texto = new StringBuilder(64);
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        precios = new double[lineas];
+        descuentos = new double[lineas];
+        preciosCentavos = new long[lineas];
+        descuentosPuntosBase = new int[lineas];
+        cantidades = new int[lineas];
+        for (int i = 0; i < lineas; i++) {
+            preciosCentavos[i] = 500 + (i * 37L) % 20_000;
+            precios[i] = preciosCentavos[i] / 100.0;
+            cantidades[i] = 1 + i % 8;
+            descuentosPuntosBase[i] = cantidades[i] >= 7 ? 1500 : cantidades[i] >= 5 ? 1000 : cantidades[i] >= 3 ? 500 : 0;
+            descuentos[i] = descuentosPuntosBase[i] / 10_000.0;
+        }
+    }
+
+    /** Solo el total, con `double`. */
+    @Benchmark
+    public double totalDouble() {
+        double total = 0;
+        for (int i = 0; i < lineas; i++) {
+            total += precios[i] * cantidades[i] * (1 - descuentos[i]);
+        }
+        return total;
+    }
+
+    /** Solo el total, con centavos. */
+    @Benchmark
+    public long totalCentavos() {
+        long total = 0;
+        for (int i = 0; i < lineas; i++) {
+            total += Dinero.aplicarDescuento(Dinero.multiplicar(preciosCentavos[i], cantidades[i]), descuentosPuntosBase[i]);
+        }
+        return total;
+    }
+
+    /** Total y texto de cada línea con `String.format("%.2f")`. */
+    @Benchmark
+    public double lineasDouble(Blackhole bh) {
+        double total = 0;
+        for (int i = 0; i < lineas; i++) {
+            double subtotal = precios[i] * cantidades[i] * (1 - descuentos[i]);
+            total += subtotal;
+            bh.consume(String.format("$%.2f", precios[i]));
+            bh.consume(String.format("$%.2f", subtotal));
+        }
+        bh.consume(String.format("TOTAL CON DESCUENTO: $%.2f", total));
+        return total;
+    }
+
+    /** Total y texto de cada línea con {@link Dinero#formatear(long, StringBuilder)}. */
+    @Benchmark
+    public long lineasCentavos(Blackhole bh) {
+        long total = 0;
+        for (int i = 0; i < lineas; i++) {
+            long subtotal = Dinero.aplicarDescuento(Dinero.multiplicar(preciosCentavos[i], cantidades[i]), descuentosPuntosBase[i]);
+            total += subtotal;
+            texto.setLength(0);
+            bh.consume(Dinero.formatear(preciosCentavos[i], texto.append('$')).length());
+            texto.setLength(0);
+            bh.consume(Dinero.formatear(subtotal, texto.append('$')).length());
+        }
+        texto.setLength(0);
+        bh.consume(Dinero.formatear(total, texto.append("TOTAL CON DESCUENTO: $")).length());
+        return total;
+    }
+}
@@ -0,0 +1,45 @@
+package com.tienda.benchmarks;
+
+import com.tienda.Usuario;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Validación de email del registro ({@link Usuario#esEmailValido(String)}), con direcciones
+ * válidas e inválidas.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EmailBenchmark {
+
+    private final String[] emails = {
+        "ana@correo.com",
+        "juan.perez+tienda@empresa.com.mx",
+        "maria_lopez-99@sub.dominio.org",
+        "sin-arroba.com",
+        "usuario@localhost",
+        "con espacio@correo.com",
+        "",
+        "a@b.c"
+    };
+
+    @Benchmark
+    public void validar(Blackhole bh) {
+        for (String email : emails) {
+            bh.consume(Usuario.esEmailValido(email));
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.tienda.benchmarks;
+
+import com.tienda.Inventario;
+import com.tienda.StockInsuficienteException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Reservas de inventario con contención: 8 hilos apartan y liberan unidades a la vez, todos
+ * sobre el mismo SKU (el peor caso) o repartidos entre 1000 SKUs.
+ * <p>
+ * `sincronizado*` es la referencia: el mismo trabajo con un arreglo de enteros protegido por un
+ * solo monitor, que es lo que se haría sin compare-and-set. El número de hilos se cambia con `-t`.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+public class InventarioBenchmark {
+
+    private static final int SKUS = 1000;
+
+    @State(Scope.Benchmark)
+    public static class Compartido {
+        Inventario inventario;
+        String[] skus;
+        final int[] existencias = new int[SKUS];   // Referencia con monitor.
+
+        @Setup(Level.Trial)
+        public void preparar() {
+            skus = new String[SKUS];
+            int[] unidades = new int[SKUS];
+            for (int i = 0; i < SKUS; i++) {
+                skus[i] = String.format("SKU-%04d", i);
+                unidades[i] = 1_000_000;
+                existencias[i] = 1_000_000;
+            }
+            inventario = new Inventario(skus, unidades, Inventario.VIGENCIA_PREDETERMINADA_MS);
+        }
+
+        synchronized boolean tomarSincronizado(int i, int cantidad) {
+            if (existencias[i] < cantidad) {
+                return false;
+            }
+            existencias[i] -= cantidad;
+            return true;
+        }
+
+        synchronized void devolverSincronizado(int i, int cantidad) {
+            existencias[i] += cantidad;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class PorHilo {
+        int siguiente;
+
+        int sku() {
+            siguiente = (siguiente + 7) % SKUS;
+            return siguiente;
+        }
+    }
+
+    @Benchmark
+    public void mismoSku(Compartido c) throws StockInsuficienteException {
+        c.inventario.reservar(c.skus[0], 1).liberar();
+    }
+
+    @Benchmark
+    public void skusRepartidos(Compartido c, PorHilo h) throws StockInsuficienteException {
+        c.inventario.reservar(c.skus[h.sku()], 1).liberar();
+    }
+
+    @Benchmark
+    public boolean sincronizadoMismoSku(Compartido c) {
+        boolean tomado = c.tomarSincronizado(0, 1);
+        c.devolverSincronizado(0, 1);
+        return tomado;
+    }
+
+    @Benchmark
+    public boolean sincronizadoSkusRepartidos(Compartido c, PorHilo h) {
+        int i = h.sku();
+        boolean tomado = c.tomarSincronizado(i, 1);
+        c.devolverSincronizado(i, 1);
+        return tomado;
+    }
+}
@@ -0,0 +1,50 @@
+package com.tienda.benchmarks;
+
+import com.tienda.BuscadorProductos;
+import com.tienda.CargadorCatalogo;
+import com.tienda.CatalogoRepositorio;
+import com.tienda.Producto;
+import com.tienda.ServicioCatalogo;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Abrir la pantalla del catálogo con el catálogo compartido ({@link ServicioCatalogo}): lo que
+ * hace el constructor de `PantallaCatalogo` en cada apertura, contra cargar e indexar el
+ * catálogo de nuevo, que es lo que cuesta solo la primera.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ServicioCatalogoBenchmark {
+
+    /** Aperturas después de la primera: solo toman referencias al catálogo compartido. */
+    @Benchmark
+    public void abrirCompartido(Blackhole bh) {
+        ServicioCatalogo servicio = ServicioCatalogo.obtener();
+        bh.consume(servicio.getRepositorio());
+        bh.consume(servicio.getBuscador());
+    }
+
+    /** Lo que costaría cada apertura sin catálogo compartido. */
+    @Benchmark
+    public void cargarEIndexar(Blackhole bh) throws IOException {
+        Producto[] catalogo = CargadorCatalogo.cargar();
+        bh.consume(new CatalogoRepositorio(catalogo));
+        bh.consume(new BuscadorProductos(Arrays.asList(catalogo)));
+    }
+}
@@ -0,0 +1,113 @@
+package com.tienda.benchmarks;
+
+import com.tienda.Carrito;
+import com.tienda.Compra;
+import com.tienda.Inventario;
+import com.tienda.MotorPrecios;
+import com.tienda.OyenteCompra;
+import com.tienda.Producto;
+import com.tienda.RegistroAsincrono;
+import com.tienda.ServicioCatalogo;
+import com.tienda.ServicioCompra;
+import com.tienda.Usuario;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Generador de carga sobre {@link ServicioCompra}: 8 hilos hacen sesiones completas a la vez
+ * (registro, tres productos al carrito, un cambio de cantidad y cierre de la compra).
+ * <p>
+ * `bitacora` compara cómo afecta el registro de eventos: `ninguna`, `asincrona` (el
+ * {@link RegistroAsincrono} de la tienda) y `sincronizada`, que escribe cada evento en un
+ * `PrintStream` desde el hilo de la sesión, como hacía antes el carrito con la consola.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+public class ServicioCompraBenchmark {
+
+    private static final int PRODUCTOS = 1000;
+
+    @State(Scope.Benchmark)
+    public static class Tienda {
+        @Param({"ninguna", "asincrona", "sincronizada"})
+        public String bitacora;
+
+        ServicioCompra servicio;
+        Producto[] catalogo;
+        private RegistroAsincrono registro;
+
+        @Setup(Level.Trial)
+        public void preparar() {
+            catalogo = Datos.catalogo(PRODUCTOS);
+            String[] skus = new String[PRODUCTOS];
+            int[] unidades = new int[PRODUCTOS];
+            for (int i = 0; i < PRODUCTOS; i++) {
+                skus[i] = catalogo[i].getSku();
+                unidades[i] = 1_000_000_000;
+            }
+            Inventario inventario = new Inventario(skus, unidades, Inventario.VIGENCIA_PREDETERMINADA_MS);
+            servicio = new ServicioCompra(ServicioCatalogo.de(catalogo, inventario), MotorPrecios.ESTANDAR);
+
+            if (bitacora.equals("asincrona")) {
+                registro = new RegistroAsincrono(Writer.nullWriter(), 8192, true);
+                servicio.agregarOyente(registro);
+            } else if (bitacora.equals("sincronizada")) {
+                PrintStream consola = new PrintStream(OutputStream.nullOutputStream(), true);
+                OyenteCompra directo = evento -> consola.println(evento);
+                servicio.agregarOyente(directo);
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void cerrar() throws IOException {
+            if (registro != null) {
+                registro.close();
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Sesion {
+        int siguiente;
+
+        Producto producto(Tienda t) {
+            siguiente = (siguiente + 13) % PRODUCTOS;
+            return t.catalogo[siguiente];
+        }
+    }
+
+    /** Una sesión completa, de registro a compra. */
+    @Benchmark
+    public Compra sesionCompleta(Tienda t, Sesion s) throws Exception {
+        ServicioCompra servicio = t.servicio;
+        Usuario usuario = servicio.registrar("Cliente de carga", "carga@tienda.com", "Calle 1 #2");
+        Carrito carrito = servicio.nuevoCarrito();
+        Producto primero = s.producto(t);
+        servicio.agregar(carrito, primero, 1);
+        servicio.agregar(carrito, s.producto(t), 2);
+        servicio.agregar(carrito, s.producto(t), 1);
+        servicio.actualizar(carrito, primero.getSku(), 3);
+        return servicio.cerrarCompra(usuario, carrito);
+    }
+}
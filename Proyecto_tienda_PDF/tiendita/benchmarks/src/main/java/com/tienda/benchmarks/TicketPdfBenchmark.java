@@ -0,0 +1,78 @@
+package com.tienda.benchmarks;
+
+import com.tienda.GeneradorPDF;
+import com.tienda.PoolBuffers;
+import com.tienda.Usuario;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Generación del ticket PDF con 10, 100 y 1000 líneas, en memoria (sin escribir archivos).
+ * <p>
+ * `generarReutilizando` usa un generador con las fuentes ya cargadas, como
+ * `GeneradorPDF.generarTicket`; `generarSinCache` crea el generador en cada ticket, que es
+ * lo que se hacía antes de reutilizar fuentes y logo.
+ * <p>
+ * Las fuentes se toman de las propiedades `tienda.fuente.regular` y `tienda.fuente.negrita`;
+ * por omisión se usan las fuentes DejaVu de Linux.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class TicketPdfBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int lineas;
+
+    private String fuenteRegular;
+    private String fuenteNegrita;
+    private GeneradorPDF generador;
+    private PoolBuffers pool;
+    private Usuario usuario;
+    private List<GeneradorPDF.Producto> productos;
+
+    @Setup(Level.Trial)
+    public void preparar() throws IOException {
+        fuenteRegular = System.getProperty("tienda.fuente.regular", "/usr/share/fonts/truetype/dejavu/DejaVuSans.ttf");
+        fuenteNegrita = System.getProperty("tienda.fuente.negrita", "/usr/share/fonts/truetype/dejavu/DejaVuSans-Bold.ttf");
+        if (!new File(fuenteRegular).exists() || !new File(fuenteNegrita).exists()) {
+            throw new IllegalStateException("No se encontraron las fuentes; indique -Dtienda.fuente.regular y -Dtienda.fuente.negrita");
+        }
+        generador = new GeneradorPDF(fuenteRegular, fuenteNegrita, null);
+        pool = new PoolBuffers(64 * 1024, 4);
+        usuario = new Usuario("Ana Lopez", "ana@correo.com", "Calle Falsa 123");
+        productos = Datos.lineasTicket(lineas);
+    }
+
+    @Benchmark
+    public int generarReutilizando() throws IOException {
+        try (PoolBuffers.Salida salida = generador.generarEnBuffer(pool, "City Market", usuario, productos)) {
+            return salida.tamano();
+        }
+    }
+
+    @Benchmark
+    public int generarSinCache() throws IOException {
+        GeneradorPDF nuevo = new GeneradorPDF(fuenteRegular, fuenteNegrita, null);
+        try (PoolBuffers.Salida salida = nuevo.generarEnBuffer(pool, "City Market", usuario, productos)) {
+            return salida.tamano();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.tienda.benchmarks;
+
+import com.tienda.BufferTicket;
+import com.tienda.GeneradorEscPos;
+import com.tienda.GeneradorPDF;
+import com.tienda.GeneradorPDFTermico;
+import com.tienda.PoolBuffers;
+import com.tienda.ProveedorFuentes;
+import com.tienda.Usuario;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Tickets por segundo con 10 y 100 líneas: comandos ESC/POS y PDF de 80 mm escritos en un
+ * `BufferTicket` reutilizado, contra el PDF tamaño carta de `GeneradorPDF` en un búfer del pool.
+ * <p>
+ * Las fuentes del PDF carta salen de `ProveedorFuentes` (propiedades `tienda.fuente.regular` y
+ * `tienda.fuente.negrita`, o las fuentes estándar si no se indican).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class TicketTermicoBenchmark {
+
+    @Param({"10", "100"})
+    public int lineas;
+
+    private GeneradorEscPos escPos;
+    private GeneradorPDFTermico pdfTermico;
+    private GeneradorPDF pdfCarta;
+    private BufferTicket buffer;
+    private PoolBuffers pool;
+    private Usuario usuario;
+    private LocalDateTime fecha;
+    private List<GeneradorPDF.Producto> productos;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        escPos = new GeneradorEscPos();
+        pdfTermico = new GeneradorPDFTermico();
+        pdfCarta = new GeneradorPDF(ProveedorFuentes.desdePropiedades(), null);
+        buffer = new BufferTicket(4 * 1024);
+        pool = new PoolBuffers(64 * 1024, 4);
+        usuario = new Usuario("Ana Lopez", "ana@correo.com", "Calle Falsa 123");
+        fecha = LocalDateTime.now();
+        productos = Datos.lineasTicket(lineas);
+    }
+
+    @Benchmark
+    public int escPos() {
+        escPos.escribir("City Market", usuario, fecha, productos, buffer);
+        return buffer.getTamano();
+    }
+
+    @Benchmark
+    public int pdfTermico() {
+        pdfTermico.escribir("City Market", usuario, fecha, productos, buffer);
+        return buffer.getTamano();
+    }
+
+    @Benchmark
+    public int pdfCarta() throws IOException {
+        try (PoolBuffers.Salida salida = pdfCarta.generarEnBuffer(pool, "City Market", usuario, productos)) {
+            return salida.tamano();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.tienda;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * La clase `AgrupadorTicket` convierte las líneas de una compra en un {@link TicketAgrupado}:
+ * junta las líneas de la misma categoría/subcategoría aunque no estén seguidas en el carrito y
+ * suma los subtotales de cada línea, de cada grupo y del ticket.
+ * <p>
+ * Todo se hace en una sola pasada. El grupo de cada línea se encuentra con el número de su par
+ * categoría/subcategoría ({@link IdsCategoria}), que el producto ya trae, como índice de un
+ * arreglo; no se comparan cadenas. El agrupador y el ticket se reutilizan, así que después de los
+ * primeros tickets no se reserva memoria.
+ * <p>
+ * No es seguro entre hilos: cada hilo usa su propio agrupador.
+ */
+public final class AgrupadorTicket {
+    private int[] grupoPorId = new int[0];      // Índice del grupo de cada par en el ticket en curso, o -1.
+
+    /**
+     * Agrupa las líneas de una instantánea del carrito, con los descuentos de su motor de precios.
+     *
+     * @param carrito Las líneas que se cobran.
+     * @param destino Ticket donde se escribe el resultado (se vacía antes).
+     * @return El mismo `destino`.
+     */
+    public TicketAgrupado agrupar(Carrito.Instantanea carrito, TicketAgrupado destino) {
+        MotorPrecios motor = carrito.getMotorPrecios();
+        int n = carrito.getContador();
+        preparar(destino, n);
+        for (int i = 0; i < n; i++) {
+            Producto p = carrito.linea(i);
+            int grupo = grupo(p.idCategoria(), p.getCategoria(), p.getSubcategoria(), destino);
+            destino.agregarLinea(grupo, p.getNombre(), p.getStock(), p.getPrecioCentavos(), motor.descuento(p),
+                motor.subtotal(p));
+        }
+        return terminar(destino);
+    }
+
+    /**
+     * Agrupa las líneas del ticket PDF, con el descuento que ya trae cada una.
+     *
+     * @param productos Las líneas del ticket.
+     * @param destino   Ticket donde se escribe el resultado (se vacía antes).
+     * @return El mismo `destino`.
+     */
+    public TicketAgrupado agrupar(List<GeneradorPDF.Producto> productos, TicketAgrupado destino) {
+        int n = productos.size();
+        preparar(destino, n);
+        for (int i = 0; i < n; i++) {
+            GeneradorPDF.Producto p = productos.get(i);
+            int grupo = grupo(p.idCategoria(), p.categoria, p.subcategoria, destino);
+            destino.agregarLinea(grupo, p.nombre, p.cantidadEntera(), p.precioCentavos, p.descuentoPuntosBase,
+                p.subtotal());
+        }
+        return terminar(destino);
+    }
+
+    /**
+     * Atajo para agrupar una sola vez, con un agrupador y un ticket nuevos.
+     *
+     * @param productos Las líneas del ticket.
+     * @return El ticket agrupado.
+     */
+    public static TicketAgrupado de(List<GeneradorPDF.Producto> productos) {
+        return new AgrupadorTicket().agrupar(productos, new TicketAgrupado());
+    }
+
+    private void preparar(TicketAgrupado destino, int lineas) {
+        destino.reiniciar(lineas);
+        int ids = IdsCategoria.cantidad();
+        if (grupoPorId.length < ids) {
+            int anterior = grupoPorId.length;
+            grupoPorId = Arrays.copyOf(grupoPorId, Math.max(ids, anterior * 2));
+            Arrays.fill(grupoPorId, anterior, grupoPorId.length, -1);
+        }
+    }
+
+    /**
+     * Devuelve el grupo del par, creándolo si es su primera línea en este ticket.
+     */
+    private int grupo(int id, String categoria, String subcategoria, TicketAgrupado destino) {
+        if (id >= grupoPorId.length) {
+            // Un par nuevo que apareció después de preparar (otro hilo lo registró).
+            int anterior = grupoPorId.length;
+            grupoPorId = Arrays.copyOf(grupoPorId, Math.max(id + 1, anterior * 2));
+            Arrays.fill(grupoPorId, anterior, grupoPorId.length, -1);
+        }
+        int grupo = grupoPorId[id];
+        if (grupo < 0) {
+            grupo = destino.agregarGrupo(id, categoria, subcategoria);
+            grupoPorId[id] = grupo;
+        }
+        return grupo;
+    }
+
+    /**
+     * Deja el arreglo de grupos en -1 para el siguiente ticket, tocando solo los pares usados.
+     */
+    private TicketAgrupado terminar(TicketAgrupado destino) {
+        for (int g = 0; g < destino.getGrupos(); g++) {
+            grupoPorId[destino.idGrupo(g)] = -1;
+        }
+        return destino;
+    }
+}
@@ -0,0 +1,568 @@
+package com.tienda;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * La clase `AlmacenSesiones` guarda las sesiones de los clientes por id, con un ciclo de vida:
+ * <ul>
+ *   <li>Una sesión que no se usa durante el tiempo de inactividad se retira y su carrito devuelve
+ *       las unidades apartadas al inventario.</li>
+ *   <li>La memoria que ocupan todas las sesiones tiene un tope. Se estima por sesión y por línea
+ *       de carrito; cuando se pasa del tope se retiran las sesiones usadas hace más tiempo (LRU)
+ *       hasta quedar en el 90%.</li>
+ *   <li>Opcionalmente, las sesiones retiradas por falta de memoria se escriben en un directorio
+ *       (usuario y líneas del carrito) y se restauran si el cliente vuelve antes de que venzan.
+ *       La última compra no se guarda.</li>
+ * </ul>
+ * <p>
+ * Las sesiones están en un `ConcurrentHashMap` y cada uso solo actualiza la hora de acceso de la
+ * sesión, sin cerrojos. En lugar de mantener una lista LRU ordenada en cada acceso (que
+ * serializaría a todas las peticiones), el orden se calcula solo al recortar: se ordenan las
+ * sesiones por último acceso y se retiran las más viejas. El tope se revisa al crear sesiones,
+ * al soltar una sesión (que vuelve a medir su carrito, ya con lo que agregó la petición) y en
+ * cada limpieza periódica. Una sesión que alguna petición está usando (ver {@link #usar(String)})
+ * no se desaloja aunque sea la más vieja, ni vence mientras la petición no termine.
+ * <p>
+ * La configuración se puede tomar de las propiedades del sistema con {@link #desdePropiedades}.
+ */
+public final class AlmacenSesiones {
+    // Propiedades del sistema: minutos de inactividad, megabytes de tope y directorio de desborde.
+    public static final String PROPIEDAD_INACTIVIDAD = "tienda.sesiones.inactividad";
+    public static final String PROPIEDAD_MEMORIA = "tienda.sesiones.memoria";
+    public static final String PROPIEDAD_DESBORDE = "tienda.sesiones.desborde";
+
+    public static final long INACTIVIDAD_PREDETERMINADA_MS = TimeUnit.MINUTES.toMillis(30);
+    public static final long MEMORIA_PREDETERMINADA = 64L * 1024 * 1024;
+
+    private static final String EXTENSION = ".sesion";
+
+    private final ServicioCompra servicio;
+    private final long inactividadNanos;
+    private final long memoriaMaxima;
+    private final Path desborde;                                  // null si no se escribe a disco.
+    private final Map<String, Sesion> sesiones = new ConcurrentHashMap<>();
+    private final AtomicLong memoria = new AtomicLong();         // Suma de `bytesContados`.
+    private final ReentrantLock mantenimiento = new ReentrantLock(); // Retiros y recuentos de memoria.
+    private final Map<String, Object> cerrojos = new ConcurrentHashMap<>(); // Por id, al escribir o restaurar.
+    private final SecureRandom aleatorio = new SecureRandom();
+    private ScheduledExecutorService limpiador;
+
+    // Métricas acumuladas.
+    private final AtomicLong creadas = new AtomicLong();
+    private final AtomicLong expiradas = new AtomicLong();
+    private final AtomicLong desalojadas = new AtomicLong();
+    private final AtomicLong escritasADisco = new AtomicLong();
+    private final AtomicLong restauradas = new AtomicLong();
+
+    /**
+     * Constructor del almacén.
+     *
+     * @param servicio       Servicio de compra que crea los carritos y resuelve los productos al restaurar.
+     * @param inactividadMs  Tiempo sin uso tras el cual se retira una sesión.
+     * @param memoriaMaxima  Memoria estimada máxima de todas las sesiones, en bytes.
+     * @param desborde       Directorio donde escribir las sesiones desalojadas, o null para descartarlas.
+     * @throws IOException Si no se puede crear el directorio de desborde.
+     */
+    public AlmacenSesiones(ServicioCompra servicio, long inactividadMs, long memoriaMaxima, Path desborde) throws IOException {
+        this.servicio = servicio;
+        this.inactividadNanos = TimeUnit.MILLISECONDS.toNanos(inactividadMs);
+        this.memoriaMaxima = memoriaMaxima;
+        this.desborde = desborde;
+        if (desborde != null) {
+            Files.createDirectories(desborde);
+        }
+    }
+
+    /**
+     * Crea un almacén con la configuración de las propiedades `tienda.sesiones.inactividad`
+     * (minutos, 30 si no se indica), `tienda.sesiones.memoria` (megabytes, 64) y
+     * `tienda.sesiones.desborde` (directorio; sin él no se escribe a disco).
+     *
+     * @param servicio Servicio de compra de las sesiones.
+     * @return El almacén configurado.
+     * @throws IOException Si no se puede crear el directorio de desborde.
+     */
+    public static AlmacenSesiones desdePropiedades(ServicioCompra servicio) throws IOException {
+        String minutos = System.getProperty(PROPIEDAD_INACTIVIDAD);
+        String megas = System.getProperty(PROPIEDAD_MEMORIA);
+        String directorio = System.getProperty(PROPIEDAD_DESBORDE);
+        return new AlmacenSesiones(servicio,
+            minutos != null ? TimeUnit.MINUTES.toMillis(Long.parseLong(minutos)) : INACTIVIDAD_PREDETERMINADA_MS,
+            megas != null ? Long.parseLong(megas) * 1024 * 1024 : MEMORIA_PREDETERMINADA,
+            directorio != null && !directorio.isEmpty() ? Paths.get(directorio) : null);
+    }
+
+    // --- Sesiones ---
+
+    /**
+     * Crea una sesión nueva, con un id aleatorio y un carrito vacío.
+     * Si con ella se pasa del tope de memoria, antes se desalojan las sesiones más viejas.
+     *
+     * @return La sesión creada.
+     */
+    public Sesion crear() {
+        return crear(0);
+    }
+
+    private Sesion crear(int enUso) {
+        Sesion sesion = new Sesion(nuevoId(), servicio.nuevoCarrito(), System.nanoTime());
+        sesion.enUso.set(enUso);
+        sesion.bytesContados = sesion.bytesEstimados();
+        sesiones.put(sesion.getId(), sesion);
+        creadas.incrementAndGet();
+        if (memoria.addAndGet(sesion.bytesContados) > memoriaMaxima) {
+            recortar();
+        }
+        return sesion;
+    }
+
+    /**
+     * Obtiene una sesión y la marca como usada. Si estaba escrita en disco, la restaura.
+     *
+     * @param id Id de la sesión (por ejemplo, el de una cookie); puede ser cualquier texto.
+     * @return La sesión, o null si no existe o ya venció.
+     */
+    public Sesion obtener(String id) {
+        if (id == null) {
+            return null;
+        }
+        Sesion sesion = sesiones.get(id);
+        if (sesion == null) {
+            if (desborde == null || !esIdValido(id)) {
+                return null;
+            }
+            sesion = restaurar(id);
+            if (sesion == null) {
+                return null;
+            }
+        }
+        sesion.ultimoAcceso = System.nanoTime();
+        return sesion;
+    }
+
+    /**
+     * Obtiene la sesión indicada, o crea una nueva si no existe, y la marca como en uso: mientras
+     * no se llame a {@link #soltar(Sesion)} el tope de memoria no la desaloja. El servidor la usa
+     * al principio de cada petición y la suelta al terminarla.
+     *
+     * @param id Id de la sesión, o null.
+     * @return La sesión en uso; si su id no es el pedido, es una sesión nueva.
+     */
+    public Sesion usar(String id) {
+        while (true) {
+            Sesion sesion = obtener(id);
+            if (sesion == null) {
+                return crear(1);
+            }
+            sesion.enUso.incrementAndGet();
+            // Si se desalojó entre obtenerla y marcarla, se suelta y se vuelve a buscar (quizá en disco).
+            if (sesiones.get(id) == sesion) {
+                return sesion;
+            }
+            sesion.enUso.decrementAndGet();
+        }
+    }
+
+    /**
+     * Termina un uso de {@link #usar(String)}; la sesión vuelve a poder desalojarse. Su carrito
+     * se vuelve a medir, y si con lo que agregó se pasa del tope se desalojan las más viejas.
+     *
+     * @param sesion Sesión que se estaba usando.
+     */
+    public void soltar(Sesion sesion) {
+        sesion.ultimoAcceso = System.nanoTime();
+        mantenimiento.lock();
+        try {
+            // Una sesión que ya se retiró no se vuelve a sumar: `liberar` ya descontó lo suyo.
+            if (sesiones.get(sesion.getId()) == sesion) {
+                medir(sesion);
+            }
+        } finally {
+            mantenimiento.unlock();
+        }
+        sesion.enUso.decrementAndGet();
+        if (memoria.get() > memoriaMaxima) {
+            recortar();
+        }
+    }
+
+    /**
+     * Retira una sesión (por ejemplo, al cerrar sesión) y devuelve las unidades de su carrito.
+     *
+     * @param id Id de la sesión.
+     * @return true si la sesión existía.
+     */
+    public boolean cerrar(String id) {
+        Sesion sesion = id != null ? sesiones.get(id) : null;
+        if (desborde != null && id != null && esIdValido(id)) {
+            borrarArchivo(id);
+        }
+        return sesion != null && retirar(sesion);
+    }
+
+    // --- Mantenimiento ---
+
+    /**
+     * Retira las sesiones que llevan más tiempo sin usarse que el tiempo de inactividad, salvo las
+     * que alguna petición está usando, y borra del disco las que vencieron allí. De paso vuelve a
+     * medir los carritos y recorta si hace falta.
+     * Lo llama el hilo de {@link #iniciarLimpieza()}; también se puede llamar directamente.
+     *
+     * @return Las sesiones retiradas por inactividad.
+     */
+    public int expirarInactivas() {
+        long ahora = System.nanoTime();
+        int retiradas = 0;
+        mantenimiento.lock();
+        try {
+            for (Sesion sesion : sesiones.values()) {
+                if (ahora - sesion.ultimoAcceso >= inactividadNanos && retirarLibre(sesion, false)) {
+                    expiradas.incrementAndGet();
+                    retiradas++;
+                } else if (sesiones.get(sesion.getId()) == sesion) {
+                    medir(sesion);
+                }
+            }
+        } finally {
+            mantenimiento.unlock();
+        }
+        if (desborde != null) {
+            expirarEnDisco();
+        }
+        if (memoria.get() > memoriaMaxima) {
+            recortar();
+        }
+        return retiradas;
+    }
+
+    /**
+     * Desaloja las sesiones usadas hace más tiempo hasta que la memoria estimada quede en el 90%
+     * del tope. Las que están en uso se saltan. Si hay directorio de desborde, cada una se escribe
+     * en disco después de quitarla del mapa.
+     *
+     * @return Las sesiones desalojadas.
+     */
+    public int recortar() {
+        // Si otro hilo ya está recortando, este no espera: el otro dejará la memoria bajo el tope.
+        if (!mantenimiento.tryLock()) {
+            return 0;
+        }
+        int retiradas = 0;
+        try {
+            long objetivo = memoriaMaxima / 10 * 9;
+            if (memoria.get() <= objetivo) {
+                return 0;
+            }
+            List<Sesion> porAntiguedad = new ArrayList<>(sesiones.values());
+            // Se copia la hora de acceso para ordenar con valores fijos aunque otras peticiones la cambien.
+            long[] accesos = new long[porAntiguedad.size()];
+            Integer[] orden = new Integer[accesos.length];
+            for (int i = 0; i < accesos.length; i++) {
+                accesos[i] = porAntiguedad.get(i).ultimoAcceso;
+                orden[i] = i;
+            }
+            Arrays.sort(orden, Comparator.comparingLong(i -> accesos[i]));
+            for (int i = 0; i < orden.length && memoria.get() > objetivo; i++) {
+                if (desalojar(porAntiguedad.get(orden[i]))) {
+                    desalojadas.incrementAndGet();
+                    retiradas++;
+                }
+            }
+        } finally {
+            mantenimiento.unlock();
+        }
+        return retiradas;
+    }
+
+    /**
+     * Inicia un hilo en segundo plano que hace {@link #expirarInactivas()} cada segundo.
+     * Llamarlo más de una vez no tiene efecto.
+     */
+    public synchronized void iniciarLimpieza() {
+        if (limpiador != null) {
+            return;
+        }
+        limpiador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread hilo = new Thread(r, "limpieza-sesiones");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        limpiador.scheduleWithFixedDelay(this::expirarInactivas, 1, 1, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Detiene el hilo de limpieza, si se inició.
+     */
+    public synchronized void detenerLimpieza() {
+        if (limpiador != null) {
+            limpiador.shutdownNow();
+            limpiador = null;
+        }
+    }
+
+    /**
+     * Quita la sesión del mapa y devuelve al inventario lo que apartaba su carrito.
+     * Solo el hilo que la quita ajusta la memoria.
+     */
+    private boolean retirar(Sesion sesion) {
+        if (!sesiones.remove(sesion.getId(), sesion)) {
+            return false;
+        }
+        liberar(sesion);
+        return true;
+    }
+
+    /**
+     * Retira una sesión por falta de memoria, salvo que una petición la esté usando.
+     */
+    private boolean desalojar(Sesion sesion) {
+        return retirarLibre(sesion, desborde != null);
+    }
+
+    /**
+     * Retira una sesión salvo que una petición la esté usando, y opcionalmente la escribe en disco.
+     * Se quita del mapa antes de escribirla, y todo con el cerrojo de su id, para que una
+     * restauración no lea el archivo a medias ni quede la misma sesión en memoria y en disco.
+     */
+    private boolean retirarLibre(Sesion sesion, boolean aDisco) {
+        if (sesion.enUso.get() > 0) {
+            return false;
+        }
+        return conCerrojo(sesion.getId(), () -> {
+            if (!sesiones.remove(sesion.getId(), sesion)) {
+                return false;
+            }
+            if (sesion.enUso.get() > 0) {
+                // Una petición la tomó mientras se quitaba: vuelve al mapa (`usar` la buscará otra vez).
+                sesiones.put(sesion.getId(), sesion);
+                return false;
+            }
+            if (aDisco) {
+                escribir(sesion);
+            }
+            liberar(sesion);
+            return true;
+        });
+    }
+
+    /**
+     * Ajusta la memoria a lo que ocupa ahora el carrito de la sesión. Se llama con `mantenimiento`.
+     */
+    private void medir(Sesion sesion) {
+        long medida = sesion.bytesEstimados();
+        memoria.addAndGet(medida - sesion.bytesContados);
+        sesion.bytesContados = medida;
+    }
+
+    /**
+     * Descuenta la memoria de una sesión ya quitada del mapa y devuelve su carrito al inventario.
+     */
+    private void liberar(Sesion sesion) {
+        mantenimiento.lock();   // `bytesContados` solo se toca con este cerrojo.
+        try {
+            memoria.addAndGet(-sesion.bytesContados);
+        } finally {
+            mantenimiento.unlock();
+        }
+        sesion.getCarrito().vaciarCarrito();
+    }
+
+    /**
+     * Ejecuta la acción con el cerrojo del id. El cerrojo se quita del mapa al terminar; quien lo
+     * estaba esperando ve que ya no es el vigente y toma el nuevo, así nunca hay dos a la vez.
+     */
+    private <T> T conCerrojo(String id, Supplier<T> accion) {
+        while (true) {
+            Object cerrojo = cerrojos.computeIfAbsent(id, k -> new Object());
+            synchronized (cerrojo) {
+                if (cerrojos.get(id) != cerrojo) {
+                    continue;
+                }
+                try {
+                    return accion.get();
+                } finally {
+                    cerrojos.remove(id, cerrojo);
+                }
+            }
+        }
+    }
+
+    // --- Métricas ---
+
+    /** @return Sesiones en memoria. */
+    public int getVivas() { return sesiones.size(); }
+    /** @return Memoria estimada de las sesiones en memoria, en bytes. */
+    public long getMemoriaEstimada() { return memoria.get(); }
+    /** @return Tope de memoria, en bytes. */
+    public long getMemoriaMaxima() { return memoriaMaxima; }
+    /** @return Sesiones creadas desde el inicio. */
+    public long getCreadas() { return creadas.get(); }
+    /** @return Sesiones retiradas por inactividad. */
+    public long getExpiradas() { return expiradas.get(); }
+    /** @return Sesiones desalojadas por el tope de memoria. */
+    public long getDesalojadas() { return desalojadas.get(); }
+    /** @return Sesiones escritas en disco al desalojarse. */
+    public long getEscritasADisco() { return escritasADisco.get(); }
+    /** @return Sesiones restauradas desde disco. */
+    public long getRestauradas() { return restauradas.get(); }
+
+    // --- Disco ---
+
+    /**
+     * Escribe el usuario y las líneas del carrito, una por renglón y separadas por tabuladores.
+     */
+    private void escribir(Sesion sesion) {
+        Carrito.Instantanea carrito = sesion.getCarrito().instantanea();
+        Usuario usuario = sesion.getUsuario();
+        if (carrito.estaVacio() && usuario == null) {
+            return;     // No hay nada que valga la pena conservar.
+        }
+        Path archivo = desborde.resolve(sesion.getId() + EXTENSION);
+        try (BufferedWriter salida = Files.newBufferedWriter(archivo, StandardCharsets.UTF_8)) {
+            if (usuario != null) {
+                salida.write("usuario\t" + limpiar(usuario.getNombre()) + "\t" + limpiar(usuario.getEmail())
+                    + "\t" + limpiar(usuario.getDireccion()));
+                salida.newLine();
+            }
+            for (Producto p : carrito.getProductos()) {
+                salida.write(p.getSku() + "\t" + p.getStock());
+                salida.newLine();
+            }
+            escritasADisco.incrementAndGet();
+        } catch (IOException e) {
+            // Sin disco la sesión se descarta, igual que si no hubiera desborde.
+            borrarArchivo(sesion.getId());
+        }
+    }
+
+    /**
+     * Lee una sesión escrita en disco, la vuelve a poner en memoria y borra el archivo. Las líneas
+     * vuelven a apartar sus unidades; las que ya no tienen existencias se pierden. Solo se bloquea
+     * el id que se restaura, no todo el almacén.
+     */
+    private Sesion restaurar(String id) {
+        Sesion sesion = conCerrojo(id, () -> leer(id));
+        if (sesion != null && memoria.get() > memoriaMaxima) {
+            recortar();
+        }
+        return sesion;
+    }
+
+    private Sesion leer(String id) {
+        Sesion existente = sesiones.get(id);
+        if (existente != null) {
+            return existente;   // Otro hilo la restauró mientras este esperaba.
+        }
+        Path archivo = desborde.resolve(id + EXTENSION);
+        List<String> renglones;
+        try (BufferedReader entrada = Files.newBufferedReader(archivo, StandardCharsets.UTF_8)) {
+            renglones = new ArrayList<>();
+            for (String renglon; (renglon = entrada.readLine()) != null; ) {
+                renglones.add(renglon);
+            }
+        } catch (IOException e) {      // Incluye NoSuchFileException: no hay sesión con ese id.
+            return null;
+        }
+        borrarArchivo(id);
+
+        Sesion sesion = new Sesion(id, servicio.nuevoCarrito(), System.nanoTime());
+        for (String renglon : renglones) {
+            String[] campos = renglon.split("\t", -1);
+            if (campos[0].equals("usuario") && campos.length == 4) {
+                sesion.setUsuario(new Usuario(campos[1], campos[2], campos[3]));
+            } else if (campos.length == 2) {
+                Producto p = servicio.producto(campos[0]);
+                if (p == null) {
+                    continue;
+                }
+                try {
+                    sesion.getCarrito().agregarProducto(p.conCantidad(Integer.parseInt(campos[1])));
+                } catch (CantidadInvalidaException | IllegalArgumentException e) {
+                    // La línea ya no se puede apartar (o el archivo está dañado): se omite.
+                }
+            }
+        }
+        sesion.bytesContados = sesion.bytesEstimados();
+        sesiones.put(id, sesion);
+        restauradas.incrementAndGet();
+        memoria.addAndGet(sesion.bytesContados);
+        return sesion;
+    }
+
+    /**
+     * Borra los archivos de sesiones que vencieron en disco.
+     */
+    private void expirarEnDisco() {
+        long limite = System.currentTimeMillis() - TimeUnit.NANOSECONDS.toMillis(inactividadNanos);
+        try (DirectoryStream<Path> archivos = Files.newDirectoryStream(desborde, "*" + EXTENSION)) {
+            for (Path archivo : archivos) {
+                if (Files.getLastModifiedTime(archivo).toMillis() < limite) {
+                    Files.deleteIfExists(archivo);
+                }
+            }
+        } catch (IOException e) {
+            // Se intentará en la siguiente limpieza.
+        }
+    }
+
+    private void borrarArchivo(String id) {
+        try {
+            Files.deleteIfExists(desborde.resolve(id + EXTENSION));
+        } catch (IOException e) {
+            // Si no se puede borrar, vencerá en una limpieza posterior.
+        }
+    }
+
+    private static String limpiar(String texto) {
+        return texto.replace('\t', ' ').replace('\n', ' ').replace('\r', ' ');
+    }
+
+    // --- Ids ---
+
+    private String nuevoId() {
+        byte[] bytes = new byte[16];
+        aleatorio.nextBytes(bytes);
+        StringBuilder sb = new StringBuilder(32);
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Solo un id con la forma de los que genera el almacén puede convertirse en nombre de archivo;
+     * así una cookie manipulada no puede apuntar fuera del directorio de desborde.
+     */
+    private static boolean esIdValido(String id) {
+        if (id.length() != 32) {
+            return false;
+        }
+        for (int i = 0; i < id.length(); i++) {
+            char c = id.charAt(i);
+            if ((c < '0' || c > '9') && (c < 'a' || c > 'f')) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
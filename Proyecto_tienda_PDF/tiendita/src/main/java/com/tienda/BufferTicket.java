@@ -0,0 +1,228 @@
+package com.tienda;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * La clase `BufferTicket` es un arreglo de bytes que crece según se necesita y se reutiliza de un
+ * ticket a otro: {@link #reiniciar()} solo regresa la posición a cero, así que después de los
+ * primeros tickets ya no se reserva memoria.
+ * <p>
+ * Los generadores de tickets térmicos escriben aquí los comandos de la impresora o el PDF. Los
+ * números se escriben dígito por dígito, sin pasar por `String`. No es seguro entre hilos: cada
+ * hilo usa su propio búfer.
+ */
+public final class BufferTicket {
+    private byte[] datos;
+    private int tamano;
+
+    /**
+     * @param capacidadInicial Bytes reservados al inicio; el búfer crece al doble si no alcanzan.
+     */
+    public BufferTicket(int capacidadInicial) {
+        if (capacidadInicial <= 0) {
+            throw new IllegalArgumentException("Error: La capacidad debe ser mayor a 0.");
+        }
+        this.datos = new byte[capacidadInicial];
+    }
+
+    /**
+     * Vacía el búfer para el siguiente ticket, conservando la memoria.
+     */
+    public void reiniciar() {
+        tamano = 0;
+    }
+
+    private void asegurar(int adicional) {
+        if (datos.length - tamano < adicional) {
+            datos = Arrays.copyOf(datos, Math.max(tamano + adicional, datos.length * 2));
+        }
+    }
+
+    /**
+     * Agrega un byte.
+     *
+     * @param b El byte (se toman los 8 bits bajos).
+     */
+    public void agregar(int b) {
+        asegurar(1);
+        datos[tamano++] = (byte) b;
+    }
+
+    /**
+     * Agrega bytes.
+     *
+     * @param b Los bytes a copiar.
+     */
+    public void agregar(byte[] b) {
+        asegurar(b.length);
+        System.arraycopy(b, 0, datos, tamano, b.length);
+        tamano += b.length;
+    }
+
+    /**
+     * Agrega un texto ASCII (sintaxis de PDF, comandos): cada carácter se escribe como un byte.
+     *
+     * @param texto Texto con caracteres ASCII.
+     */
+    public void agregarAscii(String texto) {
+        int largo = texto.length();
+        asegurar(largo);
+        for (int i = 0; i < largo; i++) {
+            datos[tamano++] = (byte) texto.charAt(i);
+        }
+    }
+
+    /**
+     * Agrega un entero en decimal.
+     *
+     * @param valor El número.
+     */
+    public void agregarEntero(long valor) {
+        if (valor < 0) {
+            agregar('-');
+            if (valor == Long.MIN_VALUE) {
+                // Su negativo no cabe en un long: se escriben aparte los demás dígitos y el último.
+                agregarEntero(-(valor / 10));
+                agregar('0' - (int) (valor % 10));
+                return;
+            }
+            valor = -valor;
+        }
+        int digitos = digitos(valor);
+        asegurar(digitos);
+        tamano += digitos;
+        escribirDigitos(tamano, valor);
+    }
+
+    /**
+     * Agrega un entero no negativo con ceros a la izquierda hasta completar el ancho indicado.
+     *
+     * @param valor El número.
+     * @param ancho Número mínimo de dígitos.
+     */
+    public void agregarEntero(long valor, int ancho) {
+        int digitos = Math.max(digitos(valor), ancho);
+        asegurar(digitos);
+        Arrays.fill(datos, tamano, tamano + digitos, (byte) '0');
+        tamano += digitos;
+        escribirDigitos(tamano, valor);
+    }
+
+    /**
+     * Agrega una cantidad en centésimas con dos decimales: 24560 se escribe "245.60".
+     *
+     * @param centesimas La cantidad, no negativa.
+     */
+    public void agregarCentesimas(long centesimas) {
+        agregarEntero(centesimas / 100);
+        agregar('.');
+        agregar('0' + (int) (centesimas / 10 % 10));
+        agregar('0' + (int) (centesimas % 10));
+    }
+
+    /**
+     * Reserva un espacio que se llenará después con {@link #rellenarEntero} o
+     * {@link #rellenarCentesimas}, cuando se conozca el valor (una longitud, una altura).
+     * Mientras tanto contiene espacios.
+     *
+     * @param ancho Número de bytes reservados.
+     * @return La posición del espacio reservado.
+     */
+    public int reservar(int ancho) {
+        asegurar(ancho);
+        int posicion = tamano;
+        Arrays.fill(datos, posicion, posicion + ancho, (byte) ' ');
+        tamano += ancho;
+        return posicion;
+    }
+
+    /**
+     * Escribe un entero no negativo en un espacio reservado, alineado a la derecha.
+     *
+     * @param posicion Posición devuelta por {@link #reservar}.
+     * @param ancho    Ancho reservado.
+     * @param valor    El número.
+     * @throws IllegalArgumentException Si el número no cabe en el espacio.
+     */
+    public void rellenarEntero(int posicion, int ancho, long valor) {
+        if (valor < 0 || digitos(valor) > ancho) {
+            throw new IllegalArgumentException("Error: El valor " + valor + " no cabe en " + ancho + " posiciones.");
+        }
+        escribirDigitos(posicion + ancho, valor);
+    }
+
+    /**
+     * Escribe una cantidad en centésimas ("245.60") en un espacio reservado, alineada a la derecha.
+     *
+     * @param posicion   Posición devuelta por {@link #reservar}.
+     * @param ancho      Ancho reservado.
+     * @param centesimas La cantidad, no negativa.
+     * @throws IllegalArgumentException Si la cantidad no cabe en el espacio.
+     */
+    public void rellenarCentesimas(int posicion, int ancho, long centesimas) {
+        if (centesimas < 0 || digitos(centesimas / 100) + 3 > ancho) {
+            throw new IllegalArgumentException("Error: El valor " + centesimas + " no cabe en " + ancho + " posiciones.");
+        }
+        int fin = posicion + ancho;
+        datos[fin - 1] = (byte) ('0' + centesimas % 10);
+        datos[fin - 2] = (byte) ('0' + centesimas / 10 % 10);
+        datos[fin - 3] = '.';
+        escribirDigitos(fin - 3, centesimas / 100);
+    }
+
+    /**
+     * Escribe los dígitos de un valor no negativo terminando justo antes de `fin`.
+     */
+    private void escribirDigitos(int fin, long valor) {
+        do {
+            datos[--fin] = (byte) ('0' + valor % 10);
+            valor /= 10;
+        } while (valor > 0);
+    }
+
+    private static int digitos(long valor) {
+        int digitos = 1;
+        while (valor >= 10) {
+            valor /= 10;
+            digitos++;
+        }
+        return digitos;
+    }
+
+    /**
+     * @return El número de bytes escritos.
+     */
+    public int getTamano() {
+        return tamano;
+    }
+
+    /**
+     * @return Una copia de los bytes escritos.
+     */
+    public byte[] copia() {
+        return Arrays.copyOf(datos, tamano);
+    }
+
+    /**
+     * Vista de los bytes escritos, sin copiarlos, para enviarlos a un canal. Es válida hasta que
+     * el búfer se reinicia o vuelve a crecer.
+     *
+     * @return Un búfer de solo lectura con posición 0 y límite igual al número de bytes escritos.
+     */
+    public ByteBuffer contenido() {
+        return ByteBuffer.wrap(datos, 0, tamano).asReadOnlyBuffer();
+    }
+
+    /**
+     * Escribe los bytes en un flujo (la impresora, un socket, un archivo). El flujo no se cierra.
+     *
+     * @param salida El flujo de destino.
+     * @throws IOException Si el flujo falla.
+     */
+    public void escribirEn(OutputStream salida) throws IOException {
+        salida.write(datos, 0, tamano);
+    }
+}
@@ -0,0 +1,277 @@
+package com.tienda;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * La clase `BuscadorProductos` implementa un índice invertido en memoria sobre el nombre,
+ * la categoría y la subcategoría de los productos del catálogo.
+ * <p>
+ * Características:
+ * <ul>
+ *   <li>Los textos se normalizan sin acentos ni mayúsculas, así "Lácteos" y "lacteos" son iguales.</li>
+ *   <li>Cada palabra de la consulta puede ser el inicio de una palabra indexada, lo que permite
+ *       buscar mientras se escribe ("cho" encuentra "Chocolate" y "Chokiees").</li>
+ *   <li>Todas las palabras de la consulta deben coincidir; los resultados se ordenan por
+ *       relevancia: coincidir en el nombre pesa más que en la subcategoría, y ésta más que en la
+ *       categoría; una palabra completa pesa más que un prefijo.</li>
+ * </ul>
+ * Los términos se guardan ordenados, por lo que un prefijo se resuelve con una búsqueda
+ * binaria y un recorrido de las listas de coincidencias, sin tocar el resto del catálogo.
+ * El índice es inmutable y puede consultarse desde varios hilos a la vez.
+ */
+public class BuscadorProductos {
+    // Peso de cada campo en la relevancia.
+    private static final int PESO_CATEGORIA = 1;
+    private static final int PESO_SUBCATEGORIA = 2;
+    private static final int PESO_NOMBRE = 3;
+
+    private final Producto[] productos;   // Productos indexados; su posición es su identificador.
+    private final String[] terminos;      // Términos normalizados, ordenados alfabéticamente.
+    private final int[][] coincidencias;  // Por término: pares (id << 2 | peso) ordenados por id.
+
+    // Espacios de trabajo libres; se reutilizan entre consultas para no reservar memoria por producto.
+    private final Queue<Trabajo> trabajosLibres = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Constructor que construye el índice a partir de una lista de productos.
+     *
+     * @param lista Productos a indexar.
+     */
+    public BuscadorProductos(List<Producto> lista) {
+        this.productos = lista.toArray(new Producto[0]);
+
+        // Término -> (id -> mayor peso de campo en que aparece el término).
+        TreeMap<String, Map<Integer, Integer>> invertido = new TreeMap<>();
+        for (int id = 0; id < productos.length; id++) {
+            Producto p = productos[id];
+            indexar(invertido, id, p.getCategoria(), PESO_CATEGORIA);
+            indexar(invertido, id, p.getSubcategoria(), PESO_SUBCATEGORIA);
+            indexar(invertido, id, p.getNombre(), PESO_NOMBRE);
+        }
+
+        this.terminos = new String[invertido.size()];
+        this.coincidencias = new int[invertido.size()][];
+        int t = 0;
+        for (Map.Entry<String, Map<Integer, Integer>> entrada : invertido.entrySet()) {
+            int[] ids = new int[entrada.getValue().size()];
+            int i = 0;
+            for (Map.Entry<Integer, Integer> c : entrada.getValue().entrySet()) {
+                ids[i++] = (c.getKey() << 2) | c.getValue();
+            }
+            Arrays.sort(ids);
+            terminos[t] = entrada.getKey();
+            coincidencias[t] = ids;
+            t++;
+        }
+    }
+
+    private static void indexar(TreeMap<String, Map<Integer, Integer>> invertido, int id, String texto, int peso) {
+        if (texto == null) {
+            return;
+        }
+        for (String token : tokenizar(texto)) {
+            invertido.computeIfAbsent(token, k -> new HashMap<>()).merge(id, peso, Math::max);
+        }
+    }
+
+    /**
+     * Normaliza un texto para búsqueda: minúsculas, sin acentos y sin signos de puntuación.
+     * Por ejemplo, "Lácteos (6 piezas)" se convierte en "lacteos 6 piezas".
+     *
+     * @param texto Texto original.
+     * @return El texto normalizado.
+     */
+    public static String normalizar(String texto) {
+        String sinAcentos = Normalizer.normalize(texto, Normalizer.Form.NFD);
+        StringBuilder sb = new StringBuilder(sinAcentos.length());
+        boolean espacio = true;
+        for (int i = 0; i < sinAcentos.length(); i++) {
+            char c = sinAcentos.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (Character.isLetterOrDigit(c)) {
+                sb.append(Character.toLowerCase(c));
+                espacio = false;
+            } else if (!espacio) {
+                sb.append(' ');
+                espacio = true;
+            }
+        }
+        int fin = sb.length();
+        if (fin > 0 && sb.charAt(fin - 1) == ' ') {
+            sb.setLength(fin - 1);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Divide un texto en palabras normalizadas.
+     *
+     * @param texto Texto original.
+     * @return Las palabras normalizadas (puede estar vacía).
+     */
+    public static String[] tokenizar(String texto) {
+        String normalizado = normalizar(texto);
+        return normalizado.isEmpty() ? new String[0] : normalizado.split(" ");
+    }
+
+    /**
+     * Busca productos que coincidan con todas las palabras de la consulta.
+     *
+     * @param consulta Texto escrito por el usuario.
+     * @param limite   Número máximo de resultados.
+     * @return Los productos encontrados, del más al menos relevante.
+     */
+    public List<Producto> buscar(String consulta, int limite) {
+        String[] tokens = consulta == null ? new String[0] : tokenizar(consulta);
+        if (tokens.length == 0 || limite <= 0) {
+            return Collections.emptyList();
+        }
+
+        Trabajo t = trabajosLibres.poll();
+        if (t == null) {
+            t = new Trabajo(productos.length);
+        }
+        try {
+            return buscar(tokens, limite, t);
+        } finally {
+            trabajosLibres.offer(t);
+        }
+    }
+
+    private List<Producto> buscar(String[] tokens, int limite, Trabajo t) {
+        int candidatos = 0;
+
+        for (int k = 0; k < tokens.length; k++) {
+            String token = tokens[k];
+            int marca = t.siguienteMarca();
+
+            // Rango de términos que empiezan con el token: [desde, hasta).
+            int desde = buscarInicio(token);
+            int hasta = desde;
+            while (hasta < terminos.length && terminos[hasta].startsWith(token)) {
+                hasta++;
+            }
+
+            // Mejor puntaje de este token para cada producto que lo contiene.
+            int tocados = 0;
+            for (int i = desde; i < hasta; i++) {
+                int factor = terminos[i].length() == token.length() ? 2 : 1;
+                for (int codigo : coincidencias[i]) {
+                    int id = codigo >>> 2;
+                    int puntos = (codigo & 3) * factor;
+                    if (t.marca[id] != marca) {
+                        t.marca[id] = marca;
+                        t.mejor[id] = puntos;
+                        t.tocados[tocados++] = id;
+                    } else if (puntos > t.mejor[id]) {
+                        t.mejor[id] = puntos;
+                    }
+                }
+            }
+
+            if (k == 0) {
+                // Los primeros candidatos son todos los productos que contienen el primer token.
+                for (int i = 0; i < tocados; i++) {
+                    int id = t.tocados[i];
+                    t.candidatos[i] = id;
+                    t.puntaje[id] = t.mejor[id];
+                }
+                candidatos = tocados;
+            } else {
+                // Solo sobreviven los candidatos que también contienen este token.
+                int quedan = 0;
+                for (int i = 0; i < candidatos; i++) {
+                    int id = t.candidatos[i];
+                    if (t.marca[id] == marca) {
+                        t.candidatos[quedan++] = id;
+                        t.puntaje[id] += t.mejor[id];
+                    }
+                }
+                candidatos = quedan;
+            }
+            if (candidatos == 0) {
+                return Collections.emptyList();
+            }
+        }
+
+        // Orden: mayor puntaje primero; a igual puntaje, el orden del catálogo.
+        long[] claves = new long[candidatos];
+        for (int i = 0; i < candidatos; i++) {
+            int id = t.candidatos[i];
+            claves[i] = ((long) -t.puntaje[id] << 32) | id;
+        }
+        Arrays.sort(claves);
+
+        int total = Math.min(limite, candidatos);
+        List<Producto> resultado = new ArrayList<>(total);
+        for (int i = 0; i < total; i++) {
+            resultado.add(productos[(int) claves[i]]);
+        }
+        return resultado;
+    }
+
+    /**
+     * Búsqueda binaria del primer término mayor o igual que el prefijo.
+     */
+    private int buscarInicio(String prefijo) {
+        int bajo = 0;
+        int alto = terminos.length;
+        while (bajo < alto) {
+            int medio = (bajo + alto) >>> 1;
+            if (terminos[medio].compareTo(prefijo) < 0) {
+                bajo = medio + 1;
+            } else {
+                alto = medio;
+            }
+        }
+        return bajo;
+    }
+
+    /**
+     * @return El número de productos indexados.
+     */
+    public int tamano() {
+        return productos.length;
+    }
+
+    /**
+     * Arreglos de trabajo de una consulta, reutilizados entre consultas.
+     * Las marcas evitan tener que limpiar los arreglos en cada consulta.
+     */
+    private static final class Trabajo {
+        final int[] marca;
+        final int[] mejor;
+        final int[] puntaje;
+        final int[] tocados;
+        final int[] candidatos;
+        int marcaActual;
+
+        Trabajo(int n) {
+            marca = new int[n];
+            mejor = new int[n];
+            puntaje = new int[n];
+            tocados = new int[n];
+            candidatos = new int[n];
+        }
+
+        int siguienteMarca() {
+            if (++marcaActual == 0) {
+                // Al dar la vuelta el contador, se limpian las marcas para no confundir consultas viejas.
+                Arrays.fill(marca, 0);
+                marcaActual = 1;
+            }
+            return marcaActual;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.tienda;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * La clase `CargadorCatalogo` lee el catálogo de productos desde un archivo externo,
+ * de modo que un cambio de precio o un producto nuevo no requiere recompilar la aplicación.
+ * <p>
+ * Se admiten dos formatos:
+ * <ul>
+ *   <li><b>CSV</b> (`sku,nombre,categoria,subcategoria,precio`), cómodo de editar.</li>
+ *   <li><b>Snapshot binario</b>, generado a partir del CSV con {@link #main(String[])} y leído con
+ *       {@link SnapshotCatalogo} mediante un archivo mapeado en memoria, sin analizar texto.
+ *       Es el formato recomendado para catálogos muy grandes, aunque crear los productos sigue
+ *       costando un objeto por registro (ver {@link #cargar(Path)}).</li>
+ * </ul>
+ * Por omisión se usa el archivo `catalogo.csv` incluido en el classpath. Para usar otro archivo
+ * se indica su ruta con la propiedad del sistema `tienda.catalogo`; si la ruta termina en
+ * `.bin` se abre como snapshot.
+ */
+public class CargadorCatalogo {
+    // Propiedad del sistema con la ruta de un catálogo externo.
+    public static final String PROPIEDAD_CATALOGO = "tienda.catalogo";
+
+    // Recurso del classpath con el catálogo por defecto.
+    private static final String RECURSO_CATALOGO = "/catalogo.csv";
+
+    // Número de columnas esperadas en el CSV.
+    private static final int COLUMNAS = 5;
+
+    /**
+     * Carga el catálogo desde la ubicación configurada.
+     *
+     * @return Los productos del catálogo, con cantidad 0.
+     * @throws IOException Si el archivo no existe o tiene un formato inválido.
+     */
+    public static Producto[] cargar() throws IOException {
+        String ruta = System.getProperty(PROPIEDAD_CATALOGO);
+        if (ruta != null && !ruta.isEmpty()) {
+            return cargar(Paths.get(ruta));
+        }
+
+        InputStream in = CargadorCatalogo.class.getResourceAsStream(RECURSO_CATALOGO);
+        if (in == null) {
+            throw new IOException("No se encontro el recurso " + RECURSO_CATALOGO);
+        }
+        try (Reader lector = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+            return leerCsv(lector);
+        }
+    }
+
+    /**
+     * Carga el catálogo desde un archivo CSV o desde un snapshot binario (`.bin`).
+     * <p>
+     * Con un snapshot se evita analizar texto, pero la carga sigue siendo O(n): se crea un
+     * `Producto` por registro y se decodifican todos los SKU y nombres (las categorías y
+     * subcategorías repetidas se decodifican una vez). Abrir el snapshot es casi inmediato; lo que
+     * cuesta es esta conversión, que `CatalogoBenchmark.cargarSnapshot` mide junto con la apertura.
+     * Quien solo necesite unos cuantos productos puede usar {@link SnapshotCatalogo} directamente.
+     *
+     * @param ruta Ruta del archivo.
+     * @return Los productos del catálogo.
+     * @throws IOException Si el archivo no existe o tiene un formato inválido.
+     */
+    public static Producto[] cargar(Path ruta) throws IOException {
+        if (ruta.getFileName().toString().endsWith(".bin")) {
+            return SnapshotCatalogo.abrir(ruta).aProductos();
+        }
+        try (Reader lector = Files.newBufferedReader(ruta, StandardCharsets.UTF_8)) {
+            return leerCsv(lector);
+        }
+    }
+
+    /**
+     * Lee productos en formato CSV. La primera línea es el encabezado y se omite;
+     * las líneas vacías o que empiezan con `#` se ignoran. Los campos que contienen
+     * comas pueden ir entre comillas dobles.
+     *
+     * @param lector Fuente del texto CSV.
+     * @return Los productos leídos, en el orden del archivo.
+     * @throws IOException Si alguna línea no tiene el formato esperado.
+     */
+    public static Producto[] leerCsv(Reader lector) throws IOException {
+        BufferedReader br = lector instanceof BufferedReader ? (BufferedReader) lector : new BufferedReader(lector);
+        List<Producto> productos = new ArrayList<>();
+        String[] campos = new String[COLUMNAS];
+
+        String linea = br.readLine(); // Encabezado.
+        int numeroLinea = 1;
+        while ((linea = br.readLine()) != null) {
+            numeroLinea++;
+            if (linea.isEmpty() || linea.charAt(0) == '#') {
+                continue;
+            }
+            if (dividir(linea, campos) != COLUMNAS) {
+                throw new IOException("Linea " + numeroLinea + " del catalogo invalida: se esperaban "
+                        + COLUMNAS + " columnas.");
+            }
+            long precio;
+            try {
+                precio = Dinero.parsear(campos[4]);
+            } catch (NumberFormatException e) {
+                throw new IOException("Linea " + numeroLinea + " del catalogo invalida: precio '" + campos[4] + "'.", e);
+            }
+            productos.add(Producto.conPrecioCentavos(campos[0], campos[1], campos[2], campos[3], precio, 0));
+        }
+        return productos.toArray(new Producto[0]);
+    }
+
+    /**
+     * Divide una línea CSV en campos, respetando las comillas dobles.
+     *
+     * @return El número de campos encontrados (solo se guardan los que caben en el arreglo).
+     */
+    private static int dividir(String linea, String[] campos) {
+        int n = 0;
+        StringBuilder sb = new StringBuilder();
+        boolean entreComillas = false;
+        for (int i = 0; i < linea.length(); i++) {
+            char c = linea.charAt(i);
+            if (entreComillas) {
+                if (c != '"') {
+                    sb.append(c);
+                } else if (i + 1 < linea.length() && linea.charAt(i + 1) == '"') {
+                    sb.append('"'); // Comilla escapada ("").
+                    i++;
+                } else {
+                    entreComillas = false;
+                }
+            } else if (c == '"') {
+                entreComillas = true;
+            } else if (c == ',') {
+                if (n < campos.length) {
+                    campos[n] = sb.toString().trim();
+                }
+                n++;
+                sb.setLength(0);
+            } else {
+                sb.append(c);
+            }
+        }
+        if (n < campos.length) {
+            campos[n] = sb.toString().trim();
+        }
+        return n + 1;
+    }
+
+    /**
+     * Compila un catálogo CSV a un snapshot binario.
+     * Uso: {@code java com.tienda.CargadorCatalogo catalogo.csv catalogo.bin}
+     *
+     * @param args Ruta del CSV de entrada y ruta del snapshot de salida.
+     * @throws IOException Si no se puede leer el CSV o escribir el snapshot.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Uso: java com.tienda.CargadorCatalogo <catalogo.csv> <catalogo.bin>");
+            return;
+        }
+        Producto[] productos = cargar(Paths.get(args[0]));
+        SnapshotCatalogo.escribir(productos, Paths.get(args[1]));
+        System.out.println("Snapshot generado con " + productos.length + " productos en: " + args[1]);
+    }
+}
@@ -1,222 +1,270 @@
 package com.tienda;
 
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.Formatter;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.StampedLock;
 
 /**
  * La clase Carrito representa la funcionalidad de un carrito de compras en un sistema de tienda.
  * Es una clase fundamental para la gestión de los productos seleccionados por el usuario antes de la compra. 
  * Permite agregar productos, calcular totales y generar un ticket de compra detallado.
  * Ahora incluye manejo de excepciones personalizado.
+ * <p>
+ * Cada línea del carrito es un `Producto` cuyo `stock` es la cantidad comprada. Las líneas se
+ * guardan en un mapa indexado por SKU que conserva el orden en que se agregaron: agregar dos
+ * veces el mismo producto suma las cantidades en una sola línea, y agregar, actualizar o
+ * remover por SKU cuesta O(1). No hay un límite de productos.
+ * <p>
+ * Los descuentos se calculan con un {@link MotorPrecios}. El carrito mantiene los totales
+ * acumulados y los ajusta solo con la línea que cambia, así que consultarlos cuesta O(1).
+ * <p>
+ * El carrito se puede usar desde varios hilos a la vez (por ejemplo, la interfaz y un
+ * servidor atendiendo la misma sesión):
+ * <ul>
+ *   <li>Las modificaciones se serializan con un {@link StampedLock}.</li>
+ *   <li>Las líneas son copias propias del carrito y nunca se modifican: un cambio de cantidad
+ *       reemplaza la línea. Los productos que recibe o devuelve el carrito son otras copias,
+ *       así que modificarlos no afecta al carrito.</li>
+ *   <li>{@link #instantanea()} devuelve una vista inmutable de las líneas y los totales tomada
+ *       en un mismo instante. Se construye solo después de un cambio y se comparte entre
+ *       lectores; leerla no toma ningún cerrojo. Los métodos por índice, las listas y los
+ *       tickets se resuelven sobre una instantánea, así que un ticket nunca mezcla dos estados.</li>
+ *   <li>Los totales se leen con una lectura optimista, sin bloquear a los escritores.</li>
+ * </ul>
+ * <p>
+ * Si el carrito se crea con un {@link Inventario}, cada línea aparta sus unidades al agregarse
+ * (o al cambiar su cantidad) y las devuelve al quitarse o al vaciar el carrito. Al cerrar la
+ * compra con {@link #confirmarCompra()} las reservas pasan a vendidas. Si una reserva vence por
+ * inactividad la línea se conserva, y las unidades se vuelven a apartar en el siguiente cambio
+ * de esa línea o al confirmar, si todavía hay existencias.
+ * <p>
+ * El carrito no escribe en consola: los métodos devuelven lo que cambió y {@link ServicioCompra}
+ * publica los eventos. El resumen y los tickets se obtienen como texto
+ * ({@link Instantanea#resumenTexto()}, {@link Instantanea#ticketTexto(Usuario)}) y la vista
+ * decide dónde mostrarlos.
  */
 public class Carrito {
-    // Declaración de atributos. Se utiliza un array de tipo Producto para almacenar los items.
-    private Producto[] productos; // Array que almacena los objetos Producto agregados al carrito.
-    private int contador;         // Un contador que indica el número de productos actualmente en el carrito.
-    private int capacidad;        // La capacidad máxima del carrito, definida al ser inicializado.
+    // Capacidad inicial cuando no se indica otra.
+    private static final int CAPACIDAD_PREDETERMINADA = 10;
+
+    private final StampedLock cerrojo = new StampedLock();
+    private final Map<String, Producto> lineas; // Líneas del carrito por SKU, en orden de inserción. Protegido por `cerrojo`.
+    private volatile Instantanea instantanea;   // Vista del estado actual; null si hay que reconstruirla.
+    private final int capacidad;                // Capacidad inicial reservada (ya no es un límite).
+    private final MotorPrecios motor;           // Reglas de precio y descuento.
+    private final Inventario inventario;        // Existencias a reservar; null si no se controlan.
+    private final Map<String, Inventario.Reserva> reservas; // Reserva de cada línea, por SKU. Protegido por `cerrojo`.
+    private long totalSinDescuento;             // Suma acumulada de los subtotales sin descuento, en centavos.
+    private long totalConDescuento;             // Suma acumulada de los subtotales con descuento, en centavos.
 
     /**
      * Constructor por defecto de la clase `Carrito`.
-     * Inicializa el carrito con una capacidad predeterminada de 10 productos.
-     * Este constructor es útil cuando la capacidad no se especifica explícitamente.
+     * Inicializa el carrito con espacio reservado para 10 líneas; puede crecer sin límite.
      */
     public Carrito() {
-        this.capacidad = 10;
-        this.productos = new Producto[capacidad];
-        this.contador = 0;
+        this(CAPACIDAD_PREDETERMINADA);
     }
 
     /**
      * Constructor parametrizado de la clase `Carrito`.
-     * Permite inicializar el carrito con una capacidad definida por el usuario.
+     * La capacidad indica cuántas líneas se reservan al inicio; el carrito crece si se necesitan más.
      * 
-     * @param capacidad La capacidad máxima de productos que puede contener el carrito
+     * @param capacidad El número de líneas que se espera contener
      */
     public Carrito(int capacidad) {
-        this.capacidad = capacidad;
-        this.productos = new Producto[capacidad];
-        this.contador = 0;
+        this(capacidad, MotorPrecios.ESTANDAR);
+    }
+
+    /**
+     * Constructor con un motor de precios propio.
+     * 
+     * @param capacidad El número de líneas que se espera contener
+     * @param motor Las reglas de precio y descuento a aplicar
+     */
+    public Carrito(int capacidad, MotorPrecios motor) {
+        this(capacidad, motor, null);
+    }
+
+    /**
+     * Constructor con control de existencias.
+     * 
+     * @param capacidad El número de líneas que se espera contener
+     * @param motor Las reglas de precio y descuento a aplicar
+     * @param inventario El inventario del que se apartan las unidades, o null para no controlarlas
+     */
+    public Carrito(int capacidad, MotorPrecios motor, Inventario inventario) {
+        this.capacidad = Math.max(1, capacidad);
+        this.lineas = new LinkedHashMap<>(Math.max(16, (int) (this.capacidad / 0.75f) + 1));
+        this.motor = motor;
+        this.inventario = inventario;
+        this.reservas = inventario != null ? new HashMap<>() : null;
     }
 
     /**
      * Agrega un objeto `Producto` al carrito de compras con validación.
-     * Se verifica si el carrito tiene espacio disponible antes de realizar la adición.
+     * Si ya hay una línea con el mismo SKU, se suma la cantidad a esa línea en lugar de crear otra;
+     * la cantidad resultante tiene el mismo límite que {@link #actualizarCantidad(String, int)}.
+     * El carrito guarda una copia del producto.
      * 
-     * @param p El producto a agregar al carrito
-     * @throws Invalidar_Email si el carrito está lleno y no se puede agregar más productos
+     * @param p El producto a agregar al carrito; su `stock` es la cantidad
+     * @return La cantidad de la línea después de agregar
+     * @throws CantidadInvalidaException si la cantidad de la línea quedaría fuera de 1 a 100; el carrito no cambia
+     * @throws StockInsuficienteException si el inventario no tiene las unidades; el carrito no cambia
      * @throws IllegalArgumentException si el producto es nulo
      */
-    public void agregarProducto(Producto p) throws Invalidar_Email {
+    public int agregarProducto(Producto p) throws CantidadInvalidaException {
         // Se valida que el producto no sea nulo
         if (p == null) {
             throw new IllegalArgumentException("Error: El producto no puede ser nulo.");
         }
 
-        // Se valida si el contador es menor que la capacidad para evitar un `ArrayIndexOutOfBoundsException`.
-        if (contador >= capacidad) {
-            throw new Invalidar_Email(
-                "Error: El carrito esta lleno. No se pueden agregar mas de " + capacidad + " productos."
-            );
+        String sku = p.getSku();
+        long stamp = cerrojo.writeLock();
+        try {
+            Producto existente = lineas.get(sku);
+            int cantidad = existente != null ? existente.getStock() + p.getStock() : p.getStock();
+            validarCantidad(cantidad);
+            apartar(sku, cantidad);
+            if (existente != null) {
+                // Mismo producto: se combinan las cantidades en una línea nueva en la misma posición.
+                reemplazar(existente, existente.conCantidad(cantidad));
+            } else {
+                Producto linea = p.conCantidad(cantidad);
+                lineas.put(sku, linea);
+                sumarATotales(linea);
+            }
+            instantanea = null;
+            return cantidad;
+        } finally {
+            cerrojo.unlockWrite(stamp);
         }
-
-        // Se agrega el producto y se incrementa el contador
-        productos[contador] = p;
-        contador++;
-        System.out.println(" Producto agregado: " + p.getNombre());
     }
 
     /**
-     * Muestra una representación del contenido actual del carrito en la consola.
-     * Es una vista simple que no incluye descuentos, ideal para una revisión rápida.
+     * Obtiene el total de la compra con los descuentos aplicados.
+     * El total se mantiene al día con cada cambio, así que no recorre el carrito.
+     * 
+     * @return El total de la compra con descuentos aplicados
      */
-    public void mostrarCarrito() {
-        if (contador == 0) {
-            System.out.println(" El carrito esta vacio.");
-            return;
-        }
+    public double calcularTotal() {
+        return Dinero.aDecimal(calcularTotalCentavos());
+    }
 
-        System.out.println("\n=== Carrito de Compras ===");
-        for (int i = 0; i < contador; i++) {
-            Producto p = productos[i];
-            // Se utiliza `printf` para dar formato a la salida y alinear las columnas.
-            System.out.printf("%-30s %3d x %6.2f = %7.2f%n", p.getNombre(), p.getStock(), p.getPrecio(), p.getStock() * p.getPrecio());
+    /**
+     * Obtiene el total exacto de la compra con los descuentos aplicados.
+     * 
+     * @return El total con descuentos, en centavos
+     */
+    public long calcularTotalCentavos() {
+        long stamp = cerrojo.tryOptimisticRead();
+        long total = totalConDescuento;
+        if (!cerrojo.validate(stamp)) {
+            stamp = cerrojo.readLock();
+            try {
+                total = totalConDescuento;
+            } finally {
+                cerrojo.unlockRead(stamp);
+            }
         }
-        System.out.printf("TOTAL APROX: %.2f%n", calcularTotal());
+        return total;
     }
 
     /**
-     * Genera e imprime un ticket de compra detallado en la consola.
-     * Incluye información del usuario, fecha, productos, subtotales por categoría y el cálculo final de descuentos.
+     * Obtiene el total de la compra sin descuentos.
      * 
-     * @param usuario El usuario que realiza la compra, con sus datos personales
+     * @return La suma de precio por cantidad de todas las líneas
      */
-    public void imprimirTicket(Usuario usuario) {
-        if (contador == 0) {
-            System.out.println(" El carrito esta vacio.");
-            return;
-        }
+    public double calcularTotalSinDescuento() {
+        return Dinero.aDecimal(calcularTotalSinDescuentoCentavos());
+    }
 
-        String line = "========================================================";
-        int ancho = 56;
-
-        // Encabezado del ticket con datos del cliente y la tienda.
-        System.out.println(line);
-        System.out.println(centerText("City Market", ancho));
-        System.out.println("Cliente: " + usuario.getNombre());
-        System.out.println("Email:  " + usuario.getEmail());
-        System.out.println("Direccion: " + usuario.getDireccion());
-
-        // Se utiliza `LocalDateTime` para obtener la fecha y hora actual de la transacción.
-        DateTimeFormatter dtf = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
-        System.out.println("Fecha: " + dtf.format(LocalDateTime.now()));
-        System.out.println(line);
-
-        // Variables para la lógica de agrupación por subcategoría y cálculo de subtotales.
-        String subcategoriaActual = "";
-        double subtotalSubcategoriaConDesc = 0;
-
-        double totalSinDescuento = 0;
-        double totalConDescuento = 0;
-
-        // Se itera sobre los productos para calcular precios y aplicar descuentos.
-        for (int i = 0; i < contador; i++) {
-            Producto p = productos[i];
-            int cantidad = p.getStock();
-            double precioUnitario = p.getPrecio();
-            double descuento = 0;
-
-            // Lógica para el cálculo de descuentos basada en la cantidad de productos.
-            if (cantidad >= 3 && cantidad <= 4) descuento = 0.05;
-            else if (cantidad >= 5 && cantidad <= 6) descuento = 0.10;
-            else if (cantidad >= 7) descuento = 0.15;
-
-            double subtotal = precioUnitario * cantidad;
-            double subtotalConDesc = subtotal * (1 - descuento);
-
-            totalSinDescuento += subtotal;
-            totalConDescuento += subtotalConDesc;
-
-            // Lógica para agrupar productos por subcategoría en el ticket.
-            // Si la subcategoría cambia, se imprime el subtotal de la categoría anterior y se reinician los valores para la nueva.
-            if (!p.getSubcategoria().equals(subcategoriaActual)) {
-                if (!subcategoriaActual.equals("")) {
-                    System.out.println(String.format("%-40s %15.2f", "Subtotal " + subcategoriaActual + ":", subtotalSubcategoriaConDesc));
-                    System.out.println(line);
-                }
-                subcategoriaActual = p.getSubcategoria();
-                subtotalSubcategoriaConDesc = 0;
-                System.out.println("\n--- " + subcategoriaActual + " ---");
+    /**
+     * Obtiene el total exacto de la compra sin descuentos.
+     * 
+     * @return El total sin descuentos, en centavos
+     */
+    public long calcularTotalSinDescuentoCentavos() {
+        long stamp = cerrojo.tryOptimisticRead();
+        long total = totalSinDescuento;
+        if (!cerrojo.validate(stamp)) {
+            stamp = cerrojo.readLock();
+            try {
+                total = totalSinDescuento;
+            } finally {
+                cerrojo.unlockRead(stamp);
             }
-            subtotalSubcategoriaConDesc += subtotalConDesc;
-            
-            String descText = descuento > 0 ? String.format(" (Desc %d%%)", (int)(descuento*100)) : "";
-            
-            System.out.printf("%-30s %3d x %6.2f = %7.2f%s%n",
-                p.getNombre(), cantidad, precioUnitario, subtotalConDesc, descText);
         }
-
-        // Se imprime el subtotal de la última categoría.
-        System.out.println(String.format("%-40s %15.2f", "Subtotal " + subcategoriaActual + ":", subtotalSubcategoriaConDesc));
-        System.out.println(line);
-
-        // Totales finales de la compra.
-        System.out.printf("%-40s %15.2f%n", "TOTAL SIN DESCUENTO:", totalSinDescuento);
-        System.out.printf("%-40s %15.2f%n", "TOTAL CON DESCUENTO:", totalConDescuento);
-        System.out.println(line);
-        
-        System.out.println(centerText("Gracias por su compra!", ancho));
-        System.out.println(line);
+        return total;
     }
 
     /**
-     * Método auxiliar para centrar texto dentro de un ancho de columna.
-     * Es una técnica de formato comúnmente utilizada para mejorar la legibilidad de la salida.
+     * Obtiene el inventario del que el carrito aparta unidades.
      * 
-     * @param text El texto a centrar
-     * @param width El ancho total de la columna
-     * @return El texto centrado con espacios en blanco
+     * @return El inventario, o null si el carrito no controla existencias
      */
-    private String centerText(String text, int width) {
-        int padding = (width - text.length()) / 2;
-        return " ".repeat(Math.max(0, padding)) + text;
+    public Inventario getInventario() {
+        return inventario;
     }
 
     /**
-     * Calcula el total de la compra con los descuentos aplicados.
-     * Este método es utilizado por `mostrarCarrito()` para dar un total aproximado.
+     * Obtiene el motor de precios con que el carrito calcula los descuentos.
      * 
-     * @return El total de la compra con descuentos aplicados
+     * @return El motor de precios del carrito
      */
-    public double calcularTotal() {
-        double total = 0;
-        for (int i = 0; i < contador; i++) {
-            Producto p = productos[i];
-            int cantidad = p.getStock();
-            double precioUnitario = p.getPrecio();
-            double descuento = 0;
+    public MotorPrecios getMotorPrecios() {
+        return motor;
+    }
 
-            if (cantidad >= 3 && cantidad <= 4) descuento = 0.05;
-            else if (cantidad >= 5 && cantidad <= 6) descuento = 0.10;
-            else if (cantidad >= 7) descuento = 0.15;
+    // Los métodos siguientes se llaman con el cerrojo de escritura tomado.
 
-            total += precioUnitario * cantidad * (1 - descuento);
+    /**
+     * Ajusta la reserva de inventario de una línea a la cantidad indicada, antes de cambiar la
+     * línea; si no hay existencias, la excepción sale sin haber modificado el carrito.
+     */
+    private void apartar(String sku, int cantidad) throws StockInsuficienteException {
+        if (inventario == null) {
+            return;
         }
-        return total;
+        Inventario.Reserva reserva = reservas.get(sku);
+        if (reserva == null) {
+            reservas.put(sku, inventario.reservar(sku, cantidad));
+        } else {
+            reserva.ajustar(cantidad);
+        }
+    }
+
+    private void sumarATotales(Producto p) {
+        totalSinDescuento += motor.subtotal(p);
+        totalConDescuento += motor.subtotalConDescuento(p);
+    }
+
+    private void quitarDeTotales(Producto p) {
+        totalSinDescuento -= motor.subtotal(p);
+        totalConDescuento -= motor.subtotalConDescuento(p);
+    }
+
+    private void reemplazar(Producto anterior, Producto nueva) {
+        quitarDeTotales(anterior);
+        lineas.put(nueva.getSku(), nueva);   // Reemplazar un valor no cambia el orden del mapa.
+        sumarATotales(nueva);
     }
 
     /**
-     * Obtiene el número de productos actualmente en el carrito.
+     * Obtiene el número de líneas (productos distintos) actualmente en el carrito.
      * 
      * @return El número de productos en el carrito
      */
     public int obtenerCantidadProductos() {
-        return contador;
+        return getContador();
     }
 
     /**
-     * Obtiene la capacidad máxima del carrito.
+     * Obtiene la capacidad inicial del carrito. Ya no es un límite: el carrito crece según se necesite.
      * 
-     * @return La capacidad máxima del carrito
+     * @return La capacidad inicial del carrito
      */
     public int obtenerCapacidad() {
         return capacidad;
@@ -228,70 +276,193 @@ public class Carrito {
      * @return true si el carrito está vacío, false en caso contrario
      */
     public boolean estaVacio() {
-        return contador == 0;
+        return getContador() == 0;
     }
 
     /**
-     * Verifica si el carrito está lleno.
+     * Verifica si el carrito está lleno. El carrito no tiene un límite de productos.
      * 
-     * @return true si el carrito está lleno, false en caso contrario
+     * @return Siempre false
      */
     public boolean estaLleno() {
-        return contador >= capacidad;
+        return false;
     }
 
     /**
      * Vacía completamente el carrito, removiendo todos los productos.
+     * Las unidades reservadas vuelven al inventario; para cerrar una compra se usa
+     * {@link #confirmarCompra()}.
+     * 
+     * @return Una instantánea del carrito antes de vaciarlo
      */
-    public void vaciarCarrito() {
-        for (int i = 0; i < contador; i++) {
-            productos[i] = null;
+    public Instantanea vaciarCarrito() {
+        Instantanea compra;
+        long stamp = cerrojo.writeLock();
+        try {
+            compra = instantaneaBajoCerrojo();
+            if (reservas != null) {
+                for (Inventario.Reserva reserva : reservas.values()) {
+                    reserva.liberar();
+                }
+                reservas.clear();
+            }
+            lineas.clear();
+            totalSinDescuento = 0;
+            totalConDescuento = 0;
+            instantanea = null;
+        } finally {
+            cerrojo.unlockWrite(stamp);
         }
-        contador = 0;
-        System.out.println(" El carrito ha sido vaciado.");
+        return compra;
+    }
+
+    /**
+     * Cierra la compra: confirma las reservas de inventario (las unidades pasan a vendidas) y
+     * vacía el carrito, todo en una sola operación.
+     * Si alguna reserva venció y ya no hay existencias, no se confirma nada y el carrito no cambia.
+     * 
+     * @return Una instantánea de lo que se compró
+     * @throws StockInsuficienteException si ya no hay existencias para alguna línea
+     */
+    public Instantanea confirmarCompra() throws StockInsuficienteException {
+        Instantanea compra;
+        long stamp = cerrojo.writeLock();
+        try {
+            compra = instantaneaBajoCerrojo();
+            if (reservas != null) {
+                // Primero se asegura que todas sigan vigentes; así confirmar ya no puede fallar.
+                for (Inventario.Reserva reserva : reservas.values()) {
+                    reserva.renovar();
+                }
+                for (Inventario.Reserva reserva : reservas.values()) {
+                    reserva.confirmar();
+                }
+                reservas.clear();
+            }
+            lineas.clear();
+            totalSinDescuento = 0;
+            totalConDescuento = 0;
+            instantanea = null;
+        } finally {
+            cerrojo.unlockWrite(stamp);
+        }
+        return compra;
+    }
+
+    /**
+     * Verifica si el carrito tiene una línea con el SKU indicado.
+     * 
+     * @param sku El SKU del producto
+     * @return true si el producto está en el carrito
+     */
+    public boolean contieneProducto(String sku) {
+        long stamp = cerrojo.readLock();
+        try {
+            return lineas.containsKey(sku);
+        } finally {
+            cerrojo.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Obtiene la línea del carrito con el SKU indicado.
+     * 
+     * @param sku El SKU del producto
+     * @return Una copia de la línea del carrito, o null si no está
+     */
+    public Producto obtenerProducto(String sku) {
+        Producto p;
+        long stamp = cerrojo.readLock();
+        try {
+            p = lineas.get(sku);
+        } finally {
+            cerrojo.unlockRead(stamp);
+        }
+        return p != null ? p.conCantidad(p.getStock()) : null;
     }
 
     /**
      * Obtiene el producto en una posición específica del carrito.
      * 
      * @param indice La posición del producto en el carrito
-     * @return El producto en la posición indicada, o null si no existe
+     * @return Una copia del producto en la posición indicada
      * @throws IndexOutOfBoundsException si el índice está fuera de rango
      */
     public Producto obtenerProducto(int indice) {
-        if (indice < 0 || indice >= contador) {
-            throw new IndexOutOfBoundsException("Error: Indice " + indice + " fuera de rango.");
+        return instantanea().obtenerProducto(indice);
+    }
+
+    /**
+     * Remueve del carrito la línea con el SKU indicado.
+     * 
+     * @param sku El SKU del producto a remover
+     * @return El producto removido, o null si no estaba en el carrito
+     */
+    public Producto removerProducto(String sku) {
+        Producto productoRemovido;
+        long stamp = cerrojo.writeLock();
+        try {
+            productoRemovido = quitar(sku);
+        } finally {
+            cerrojo.unlockWrite(stamp);
         }
-        return productos[indice];
+        return productoRemovido;
     }
 
     /**
      * Remueve un producto del carrito por su índice.
+     * El índice se resuelve y la línea se quita en una sola operación atómica.
      * 
      * @param indice La posición del producto a remover
      * @return El producto removido
      * @throws IndexOutOfBoundsException si el índice está fuera de rango
      */
     public Producto removerProducto(int indice) {
-        if (indice < 0 || indice >= contador) {
-            throw new IndexOutOfBoundsException("Error: Indice " + indice + " fuera de rango.");
+        Producto productoRemovido;
+        long stamp = cerrojo.writeLock();
+        try {
+            productoRemovido = quitar(instantaneaBajoCerrojo().linea(indice).getSku());
+        } finally {
+            cerrojo.unlockWrite(stamp);
         }
+        return productoRemovido;
+    }
 
-        Producto productoRemovido = productos[indice];
-
-        // Se corre todos los elementos posteriores una posición hacia atrás
-        for (int i = indice; i < contador - 1; i++) {
-            productos[i] = productos[i + 1];
+    private Producto quitar(String sku) {
+        Producto productoRemovido = lineas.remove(sku);
+        if (productoRemovido != null) {
+            if (reservas != null) {
+                reservas.remove(sku).liberar();
+            }
+            quitarDeTotales(productoRemovido);
+            instantanea = null;
         }
-
-        // Se limpia la última posición y se decrementa el contador
-        productos[contador - 1] = null;
-        contador--;
-
-        System.out.println(" Producto removido: " + productoRemovido.getNombre());
         return productoRemovido;
     }
 
+    /**
+     * Actualiza la cantidad del producto con el SKU indicado.
+     * 
+     * @param sku El SKU del producto
+     * @param nuevaCantidad La nueva cantidad para el producto
+     * @throws IllegalArgumentException si el producto no está en el carrito
+     * @throws CantidadInvalidaException si la cantidad es inválida
+     */
+    public void actualizarCantidad(String sku, int nuevaCantidad) throws CantidadInvalidaException {
+        validarCantidad(nuevaCantidad);
+        Producto p;
+        long stamp = cerrojo.writeLock();
+        try {
+            p = lineas.get(sku);
+            if (p == null) {
+                throw new IllegalArgumentException("Error: El producto " + sku + " no esta en el carrito.");
+            }
+            cambiarCantidad(p, nuevaCantidad);
+        } finally {
+            cerrojo.unlockWrite(stamp);
+        }
+    }
+
     /**
      * Actualiza la cantidad de un producto específico en el carrito.
      * 
@@ -301,10 +472,18 @@ public class Carrito {
      * @throws CantidadInvalidaException si la cantidad es inválida
      */
     public void actualizarCantidad(int indice, int nuevaCantidad) throws CantidadInvalidaException {
-        if (indice < 0 || indice >= contador) {
-            throw new IndexOutOfBoundsException("Error: Indice " + indice + " fuera de rango.");
+        validarCantidad(nuevaCantidad);
+        Producto p;
+        long stamp = cerrojo.writeLock();
+        try {
+            p = instantaneaBajoCerrojo().linea(indice);
+            cambiarCantidad(p, nuevaCantidad);
+        } finally {
+            cerrojo.unlockWrite(stamp);
         }
+    }
 
+    private static void validarCantidad(int nuevaCantidad) throws CantidadInvalidaException {
         if (nuevaCantidad <= 0) {
             throw new CantidadInvalidaException("Error: La cantidad debe ser mayor a 0.");
         }
@@ -312,21 +491,57 @@ public class Carrito {
         if (nuevaCantidad > 100) {
             throw new CantidadInvalidaException("Error: La cantidad no puede exceder 100 unidades.");
         }
+    }
+
+    private void cambiarCantidad(Producto p, int nuevaCantidad) throws StockInsuficienteException {
+        apartar(p.getSku(), nuevaCantidad);
+        reemplazar(p, p.conCantidad(nuevaCantidad));
+        instantanea = null;
+    }
 
-        Producto p = productos[indice];
-        p.setStock(nuevaCantidad);
-        System.out.println(" Cantidad actualizada para " + p.getNombre() + " a " + nuevaCantidad + " unidades.");
+    /**
+     * Obtiene una vista inmutable del carrito: sus líneas y totales en un mismo instante.
+     * Mientras el carrito no cambie, todas las llamadas devuelven la misma instantánea.
+     * 
+     * @return La instantánea del estado actual del carrito
+     */
+    public Instantanea instantanea() {
+        Instantanea actual = instantanea;
+        if (actual != null) {
+            return actual;
+        }
+        long stamp = cerrojo.readLock();
+        try {
+            // Se publica mientras se tiene el cerrojo, así ningún escritor puede haberla invalidado ya.
+            actual = new Instantanea(lineas.values().toArray(new Producto[0]), totalSinDescuento, totalConDescuento, motor);
+            instantanea = actual;
+        } finally {
+            cerrojo.unlockRead(stamp);
+        }
+        return actual;
+    }
+
+    /**
+     * Igual que {@link #instantanea()}, para usarse con el cerrojo de escritura ya tomado.
+     */
+    private Instantanea instantaneaBajoCerrojo() {
+        Instantanea actual = instantanea;
+        if (actual == null) {
+            actual = new Instantanea(lineas.values().toArray(new Producto[0]), totalSinDescuento, totalConDescuento, motor);
+            instantanea = actual;
+        }
+        return actual;
     }
 
     // --- Métodos de Acceso (Getters) ---
 
     /**
-     * Obtiene el array completo de productos del carrito.
+     * Obtiene los productos del carrito, en el orden en que se agregaron.
      * 
-     * @return El array de productos
+     * @return Una copia de las líneas del carrito
      */
     public Producto[] getProductos() {
-        return productos;
+        return instantanea().getProductos();
     }
 
     /**
@@ -335,15 +550,151 @@ public class Carrito {
      * @return El número de productos en el carrito
      */
     public int getContador() {
+        long stamp = cerrojo.tryOptimisticRead();
+        int contador = lineas.size();
+        if (!cerrojo.validate(stamp)) {
+            stamp = cerrojo.readLock();
+            try {
+                contador = lineas.size();
+            } finally {
+                cerrojo.unlockRead(stamp);
+            }
+        }
         return contador;
     }
 
     /**
-     * Obtiene la capacidad actual del carrito.
+     * Obtiene la capacidad inicial del carrito.
      * 
-     * @return La capacidad máxima del carrito
+     * @return La capacidad inicial del carrito
      */
     public int getCapacidad() {
         return capacidad;
     }
-}
\ No newline at end of file
+
+    /**
+     * Vista inmutable del carrito en un instante: las líneas, en orden, y sus totales.
+     * Es la que se usa para cobrar y para generar tickets, porque nunca cambia aunque el
+     * carrito siga modificándose desde otros hilos.
+     */
+    public static final class Instantanea {
+        private final Producto[] lineas;        // Líneas del carrito; el carrito nunca las modifica.
+        private final long totalSinDescuento;
+        private final long totalConDescuento;
+        private final MotorPrecios motor;
+
+        private Instantanea(Producto[] lineas, long totalSinDescuento, long totalConDescuento, MotorPrecios motor) {
+            this.lineas = lineas;
+            this.totalSinDescuento = totalSinDescuento;
+            this.totalConDescuento = totalConDescuento;
+            this.motor = motor;
+        }
+
+        /**
+         * @return El número de líneas.
+         */
+        public int getContador() {
+            return lineas.length;
+        }
+
+        /**
+         * @return true si no hay líneas.
+         */
+        public boolean estaVacio() {
+            return lineas.length == 0;
+        }
+
+        /**
+         * @param indice La posición de la línea.
+         * @return Una copia de la línea en la posición indicada.
+         * @throws IndexOutOfBoundsException si el índice está fuera de rango
+         */
+        public Producto obtenerProducto(int indice) {
+            Producto p = linea(indice);
+            return p.conCantidad(p.getStock());
+        }
+
+        /**
+         * @return Una copia de las líneas, en el orden en que se agregaron.
+         */
+        public Producto[] getProductos() {
+            Producto[] copia = new Producto[lineas.length];
+            for (int i = 0; i < lineas.length; i++) {
+                copia[i] = lineas[i].conCantidad(lineas[i].getStock());
+            }
+            return copia;
+        }
+
+        /**
+         * @return El total con descuentos, en centavos.
+         */
+        public long calcularTotalCentavos() {
+            return totalConDescuento;
+        }
+
+        /**
+         * @return El total sin descuentos, en centavos.
+         */
+        public long calcularTotalSinDescuentoCentavos() {
+            return totalSinDescuento;
+        }
+
+        /**
+         * @return El motor de precios con que se calcularon los totales.
+         */
+        public MotorPrecios getMotorPrecios() {
+            return motor;
+        }
+
+        Producto linea(int indice) {
+            if (indice < 0 || indice >= lineas.length) {
+                throw new IndexOutOfBoundsException("Error: Indice " + indice + " fuera de rango.");
+            }
+            return lineas[indice];
+        }
+
+        /**
+         * Genera el resumen de las líneas, sin descuentos, como texto.
+         * 
+         * @return Una línea por producto y el total aproximado
+         */
+        public String resumenTexto() {
+            if (lineas.length == 0) {
+                return " El carrito esta vacio." + System.lineSeparator();
+            }
+
+            StringBuilder sb = new StringBuilder(64 * (lineas.length + 2));
+            Formatter f = new Formatter(sb);
+            f.format("%n=== Carrito de Compras ===%n");
+            for (Producto p : lineas) {
+                // Se utiliza `format` para dar formato a la salida y alinear las columnas.
+                f.format("%-30s %3d x %6s = %7s%n", p.getNombre(), p.getStock(),
+                    Dinero.formatear(p.getPrecioCentavos()), Dinero.formatear(motor.subtotal(p)));
+            }
+            f.format("TOTAL APROX: %s%n", Dinero.formatear(totalConDescuento));
+            return sb.toString();
+        }
+
+        /**
+         * Genera el ticket de compra de estas líneas como texto, con la fecha actual.
+         * Incluye información del usuario, fecha, productos, subtotales por categoría y el cálculo final de descuentos.
+         * 
+         * @param usuario El usuario que realiza la compra, con sus datos personales
+         * @return El ticket, listo para mostrarse o guardarse
+         */
+        public String ticketTexto(Usuario usuario) {
+            return ticketTexto(usuario, LocalDateTime.now());
+        }
+
+        /**
+         * Genera el ticket de compra de estas líneas como texto.
+         * 
+         * @param usuario El usuario que realiza la compra, con sus datos personales
+         * @param fecha   Fecha y hora que se muestra en el ticket
+         * @return El ticket, listo para mostrarse o guardarse
+         */
+        public String ticketTexto(Usuario usuario, LocalDateTime fecha) {
+            return EscritorTicketTexto.delHilo().texto(this, usuario, fecha);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.tienda;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * La clase `CatalogoRepositorio` organiza el catálogo de productos en índices por
+ * categoría y subcategoría.
+ * <p>
+ * Los índices se construyen una sola vez al cargar el catálogo, en un único recorrido,
+ * y después son inmutables: las consultas por categoría o subcategoría son búsquedas en
+ * un `Map` (O(1)) en lugar de recorrer todo el arreglo comparando cadenas. El orden de
+ * iteración es el orden en que cada categoría y subcategoría aparece por primera vez
+ * en el catálogo, igual que en los menús originales.
+ */
+public class CatalogoRepositorio {
+    private final List<Producto> productos;                                  // Todos los productos, en el orden de carga.
+    private final List<String> categorias;                                   // Categorías en orden de aparición.
+    private final Map<String, List<String>> subcategoriasPorCategoria;       // Categoría -> subcategorías.
+    private final Map<String, List<Producto>> productosPorCategoria;         // Categoría -> productos (agrupados por subcategoría).
+    private final Map<String, Map<String, List<Producto>>> indice;           // Categoría -> subcategoría -> productos.
+    private final Map<String, Producto> porSku;                              // SKU -> producto.
+
+    /**
+     * Constructor que construye los índices a partir de un arreglo de productos.
+     * Los elementos nulos se ignoran.
+     *
+     * @param catalogo Arreglo con los productos del catálogo.
+     */
+    public CatalogoRepositorio(Producto[] catalogo) {
+        // Primera fase: agrupar en mapas mutables conservando el orden de aparición.
+        Map<String, Map<String, List<Producto>>> agrupado = new LinkedHashMap<>();
+        List<Producto> todos = new ArrayList<>(catalogo.length);
+        Map<String, Producto> skus = new HashMap<>(Math.max(16, (int) (catalogo.length / 0.75f) + 1));
+        for (Producto p : catalogo) {
+            if (p == null) {
+                continue;
+            }
+            todos.add(p);
+            skus.putIfAbsent(p.getSku(), p);
+            agrupado.computeIfAbsent(p.getCategoria(), c -> new LinkedHashMap<>())
+                    .computeIfAbsent(p.getSubcategoria(), s -> new ArrayList<>())
+                    .add(p);
+        }
+
+        // Segunda fase: congelar todo en vistas inmutables.
+        Map<String, Map<String, List<Producto>>> indiceFinal = new LinkedHashMap<>();
+        Map<String, List<String>> subcategoriasFinal = new LinkedHashMap<>();
+        Map<String, List<Producto>> porCategoriaFinal = new LinkedHashMap<>();
+
+        for (Map.Entry<String, Map<String, List<Producto>>> categoria : agrupado.entrySet()) {
+            Map<String, List<Producto>> subcategorias = new LinkedHashMap<>();
+            List<Producto> productosCategoria = new ArrayList<>();
+            for (Map.Entry<String, List<Producto>> subcategoria : categoria.getValue().entrySet()) {
+                subcategorias.put(subcategoria.getKey(), Collections.unmodifiableList(subcategoria.getValue()));
+                productosCategoria.addAll(subcategoria.getValue());
+            }
+            indiceFinal.put(categoria.getKey(), Collections.unmodifiableMap(subcategorias));
+            subcategoriasFinal.put(categoria.getKey(),
+                    Collections.unmodifiableList(new ArrayList<>(subcategorias.keySet())));
+            porCategoriaFinal.put(categoria.getKey(), Collections.unmodifiableList(productosCategoria));
+        }
+
+        this.productos = Collections.unmodifiableList(todos);
+        this.categorias = Collections.unmodifiableList(new ArrayList<>(indiceFinal.keySet()));
+        this.subcategoriasPorCategoria = Collections.unmodifiableMap(subcategoriasFinal);
+        this.productosPorCategoria = Collections.unmodifiableMap(porCategoriaFinal);
+        this.indice = Collections.unmodifiableMap(indiceFinal);
+        this.porSku = Collections.unmodifiableMap(skus);
+    }
+
+    /**
+     * @param sku Clave del producto.
+     * @return El producto con ese SKU, o null si no está en el catálogo.
+     */
+    public Producto getProducto(String sku) {
+        return porSku.get(sku);
+    }
+
+    /**
+     * @return Las categorías del catálogo, en orden de aparición.
+     */
+    public List<String> getCategorias() {
+        return categorias;
+    }
+
+    /**
+     * Obtiene las subcategorías de una categoría.
+     *
+     * @param categoria Nombre de la categoría.
+     * @return Las subcategorías en orden de aparición, o una lista vacía si la categoría no existe.
+     */
+    public List<String> getSubcategorias(String categoria) {
+        return subcategoriasPorCategoria.getOrDefault(categoria, Collections.emptyList());
+    }
+
+    /**
+     * Obtiene los productos de una categoría, agrupados por subcategoría.
+     *
+     * @param categoria Nombre de la categoría.
+     * @return Los productos de la categoría, o una lista vacía si no existe.
+     */
+    public List<Producto> getProductos(String categoria) {
+        return productosPorCategoria.getOrDefault(categoria, Collections.emptyList());
+    }
+
+    /**
+     * Obtiene los productos de una subcategoría dentro de una categoría.
+     *
+     * @param categoria    Nombre de la categoría.
+     * @param subcategoria Nombre de la subcategoría.
+     * @return Los productos de la subcategoría, o una lista vacía si no existe.
+     */
+    public List<Producto> getProductos(String categoria, String subcategoria) {
+        Map<String, List<Producto>> subcategorias = indice.get(categoria);
+        if (subcategorias == null) {
+            return Collections.emptyList();
+        }
+        return subcategorias.getOrDefault(subcategoria, Collections.emptyList());
+    }
+
+    /**
+     * @return Todos los productos del catálogo, en el orden de carga.
+     */
+    public List<Producto> getProductos() {
+        return productos;
+    }
+
+    /**
+     * @return El número de productos del catálogo.
+     */
+    public int tamano() {
+        return productos.size();
+    }
+}
@@ -0,0 +1,359 @@
+package com.tienda;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * La clase `ColaTickets` genera los tickets PDF en segundo plano, para que cerrar la compra no
+ * espere a PDFBox ni al disco.
+ * <p>
+ * Quien cierra la compra solo encola el trabajo y recibe un `CompletableFuture` que se completa
+ * cuando el ticket está listo (con la ruta del archivo o los bytes del PDF). Como en
+ * {@link GeneradorLotes}, cada trabajador tiene su propio {@link GeneradorPDF} y los trabajos
+ * esperan en una cola acotada; pero aquí encolar nunca bloquea: si la cola está llena, el
+ * futuro falla con `RejectedExecutionException` y el rechazo se cuenta.
+ * <p>
+ * Un ticket que falla se reintenta hasta `reintentos` veces, con una espera que se duplica en
+ * cada intento; mientras espera no ocupa a ningún trabajador. Al cerrar la cola ya no se aceptan
+ * trabajos y se espera a que terminen los pendientes, incluidos sus reintentos; los que no
+ * terminan a tiempo (en cola o esperando un reintento) fallan con `RejectedExecutionException`.
+ */
+public final class ColaTickets implements AutoCloseable {
+    private static final String EMPRESA = "City Market";
+    private static final int CAPACIDAD_PREDETERMINADA = 256;
+    private static final int REINTENTOS_PREDETERMINADOS = 2;
+    private static final long ESPERA_REINTENTO_MS = 100;
+
+    /**
+     * Lo que produce un trabajo a partir del PDF: escribir un archivo o guardar los bytes.
+     */
+    @FunctionalInterface
+    private interface Salida<T> {
+        T generar(GeneradorPDF generador, Compra compra) throws IOException;
+    }
+
+    /**
+     * Un ticket por generar, con su futuro y los intentos que lleva.
+     */
+    private static final class Trabajo<T> {
+        final Compra compra;
+        final Salida<T> salida;
+        final CompletableFuture<T> futuro = new CompletableFuture<>();
+        int intentos;
+
+        Trabajo(Compra compra, Salida<T> salida) {
+            this.compra = compra;
+            this.salida = salida;
+        }
+
+        void ejecutar(GeneradorPDF generador) throws IOException {
+            futuro.complete(salida.generar(generador, compra));
+        }
+    }
+
+    // Marca de fin; cada trabajador termina al recibirla.
+    private static final Trabajo<Void> FIN = new Trabajo<>(null, null);
+
+    private final BlockingQueue<Trabajo<?>> cola;
+    private final Thread[] trabajadores;
+    private final ScheduledExecutorService reintentador;
+    private final Set<Trabajo<?>> esperandoReintento = ConcurrentHashMap.newKeySet();
+    private final int reintentos;
+    private final long esperaReintentoMs;
+    private volatile boolean aceptando = true;
+
+    // Métricas.
+    private final AtomicInteger pendientes = new AtomicInteger();   // En cola, en proceso o esperando reintento.
+    private final AtomicInteger enProceso = new AtomicInteger();
+    private final AtomicLong completados = new AtomicLong();
+    private final AtomicLong fallidos = new AtomicLong();
+    private final AtomicLong reintentados = new AtomicLong();
+    private final AtomicLong rechazados = new AtomicLong();
+
+    /**
+     * Constructor de la cola. Empieza un trabajador por generador.
+     *
+     * @param generadores       Generadores de PDF, uno por trabajador; no se comparten con nadie más.
+     * @param capacidad         Trabajos que pueden esperar en la cola.
+     * @param reintentos        Reintentos de un ticket que falla, sin contar el primer intento.
+     * @param esperaReintentoMs Espera antes del primer reintento; se duplica en cada uno.
+     */
+    public ColaTickets(List<GeneradorPDF> generadores, int capacidad, int reintentos, long esperaReintentoMs) {
+        if (generadores.isEmpty()) {
+            throw new IllegalArgumentException("Error: Debe haber al menos un generador de tickets.");
+        }
+        if (capacidad <= 0) {
+            throw new IllegalArgumentException("Error: La capacidad de la cola debe ser mayor a 0.");
+        }
+        this.cola = new ArrayBlockingQueue<>(capacidad);
+        this.reintentos = reintentos;
+        this.esperaReintentoMs = esperaReintentoMs;
+        this.reintentador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread hilo = new Thread(r, "reintentos-tickets");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        this.trabajadores = new Thread[generadores.size()];
+        for (int i = 0; i < trabajadores.length; i++) {
+            GeneradorPDF generador = generadores.get(i);
+            trabajadores[i] = new Thread(() -> atender(generador), "tickets-" + i);
+            trabajadores[i].setDaemon(true);
+            trabajadores[i].start();
+        }
+    }
+
+    /**
+     * Contenedor de la cola compartida por la consola y las pantallas; se crea en el primer uso,
+     * con las fuentes configuradas y la mitad de los procesadores como trabajadores.
+     */
+    private static final class Contenedor {
+        static final ColaTickets INSTANCIA;
+        static final IOException ERROR;
+
+        static {
+            ColaTickets cola = null;
+            IOException error = null;
+            try {
+                List<GeneradorPDF> generadores = new ArrayList<>();
+                for (int i = 0; i < Math.max(1, Runtime.getRuntime().availableProcessors() / 2); i++) {
+                    generadores.add(GeneradorPDF.configurado("tiendita/src/logo.png"));
+                }
+                cola = new ColaTickets(generadores, CAPACIDAD_PREDETERMINADA, REINTENTOS_PREDETERMINADOS, ESPERA_REINTENTO_MS);
+                // Al salir se terminan los tickets pendientes.
+                ColaTickets compartida = cola;
+                Runtime.getRuntime().addShutdownHook(new Thread(compartida::close, "cierre-tickets"));
+            } catch (IOException e) {
+                error = e;
+            }
+            INSTANCIA = cola;
+            ERROR = error;
+        }
+    }
+
+    /**
+     * Obtiene la cola compartida.
+     *
+     * @return La instancia única de la cola.
+     * @throws IOException Si no se pudieron cargar las fuentes de los tickets.
+     */
+    public static ColaTickets obtener() throws IOException {
+        if (Contenedor.ERROR != null) {
+            throw Contenedor.ERROR;
+        }
+        return Contenedor.INSTANCIA;
+    }
+
+    // --- Encolar ---
+
+    /**
+     * Encola el ticket de la compra para escribirlo en un archivo. El PDF se escribe primero en
+     * un archivo temporal junto al destino y luego se mueve, así que el destino nunca queda a medias.
+     *
+     * @param compra  Compra cerrada.
+     * @param destino Archivo del ticket; se reemplaza si existe.
+     * @return Futuro que se completa con `destino` cuando el ticket está escrito.
+     */
+    public CompletableFuture<Path> encolar(Compra compra, Path destino) {
+        return encolar(new Trabajo<>(compra, (generador, c) -> {
+            // Temporal con nombre único: varios trabajos pueden escribir el mismo destino a la vez.
+            Path carpeta = destino.toAbsolutePath().getParent();
+            Path temporal = Files.createTempFile(carpeta, destino.getFileName().toString(), ".tmp");
+            try {
+                try (OutputStream salida = Files.newOutputStream(temporal)) {
+                    generador.generar(salida, EMPRESA, c.getUsuario(), c.getLineasTicket());
+                }
+                try {
+                    Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                // Tras un error el temporal no debe quedar en la carpeta; tras el movimiento ya no existe.
+                Files.deleteIfExists(temporal);
+            }
+            return destino;
+        }));
+    }
+
+    /**
+     * Encola el ticket de la compra para generarlo en memoria.
+     *
+     * @param compra Compra cerrada.
+     * @return Futuro que se completa con los bytes del PDF.
+     */
+    public CompletableFuture<byte[]> encolarEnMemoria(Compra compra) {
+        return encolar(new Trabajo<>(compra, (generador, c) -> {
+            ByteArrayOutputStream salida = new ByteArrayOutputStream(16 * 1024);
+            generador.generar(salida, EMPRESA, c.getUsuario(), c.getLineasTicket());
+            return salida.toByteArray();
+        }));
+    }
+
+    private <T> CompletableFuture<T> encolar(Trabajo<T> trabajo) {
+        pendientes.incrementAndGet();
+        if (!aceptando || !cola.offer(trabajo)) {
+            pendientes.decrementAndGet();
+            rechazados.incrementAndGet();
+            trabajo.futuro.completeExceptionally(new RejectedExecutionException(aceptando
+                ? "Error: La cola de tickets esta llena."
+                : "Error: La cola de tickets esta cerrada."));
+        }
+        return trabajo.futuro;
+    }
+
+    // --- Trabajadores ---
+
+    private void atender(GeneradorPDF generador) {
+        try {
+            while (true) {
+                Trabajo<?> trabajo = cola.take();
+                if (trabajo == FIN) {
+                    return;
+                }
+                enProceso.incrementAndGet();
+                try {
+                    trabajo.ejecutar(generador);
+                    completados.incrementAndGet();
+                    pendientes.decrementAndGet();
+                } catch (IOException | RuntimeException e) {
+                    fallo(trabajo, e);
+                } finally {
+                    enProceso.decrementAndGet();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Programa el reintento de un trabajo fallido, o lo da por fallido si ya no le quedan.
+     */
+    private void fallo(Trabajo<?> trabajo, Exception error) {
+        if (trabajo.intentos < reintentos) {
+            long espera = esperaReintentoMs << trabajo.intentos;
+            trabajo.intentos++;
+            reintentados.incrementAndGet();
+            esperandoReintento.add(trabajo);
+            try {
+                reintentador.schedule(() -> {
+                    if (!esperandoReintento.remove(trabajo)) {
+                        return;     // El cierre ya lo dio por fallido.
+                    }
+                    // El reintento no cuenta contra la capacidad de los trabajos nuevos: si la
+                    // cola está llena, espera su lugar en el hilo de reintentos.
+                    try {
+                        cola.put(trabajo);
+                    } catch (InterruptedException e) {
+                        abandonar(trabajo, error);
+                    }
+                }, espera, TimeUnit.MILLISECONDS);
+                return;
+            } catch (RejectedExecutionException e) {
+                // La cola ya se cerró a la fuerza; no hay reintento.
+                if (!esperandoReintento.remove(trabajo)) {
+                    return;
+                }
+            }
+        }
+        abandonar(trabajo, error);
+    }
+
+    private void abandonar(Trabajo<?> trabajo, Exception error) {
+        fallidos.incrementAndGet();
+        pendientes.decrementAndGet();
+        trabajo.futuro.completeExceptionally(error);
+    }
+
+    // --- Cierre ---
+
+    /**
+     * Deja de aceptar trabajos y espera a que terminen los pendientes (con sus reintentos).
+     *
+     * @param tiempoMs Espera máxima.
+     * @return true si terminaron todos; los que no, fallan con `RejectedExecutionException`.
+     */
+    public boolean cerrar(long tiempoMs) {
+        aceptando = false;
+        long limite = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(tiempoMs);
+        try {
+            while (pendientes.get() > 0 && System.nanoTime() < limite) {
+                Thread.sleep(10);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        boolean vacia = pendientes.get() == 0;
+
+        // Los reintentos programados que devuelve `shutdownNow` no se ejecutan: sus trabajos se
+        // toman del conjunto de los que esperan y fallan junto con los que siguen en la cola.
+        reintentador.shutdownNow();
+        try {
+            reintentador.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<Trabajo<?>> sobrantes = new ArrayList<>();
+        for (Trabajo<?> trabajo : esperandoReintento) {
+            if (esperandoReintento.remove(trabajo)) {
+                sobrantes.add(trabajo);
+            }
+        }
+        cola.drainTo(sobrantes);
+        for (Trabajo<?> trabajo : sobrantes) {
+            abandonar(trabajo, new RejectedExecutionException("Error: La cola de tickets se cerro antes de generar el ticket."));
+        }
+        for (Thread trabajador : trabajadores) {
+            // Si un trabajador sigue ocupado, la marca espera en la cola a que termine.
+            if (!cola.offer(FIN)) {
+                trabajador.interrupt();
+            }
+        }
+        return vacia;
+    }
+
+    /**
+     * Cierra la cola esperando hasta 30 segundos a los tickets pendientes.
+     */
+    @Override
+    public void close() {
+        cerrar(TimeUnit.SECONDS.toMillis(30));
+    }
+
+    // --- Métricas ---
+
+    /** @return Trabajos esperando en la cola. */
+    public int getEnCola() { return cola.size(); }
+    /** @return Trabajos que se están generando en este momento. */
+    public int getEnProceso() { return enProceso.get(); }
+    /** @return Trabajos sin terminar: en cola, en proceso o esperando un reintento. */
+    public int getPendientes() { return pendientes.get(); }
+    /** @return Tickets generados. */
+    public long getCompletados() { return completados.get(); }
+    /** @return Tickets que fallaron después de todos sus reintentos. */
+    public long getFallidos() { return fallidos.get(); }
+    /** @return Reintentos programados. */
+    public long getReintentos() { return reintentados.get(); }
+    /** @return Trabajos rechazados porque la cola estaba llena o cerrada. */
+    public long getRechazados() { return rechazados.get(); }
+    /** @return Trabajadores de la cola. */
+    public int getTrabajadores() { return trabajadores.length; }
+}
@@ -0,0 +1,95 @@
+package com.tienda;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * La clase `Compra` es el resultado de cerrar un carrito: quién compró, qué compró y cuándo.
+ * <p>
+ * Las líneas son una {@link Carrito.Instantanea}, así que la compra no cambia aunque el carrito
+ * se vuelva a usar. A partir de ella cada interfaz arma lo que necesita: el ticket de texto,
+ * las líneas del ticket PDF o el total para un aviso.
+ */
+public final class Compra {
+    private final Usuario usuario;
+    private final Carrito.Instantanea lineas;
+    private final LocalDateTime fecha;
+
+    Compra(Usuario usuario, Carrito.Instantanea lineas) {
+        this.usuario = usuario;
+        this.lineas = lineas;
+        this.fecha = LocalDateTime.now();
+    }
+
+    public Usuario getUsuario() { return usuario; }
+    public Carrito.Instantanea getLineas() { return lineas; }
+    public LocalDateTime getFecha() { return fecha; }
+
+    /**
+     * @return El total con descuentos, en centavos.
+     */
+    public long getTotalCentavos() {
+        return lineas.calcularTotalCentavos();
+    }
+
+    /**
+     * @return true si el carrito estaba vacío y no se compró nada.
+     */
+    public boolean estaVacia() {
+        return lineas.estaVacio();
+    }
+
+    /**
+     * @return El ticket de la compra como texto.
+     */
+    public String ticketTexto() {
+        return lineas.ticketTexto(usuario, fecha);
+    }
+
+    /**
+     * Escribe el ticket de la compra con una sola escritura, reutilizando el búfer del escritor.
+     *
+     * @param escritor Escritor del que llama; no se comparte entre hilos.
+     * @param destino  Dónde se escribe el ticket (mejor un `Writer`); no se cierra.
+     * @throws IOException Si el destino falla.
+     */
+    public void escribirTicket(EscritorTicketTexto escritor, Appendable destino) throws IOException {
+        escritor.escribir(lineas, usuario, fecha, destino);
+    }
+
+    /**
+     * @return Las líneas del ticket PDF, en el orden del carrito.
+     */
+    public List<GeneradorPDF.Producto> getLineasTicket() {
+        return lineasTicket(lineas);
+    }
+
+    /**
+     * Convierte las líneas de una instantánea del carrito en los productos del ticket PDF, con
+     * el descuento que decide el motor de precios del carrito.
+     *
+     * @param carrito La instantánea del carrito que se cobra.
+     * @return Las líneas del ticket, en el orden del carrito.
+     */
+    static List<GeneradorPDF.Producto> lineasTicket(Carrito.Instantanea carrito) {
+        MotorPrecios motor = carrito.getMotorPrecios();
+        Producto[] productosCarrito = carrito.getProductos();
+        List<GeneradorPDF.Producto> productosPDF = new ArrayList<>(productosCarrito.length);
+
+        for (Producto p : productosCarrito) {
+            GeneradorPDF.Producto linea = GeneradorPDF.Producto.enCentavos(
+                p.getNombre(),
+                p.getCategoria(),
+                p.getSubcategoria(),
+                String.valueOf(p.getStock()),
+                p.getPrecioCentavos(),
+                motor.descuento(p)
+            );
+            linea.idCategoria = p.idCategoria();
+            productosPDF.add(linea);
+        }
+        return productosPDF;
+    }
+}
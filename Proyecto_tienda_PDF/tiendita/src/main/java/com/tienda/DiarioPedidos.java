@@ -0,0 +1,645 @@
+package com.tienda;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
+
+/**
+ * La clase `DiarioPedidos` guarda cada compra cerrada en un registro binario que solo crece,
+ * para que los pedidos sobrevivan a un cierre inesperado y se puedan volver a leer en orden.
+ * <p>
+ * El diario es un directorio con segmentos de tamaño fijo (`pedidos-<primer pedido>.diario`),
+ * cada uno mapeado en memoria. Un pedido se copia al segmento con un cerrojo corto y recibe un
+ * número consecutivo; cuando no cabe, se fuerza a disco el segmento actual y se abre el siguiente.
+ * <p>
+ * Forzar a disco (fsync) es lo caro, así que se agrupa: un hilo aparte fuerza de una vez todo lo
+ * escrito desde la última vez y despierta a los que esperaban. Con muchas compras a la vez, una
+ * sola escritura a disco confirma muchos pedidos. {@link #registrar} espera esa confirmación;
+ * {@link #agregar} no espera y {@link #esperarDisco} permite esperarla después.
+ * <p>
+ * Formato de un segmento: `int` mágico y `int` versión, seguidos de los registros. Cada registro
+ * es `int` longitud de los datos, `int` CRC-32C (del número y los datos), `long` número del
+ * pedido y los datos; una longitud 0 marca el final. Al abrir, se revisa el último segmento y se
+ * descarta lo que siga al primer registro incompleto o dañado (lo que quedó a medias en un
+ * cierre inesperado). {@link Lector} recorre los pedidos en orden.
+ */
+public final class DiarioPedidos implements AutoCloseable {
+    // Propiedad del sistema con el directorio del diario de la tienda.
+    public static final String PROPIEDAD_DIARIO = "tienda.diario";
+
+    public static final int SEGMENTO_PREDETERMINADO = 64 * 1024 * 1024;
+
+    private static final int MAGIA = 0x54445031;            // "TDP1"
+    private static final int VERSION = 1;
+    private static final int CABECERA_SEGMENTO = 8;
+    private static final int CABECERA_REGISTRO = 16;
+    private static final String PREFIJO = "pedidos-";
+    private static final String EXTENSION = ".diario";
+
+    private final Path directorio;
+    private final int tamanoSegmento;
+    private final CRC32C crc = new CRC32C();                // Se usa con el cerrojo.
+    private final ReentrantLock cerrojo = new ReentrantLock();
+    private final Condition hayPendientes = cerrojo.newCondition();
+    private final Condition enDisco = cerrojo.newCondition();
+    private final Thread escritorDisco;
+    private final long primeraAlAbrir;
+    private final long recuperados;
+
+    // Estado protegido por `cerrojo`.
+    private FileChannel canal;
+    private MappedByteBuffer segmento;
+    private int posicion;           // Donde va el siguiente registro.
+    private int inicioSinForzar;    // Desde donde hay bytes del segmento sin forzar.
+    private long siguiente;         // Número del siguiente pedido.
+    private long duraderos;         // Último pedido que ya está en disco.
+    private long forzados;          // Veces que se forzó a disco.
+    private IOException falla;      // Error del hilo de disco; el diario ya no acepta pedidos.
+    private boolean cerrado;
+
+    /**
+     * Abre (o crea) el diario de un directorio y recupera el último segmento.
+     *
+     * @param directorio     Directorio de los segmentos.
+     * @param tamanoSegmento Tamaño de cada segmento nuevo, en bytes.
+     * @throws IOException Si no se puede abrir, o el directorio tiene archivos que no son del diario.
+     */
+    public DiarioPedidos(Path directorio, int tamanoSegmento) throws IOException {
+        if (tamanoSegmento < 4096) {
+            throw new IllegalArgumentException("Error: Un segmento del diario debe tener al menos 4096 bytes.");
+        }
+        this.directorio = directorio;
+        this.tamanoSegmento = tamanoSegmento;
+        Files.createDirectories(directorio);
+
+        List<Path> segmentos = segmentos(directorio);
+        if (segmentos.isEmpty()) {
+            siguiente = 1;
+            abrirSegmentoNuevo();
+            recuperados = 0;
+        } else {
+            Path ultimo = segmentos.get(segmentos.size() - 1);
+            long primera = primeraSecuencia(ultimo);
+            siguiente = primera;
+            recuperados = recuperar(ultimo);
+        }
+        primeraAlAbrir = siguiente;
+        duraderos = siguiente - 1;
+
+        escritorDisco = new Thread(this::forzarPendientes, "diario-pedidos");
+        escritorDisco.setDaemon(true);
+        escritorDisco.start();
+    }
+
+    /**
+     * Abre el diario indicado en la propiedad `tienda.diario`, con segmentos de 64 MB.
+     *
+     * @return El diario, o null si la propiedad no está definida.
+     * @throws IOException Si no se puede abrir el directorio indicado.
+     */
+    public static DiarioPedidos desdePropiedad() throws IOException {
+        String valor = System.getProperty(PROPIEDAD_DIARIO);
+        if (valor == null || valor.isEmpty()) {
+            return null;
+        }
+        return new DiarioPedidos(Paths.get(valor), SEGMENTO_PREDETERMINADO);
+    }
+
+    // --- Escritura ---
+
+    /**
+     * Agrega el pedido y espera a que esté en disco.
+     *
+     * @param compra Compra cerrada, no vacía.
+     * @return El número del pedido.
+     * @throws IOException Si el diario está cerrado o no se pudo escribir en disco.
+     */
+    public long registrar(Compra compra) throws IOException {
+        long secuencia = agregar(compra);
+        esperarDisco(secuencia);
+        return secuencia;
+    }
+
+    /**
+     * Agrega el pedido sin esperar a que llegue a disco; se forzará junto con los demás.
+     *
+     * @param compra Compra cerrada, no vacía.
+     * @return El número del pedido, para {@link #esperarDisco}.
+     * @throws IOException Si el diario está cerrado o falló una escritura anterior.
+     */
+    public long agregar(Compra compra) throws IOException {
+        // La codificación se hace fuera del cerrojo; con él solo se copia al segmento.
+        byte[] datos = codificar(compra);
+        int total = CABECERA_REGISTRO + datos.length;
+        if (total > tamanoSegmento - CABECERA_SEGMENTO) {
+            throw new IllegalArgumentException("Error: El pedido no cabe en un segmento del diario.");
+        }
+        cerrojo.lock();
+        try {
+            verificarAbierto();
+            if (posicion + total > segmento.capacity()) {
+                rodar();
+            }
+            long secuencia = siguiente++;
+            int p = posicion;
+            segmento.putLong(p + 8, secuencia);
+            segmento.put(p + CABECERA_REGISTRO, datos);
+            crc.reset();
+            crc.update(segmento.slice(p + 8, 8 + datos.length));
+            segmento.putInt(p + 4, (int) crc.getValue());
+            segmento.putInt(p, datos.length);
+            posicion = p + total;
+            hayPendientes.signal();
+            return secuencia;
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    /**
+     * Espera a que el pedido indicado (y todos los anteriores) estén en disco.
+     *
+     * @param secuencia Número devuelto por {@link #agregar}.
+     * @throws IOException Si falló la escritura a disco o se interrumpió la espera.
+     */
+    public void esperarDisco(long secuencia) throws IOException {
+        cerrojo.lock();
+        try {
+            while (duraderos < secuencia) {
+                if (falla != null) {
+                    throw new IOException("Error: No se pudo guardar el pedido en disco.", falla);
+                }
+                enDisco.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Se interrumpio la espera del diario de pedidos.");
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    /**
+     * Fuerza lo pendiente a disco y detiene el hilo de escritura. Los pedidos agregados antes
+     * de cerrar quedan en disco.
+     */
+    @Override
+    public void close() throws IOException {
+        cerrojo.lock();
+        try {
+            if (cerrado) {
+                return;
+            }
+            cerrado = true;
+            hayPendientes.signal();
+        } finally {
+            cerrojo.unlock();
+        }
+        try {
+            escritorDisco.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        cerrojo.lock();
+        try {
+            canal.close();
+            if (falla != null) {
+                throw new IOException("Error: No se pudo guardar el diario de pedidos en disco.", falla);
+            }
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    // --- Métricas ---
+
+    /** @return Número que recibirá el siguiente pedido. */
+    public long getSiguienteSecuencia() {
+        cerrojo.lock();
+        try {
+            return siguiente;
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    /** @return Pedidos agregados desde que se abrió el diario. */
+    public long getEscritos() {
+        return getSiguienteSecuencia() - primeraAlAbrir;
+    }
+
+    /** @return Veces que se forzó a disco; con escrituras simultáneas es mucho menor que los pedidos. */
+    public long getForzados() {
+        cerrojo.lock();
+        try {
+            return forzados;
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    /** @return Pedidos válidos encontrados en el último segmento al abrir el diario. */
+    public long getRecuperados() {
+        return recuperados;
+    }
+
+    // --- Disco ---
+
+    /**
+     * Hilo de disco: espera a que haya pedidos sin forzar, fuerza de una vez el tramo escrito
+     * desde la última vez y avisa a los que esperaban.
+     */
+    private void forzarPendientes() {
+        while (true) {
+            MappedByteBuffer buffer;
+            int desde;
+            int hasta;
+            long objetivo;
+            cerrojo.lock();
+            try {
+                while (duraderos == siguiente - 1 && !cerrado) {
+                    hayPendientes.awaitUninterruptibly();
+                }
+                if (duraderos == siguiente - 1) {
+                    return;     // Cerrado y sin pendientes.
+                }
+                buffer = segmento;
+                desde = inicioSinForzar;
+                hasta = posicion;
+                objetivo = siguiente - 1;
+                inicioSinForzar = hasta;
+            } finally {
+                cerrojo.unlock();
+            }
+
+            // Mientras se fuerza, los demás siguen agregando pedidos; esos van en la siguiente vuelta.
+            IOException error = null;
+            try {
+                buffer.force(desde, hasta - desde);
+            } catch (UncheckedIOException e) {
+                error = e.getCause();
+            }
+
+            cerrojo.lock();
+            try {
+                if (error != null) {
+                    falla = error;
+                    cerrado = true;
+                } else {
+                    duraderos = objetivo;
+                    forzados++;
+                }
+                enDisco.signalAll();
+                if (error != null) {
+                    return;
+                }
+            } finally {
+                cerrojo.unlock();
+            }
+        }
+    }
+
+    /**
+     * Cierra el segmento actual, ya forzado a disco, y abre uno nuevo. Se llama con el cerrojo.
+     * Como el segmento se fuerza completo aquí, el hilo de disco solo atiende el segmento nuevo.
+     */
+    private void rodar() throws IOException {
+        try {
+            segmento.force();
+        } catch (UncheckedIOException e) {
+            falla = e.getCause();
+            throw falla;
+        }
+        canal.close();
+        try {
+            abrirSegmentoNuevo();
+        } catch (IOException e) {
+            falla = e;
+            throw e;
+        }
+    }
+
+    private void abrirSegmentoNuevo() throws IOException {
+        Path archivo = directorio.resolve(nombreSegmento(siguiente));
+        canal = FileChannel.open(archivo, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        iniciarSegmento();
+        forzarDirectorio();
+    }
+
+    /**
+     * Mapea `canal` con el tamaño de un segmento y escribe la cabecera. La cabecera y el tamaño
+     * del archivo se fuerzan antes del primer pedido: si un corte llega justo después de rodar,
+     * el último segmento queda vacío pero se puede abrir.
+     */
+    private void iniciarSegmento() throws IOException {
+        segmento = canal.map(FileChannel.MapMode.READ_WRITE, 0, tamanoSegmento);
+        segmento.putInt(0, MAGIA);
+        segmento.putInt(4, VERSION);
+        try {
+            segmento.force(0, CABECERA_SEGMENTO);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        canal.force(true);
+        posicion = CABECERA_SEGMENTO;
+        inicioSinForzar = CABECERA_SEGMENTO;
+    }
+
+    /**
+     * Recorre el último segmento hasta el primer registro que no sea válido y deja el diario
+     * listo para escribir ahí. Lo que haya después (un pedido a medias) se borra truncando el
+     * archivo, para que un registro viejo no pueda parecer válido detrás de los nuevos.
+     * <p>
+     * Un segmento vacío o todo en ceros es uno que se creó justo antes de un corte (o con una
+     * versión anterior, que no forzaba la cabecera al crearlo): no tiene pedidos y se inicia de nuevo.
+     *
+     * @return Los pedidos válidos del segmento.
+     */
+    private long recuperar(Path archivo) throws IOException {
+        canal = FileChannel.open(archivo, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long tamano = canal.size();
+        if (tamano < CABECERA_SEGMENTO || ceros(canal.map(FileChannel.MapMode.READ_ONLY, 0, tamano), 0)) {
+            iniciarSegmento();
+            return 0;
+        }
+        MappedByteBuffer buffer = canal.map(FileChannel.MapMode.READ_WRITE, 0, tamano);
+        verificarCabecera(buffer, archivo);
+        long primera = siguiente;
+        int p = CABECERA_SEGMENTO;
+        for (int fin; (fin = finRegistro(buffer, p, siguiente, crc)) > 0; p = fin) {
+            siguiente++;
+        }
+        if (p < tamano && !ceros(buffer, p)) {
+            // No se vuelve a tocar el mapeo anterior: después de truncar, leerlo fallaría.
+            canal.truncate(p);
+            buffer = canal.map(FileChannel.MapMode.READ_WRITE, 0, tamano);
+            buffer.force();
+        }
+        segmento = buffer;
+        posicion = p;
+        inicioSinForzar = p;
+        return siguiente - primera;
+    }
+
+    private static boolean ceros(ByteBuffer buffer, int desde) {
+        for (int i = desde; i < buffer.limit(); i++) {
+            if (buffer.get(i) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Fuerza la entrada del segmento nuevo en el directorio; sin esto, en Linux el archivo
+     * podría no existir tras un corte de luz aunque su contenido se haya forzado.
+     */
+    private void forzarDirectorio() {
+        try (FileChannel dir = FileChannel.open(directorio, StandardOpenOption.READ)) {
+            dir.force(true);
+        } catch (IOException e) {
+            // No todos los sistemas permiten abrir un directorio; ahí no hace falta.
+        }
+    }
+
+    private void verificarAbierto() throws IOException {
+        if (falla != null) {
+            throw new IOException("Error: El diario de pedidos no pudo escribir en disco.", falla);
+        }
+        if (cerrado) {
+            throw new IOException("Error: El diario de pedidos esta cerrado.");
+        }
+    }
+
+    // --- Formato ---
+
+    /**
+     * Datos de un registro: fecha (segundos y nanos), usuario (nombre, email, dirección), líneas
+     * (SKU, nombre, cantidad, precio, descuento y subtotal) y totales. Los textos van en UTF-8
+     * precedidos de su longitud en dos bytes.
+     */
+    private static byte[] codificar(Compra compra) {
+        Carrito.Instantanea carrito = compra.getLineas();
+        MotorPrecios motor = carrito.getMotorPrecios();
+        Producto[] productos = carrito.getProductos();
+        Usuario usuario = compra.getUsuario();
+
+        byte[] nombre = utf8(usuario.getNombre());
+        byte[] email = utf8(usuario.getEmail());
+        byte[] direccion = utf8(usuario.getDireccion());
+        byte[][] skus = new byte[productos.length][];
+        byte[][] nombres = new byte[productos.length][];
+        int tamano = 8 + 4 + 6 + nombre.length + email.length + direccion.length + 4 + 16;
+        for (int i = 0; i < productos.length; i++) {
+            skus[i] = utf8(productos[i].getSku());
+            nombres[i] = utf8(productos[i].getNombre());
+            tamano += 4 + skus[i].length + nombres[i].length + 4 + 8 + 4 + 8;
+        }
+
+        ByteBuffer datos = ByteBuffer.allocate(tamano);
+        LocalDateTime fecha = compra.getFecha();
+        datos.putLong(fecha.toEpochSecond(ZoneOffset.UTC)).putInt(fecha.getNano());
+        texto(datos, nombre);
+        texto(datos, email);
+        texto(datos, direccion);
+        datos.putInt(productos.length);
+        for (int i = 0; i < productos.length; i++) {
+            Producto p = productos[i];
+            texto(datos, skus[i]);
+            texto(datos, nombres[i]);
+            datos.putInt(p.getStock())
+                .putLong(p.getPrecioCentavos())
+                .putInt(motor.descuento(p))
+                .putLong(motor.subtotalConDescuento(p));
+        }
+        datos.putLong(carrito.calcularTotalSinDescuentoCentavos()).putLong(carrito.calcularTotalCentavos());
+        return datos.array();
+    }
+
+    private static Pedido decodificar(ByteBuffer segmento, int p) {
+        int longitud = segmento.getInt(p);
+        long secuencia = segmento.getLong(p + 8);
+        ByteBuffer datos = segmento.slice(p + CABECERA_REGISTRO, longitud);
+        LocalDateTime fecha = LocalDateTime.ofEpochSecond(datos.getLong(), datos.getInt(), ZoneOffset.UTC);
+        Usuario usuario = new Usuario(texto(datos), texto(datos), texto(datos));
+        int n = datos.getInt();
+        List<Pedido.Linea> lineas = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            lineas.add(new Pedido.Linea(texto(datos), texto(datos), datos.getInt(), datos.getLong(),
+                datos.getInt(), datos.getLong()));
+        }
+        return new Pedido(secuencia, fecha, usuario, lineas, datos.getLong(), datos.getLong());
+    }
+
+    private static byte[] utf8(String texto) {
+        byte[] bytes = texto != null ? texto.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        if (bytes.length > 0xFFFF) {
+            throw new IllegalArgumentException("Error: Un texto del pedido es demasiado largo para el diario.");
+        }
+        return bytes;
+    }
+
+    private static void texto(ByteBuffer datos, byte[] bytes) {
+        datos.putShort((short) bytes.length).put(bytes);
+    }
+
+    private static String texto(ByteBuffer datos) {
+        int longitud = Short.toUnsignedInt(datos.getShort());
+        byte[] bytes = new byte[longitud];
+        datos.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Valida el registro que empieza en `p`.
+     *
+     * @return Dónde termina el registro, o -1 si no hay un registro válido con el número esperado.
+     */
+    private static int finRegistro(ByteBuffer segmento, int p, long esperada, CRC32C crc) {
+        if (p + CABECERA_REGISTRO > segmento.limit()) {
+            return -1;
+        }
+        int longitud = segmento.getInt(p);
+        if (longitud <= 0 || longitud > segmento.limit() - p - CABECERA_REGISTRO) {
+            return -1;
+        }
+        if (segmento.getLong(p + 8) != esperada) {
+            return -1;
+        }
+        crc.reset();
+        crc.update(segmento.slice(p + 8, 8 + longitud));
+        if ((int) crc.getValue() != segmento.getInt(p + 4)) {
+            return -1;
+        }
+        return p + CABECERA_REGISTRO + longitud;
+    }
+
+    private static void verificarCabecera(ByteBuffer segmento, Path archivo) throws IOException {
+        if (segmento.getInt(0) != MAGIA || segmento.getInt(4) != VERSION) {
+            throw new IOException("Error: " + archivo + " no es un segmento del diario de pedidos.");
+        }
+    }
+
+    private static String nombreSegmento(long primera) {
+        return String.format("%s%020d%s", PREFIJO, primera, EXTENSION);
+    }
+
+    private static long primeraSecuencia(Path segmento) {
+        String nombre = segmento.getFileName().toString();
+        return Long.parseLong(nombre.substring(PREFIJO.length(), nombre.length() - EXTENSION.length()));
+    }
+
+    /**
+     * @return Los segmentos del directorio, del más viejo al más nuevo (el nombre lleva el número
+     *         del primer pedido con ceros a la izquierda, así que el orden alfabético sirve).
+     */
+    private static List<Path> segmentos(Path directorio) throws IOException {
+        List<Path> segmentos = new ArrayList<>();
+        try (DirectoryStream<Path> archivos = Files.newDirectoryStream(directorio, PREFIJO + "*" + EXTENSION)) {
+            for (Path archivo : archivos) {
+                segmentos.add(archivo);
+            }
+        }
+        Collections.sort(segmentos);
+        return segmentos;
+    }
+
+    // --- Lectura ---
+
+    /**
+     * Abre un lector de los pedidos del diario, en orden.
+     *
+     * @param directorio Directorio del diario.
+     * @param desde      Primer número de pedido que interesa; 1 para todos.
+     * @return El lector.
+     * @throws IOException Si no se puede leer el directorio.
+     */
+    public static Lector leer(Path directorio, long desde) throws IOException {
+        return new Lector(segmentos(directorio), desde);
+    }
+
+    /**
+     * Recorre los pedidos de un diario en orden, segmento por segmento. Se puede usar mientras
+     * el diario sigue abierto: termina en el último pedido completo que encuentre.
+     */
+    public static final class Lector implements AutoCloseable {
+        private final List<Path> segmentos;
+        private final long desde;
+        private final CRC32C crc = new CRC32C();
+        private int indice;
+        private ByteBuffer actual;
+        private int posicion;
+        private long esperada;
+
+        private Lector(List<Path> segmentos, long desde) {
+            this.segmentos = segmentos;
+            this.desde = desde;
+            // Se salta directo al segmento que contiene `desde`.
+            int inicio = 0;
+            while (inicio + 1 < segmentos.size() && primeraSecuencia(segmentos.get(inicio + 1)) <= desde) {
+                inicio++;
+            }
+            this.indice = inicio;
+        }
+
+        /**
+         * @return El siguiente pedido, o null si no hay más.
+         * @throws IOException Si no se puede leer un segmento, o falta un tramo del diario.
+         */
+        public Pedido siguiente() throws IOException {
+            while (true) {
+                if (actual != null) {
+                    int fin = finRegistro(actual, posicion, esperada, crc);
+                    if (fin > 0) {
+                        Pedido pedido = decodificar(actual, posicion);
+                        posicion = fin;
+                        esperada++;
+                        if (pedido.getSecuencia() >= desde) {
+                            return pedido;
+                        }
+                        continue;
+                    }
+                }
+                if (indice >= segmentos.size()) {
+                    return null;
+                }
+                Path archivo = segmentos.get(indice++);
+                long primera = primeraSecuencia(archivo);
+                if (actual != null && primera != esperada) {
+                    throw new IOException("Error: Faltan pedidos del " + esperada + " al " + (primera - 1) + " en el diario.");
+                }
+                try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+                    actual = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+                }
+                if (indice == segmentos.size() && ceros(actual, 0)) {
+                    return null;    // Último segmento recién creado: todavía sin cabecera ni pedidos.
+                }
+                verificarCabecera(actual, archivo);
+                posicion = CABECERA_SEGMENTO;
+                esperada = primera;
+            }
+        }
+
+        @Override
+        public void close() {
+            actual = null;      // El mapeo se libera cuando lo recolecta el GC.
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.tienda;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * La clase `Dinero` reúne las operaciones con montos representados como un `long` de centavos.
+ * <p>
+ * Con `double` un precio como 0.10 no tiene representación exacta, y al sumar muchas líneas el
+ * total puede no coincidir con la suma de lo que muestra el ticket. Con centavos enteros las
+ * sumas son exactas, y solo hay redondeo en dos lugares, siempre con la misma regla:
+ * <ul>
+ *   <li>Al convertir un decimal (un precio leído de un archivo) a centavos.</li>
+ *   <li>Al calcular un descuento, que se expresa en puntos base (1 punto base = 0.01%, así
+ *       500 = 5%).</li>
+ * </ul>
+ * En ambos casos se redondea al centavo más cercano, y las mitades se alejan de cero
+ * ({@link RoundingMode#HALF_UP}). El descuento se redondea por línea, de modo que el total
+ * del ticket es exactamente la suma de sus líneas.
+ * <p>
+ * Se usan métodos estáticos sobre `long` (y no un objeto por monto) para que los cálculos del
+ * carrito y del ticket no creen objetos.
+ */
+public final class Dinero {
+    // Puntos base que equivalen al 100%.
+    public static final int PUNTOS_BASE_TOTAL = 10_000;
+
+    private Dinero() {
+    }
+
+    /**
+     * Convierte un monto decimal a centavos, redondeando al centavo más cercano.
+     * Se usa la representación decimal más corta del `double` (la que se escribiría), así
+     * 1.005 se convierte en 101 centavos y no en 100.
+     *
+     * @param monto Monto en pesos.
+     * @return El monto en centavos.
+     */
+    public static long deDecimal(double monto) {
+        if (Double.isNaN(monto) || Double.isInfinite(monto)) {
+            throw new IllegalArgumentException("Error: Monto invalido: " + monto);
+        }
+        // Caso común: el monto ya tiene a lo más dos decimales y se recupera exacto dividiendo entre 100.
+        long centavos = Math.round(monto * 100);
+        if (Math.abs(centavos) < (1L << 52) && centavos / 100.0 == monto) {
+            return centavos;
+        }
+        return BigDecimal.valueOf(monto).setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Lee un monto escrito en decimal ("12.5", "-3", "0.105") y lo convierte a centavos.
+     *
+     * @param texto Monto en pesos.
+     * @return El monto en centavos.
+     * @throws NumberFormatException Si el texto no es un número.
+     */
+    public static long parsear(String texto) {
+        try {
+            return new BigDecimal(texto.trim()).setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            throw new NumberFormatException("Monto fuera de rango: " + texto);
+        }
+    }
+
+    /**
+     * @param centavos Monto en centavos.
+     * @return El monto en pesos, para mostrarlo o para APIs que esperan `double`.
+     */
+    public static double aDecimal(long centavos) {
+        return centavos / 100.0;
+    }
+
+    /**
+     * Convierte un descuento expresado como fracción (0.05) a puntos base (500).
+     *
+     * @param fraccion Descuento como fracción del monto.
+     * @return El descuento en puntos base.
+     */
+    public static int puntosBase(double fraccion) {
+        return (int) Math.round(fraccion * PUNTOS_BASE_TOTAL);
+    }
+
+    /**
+     * Multiplica un precio unitario por una cantidad.
+     *
+     * @throws ArithmeticException Si el resultado no cabe en un `long`.
+     */
+    public static long multiplicar(long centavos, int cantidad) {
+        return Math.multiplyExact(centavos, (long) cantidad);
+    }
+
+    /**
+     * Calcula el monto de un descuento, redondeado al centavo (mitades lejos de cero).
+     *
+     * @param centavos   Monto al que se aplica el descuento.
+     * @param puntosBase Descuento en puntos base (500 = 5%).
+     * @return El monto descontado, en centavos.
+     */
+    public static long descuento(long centavos, int puntosBase) {
+        long producto = Math.multiplyExact(centavos, (long) puntosBase);
+        long mitad = PUNTOS_BASE_TOTAL / 2;
+        return producto >= 0
+            ? (producto + mitad) / PUNTOS_BASE_TOTAL
+            : -((-producto + mitad) / PUNTOS_BASE_TOTAL);
+    }
+
+    /**
+     * Aplica un descuento a un monto.
+     *
+     * @param centavos   Monto original.
+     * @param puntosBase Descuento en puntos base (500 = 5%).
+     * @return El monto con el descuento aplicado, en centavos.
+     */
+    public static long aplicarDescuento(long centavos, int puntosBase) {
+        return centavos - descuento(centavos, puntosBase);
+    }
+
+    /**
+     * Escribe un monto con dos decimales ("1234.50", "-0.05") al final de un `StringBuilder`,
+     * sin pasar por `String.format`.
+     *
+     * @param centavos Monto en centavos.
+     * @param destino  Texto al que se agrega el monto.
+     * @return El mismo `destino`, para encadenar llamadas.
+     */
+    public static StringBuilder formatear(long centavos, StringBuilder destino) {
+        if (centavos < 0) {
+            destino.append('-');
+            if (centavos == Long.MIN_VALUE) {
+                // -Long.MIN_VALUE no cabe en un long: se escribe el último dígito aparte.
+                destino.append(-(Long.MIN_VALUE / 100)).append('.').append("08");
+                return destino;
+            }
+            centavos = -centavos;
+        }
+        long fraccion = centavos % 100;
+        destino.append(centavos / 100).append('.');
+        if (fraccion < 10) {
+            destino.append('0');
+        }
+        return destino.append(fraccion);
+    }
+
+    /**
+     * @param centavos Monto en centavos.
+     * @return El monto con dos decimales, por ejemplo "28.50".
+     */
+    public static String formatear(long centavos) {
+        return formatear(centavos, new StringBuilder(12)).toString();
+    }
+
+    /**
+     * Escribe un porcentaje como {@link #porcentaje(int)} al final de un `StringBuilder`, sin
+     * crear cadenas intermedias.
+     *
+     * @param puntosBase Descuento en puntos base (no negativo).
+     * @param destino    Texto al que se agrega el porcentaje.
+     * @return El mismo `destino`, para encadenar llamadas.
+     */
+    public static StringBuilder porcentaje(int puntosBase, StringBuilder destino) {
+        destino.append(puntosBase / 100);
+        int resto = puntosBase % 100;
+        if (resto != 0) {
+            destino.append('.').append((char) ('0' + resto / 10));
+            if (resto % 10 != 0) {
+                destino.append((char) ('0' + resto % 10));
+            }
+        }
+        return destino;
+    }
+
+    /**
+     * @param puntosBase Descuento en puntos base.
+     * @return El descuento como porcentaje entero o con decimales si los tiene ("5", "12.5").
+     */
+    public static String porcentaje(int puntosBase) {
+        if (puntosBase % 100 == 0) {
+            return Integer.toString(puntosBase / 100);
+        }
+        return BigDecimal.valueOf(puntosBase, 2).stripTrailingZeros().toPlainString();
+    }
+}
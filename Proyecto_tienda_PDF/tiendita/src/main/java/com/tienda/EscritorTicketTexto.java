@@ -0,0 +1,223 @@
+package com.tienda;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDateTime;
+
+/**
+ * La clase `EscritorTicketTexto` arma el ticket de texto de 56 columnas (el de la consola y los
+ * registros) sin generar basura por renglón.
+ * <p>
+ * El ticket se compone en un `StringBuilder` que se reutiliza entre tickets: los textos se copian,
+ * los montos, cantidades y porcentajes se escriben dígito por dígito, la fecha se arma con sus
+ * campos (sin `DateTimeFormatter`) y los rellenos se copian de una cadena de espacios constante,
+ * sin `String.format` ni concatenaciones. Al final el ticket se entrega en una sola escritura.
+ * <p>
+ * Las líneas se imprimen agrupadas por categoría/subcategoría ({@link TicketAgrupado}), con un
+ * encabezado y un subtotal por grupo aunque sus productos no estén seguidos en el carrito. El
+ * agrupador y el ticket agrupado también se reutilizan.
+ * <p>
+ * Un escritor guarda el ticket en curso, así que no es seguro entre hilos: cada hilo usa el suyo.
+ * Quien imprime tickets seguido (la consola, las pantallas) guarda su propio escritor y llama a
+ * {@link #escribir(Carrito.Instantanea, Usuario, LocalDateTime, Appendable)}; quien solo
+ * necesita el texto usa el escritor de su hilo ({@link #delHilo()}).
+ */
+public final class EscritorTicketTexto {
+    public static final int ANCHO = 56;
+
+    private static final String SEPARADOR = "========================================================";
+    private static final String ESPACIOS = "                                                                ";
+    private static final String FIN = System.lineSeparator();
+
+    private final StringBuilder texto;
+    private char[] caracteres;          // Copia del ticket para escribirlo en un `Writer`.
+    private final AgrupadorTicket agrupador = new AgrupadorTicket();
+    private final TicketAgrupado agrupado = new TicketAgrupado();
+
+    // Un escritor por hilo para quienes piden el ticket como `String`.
+    private static final ThreadLocal<EscritorTicketTexto> DEL_HILO =
+        ThreadLocal.withInitial(() -> new EscritorTicketTexto(4096));
+
+    /**
+     * @param capacidadInicial Caracteres reservados al inicio; crece si un ticket no cabe.
+     */
+    public EscritorTicketTexto(int capacidadInicial) {
+        this.texto = new StringBuilder(capacidadInicial);
+        this.caracteres = new char[0];
+    }
+
+    /**
+     * @return El escritor reutilizable del hilo actual.
+     */
+    static EscritorTicketTexto delHilo() {
+        return DEL_HILO.get();
+    }
+
+    /**
+     * Escribe el ticket en un destino con una sola escritura. En un `Writer` se escriben los
+     * caracteres directamente; en un `StringBuilder` se copian. Otros destinos (como un
+     * `PrintStream`) reciben el ticket como una sola cadena.
+     *
+     * @param carrito Las líneas que se cobran.
+     * @param usuario El usuario que realiza la compra.
+     * @param fecha   Fecha y hora de la compra.
+     * @param destino Dónde se escribe el ticket; no se cierra.
+     * @throws IOException Si el destino falla.
+     */
+    public void escribir(Carrito.Instantanea carrito, Usuario usuario, LocalDateTime fecha, Appendable destino)
+            throws IOException {
+        escribir(agrupador.agrupar(carrito, agrupado), usuario, fecha, destino);
+    }
+
+    /**
+     * Escribe en un destino, con una sola escritura, el ticket de líneas ya agrupadas.
+     *
+     * @param ticket  Las líneas agrupadas, con subtotales y totales ya sumados.
+     * @param usuario El usuario que realiza la compra.
+     * @param fecha   Fecha y hora de la compra.
+     * @param destino Dónde se escribe el ticket; no se cierra.
+     * @throws IOException Si el destino falla.
+     */
+    public void escribir(TicketAgrupado ticket, Usuario usuario, LocalDateTime fecha, Appendable destino)
+            throws IOException {
+        componer(ticket, usuario, fecha);
+        int largo = texto.length();
+        if (destino instanceof Writer) {
+            if (caracteres.length < largo) {
+                caracteres = new char[Math.max(largo, caracteres.length * 2)];
+            }
+            texto.getChars(0, largo, caracteres, 0);
+            ((Writer) destino).write(caracteres, 0, largo);
+        } else {
+            destino.append(texto);
+        }
+    }
+
+    /**
+     * @return El ticket como texto.
+     */
+    public String texto(Carrito.Instantanea carrito, Usuario usuario, LocalDateTime fecha) {
+        return componer(agrupador.agrupar(carrito, agrupado), usuario, fecha).toString();
+    }
+
+    /**
+     * Arma el ticket en el `StringBuilder` reutilizado.
+     * Incluye información del usuario, fecha, productos agrupados con el subtotal de cada grupo
+     * y el cálculo final de descuentos.
+     */
+    StringBuilder componer(TicketAgrupado ticket, Usuario usuario, LocalDateTime fecha) {
+        texto.setLength(0);
+        if (ticket.estaVacio()) {
+            return texto.append(" El carrito esta vacio.").append(FIN);
+        }
+
+        // Encabezado del ticket con datos del cliente y la tienda.
+        texto.append(SEPARADOR).append(FIN);
+        centrado("City Market");
+        texto.append("Cliente: ").append(usuario.getNombre()).append(FIN);
+        texto.append("Email:  ").append(usuario.getEmail()).append(FIN);
+        texto.append("Direccion: ").append(usuario.getDireccion()).append(FIN);
+        texto.append("Fecha: ");
+        dosDigitos(fecha.getDayOfMonth()).append('/');
+        dosDigitos(fecha.getMonthValue()).append('/');
+        texto.append(fecha.getYear()).append(' ');
+        dosDigitos(fecha.getHour()).append(':');
+        dosDigitos(fecha.getMinute()).append(':');
+        dosDigitos(fecha.getSecond()).append(FIN);
+        texto.append(SEPARADOR).append(FIN);
+
+        // Un bloque por grupo: encabezado, sus productos y su subtotal ya sumado.
+        for (int g = 0; g < ticket.getGrupos(); g++) {
+            texto.append(FIN).append("--- ").append(ticket.getCategoria(g)).append(" / ")
+                .append(ticket.getSubcategoria(g)).append(" ---").append(FIN);
+
+            for (int l = ticket.primeraLinea(g); l >= 0; l = ticket.siguienteLinea(l)) {
+                // "%-30s %3d x %6s = %7s"
+                int inicio = texto.length();
+                texto.append(ticket.getNombre(l));
+                rellenar(inicio + 30);
+                inicio = texto.length() + 1;
+                texto.append(' ').append(ticket.getCantidad(l));
+                alinear(inicio, 3);
+                texto.append(" x ");
+                monto(ticket.getPrecioCentavos(l), 6);
+                texto.append(" = ");
+                monto(ticket.getSubtotalConDescuento(l), 7);
+                int descuento = ticket.getDescuento(l);
+                if (descuento > 0) {
+                    Dinero.porcentaje(descuento, texto.append(" (Desc ")).append("%)");
+                }
+                texto.append(FIN);
+            }
+
+            subtotal(ticket.getSubcategoria(g), ticket.getSubtotalGrupoConDescuento(g));
+            texto.append(SEPARADOR).append(FIN);
+        }
+
+        // Totales finales de la compra.
+        total("TOTAL SIN DESCUENTO:", ticket.getTotalSinDescuento());
+        total("TOTAL CON DESCUENTO:", ticket.getTotalConDescuento());
+        texto.append(SEPARADOR).append(FIN);
+
+        centrado("Gracias por su compra!");
+        return texto.append(SEPARADOR).append(FIN);
+    }
+
+    private void centrado(String contenido) {
+        texto.append(ESPACIOS, 0, Math.max(0, (ANCHO - contenido.length()) / 2)).append(contenido).append(FIN);
+    }
+
+    private void subtotal(String subcategoria, long centavos) {
+        int inicio = texto.length();
+        texto.append("Subtotal ").append(subcategoria).append(':');
+        importe(inicio, centavos);
+    }
+
+    private void total(String etiqueta, long centavos) {
+        int inicio = texto.length();
+        texto.append(etiqueta);
+        importe(inicio, centavos);
+    }
+
+    /**
+     * Termina un renglón "%-40s %15s": la etiqueta escrita desde `inicio` y el monto a la derecha.
+     */
+    private void importe(int inicio, long centavos) {
+        rellenar(inicio + 40);
+        texto.append(' ');
+        monto(centavos, 15);
+        texto.append(FIN);
+    }
+
+    private StringBuilder dosDigitos(int valor) {
+        return texto.append((char) ('0' + valor / 10)).append((char) ('0' + valor % 10));
+    }
+
+    /**
+     * Escribe un monto alineado a la derecha en el ancho indicado.
+     */
+    private void monto(long centavos, int ancho) {
+        int inicio = texto.length();
+        Dinero.formatear(centavos, texto);
+        alinear(inicio, ancho);
+    }
+
+    /**
+     * Completa con espacios hasta la posición indicada (alineación a la izquierda).
+     */
+    private void rellenar(int fin) {
+        while (texto.length() < fin) {
+            texto.append(ESPACIOS, 0, Math.min(ESPACIOS.length(), fin - texto.length()));
+        }
+    }
+
+    /**
+     * Mueve a la derecha lo escrito desde `inicio` hasta ocupar `ancho` columnas.
+     */
+    private void alinear(int inicio, int ancho) {
+        int faltan = inicio + ancho - texto.length();
+        if (faltan > 0) {
+            texto.insert(inicio, ESPACIOS, 0, faltan);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.tienda;
+
+/**
+ * La clase `EventoCompra` describe algo que ocurrió en una sesión de compra: un registro, un
+ * cambio en el carrito o una compra cerrada. {@link ServicioCompra} los publica a sus
+ * {@link OyenteCompra}; así la bitácora, las métricas o una interfaz se enteran de lo que pasa
+ * sin que la lógica de la tienda escriba en consola.
+ * <p>
+ * Los eventos son inmutables y se pueden pasar a otro hilo.
+ */
+public final class EventoCompra {
+
+    /**
+     * Qué ocurrió.
+     */
+    public enum Tipo {
+        USUARIO_REGISTRADO,
+        PRODUCTO_AGREGADO,
+        CANTIDAD_ACTUALIZADA,
+        PRODUCTO_REMOVIDO,
+        CARRITO_VACIADO,
+        COMPRA_CERRADA
+    }
+
+    private final Tipo tipo;
+    private final long instante;        // System.currentTimeMillis() del evento.
+    private final String email;         // Usuario de la sesión, si se conoce.
+    private final String sku;           // Producto afectado, si aplica.
+    private final int cantidad;         // Cantidad resultante de la línea (0 si se quitó o no aplica).
+    private final long totalCentavos;   // Total del carrito con descuentos después del evento.
+
+    EventoCompra(Tipo tipo, String email, String sku, int cantidad, long totalCentavos) {
+        this.tipo = tipo;
+        this.instante = System.currentTimeMillis();
+        this.email = email;
+        this.sku = sku;
+        this.cantidad = cantidad;
+        this.totalCentavos = totalCentavos;
+    }
+
+    public Tipo getTipo() { return tipo; }
+    public long getInstante() { return instante; }
+    public String getEmail() { return email; }
+    public String getSku() { return sku; }
+    public int getCantidad() { return cantidad; }
+    public long getTotalCentavos() { return totalCentavos; }
+
+    /**
+     * Representación de una línea, pensada para la bitácora.
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(96);
+        sb.append(instante).append(' ').append(tipo);
+        if (email != null) {
+            sb.append(" usuario=").append(email);
+        }
+        if (sku != null) {
+            sb.append(" sku=").append(sku).append(" cantidad=").append(cantidad);
+        }
+        sb.append(" total=");
+        return Dinero.formatear(totalCentavos, sb).toString();
+    }
+}
@@ -0,0 +1,94 @@
+package com.tienda;
+
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+
+/**
+ * La clase `GeneradorEscPos` escribe el ticket de 80 mm como comandos ESC/POS, listos para
+ * enviarse tal cual a una impresora térmica de punto de venta (por USB, serie o el puerto 9100).
+ * <p>
+ * Usa la página de códigos PC850, que tiene las letras acentuadas y la ñ; los caracteres que no
+ * están en ella se imprimen como '?'. Los caracteres de control del texto se cambian por
+ * espacios, para que un nombre o una dirección no puedan colar comandos a la impresora.
+ */
+public final class GeneradorEscPos extends GeneradorTermico {
+    private static final int ESC = 0x1B;
+    private static final int GS = 0x1D;
+    private static final int LF = 0x0A;
+
+    private static final int PAGINA_PC850 = 2;      // Número de la página de códigos en `ESC t`.
+    private static final int LINEAS_ANTES_DE_CORTAR = 4;
+
+    // Byte de PC850 para cada carácter de 0 a 255; el resto de Unicode se imprime como '?'.
+    private static final byte[] PC850 = tablaPC850();
+
+    private int estiloActual;
+
+    private static byte[] tablaPC850() {
+        byte[] tabla = new byte[256];
+        Charset pc850 = Charset.isSupported("IBM850") ? Charset.forName("IBM850") : null;
+        CharsetEncoder codificador = pc850 != null ? pc850.newEncoder() : null;
+        for (int c = 0; c < tabla.length; c++) {
+            if (c < 0x20 || c == 0x7F) {
+                tabla[c] = ' ';
+            } else if (c < 0x7F) {
+                tabla[c] = (byte) c;
+            } else if (codificador != null && codificador.canEncode((char) c)) {
+                tabla[c] = pc850.encode(String.valueOf((char) c)).get();
+            } else {
+                tabla[c] = '?';
+            }
+        }
+        return tabla;
+    }
+
+    @Override
+    void iniciar(BufferTicket destino) {
+        destino.agregar(ESC);
+        destino.agregar('@');               // Restablece la impresora.
+        destino.agregar(ESC);
+        destino.agregar('t');
+        destino.agregar(PAGINA_PC850);
+        estiloActual = NORMAL;
+    }
+
+    @Override
+    void renglon(char[] texto, int largo, int estilo, BufferTicket destino) {
+        estilo(estilo, destino);
+        for (int i = 0; i < largo; i++) {
+            char c = texto[i];
+            destino.agregar(c < 256 ? PC850[c] : '?');
+        }
+        destino.agregar(LF);
+    }
+
+    @Override
+    void terminar(BufferTicket destino) {
+        estilo(NORMAL, destino);
+        destino.agregar(ESC);
+        destino.agregar('d');
+        destino.agregar(LINEAS_ANTES_DE_CORTAR);
+        destino.agregar(GS);
+        destino.agregar('V');
+        destino.agregar(66);                // Corte parcial después de avanzar el papel.
+        destino.agregar(0);
+    }
+
+    /**
+     * Cambia la negrita (`ESC E n`) y el tamaño (`GS ! n`) solo si el estilo es distinto del actual.
+     */
+    private void estilo(int estilo, BufferTicket destino) {
+        if (estilo == estiloActual) {
+            return;
+        }
+        destino.agregar(ESC);
+        destino.agregar('E');
+        destino.agregar(estilo == NORMAL ? 0 : 1);
+        if (estilo == DOBLE || estiloActual == DOBLE) {
+            destino.agregar(GS);
+            destino.agregar('!');
+            destino.agregar(estilo == DOBLE ? 0x11 : 0x00);
+        }
+        estiloActual = estilo;
+    }
+}
@@ -0,0 +1,318 @@
+package com.tienda;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+/**
+ * La clase `GeneradorLotes` genera grandes cantidades de tickets PDF en paralelo.
+ * Está pensada para reimpresiones de fin de día y exportaciones masivas de pedidos.
+ * <p>
+ * Cada trabajador tiene su propio {@link GeneradorPDF} (con fuentes y logo ya preparados)
+ * y crea un `PDDocument` independiente por ticket. Los pedidos se reparten a través de una
+ * cola acotada: cuando la cola se llena, quien envía los pedidos se bloquea hasta que algún
+ * trabajador se libera (contrapresión), por lo que la memoria usada no crece con el tamaño del lote.
+ * <p>
+ * El lote no escribe en la consola: los tickets generados, los fallidos y sus motivos se
+ * informan en el {@link Reporte}. Si un trabajador termina por un `Error`, el lote sigue con los
+ * demás; si ya no queda ninguno, {@link #generar} falla en lugar de esperar para siempre.
+ */
+public class GeneradorLotes {
+
+    /**
+     * Representa un pedido a imprimir: el cliente y los productos de su ticket.
+     */
+    public static class Pedido {
+        private final Usuario usuario;
+        private final List<GeneradorPDF.Producto> productos;
+
+        public Pedido(Usuario usuario, List<GeneradorPDF.Producto> productos) {
+            this.usuario = usuario;
+            this.productos = productos;
+        }
+
+        public Usuario getUsuario() { return usuario; }
+        public List<GeneradorPDF.Producto> getProductos() { return productos; }
+    }
+
+    /**
+     * Resultado de un lote: cantidad de tickets, rendimiento y percentiles de latencia por ticket.
+     */
+    public static class Reporte {
+        private final int generados;
+        private final int fallidos;
+        private final long duracionNanos;
+        private final long[] latenciasNanos; // Ordenadas de menor a mayor.
+        private final List<String> errores;
+
+        Reporte(int generados, int fallidos, long duracionNanos, long[] latenciasNanos, List<String> errores) {
+            this.generados = generados;
+            this.fallidos = fallidos;
+            this.duracionNanos = duracionNanos;
+            this.latenciasNanos = latenciasNanos;
+            this.errores = Collections.unmodifiableList(errores);
+        }
+
+        public int getGenerados() { return generados; }
+        public int getFallidos() { return fallidos; }
+
+        /**
+         * @return Un mensaje por cada ticket fallido (archivo y motivo), sin orden particular.
+         */
+        public List<String> getErrores() { return errores; }
+        public double getSegundos() { return duracionNanos / 1e9; }
+
+        /**
+         * @return Tickets generados por segundo en todo el lote.
+         */
+        public double getTicketsPorSegundo() {
+            return duracionNanos == 0 ? 0 : generados / getSegundos();
+        }
+
+        /**
+         * Obtiene la latencia de un ticket en el percentil indicado.
+         *
+         * @param percentil Valor entre 0 y 100 (ej. 99 para p99).
+         * @return La latencia en milisegundos, o 0 si no se generó ningún ticket.
+         */
+        public double getPercentilMs(double percentil) {
+            if (latenciasNanos.length == 0) {
+                return 0;
+            }
+            int indice = (int) Math.ceil(percentil / 100.0 * latenciasNanos.length) - 1;
+            indice = Math.max(0, Math.min(latenciasNanos.length - 1, indice));
+            return latenciasNanos[indice] / 1e6;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Tickets: %d (fallidos: %d) en %.2f s | %.1f tickets/s | p50 %.2f ms | p95 %.2f ms | p99 %.2f ms",
+                    generados, fallidos, getSegundos(), getTicketsPorSegundo(),
+                    getPercentilMs(50), getPercentilMs(95), getPercentilMs(99));
+        }
+    }
+
+    /**
+     * Pedido en la cola junto con su número de secuencia, usado para nombrar el archivo.
+     */
+    private static final class Trabajo {
+        // Marca de fin de lote; cada trabajador termina al recibirla.
+        static final Trabajo FIN = new Trabajo(0, null);
+
+        final long numero;
+        final Pedido pedido;
+
+        Trabajo(long numero, Pedido pedido) {
+            this.numero = numero;
+            this.pedido = pedido;
+        }
+    }
+
+    private final GeneradorPDF[] generadores;   // Un generador por trabajador.
+    private final int capacidadCola;            // Máximo de pedidos en espera antes de bloquear.
+
+    // Cada cuánto revisa quien envía los pedidos que siga habiendo trabajadores, si la cola está llena.
+    private static final long REVISION_TRABAJADORES_MS = 100;
+
+    /**
+     * Constructor del generador por lotes con dos archivos TTF.
+     *
+     * @param rutaFuenteRegular Ruta del archivo TTF para el texto normal.
+     * @param rutaFuenteNegrita Ruta del archivo TTF para el texto en negrita.
+     * @param rutaImagen        Ruta del logo de la empresa, o null para omitirlo.
+     * @param trabajadores      Número de hilos que generan tickets en paralelo.
+     * @param capacidadCola     Número máximo de pedidos en espera.
+     * @throws IOException Si alguna de las fuentes no se puede leer.
+     */
+    public GeneradorLotes(String rutaFuenteRegular, String rutaFuenteNegrita, String rutaImagen,
+                          int trabajadores, int capacidadCola) throws IOException {
+        this(ProveedorFuentes.deArchivos(rutaFuenteRegular, rutaFuenteNegrita), rutaImagen, trabajadores, capacidadCola);
+    }
+
+    /**
+     * Constructor del generador por lotes con las fuentes de un proveedor (por ejemplo
+     * {@link ProveedorFuentes#obtener()}, el mismo de la tienda). El logo se prepara aquí para
+     * cada trabajador, de modo que un error de configuración se detecta antes de empezar el lote.
+     *
+     * @param fuentes       Proveedor de las fuentes regular y negrita.
+     * @param rutaImagen    Ruta del logo de la empresa, o null para omitirlo.
+     * @param trabajadores  Número de hilos que generan tickets en paralelo.
+     * @param capacidadCola Número máximo de pedidos en espera.
+     */
+    public GeneradorLotes(ProveedorFuentes fuentes, String rutaImagen, int trabajadores, int capacidadCola) {
+        if (trabajadores <= 0) {
+            throw new IllegalArgumentException("Error: Debe haber al menos un trabajador.");
+        }
+        if (capacidadCola <= 0) {
+            throw new IllegalArgumentException("Error: La capacidad de la cola debe ser mayor a 0.");
+        }
+        this.generadores = new GeneradorPDF[trabajadores];
+        for (int i = 0; i < trabajadores; i++) {
+            generadores[i] = new GeneradorPDF(fuentes, rutaImagen);
+        }
+        this.capacidadCola = capacidadCola;
+    }
+
+    /**
+     * Genera un ticket por cada pedido del flujo dentro del directorio indicado.
+     * Los archivos se nombran `ticket-000001.pdf`, `ticket-000002.pdf`, ... según el orden
+     * del flujo, por lo que nunca se sobrescriben entre sí. Un pedido que falla se cuenta
+     * como fallido, su archivo se borra y no detiene el resto del lote.
+     *
+     * @param pedidos    Flujo de pedidos a imprimir; se consume a medida que hay espacio en la cola.
+     * @param directorio Directorio de salida (se crea si no existe).
+     * @param empresa    Nombre de la empresa que se mostrará en los tickets.
+     * @return El reporte con rendimiento, latencias y errores del lote.
+     * @throws IOException Si no se puede crear el directorio de salida, o todos los trabajadores
+     *                     terminaron por un `Error` antes de acabar el lote.
+     * @throws InterruptedException Si el hilo que envía los pedidos es interrumpido.
+     */
+    public Reporte generar(Stream<Pedido> pedidos, Path directorio, String empresa) throws IOException, InterruptedException {
+        Files.createDirectories(directorio);
+
+        BlockingQueue<Trabajo> cola = new ArrayBlockingQueue<>(capacidadCola);
+        AtomicInteger fallidos = new AtomicInteger();
+        AtomicInteger activos = new AtomicInteger(generadores.length);
+        AtomicReference<Throwable> caida = new AtomicReference<>();    // Primer `Error` de un trabajador.
+        // Cada trabajador registra sus latencias y errores por separado; se combinan al final (tras `join`).
+        long[][] latencias = new long[generadores.length][];
+        List<List<String>> errores = new ArrayList<>();
+        Thread[] hilos = new Thread[generadores.length];
+
+        long inicio = System.nanoTime();
+
+        for (int i = 0; i < hilos.length; i++) {
+            final int id = i;
+            final List<String> propiosErrores = new ArrayList<>();
+            errores.add(propiosErrores);
+            hilos[i] = new Thread(() -> {
+                long[] propias = new long[64];
+                int n = 0;
+                Path destino = null;
+                try {
+                    while (true) {
+                        Trabajo trabajo = cola.take();
+                        if (trabajo == Trabajo.FIN) {
+                            break;
+                        }
+                        destino = directorio.resolve(String.format("ticket-%06d.pdf", trabajo.numero));
+                        long t0 = System.nanoTime();
+                        try {
+                            generar(generadores[id], destino, empresa, trabajo.pedido);
+                            if (n == propias.length) {
+                                propias = Arrays.copyOf(propias, n * 2);
+                            }
+                            propias[n++] = System.nanoTime() - t0;
+                        } catch (Exception e) {
+                            fallidos.incrementAndGet();
+                            propiosErrores.add("Error al generar " + destino + ": " + e.getMessage());
+                        }
+                        destino = null;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (Error e) {
+                    // El trabajador termina; el ticket que tenía en curso cuenta como fallido.
+                    caida.compareAndSet(null, e);
+                    if (destino != null) {
+                        fallidos.incrementAndGet();
+                        propiosErrores.add("Error al generar " + destino + ": el trabajador termino por " + e);
+                    }
+                } finally {
+                    latencias[id] = Arrays.copyOf(propias, n);
+                    activos.decrementAndGet();
+                }
+            }, "generador-lotes-" + i);
+            hilos[i].start();
+        }
+
+        // El hilo que llama actúa como productor: espera mientras la cola está llena, pero solo
+        // mientras quede algún trabajador que la vacíe.
+        long secuencia = 0;
+        try {
+            Iterator<Pedido> it = pedidos.iterator();
+            while (it.hasNext()) {
+                if (!encolar(cola, new Trabajo(++secuencia, it.next()), activos)) {
+                    throw new IOException("Error: Todos los trabajadores del lote terminaron antes de acabar.", caida.get());
+                }
+            }
+        } finally {
+            for (int i = 0; i < hilos.length; i++) {
+                encolar(cola, Trabajo.FIN, activos);
+            }
+            for (Thread hilo : hilos) {
+                hilo.join();
+            }
+        }
+
+        long duracion = System.nanoTime() - inicio;
+
+        int generados = 0;
+        for (long[] l : latencias) {
+            generados += l.length;
+        }
+        long[] todas = new long[generados];
+        int pos = 0;
+        for (long[] l : latencias) {
+            System.arraycopy(l, 0, todas, pos, l.length);
+            pos += l.length;
+        }
+        Arrays.sort(todas);
+        List<String> mensajes = new ArrayList<>();
+        for (List<String> e : errores) {
+            mensajes.addAll(e);
+        }
+        return new Reporte(generados, fallidos.get(), duracion, todas, mensajes);
+    }
+
+    /**
+     * Pone un trabajo en la cola, esperando mientras esté llena y quede algún trabajador activo.
+     *
+     * @return false si ya no queda ningún trabajador que vacíe la cola.
+     */
+    private static boolean encolar(BlockingQueue<Trabajo> cola, Trabajo trabajo, AtomicInteger activos) throws InterruptedException {
+        while (!cola.offer(trabajo, REVISION_TRABAJADORES_MS, TimeUnit.MILLISECONDS)) {
+            if (activos.get() == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Genera un ticket en su archivo, sin pasar por la consola. Si falla, borra el archivo a medias.
+     */
+    private static void generar(GeneradorPDF generador, Path destino, String empresa, Pedido pedido) throws IOException {
+        boolean listo = false;
+        try {
+            try (OutputStream salida = new BufferedOutputStream(Files.newOutputStream(destino), 64 * 1024)) {
+                generador.generar(salida, empresa, pedido.getUsuario(), pedido.getProductos());
+            }
+            listo = true;
+        } finally {
+            if (!listo) {
+                Files.deleteIfExists(destino);
+            }
+        }
+    }
+
+    /**
+     * @return El número de trabajadores del generador.
+     */
+    public int getTrabajadores() {
+        return generadores.length;
+    }
+}
@@ -1,17 +1,30 @@
 package com.tienda;
 
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSStream;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPage;
 import org.apache.pdfbox.pdmodel.PDPageContentStream;
 import org.apache.pdfbox.pdmodel.common.PDRectangle;
-import org.apache.pdfbox.pdmodel.font.PDType0Font;
+import org.apache.pdfbox.pdmodel.common.PDStream;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.graphics.form.PDFormXObject;
 import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
 
-import java.io.File;
+import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * La clase `GeneradorPDF` es responsable de crear documentos PDF, específicamente tickets
@@ -34,8 +47,9 @@ public class GeneradorPDF {
         String categoria;
         String subcategoria;
         String cantidad;
-        double precio;
-        double descuento;
+        long precioCentavos;        // Precio unitario en centavos.
+        int descuentoPuntosBase;    // Descuento en puntos base (500 = 5%).
+        int idCategoria = -1;       // Número del par categoría/subcategoría, o -1 si aún no se busca.
 
         /**
          * Constructor para la clase interna `Producto`.
@@ -53,16 +67,135 @@ public class GeneradorPDF {
             this.categoria = categoria;
             this.subcategoria = subcategoria;
             this.cantidad = cantidad;
-            this.precio = precio;
-            this.descuento = descuento;
+            this.precioCentavos = Dinero.deDecimal(precio);
+            this.descuentoPuntosBase = Dinero.puntosBase(descuento);
+        }
+
+        /**
+         * Crea un producto del ticket con montos exactos, sin conversión desde decimal.
+         *
+         * @param precioCentavos      Precio unitario en centavos.
+         * @param descuentoPuntosBase Descuento en puntos base (500 = 5%).
+         * @return El producto del ticket.
+         */
+        public static Producto enCentavos(String nombre, String categoria, String subcategoria, String cantidad,
+                                          long precioCentavos, int descuentoPuntosBase) {
+            Producto p = new Producto(nombre, categoria, subcategoria, cantidad, 0, 0);
+            p.precioCentavos = precioCentavos;
+            p.descuentoPuntosBase = descuentoPuntosBase;
+            return p;
+        }
+
+        /**
+         * @return El subtotal de la línea con su descuento aplicado, en centavos.
+         */
+        long subtotalConDescuento() {
+            return Dinero.aplicarDescuento(subtotal(), descuentoPuntosBase);
+        }
+
+        /**
+         * @return El precio unitario por la cantidad, en centavos.
+         */
+        long subtotal() {
+            return Dinero.multiplicar(precioCentavos, cantidadEntera());
+        }
+
+        int cantidadEntera() {
+            return Integer.parseInt(cantidad.trim());
+        }
+
+        /**
+         * @return El número del par categoría/subcategoría en {@link IdsCategoria}.
+         */
+        int idCategoria() {
+            if (idCategoria < 0) {
+                idCategoria = IdsCategoria.de(categoria, subcategoria);
+            }
+            return idCategoria;
         }
     }
 
+    // Propiedades del sistema que indican otras fuentes (por ejemplo, en Linux).
+    public static final String PROPIEDAD_FUENTE_REGULAR = "tienda.fuente.regular";
+    public static final String PROPIEDAD_FUENTE_NEGRITA = "tienda.fuente.negrita";
+
+    // Generadores compartidos por el método estático, uno por ruta de logo.
+    private static final Map<String, GeneradorPDF> generadores = new HashMap<>();
+
+    // Estado preparado una sola vez y reutilizado en cada ticket.
+    private final ProveedorFuentes.Fuente fuenteRegular;   // Fuente regular, compartida con otros generadores.
+    private final ProveedorFuentes.Fuente fuenteNegrita;   // Fuente negrita, compartida con otros generadores.
+    private final ImagenPreparada logo;         // Logo ya codificado, o null si no hay logo.
+    private final Map<String, PlantillaTicket> plantillas = new ConcurrentHashMap<>(); // Una por empresa.
+
+    /**
+     * Constructor que prepara un generador reutilizable de tickets.
+     * Las fuentes se leen y analizan una sola vez por proceso (ver {@link ProveedorFuentes}) y el
+     * logo se decodifica y comprime una sola vez;
+     * después, cada llamada a {@link #generar} solo incrusta el subconjunto de glifos utilizado
+     * y copia los bytes ya comprimidos del logo en el nuevo documento.
+     *
+     * @param rutaFuenteRegular Ruta del archivo TTF para el texto normal.
+     * @param rutaFuenteNegrita Ruta del archivo TTF para el texto en negrita.
+     * @param rutaImagen        Ruta del logo de la empresa, o null para omitirlo.
+     * @throws IOException Si alguna de las fuentes no se puede leer.
+     */
+    public GeneradorPDF(String rutaFuenteRegular, String rutaFuenteNegrita, String rutaImagen) throws IOException {
+        this(ProveedorFuentes.deArchivos(rutaFuenteRegular, rutaFuenteNegrita), rutaImagen);
+    }
+
+    /**
+     * Constructor que prepara un generador con las fuentes de un proveedor. Las fuentes ya
+     * están analizadas y se comparten; aquí solo se prepara el logo.
+     *
+     * @param fuentes    Proveedor de las fuentes regular y negrita.
+     * @param rutaImagen Ruta del logo de la empresa, o null para omitirlo.
+     */
+    public GeneradorPDF(ProveedorFuentes fuentes, String rutaImagen) {
+        this.fuenteRegular = fuentes.regular();
+        this.fuenteNegrita = fuentes.negrita();
+
+        ImagenPreparada logoPreparado = null;
+        if (rutaImagen != null) {
+            try {
+                logoPreparado = ImagenPreparada.desdeArchivo(rutaImagen);
+            } catch (Exception e) {
+                System.err.println("No se pudo cargar el logo: " + e.getMessage());
+            }
+        }
+        this.logo = logoPreparado;
+    }
+
+    /**
+     * Crea un generador con las fuentes del proveedor compartido: las de las propiedades
+     * `tienda.fuente.regular` y `tienda.fuente.negrita`, las empaquetadas en `/fuentes/` o,
+     * si no hay ninguna, las fuentes estándar de PDF (ver {@link ProveedorFuentes}).
+     *
+     * @param rutaImagen Ruta del logo de la empresa, o null para omitirlo.
+     * @return Un generador nuevo, independiente del compartido.
+     * @throws IOException Si no se pueden preparar los recursos del generador.
+     */
+    public static GeneradorPDF configurado(String rutaImagen) throws IOException {
+        return new GeneradorPDF(ProveedorFuentes.obtener(), rutaImagen);
+    }
+
+    /**
+     * Obtiene (o crea la primera vez) el generador compartido para el logo indicado.
+     */
+    private static synchronized GeneradorPDF obtenerGenerador(String rutaImagen) throws IOException {
+        GeneradorPDF generador = generadores.get(rutaImagen);
+        if (generador == null) {
+            generador = configurado(rutaImagen);
+            generadores.put(rutaImagen, generador);
+        }
+        return generador;
+    }
+
     /**
      * Método estático para generar el ticket de compra en formato PDF.
-     * Este método gestiona todo el proceso de creación del documento, desde la inicialización
-     * hasta el guardado. Es estático para que pueda ser llamado sin necesidad de instanciar
-     * la clase `GeneradorPDF`.
+     * Es estático para que pueda ser llamado sin necesidad de instanciar la clase `GeneradorPDF`;
+     * internamente reutiliza un generador compartido, de modo que las fuentes y el logo solo
+     * se cargan en la primera llamada.
      *
      * @param destino      Ruta de destino y nombre del archivo PDF a generar.
      * @param empresa      Nombre de la empresa que se mostrará en el ticket.
@@ -72,73 +205,163 @@ public class GeneradorPDF {
      * @throws IOException Si ocurre un error de entrada/salida durante la generación del PDF.
      */
     public static void generarTicket(String destino, String empresa, Usuario usuario, String rutaImagen, List<Producto> productos) throws IOException {
+        obtenerGenerador(rutaImagen).generar(destino, empresa, usuario, productos);
+    }
+
+    /**
+     * Genera el ticket de compra en formato PDF usando las fuentes y el logo ya preparados.
+     * Cada ticket es un documento independiente, por lo que el subconjunto de fuentes
+     * incrustado corresponde solo a los caracteres de ese ticket.
+     *
+     * @param destino   Ruta de destino y nombre del archivo PDF a generar.
+     * @param empresa   Nombre de la empresa que se mostrará en el ticket.
+     * @param usuario   Objeto `Usuario` con los datos del cliente.
+     * @param productos Lista de objetos `Producto` (de la clase interna) que se incluirán en el ticket.
+     * @throws IOException Si ocurre un error de entrada/salida durante la generación del PDF.
+     */
+    public void generar(String destino, String empresa, Usuario usuario, List<Producto> productos) throws IOException {
+        try (PDDocument document = construirDocumento(empresa, usuario, AgrupadorTicket.de(productos))) {
+            document.save(destino);
+        }
+        System.out.println(" Ticket PDF generado correctamente en: " + destino);
+    }
+
+    /**
+     * Genera el ticket y lo escribe directamente en un flujo de salida (socket, archivo zip,
+     * búfer en memoria, ...), sin pasar por un archivo temporal. El flujo no se cierra.
+     *
+     * @param salida    Flujo donde se escriben los bytes del PDF.
+     * @param empresa   Nombre de la empresa que se mostrará en el ticket.
+     * @param usuario   Objeto `Usuario` con los datos del cliente.
+     * @param productos Lista de objetos `Producto` (de la clase interna) que se incluirán en el ticket.
+     * @throws IOException Si ocurre un error de entrada/salida durante la generación del PDF.
+     */
+    public void generar(OutputStream salida, String empresa, Usuario usuario, List<Producto> productos) throws IOException {
+        generar(salida, empresa, usuario, AgrupadorTicket.de(productos));
+    }
+
+    /**
+     * Genera el ticket a partir de líneas ya agrupadas por subcategoría (ver {@link AgrupadorTicket})
+     * y lo escribe en un flujo de salida, que no se cierra.
+     *
+     * @param salida  Flujo donde se escriben los bytes del PDF.
+     * @param empresa Nombre de la empresa que se mostrará en el ticket.
+     * @param usuario Objeto `Usuario` con los datos del cliente.
+     * @param ticket  Las líneas agrupadas, con subtotales y totales ya sumados.
+     * @throws IOException Si ocurre un error de entrada/salida durante la generación del PDF.
+     */
+    public void generar(OutputStream salida, String empresa, Usuario usuario, TicketAgrupado ticket) throws IOException {
+        try (PDDocument document = construirDocumento(empresa, usuario, ticket)) {
+            // PDFBox cierra el flujo al terminar de guardar; se protege para que quien llama lo siga usando.
+            document.save(new FilterOutputStream(salida) {
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    out.write(b, off, len);
+                }
+
+                @Override
+                public void close() throws IOException {
+                    flush();
+                }
+            });
+        }
+    }
+
+    /**
+     * Genera el ticket y lo escribe en un canal (por ejemplo un `SocketChannel` o `FileChannel`).
+     * El canal no se cierra.
+     *
+     * @param canal     Canal donde se escriben los bytes del PDF.
+     * @param empresa   Nombre de la empresa que se mostrará en el ticket.
+     * @param usuario   Objeto `Usuario` con los datos del cliente.
+     * @param productos Lista de objetos `Producto` (de la clase interna) que se incluirán en el ticket.
+     * @throws IOException Si ocurre un error de entrada/salida durante la generación del PDF.
+     */
+    public void generar(WritableByteChannel canal, String empresa, Usuario usuario, List<Producto> productos) throws IOException {
+        try (PoolBuffers.Salida salida = PoolBuffers.COMPARTIDO.abrirSalida()) {
+            generar(salida, empresa, usuario, productos);
+            ByteBuffer buffer = salida.contenido();
+            while (buffer.hasRemaining()) {
+                canal.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * Genera el ticket directamente dentro de un búfer directo tomado del pool.
+     * PDFBox escribe sobre la memoria del búfer, de modo que el resultado puede enviarse a
+     * un canal sin copias intermedias. Quien llama debe cerrar la salida devuelta para
+     * regresar el búfer al pool.
+     *
+     * @param pool      Pool del que se toman los búferes directos.
+     * @param empresa   Nombre de la empresa que se mostrará en el ticket.
+     * @param usuario   Objeto `Usuario` con los datos del cliente.
+     * @param productos Lista de objetos `Producto` (de la clase interna) que se incluirán en el ticket.
+     * @return La salida con el PDF; {@link PoolBuffers.Salida#contenido()} da los bytes listos para leer.
+     * @throws IOException Si ocurre un error de entrada/salida durante la generación del PDF.
+     */
+    public PoolBuffers.Salida generarEnBuffer(PoolBuffers pool, String empresa, Usuario usuario, List<Producto> productos) throws IOException {
+        PoolBuffers.Salida salida = pool.abrirSalida();
+        try {
+            generar(salida, empresa, usuario, productos);
+            return salida;
+        } catch (IOException | RuntimeException e) {
+            salida.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Construye el documento completo del ticket, listo para guardarse.
+     * Este método gestiona todo el proceso de creación del documento: encabezado, datos del
+     * cliente, tabla de productos agrupada por subcategoría y totales. Quien llama es responsable
+     * de cerrarlo.
+     */
+    private PDDocument construirDocumento(String empresa, Usuario usuario, TicketAgrupado ticket) throws IOException {
         // Inicialización de un nuevo documento PDF y una página con tamaño Carta.
         PDDocument document = new PDDocument();
         PDPage page = new PDPage(PDRectangle.LETTER);
         document.addPage(page);
 
-        // Carga de fuentes. Es crucial manejar las excepciones de archivos si las fuentes no se encuentran.
-        PDType0Font fontRegular = PDType0Font.load(document, new File("C:\\Windows\\Fonts\\arial.ttf"));
-        PDType0Font fontBold = PDType0Font.load(document, new File("C:\\Windows\\Fonts\\arialbd.ttf"));
+        // Las fuentes ya analizadas se asocian al documento; solo se incrustarán los glifos usados.
+        PDFont fontRegular = fuenteRegular.cargarEn(document);
+        PDFont fontBold = fuenteNegrita.cargarEn(document);
 
         // Creación del `PDPageContentStream`, que actúa como el "lienzo" para dibujar texto e imágenes en la página.
         PDPageContentStream contentStream = new PDPageContentStream(document, page);
 
         // Se definen variables para el control de márgenes y la posición del cursor de escritura.
         float pageWidth = page.getMediaBox().getWidth();
-        float marginX = 40;
-        float startY = page.getMediaBox().getHeight() - 40;
-        float yPosition = startY;
+        float marginX = PlantillaTicket.MARGEN_X;
+        float startY = PlantillaTicket.INICIO_Y;
+        float yPosition;
         float bottomMargin = 40;
 
-        // Inclusión del logo de la empresa. Un bloque `try-catch` es una buena práctica
-        // para manejar errores si la imagen no se puede cargar.
-        if (rutaImagen != null) {
-            try {
-                PDImageXObject pdImage = PDImageXObject.createFromFile(rutaImagen, document);
-                float imgWidth = 100;
-                float imgHeight = 50;
-                float imgX = marginX;
-                float imgY = page.getMediaBox().getHeight() - imgHeight - 20;
-                contentStream.drawImage(pdImage, imgX, imgY, imgWidth, imgHeight);
-            } catch (Exception e) {
-                System.err.println("No se pudo cargar el logo: " + e.getMessage());
-            }
-        }
-
-        // Título del ticket, centrado horizontalmente. El cálculo para centrar es una técnica común
-        // en la generación de documentos.
-        String textoEmpresa = empresa;
-        float titleWidth = (fontBold.getStringWidth(textoEmpresa) / 1000) * 18;
-        float startX = (pageWidth - titleWidth) / 2;
-        
-        contentStream.beginText();
-        contentStream.setFont(fontBold, 18);
-        contentStream.newLineAtOffset(startX, startY - 20);
-        contentStream.showText(textoEmpresa);
-        contentStream.endText();
+        // Logo, título centrado y encabezados de la tabla: se armaron una sola vez en la plantilla
+        // de la empresa; el documento guarda un solo XObject y cada página lo referencia.
+        PDImageXObject pdImage = logo != null ? logo.crearEn(document) : null;
+        PDFormXObject encabezado = plantilla(empresa).crearEn(document, fontBold, pdImage);
+        contentStream.drawForm(encabezado);
 
         // Sección de datos del usuario.
         contentStream.setFont(fontBold, 10);
         float userStartY = startY - 50;
-        
+
         contentStream.beginText();
         contentStream.newLineAtOffset(marginX, userStartY);
-        contentStream.showText("Nombre: " + usuario.getNombre());
+        contentStream.showText(fuenteNegrita.apta("Nombre: " + usuario.getNombre()));
         contentStream.endText();
 
         contentStream.beginText();
         contentStream.newLineAtOffset(marginX, userStartY - 15);
-        contentStream.showText("Email: " + usuario.getEmail());
+        contentStream.showText(fuenteNegrita.apta("Email: " + usuario.getEmail()));
         contentStream.endText();
 
         contentStream.beginText();
         contentStream.newLineAtOffset(marginX, userStartY - 30);
-        contentStream.showText("Dirección: " + usuario.getDireccion());
+        contentStream.showText(fuenteNegrita.apta("Dirección: " + usuario.getDireccion()));
         contentStream.endText();
 
-        yPosition = userStartY - 50;
-
         // Fecha y hora de la generación del ticket, alineado a la derecha.
         LocalDateTime fechaHora = LocalDateTime.now();
         DateTimeFormatter formato = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
@@ -150,112 +373,209 @@ public class GeneradorPDF {
         contentStream.showText(fechaHoraStr);
         contentStream.endText();
 
-        // Encabezados de la tabla de productos.
-        contentStream.setFont(fontBold, 10);
-        contentStream.beginText();
-        contentStream.newLineAtOffset(marginX, yPosition);
-        contentStream.showText("Producto");
-        contentStream.newLineAtOffset(120, 0);
-        contentStream.showText("Categoría");
-        contentStream.newLineAtOffset(130, 0);
-        contentStream.showText("Subcategoría");
-        contentStream.newLineAtOffset(120, 0);
-        contentStream.showText("Cantidad");
-        contentStream.newLineAtOffset(50, 0);
-        contentStream.showText("Precio U.");
-        contentStream.newLineAtOffset(60, 0);
-        contentStream.showText("Subtotal");
-        contentStream.endText();
-
-        yPosition -= 18;
+        // Las líneas empiezan debajo de los encabezados de la tabla, en esta página y en las siguientes.
+        float inicioLineas = PlantillaTicket.TABLA_Y - 18;
+        yPosition = inicioLineas;
         contentStream.setFont(fontRegular, 10);
 
-        double totalSinDesc = 0;
-        double totalConDesc = 0;
-
-        // Bucle para iterar sobre cada producto y agregarlo al documento.
-        for (Producto p : productos) {
-            // Lógica para el manejo de múltiples páginas si el contenido excede el espacio disponible.
-            // Esta es una característica avanzada en la generación de documentos.
-            if (yPosition <= bottomMargin) {
-                contentStream.close();
-                page = new PDPage(PDRectangle.LETTER);
-                document.addPage(page);
-                contentStream = new PDPageContentStream(document, page);
-                yPosition = startY - 80;
-            }
-
-            // Cálculo de subtotales.
-            double cant = Double.parseDouble(p.cantidad);
-            double subtotal = p.precio * cant;
-            double subtotalConDesc = subtotal * (1 - p.descuento);
-
-            // Acumulación de los totales generales.
-            totalSinDesc += subtotal;
-            totalConDesc += subtotalConDesc;
+        StringBuilder texto = new StringBuilder(48);   // Reutilizado para los montos de cada línea.
 
-            // Escritura de los datos del producto en una línea.
-            contentStream.beginText();
-            contentStream.newLineAtOffset(marginX, yPosition);
-            contentStream.showText(p.nombre);
-            contentStream.newLineAtOffset(120, 0);
-            contentStream.showText(p.categoria);
-            contentStream.newLineAtOffset(130, 0);
-            contentStream.showText(p.subcategoria);
-            contentStream.newLineAtOffset(120, 0);
-            contentStream.showText(p.cantidad);
-            contentStream.newLineAtOffset(50, 0);
-            contentStream.showText(String.format("$%.2f", p.precio));
-            contentStream.newLineAtOffset(60, 0);
-            contentStream.showText(String.format("$%.2f", subtotalConDesc));
-            contentStream.endText();
-
-            yPosition -= 15;
+        // Un bloque por subcategoría: sus productos y, al final, su subtotal.
+        for (int g = 0; g < ticket.getGrupos(); g++) {
+            String categoria = fuenteRegular.apta(ticket.getCategoria(g));
+            String subcategoria = fuenteRegular.apta(ticket.getSubcategoria(g));
 
-            // Si hay un descuento, se añade una línea adicional con esta información.
-            if (p.descuento > 0) {
-                contentStream.setFont(fontRegular, 8);
-                contentStream.setNonStrokingColor(0.6f, 0.6f, 0.6f); // Color gris
+            for (int l = ticket.primeraLinea(g); l >= 0; l = ticket.siguienteLinea(l)) {
+                // Lógica para el manejo de múltiples páginas si el contenido excede el espacio disponible.
+                // Esta es una característica avanzada en la generación de documentos.
+                if (yPosition <= bottomMargin) {
+                    contentStream = paginaNueva(document, contentStream, encabezado, fontRegular);
+                    yPosition = inicioLineas;
+                }
 
+                // Escritura de los datos del producto en una línea.
                 contentStream.beginText();
-                contentStream.newLineAtOffset(marginX + 20, yPosition);
-                contentStream.showText(">> Descuento aplicado: " + (int)(p.descuento * 100) + "%");
+                contentStream.newLineAtOffset(marginX, yPosition);
+                contentStream.showText(fuenteRegular.apta(ticket.getNombre(l)));
+                contentStream.newLineAtOffset(120, 0);
+                contentStream.showText(categoria);
+                contentStream.newLineAtOffset(130, 0);
+                contentStream.showText(subcategoria);
+                contentStream.newLineAtOffset(120, 0);
+                contentStream.showText(String.valueOf(ticket.getCantidad(l)));
+                contentStream.newLineAtOffset(50, 0);
+                contentStream.showText(monto(texto, ticket.getPrecioCentavos(l)));
+                contentStream.newLineAtOffset(60, 0);
+                contentStream.showText(monto(texto, ticket.getSubtotalConDescuento(l)));
                 contentStream.endText();
 
-                contentStream.setFont(fontRegular, 10);
-                contentStream.setNonStrokingColor(0f, 0f, 0f);
                 yPosition -= 15;
+
+                // Si hay un descuento, se añade una línea adicional con esta información.
+                int descuento = ticket.getDescuento(l);
+                if (descuento > 0) {
+                    contentStream.setFont(fontRegular, 8);
+                    contentStream.setNonStrokingColor(0.6f, 0.6f, 0.6f); // Color gris
+
+                    contentStream.beginText();
+                    contentStream.newLineAtOffset(marginX + 20, yPosition);
+                    contentStream.showText(">> Descuento aplicado: " + Dinero.porcentaje(descuento) + "%");
+                    contentStream.endText();
+
+                    contentStream.setFont(fontRegular, 10);
+                    contentStream.setNonStrokingColor(0f, 0f, 0f);
+                    yPosition -= 15;
+                }
+            }
+
+            // Subtotal de la subcategoría, con el monto bajo la columna de subtotales.
+            if (yPosition <= bottomMargin) {
+                contentStream = paginaNueva(document, contentStream, encabezado, fontRegular);
+                yPosition = inicioLineas;
             }
+            contentStream.setFont(fontBold, 10);
+            contentStream.beginText();
+            contentStream.newLineAtOffset(marginX + 250, yPosition);
+            contentStream.showText("Subtotal " + subcategoria + ":");
+            contentStream.newLineAtOffset(230, 0);
+            contentStream.showText(monto(texto, ticket.getSubtotalGrupoConDescuento(g)));
+            contentStream.endText();
+            contentStream.setFont(fontRegular, 10);
+            yPosition -= 20;
         }
 
         // Sección de totales finales.
         yPosition -= 30;
 
         if (yPosition <= bottomMargin) {
-            contentStream.close();
-            page = new PDPage(PDRectangle.LETTER);
-            document.addPage(page);
-            contentStream = new PDPageContentStream(document, page);
-            yPosition = startY - 80;
+            contentStream = paginaNueva(document, contentStream, encabezado, fontRegular);
+            yPosition = inicioLineas;
         }
 
         contentStream.setFont(fontBold, 10);
         contentStream.beginText();
         contentStream.newLineAtOffset(marginX, yPosition);
-        contentStream.showText(String.format("TOTAL SIN DESCUENTO: $%.2f", totalSinDesc));
+        contentStream.showText("TOTAL SIN DESCUENTO: " + monto(texto, ticket.getTotalSinDescuento()));
         contentStream.endText();
 
         yPosition -= 20;
 
         contentStream.beginText();
         contentStream.newLineAtOffset(marginX, yPosition);
-        contentStream.showText(String.format("TOTAL CON DESCUENTO: $%.2f", totalConDesc));
+        contentStream.showText("TOTAL CON DESCUENTO: " + monto(texto, ticket.getTotalConDescuento()));
         contentStream.endText();
 
         // Se cierra el `contentStream`, se guarda el documento y se cierra el `PDDocument`.
         contentStream.close();
-        document.save(destino);
-        document.close();
-        System.out.println(" Ticket PDF generado correctamente en: " + destino);
+        return document;
+    }
+
+    /**
+     * Cierra la página en curso y abre otra al final del documento, con el encabezado de la
+     * plantilla (el mismo XObject de la primera página) y la fuente indicada.
+     */
+    private static PDPageContentStream paginaNueva(PDDocument document, PDPageContentStream actual, PDFormXObject encabezado,
+                                                   PDFont fuente) throws IOException {
+        actual.close();
+        PDPage page = new PDPage(PDRectangle.LETTER);
+        document.addPage(page);
+        PDPageContentStream contentStream = new PDPageContentStream(document, page);
+        contentStream.drawForm(encabezado);
+        contentStream.setFont(fuente, 10);   // Cada página empieza sin fuente.
+        return contentStream;
+    }
+
+    /**
+     * Obtiene (o arma la primera vez) la plantilla de la empresa, en un documento temporal con
+     * las mismas fuentes y logo del generador.
+     */
+    private PlantillaTicket plantilla(String empresa) throws IOException {
+        PlantillaTicket plantilla = plantillas.get(empresa);
+        if (plantilla == null) {
+            try (PDDocument temporal = new PDDocument()) {
+                plantilla = PlantillaTicket.crear(temporal, fuenteNegrita.cargarEn(temporal),
+                    logo != null ? logo.crearEn(temporal) : null, fuenteNegrita.apta(empresa));
+            }
+            plantillas.put(empresa, plantilla);
+        }
+        return plantilla;
+    }
+
+    /**
+     * Da formato "$1234.50" a un monto en centavos, reutilizando el `StringBuilder` indicado.
+     */
+    private static String monto(StringBuilder texto, long centavos) {
+        texto.setLength(0);
+        return Dinero.formatear(centavos, texto.append('$')).toString();
+    }
+
+    /**
+     * Imagen codificada una sola vez y lista para copiarse en cualquier documento.
+     * Guarda el diccionario y los bytes comprimidos del XObject (y de su máscara de
+     * transparencia, si la hay) para no decodificar ni recomprimir el archivo en cada ticket.
+     */
+    private static final class ImagenPreparada {
+        private final COSDictionary parametros;   // Entradas del diccionario del XObject (Width, Filter, ...).
+        private final byte[] datos;               // Flujo ya comprimido tal como se escribe en el PDF.
+        private final ImagenPreparada mascara;    // Máscara suave (canal alfa) o null.
+
+        private ImagenPreparada(COSDictionary parametros, byte[] datos, ImagenPreparada mascara) {
+            this.parametros = parametros;
+            this.datos = datos;
+            this.mascara = mascara;
+        }
+
+        /**
+         * Decodifica el archivo de imagen en un documento temporal y conserva su forma codificada.
+         */
+        static ImagenPreparada desdeArchivo(String ruta) throws IOException {
+            try (PDDocument temporal = new PDDocument()) {
+                return desde(PDImageXObject.createFromFile(ruta, temporal));
+            }
+        }
+
+        private static ImagenPreparada desde(PDImageXObject imagen) throws IOException {
+            COSStream stream = imagen.getCOSObject();
+            byte[] datos;
+            try (InputStream in = stream.createRawInputStream()) {
+                datos = in.readAllBytes();
+            }
+
+            COSDictionary parametros = new COSDictionary();
+            for (Map.Entry<COSName, COSBase> entrada : stream.entrySet()) {
+                COSName clave = entrada.getKey();
+                if (COSName.LENGTH.equals(clave) || COSName.SMASK.equals(clave)) {
+                    continue;
+                }
+                parametros.setItem(clave, entrada.getValue());
+            }
+
+            PDImageXObject smask = imagen.getSoftMask();
+            return new ImagenPreparada(parametros, datos, smask != null ? desde(smask) : null);
+        }
+
+        /**
+         * Crea en el documento un XObject nuevo con los mismos bytes comprimidos.
+         */
+        PDImageXObject crearEn(PDDocument documento) throws IOException {
+            COSStream stream = documento.getDocument().createCOSStream();
+            for (Map.Entry<COSName, COSBase> entrada : parametros.entrySet()) {
+                COSBase valor = entrada.getValue();
+                if (valor instanceof COSDictionary) {
+                    // Los diccionarios directos (p. ej. DecodeParms) se copian para no compartirlos entre documentos.
+                    COSDictionary copia = new COSDictionary();
+                    copia.addAll((COSDictionary) valor);
+                    valor = copia;
+                }
+                stream.setItem(entrada.getKey(), valor);
+            }
+            try (OutputStream out = stream.createRawOutputStream()) {
+                out.write(datos);
+            }
+            if (mascara != null) {
+                stream.setItem(COSName.SMASK, mascara.crearEn(documento));
+            }
+            return new PDImageXObject(new PDStream(stream), null);
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,120 @@
+package com.tienda;
+
+/**
+ * La clase `GeneradorPDFTermico` escribe el ticket de 80 mm como un PDF de una sola página, tan
+ * larga como el ticket, para imprimirlo en una térmica desde el sistema o guardarlo.
+ * <p>
+ * A diferencia de {@link GeneradorPDF}, no arma el documento con PDFBox: escribe directamente en
+ * el búfer los objetos del PDF (catálogo, página, fuentes, contenido y tabla de referencias).
+ * Usa Courier y Courier-Bold, fuentes estándar que no se incrustan, así que cada ticket pesa unos
+ * pocos kilobytes y su costo es el de copiar el texto. Las 48 columnas en Courier de 7 pt ocupan
+ * el mismo ancho que en la impresora. Los caracteres fuera de WinAnsi se escriben como '?'.
+ * <p>
+ * El alto de la página y la longitud del contenido se conocen al final; se les reserva espacio y
+ * se llenan al terminar, así que el ticket se escribe en una sola pasada.
+ */
+public final class GeneradorPDFTermico extends GeneradorTermico {
+    // Medidas en centésimas de punto: 80 mm de ancho, Courier de 7 pt (4.2 pt por columna).
+    private static final String ANCHO = "226.77";
+    private static final String MARGEN_X = "12.60";
+    private static final long MARGEN_Y = 1200;
+    private static final long INTERLINEA = 840;
+    private static final long INTERLINEA_DOBLE = 1680;
+
+    private static final int ANCHO_RESERVADO = 10;  // Dígitos reservados para longitudes y alturas.
+
+    private final int[] desplazamientos = new int[7];   // Posición de cada objeto, para la tabla xref.
+    private int posicionLongitud;
+    private int posicionY;
+    private int inicioContenido;
+    private long alto;
+    private int estiloActual;
+
+    @Override
+    void iniciar(BufferTicket destino) {
+        destino.agregarAscii("%PDF-1.4\n%");
+        destino.agregar(0xE2);              // Bytes no ASCII: el archivo es binario.
+        destino.agregar(0xE3);
+        destino.agregar(0xCF);
+        destino.agregar(0xD3);
+        destino.agregar('\n');
+
+        // El contenido va primero para poder dar el alto de la página al escribirla.
+        desplazamientos[4] = destino.getTamano();
+        destino.agregarAscii("4 0 obj\n<</Length ");
+        posicionLongitud = destino.reservar(ANCHO_RESERVADO);
+        destino.agregarAscii(">>\nstream\n");
+        inicioContenido = destino.getTamano();
+        destino.agregarAscii("BT\n/F1 7 Tf\n8.4 TL\n" + MARGEN_X + " ");
+        posicionY = destino.reservar(ANCHO_RESERVADO);
+        destino.agregarAscii(" Td\n");
+
+        alto = 2 * MARGEN_Y;
+        estiloActual = NORMAL;
+    }
+
+    @Override
+    void renglon(char[] texto, int largo, int estilo, BufferTicket destino) {
+        if (estilo != estiloActual) {
+            destino.agregarAscii(estilo == NORMAL ? "/F1 7 Tf\n" : estilo == NEGRITA ? "/F2 7 Tf\n" : "/F2 14 Tf\n");
+            if (estilo == DOBLE || estiloActual == DOBLE) {
+                destino.agregarAscii(estilo == DOBLE ? "16.8 TL\n" : "8.4 TL\n");
+            }
+            estiloActual = estilo;
+        }
+        alto += estilo == DOBLE ? INTERLINEA_DOBLE : INTERLINEA;
+
+        // (texto) ' : baja un renglón y escribe el texto.
+        destino.agregar('(');
+        for (int i = 0; i < largo; i++) {
+            char c = texto[i];
+            if (c == '(' || c == ')' || c == '\\') {
+                destino.agregar('\\');
+                destino.agregar(c);
+            } else if (c < 0x20) {
+                destino.agregar(' ');
+            } else if (c < 0x7F || (c >= 0xA0 && c <= 0xFF)) {
+                destino.agregar(c);         // WinAnsi coincide con Latin-1 en estos rangos.
+            } else {
+                destino.agregar('?');
+            }
+        }
+        destino.agregarAscii(") '\n");
+    }
+
+    @Override
+    void terminar(BufferTicket destino) {
+        destino.agregarAscii("ET\n");
+        destino.rellenarEntero(posicionLongitud, ANCHO_RESERVADO, destino.getTamano() - inicioContenido);
+        destino.rellenarCentesimas(posicionY, ANCHO_RESERVADO, alto - MARGEN_Y);
+        destino.agregarAscii("endstream\nendobj\n");
+
+        objeto(1, "<</Type/Catalog/Pages 2 0 R>>", destino);
+        objeto(2, "<</Type/Pages/Kids[3 0 R]/Count 1>>", destino);
+        desplazamientos[3] = destino.getTamano();
+        destino.agregarAscii("3 0 obj\n<</Type/Page/Parent 2 0 R/MediaBox[0 0 " + ANCHO + " ");
+        destino.agregarCentesimas(alto);
+        destino.agregarAscii("]/Resources<</Font<</F1 5 0 R/F2 6 0 R>>>>/Contents 4 0 R>>\nendobj\n");
+        objeto(5, "<</Type/Font/Subtype/Type1/BaseFont/Courier/Encoding/WinAnsiEncoding>>", destino);
+        objeto(6, "<</Type/Font/Subtype/Type1/BaseFont/Courier-Bold/Encoding/WinAnsiEncoding>>", destino);
+
+        // Tabla de referencias: cada entrada mide exactamente 20 bytes.
+        int xref = destino.getTamano();
+        destino.agregarAscii("xref\n0 7\n0000000000 65535 f \n");
+        for (int i = 1; i < desplazamientos.length; i++) {
+            destino.agregarEntero(desplazamientos[i], 10);
+            destino.agregarAscii(" 00000 n \n");
+        }
+        destino.agregarAscii("trailer\n<</Size 7/Root 1 0 R>>\nstartxref\n");
+        destino.agregarEntero(xref);
+        destino.agregarAscii("\n%%EOF\n");
+    }
+
+    private void objeto(int numero, String diccionario, BufferTicket destino) {
+        desplazamientos[numero] = destino.getTamano();
+        destino.agregarEntero(numero);
+        destino.agregarAscii(" 0 obj\n");
+        destino.agregarAscii(diccionario);
+        destino.agregarAscii("\nendobj\n");
+    }
+}
@@ -0,0 +1,284 @@
+package com.tienda;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * La clase `GeneradorTermico` arma el ticket para rollos de 80 mm: 48 columnas de texto
+ * monoespaciado, con el mismo contenido que el ticket PDF tamaño carta (cliente, fecha, líneas
+ * agrupadas por subcategoría con su descuento y subtotal, y totales).
+ * <p>
+ * Cada renglón se compone en un arreglo de caracteres reutilizado: textos, cantidades, montos y
+ * la fecha se copian carácter por carácter, sin `String.format` ni cadenas intermedias. Las
+ * subclases solo deciden cómo se escribe un renglón en el {@link BufferTicket}: como comandos
+ * ESC/POS ({@link GeneradorEscPos}) o como un PDF angosto ({@link GeneradorPDFTermico}).
+ * <p>
+ * Un generador guarda el renglón en curso, así que no es seguro entre hilos: cada hilo usa el
+ * suyo, igual que su búfer.
+ */
+public abstract class GeneradorTermico {
+    // Columnas de un renglón normal; un renglón de tamaño doble tiene la mitad.
+    public static final int COLUMNAS = 48;
+
+    // Estilos de un renglón.
+    static final int NORMAL = 0;
+    static final int NEGRITA = 1;
+    static final int DOBLE = 2;     // Doble alto y ancho, en negrita.
+
+    private final char[] linea = new char[COLUMNAS];
+    private int largo;              // Columnas usadas del renglón en curso.
+    private final AgrupadorTicket agrupador = new AgrupadorTicket();
+    private final TicketAgrupado agrupado = new TicketAgrupado();
+
+    GeneradorTermico() {
+    }
+
+    /**
+     * Escribe el ticket de una compra.
+     *
+     * @param empresa Nombre de la empresa para el encabezado.
+     * @param compra  La compra.
+     * @param destino Búfer donde se escribe el ticket; se vacía antes de empezar.
+     */
+    public void escribir(String empresa, Compra compra, BufferTicket destino) {
+        escribir(empresa, compra.getUsuario(), compra.getFecha(), compra.getLineasTicket(), destino);
+    }
+
+    /**
+     * Escribe el ticket con las mismas líneas que recibe {@link GeneradorPDF}.
+     *
+     * @param empresa   Nombre de la empresa para el encabezado.
+     * @param usuario   Datos del cliente.
+     * @param fecha     Fecha y hora de la compra.
+     * @param productos Líneas del ticket.
+     * @param destino   Búfer donde se escribe el ticket; se vacía antes de empezar.
+     */
+    public void escribir(String empresa, Usuario usuario, LocalDateTime fecha, List<GeneradorPDF.Producto> productos,
+                         BufferTicket destino) {
+        escribir(empresa, usuario, fecha, agrupador.agrupar(productos, agrupado), destino);
+    }
+
+    /**
+     * Escribe el ticket de líneas ya agrupadas por subcategoría (ver {@link AgrupadorTicket}).
+     *
+     * @param empresa Nombre de la empresa para el encabezado.
+     * @param usuario Datos del cliente.
+     * @param fecha   Fecha y hora de la compra.
+     * @param ticket  Las líneas agrupadas, con subtotales y totales ya sumados.
+     * @param destino Búfer donde se escribe el ticket; se vacía antes de empezar.
+     */
+    public void escribir(String empresa, Usuario usuario, LocalDateTime fecha, TicketAgrupado ticket,
+                         BufferTicket destino) {
+        destino.reiniciar();
+        iniciar(destino);
+
+        centrado(empresa, DOBLE, destino);
+        separador(destino);
+        campo("Cliente: ", usuario.getNombre(), destino);
+        campo("Email: ", usuario.getEmail(), destino);
+        campo("Direccion: ", usuario.getDireccion(), destino);
+        limpiar();
+        int columna = poner(0, "Fecha: ");
+        columna = dosDigitos(columna, fecha.getDayOfMonth());
+        columna = poner(columna, "/");
+        columna = dosDigitos(columna, fecha.getMonthValue());
+        columna = poner(columna, "/");
+        columna = numero(columna, fecha.getYear());
+        columna = poner(columna, " ");
+        columna = dosDigitos(columna, fecha.getHour());
+        columna = poner(columna, ":");
+        columna = dosDigitos(columna, fecha.getMinute());
+        columna = poner(columna, ":");
+        dosDigitos(columna, fecha.getSecond());
+        emitir(NORMAL, destino);
+        separador(destino);
+
+        for (int g = 0; g < ticket.getGrupos(); g++) {
+            limpiar();
+            columna = poner(0, ticket.getCategoria(g));
+            columna = poner(columna, " / ");
+            poner(columna, ticket.getSubcategoria(g));
+            emitir(NEGRITA, destino);
+
+            for (int l = ticket.primeraLinea(g); l >= 0; l = ticket.siguienteLinea(l)) {
+                long subtotal = ticket.getSubtotal(l);
+                int puntosBase = ticket.getDescuento(l);
+
+                limpiar();
+                poner(0, ticket.getNombre(l));
+                emitir(NORMAL, destino);
+
+                // "  3 x $28.50                            $85.50"
+                limpiar();
+                columna = numero(2, ticket.getCantidad(l));
+                columna = poner(columna, " x ");
+                monto(columna, ticket.getPrecioCentavos(l));
+                montoDerecha(subtotal);
+                emitir(NORMAL, destino);
+
+                if (puntosBase > 0) {
+                    limpiar();
+                    columna = poner(2, "Descuento ");
+                    columna = porcentaje(columna, puntosBase);
+                    poner(columna, "%");
+                    montoDerecha(ticket.getSubtotalConDescuento(l) - subtotal);
+                    emitir(NORMAL, destino);
+                }
+            }
+
+            limpiar();
+            columna = poner(0, "Subtotal ");
+            columna = poner(columna, ticket.getSubcategoria(g));
+            poner(columna, ":");
+            montoDerecha(ticket.getSubtotalGrupoConDescuento(g));
+            emitir(NORMAL, destino);
+        }
+
+        separador(destino);
+        limpiar();
+        poner(0, "TOTAL SIN DESCUENTO:");
+        montoDerecha(ticket.getTotalSinDescuento());
+        emitir(NORMAL, destino);
+        limpiar();
+        poner(0, "TOTAL CON DESCUENTO:");
+        montoDerecha(ticket.getTotalConDescuento());
+        emitir(NEGRITA, destino);
+        separador(destino);
+        centrado("Gracias por su compra!", NORMAL, destino);
+
+        terminar(destino);
+    }
+
+    /**
+     * Escribe lo que va antes del primer renglón (inicialización de la impresora, encabezado del PDF).
+     */
+    abstract void iniciar(BufferTicket destino);
+
+    /**
+     * Escribe un renglón.
+     *
+     * @param texto  Caracteres del renglón; solo son válidos los primeros `largo`.
+     * @param largo  Columnas usadas, sin los espacios del final.
+     * @param estilo {@link #NORMAL}, {@link #NEGRITA} o {@link #DOBLE}.
+     */
+    abstract void renglon(char[] texto, int largo, int estilo, BufferTicket destino);
+
+    /**
+     * Escribe lo que va después del último renglón (corte del papel, cierre del PDF).
+     */
+    abstract void terminar(BufferTicket destino);
+
+    private void emitir(int estilo, BufferTicket destino) {
+        renglon(linea, largo, estilo, destino);
+    }
+
+    private void limpiar() {
+        Arrays.fill(linea, ' ');
+        largo = 0;
+    }
+
+    private void separador(BufferTicket destino) {
+        Arrays.fill(linea, '-');
+        largo = COLUMNAS;
+        emitir(NORMAL, destino);
+    }
+
+    private void campo(String etiqueta, String valor, BufferTicket destino) {
+        limpiar();
+        poner(poner(0, etiqueta), valor);
+        emitir(NORMAL, destino);
+    }
+
+    private void centrado(String texto, int estilo, BufferTicket destino) {
+        int columnas = estilo == DOBLE ? COLUMNAS / 2 : COLUMNAS;
+        limpiar();
+        poner(Math.max(0, (columnas - texto.length()) / 2), texto);
+        largo = Math.min(largo, columnas);
+        emitir(estilo, destino);
+    }
+
+    /**
+     * Copia un texto a partir de la columna indicada; lo que no cabe se corta.
+     *
+     * @return La columna siguiente al texto.
+     */
+    private int poner(int columna, String texto) {
+        int fin = Math.min(COLUMNAS, columna + (texto == null ? 0 : texto.length()));
+        for (int i = columna; i < fin; i++) {
+            linea[i] = texto.charAt(i - columna);
+        }
+        largo = Math.max(largo, fin);
+        return fin;
+    }
+
+    private void caracter(int columna, char c) {
+        if (columna < COLUMNAS) {
+            linea[columna] = c;
+            largo = Math.max(largo, columna + 1);
+        }
+    }
+
+    private int numero(int columna, long valor) {
+        int digitos = 1;
+        for (long resto = valor / 10; resto > 0; resto /= 10) {
+            digitos++;
+        }
+        for (int i = digitos - 1; i >= 0; i--) {
+            caracter(columna + i, (char) ('0' + valor % 10));
+            valor /= 10;
+        }
+        return Math.min(COLUMNAS, columna + digitos);
+    }
+
+    private int dosDigitos(int columna, int valor) {
+        caracter(columna, (char) ('0' + valor / 10));
+        caracter(columna + 1, (char) ('0' + valor % 10));
+        return Math.min(COLUMNAS, columna + 2);
+    }
+
+    /**
+     * Escribe un porcentaje en puntos base como {@link Dinero#porcentaje}: "5", "12.5", "0.05".
+     */
+    private int porcentaje(int columna, int puntosBase) {
+        columna = numero(columna, puntosBase / 100);
+        int resto = puntosBase % 100;
+        if (resto != 0) {
+            caracter(columna++, '.');
+            caracter(columna++, (char) ('0' + resto / 10));
+            if (resto % 10 != 0) {
+                caracter(columna++, (char) ('0' + resto % 10));
+            }
+        }
+        return Math.min(COLUMNAS, columna);
+    }
+
+    /**
+     * Escribe un monto ("$1234.50", "-$0.05") a partir de la columna indicada.
+     */
+    private int monto(int columna, long centavos) {
+        if (centavos < 0) {
+            caracter(columna++, '-');
+            centavos = -centavos;
+        }
+        caracter(columna++, '$');
+        columna = numero(columna, centavos / 100);
+        caracter(columna++, '.');
+        return dosDigitos(columna, (int) (centavos % 100));
+    }
+
+    /**
+     * Escribe un monto alineado a la derecha del renglón.
+     */
+    private void montoDerecha(long centavos) {
+        long absoluto = Math.abs(centavos);
+        int ancho = 4 + (centavos < 0 ? 1 : 0);     // "$", ".", dos decimales y el signo.
+        for (long entero = absoluto / 100; ; entero /= 10) {
+            ancho++;
+            if (entero < 10) {
+                break;
+            }
+        }
+        monto(COLUMNAS - ancho, centavos);
+    }
+}
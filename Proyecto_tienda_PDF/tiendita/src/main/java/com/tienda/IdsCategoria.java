@@ -0,0 +1,45 @@
+package com.tienda;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * La clase `IdsCategoria` asigna un número a cada par categoría/subcategoría, el mismo para todo
+ * el proceso.
+ * <p>
+ * Los productos guardan su número al crearse o copiarse, así que al agrupar un ticket basta con
+ * comparar enteros en lugar de cadenas. Los números son consecutivos desde 0 y sirven como índice
+ * de un arreglo.
+ */
+final class IdsCategoria {
+    private static final ConcurrentMap<String, ConcurrentMap<String, Integer>> ids = new ConcurrentHashMap<>();
+    private static final AtomicInteger siguiente = new AtomicInteger();
+
+    private IdsCategoria() {
+    }
+
+    /**
+     * @param categoria    Categoría (null se trata como vacía).
+     * @param subcategoria Subcategoría (null se trata como vacía).
+     * @return El número del par, asignado la primera vez que se ve.
+     */
+    static int de(String categoria, String subcategoria) {
+        ConcurrentMap<String, Integer> subcategorias = ids.get(categoria == null ? "" : categoria);
+        if (subcategorias == null) {
+            subcategorias = ids.computeIfAbsent(categoria == null ? "" : categoria, c -> new ConcurrentHashMap<>());
+        }
+        Integer id = subcategorias.get(subcategoria == null ? "" : subcategoria);
+        if (id == null) {
+            id = subcategorias.computeIfAbsent(subcategoria == null ? "" : subcategoria, s -> siguiente.getAndIncrement());
+        }
+        return id;
+    }
+
+    /**
+     * @return Cuántos pares tienen número; todos los números son menores a este valor.
+     */
+    static int cantidad() {
+        return siguiente.get();
+    }
+}
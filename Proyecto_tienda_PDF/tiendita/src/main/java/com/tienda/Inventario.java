@@ -0,0 +1,446 @@
+package com.tienda;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * La clase `Inventario` lleva las existencias reales de cada producto del catálogo.
+ * Antes el `stock` de `Producto` se usaba como "cantidad en el carrito" y nada impedía
+ * vender más unidades de las que había.
+ * <p>
+ * Las unidades de cada SKU pasan por tres estados:
+ * <ul>
+ *   <li><b>Disponibles</b>: se pueden apartar.</li>
+ *   <li><b>Reservadas</b>: apartadas por un carrito al agregar el producto. Se devuelven si
+ *       se quita la línea, se vacía el carrito o la reserva vence por inactividad.</li>
+ *   <li><b>Vendidas</b>: la reserva se confirmó al cerrar la compra.</li>
+ * </ul>
+ * Los contadores se guardan en arreglos atómicos indexados por la posición del SKU, y apartar
+ * unidades es un ciclo de compare-and-set: muchos hilos pueden reservar a la vez sin cerrojos y
+ * sin vender de más. La única sincronización es la de cada {@link Reserva}, que solo usa el
+ * carrito dueño y el hilo de vencimientos. Las reservas activas se registran en un conjunto
+ * concurrente (sin un cerrojo global) que el hilo de vencimientos recorre cada segundo.
+ * <p>
+ * Las existencias iniciales se leen de `inventario.csv` (`sku,existencias`) en el classpath, o
+ * del archivo indicado en la propiedad del sistema `tienda.inventario`. Los productos del
+ * catálogo que no aparecen en el archivo empiezan sin existencias.
+ */
+public final class Inventario {
+    // Propiedad del sistema con la ruta de un archivo de existencias externo.
+    public static final String PROPIEDAD_INVENTARIO = "tienda.inventario";
+
+    // Tiempo que una reserva sin actividad retiene las unidades.
+    public static final long VIGENCIA_PREDETERMINADA_MS = TimeUnit.MINUTES.toMillis(15);
+
+    // Recurso del classpath con las existencias por defecto.
+    private static final String RECURSO_INVENTARIO = "/inventario.csv";
+
+    // Estados de una reserva.
+    private static final int ACTIVA = 0;
+    private static final int VENCIDA = 1;
+    private static final int LIBERADA = 2;
+    private static final int CONFIRMADA = 3;
+
+    private final Map<String, Integer> indices;      // SKU -> posición en los arreglos; no cambia.
+    private final String[] skus;
+    private final AtomicIntegerArray disponibles;
+    private final AtomicIntegerArray reservadas;
+    private final AtomicIntegerArray vendidas;
+    private final long vigenciaNanos;
+    private final Set<Reserva> activas = ConcurrentHashMap.newKeySet();
+    private ScheduledExecutorService expirador;      // Se crea con iniciarExpiracion().
+
+    /**
+     * Constructor del inventario.
+     *
+     * @param skus        SKUs que controla el inventario.
+     * @param existencias Unidades disponibles de cada SKU (misma longitud que `skus`).
+     * @param vigenciaMs  Milisegundos que una reserva sin actividad retiene las unidades.
+     */
+    public Inventario(String[] skus, int[] existencias, long vigenciaMs) {
+        if (skus.length != existencias.length) {
+            throw new IllegalArgumentException("Error: Cada SKU necesita sus existencias.");
+        }
+        this.skus = skus.clone();
+        this.indices = new HashMap<>(Math.max(16, (int) (skus.length / 0.75f) + 1));
+        for (int i = 0; i < skus.length; i++) {
+            if (existencias[i] < 0) {
+                throw new IllegalArgumentException("Error: Existencias negativas para " + skus[i] + ".");
+            }
+            if (indices.put(skus[i], i) != null) {
+                throw new IllegalArgumentException("Error: SKU repetido en el inventario: " + skus[i] + ".");
+            }
+        }
+        this.disponibles = new AtomicIntegerArray(existencias);
+        this.reservadas = new AtomicIntegerArray(skus.length);
+        this.vendidas = new AtomicIntegerArray(skus.length);
+        this.vigenciaNanos = TimeUnit.MILLISECONDS.toNanos(vigenciaMs);
+    }
+
+    /**
+     * Crea el inventario de un catálogo con las existencias de la ubicación configurada.
+     *
+     * @param catalogo Productos del catálogo.
+     * @return El inventario, con la vigencia de reservas predeterminada.
+     * @throws IOException Si el archivo de existencias no se puede leer o tiene un formato inválido.
+     */
+    public static Inventario cargar(Producto[] catalogo) throws IOException {
+        String ruta = System.getProperty(PROPIEDAD_INVENTARIO);
+        Map<String, Integer> existencias;
+        if (ruta != null && !ruta.isEmpty()) {
+            try (Reader lector = Files.newBufferedReader(Paths.get(ruta), StandardCharsets.UTF_8)) {
+                existencias = leerCsv(lector);
+            }
+        } else {
+            InputStream recurso = Inventario.class.getResourceAsStream(RECURSO_INVENTARIO);
+            if (recurso == null) {
+                throw new IOException("No se encontro el recurso " + RECURSO_INVENTARIO + ".");
+            }
+            try (Reader lector = new InputStreamReader(recurso, StandardCharsets.UTF_8)) {
+                existencias = leerCsv(lector);
+            }
+        }
+        return deCatalogo(catalogo, existencias, VIGENCIA_PREDETERMINADA_MS);
+    }
+
+    /**
+     * Crea el inventario de un catálogo con existencias dadas por SKU.
+     *
+     * @param catalogo    Productos del catálogo.
+     * @param existencias Unidades por SKU; los que falten empiezan en 0.
+     * @param vigenciaMs  Milisegundos que una reserva sin actividad retiene las unidades.
+     * @return El inventario.
+     */
+    public static Inventario deCatalogo(Producto[] catalogo, Map<String, Integer> existencias, long vigenciaMs) {
+        String[] skus = new String[catalogo.length];
+        int[] unidades = new int[catalogo.length];
+        for (int i = 0; i < catalogo.length; i++) {
+            skus[i] = catalogo[i].getSku();
+            Integer n = existencias.get(skus[i]);
+            unidades[i] = n != null ? n : 0;
+        }
+        return new Inventario(skus, unidades, vigenciaMs);
+    }
+
+    /**
+     * Lee un archivo de existencias en formato CSV (`sku,existencias`, con encabezado).
+     *
+     * @param lector Lector posicionado al inicio del archivo.
+     * @return Las existencias por SKU.
+     * @throws IOException Si no se puede leer o alguna línea es inválida.
+     */
+    public static Map<String, Integer> leerCsv(Reader lector) throws IOException {
+        BufferedReader br = lector instanceof BufferedReader ? (BufferedReader) lector : new BufferedReader(lector);
+        Map<String, Integer> existencias = new HashMap<>();
+        String linea = br.readLine(); // Encabezado.
+        int numeroLinea = 1;
+        while ((linea = br.readLine()) != null) {
+            numeroLinea++;
+            if (linea.isEmpty() || linea.charAt(0) == '#') {
+                continue;
+            }
+            int coma = linea.indexOf(',');
+            try {
+                if (coma < 0) {
+                    throw new NumberFormatException();
+                }
+                existencias.put(linea.substring(0, coma).trim(), Integer.parseInt(linea.substring(coma + 1).trim()));
+            } catch (NumberFormatException e) {
+                throw new IOException("Linea " + numeroLinea + " del inventario invalida: '" + linea + "'.", e);
+            }
+        }
+        return existencias;
+    }
+
+    /**
+     * @param sku SKU del producto.
+     * @return true si el inventario controla las existencias de ese SKU.
+     */
+    public boolean contiene(String sku) {
+        return indices.containsKey(sku);
+    }
+
+    /**
+     * @param sku SKU del producto.
+     * @return Las unidades que todavía se pueden apartar, o 0 si el SKU no está en el inventario.
+     */
+    public int getDisponibles(String sku) {
+        Integer i = indices.get(sku);
+        return i != null ? disponibles.get(i) : 0;
+    }
+
+    /**
+     * @param sku SKU del producto.
+     * @return Las unidades apartadas en carritos.
+     */
+    public int getReservadas(String sku) {
+        return reservadas.get(indice(sku));
+    }
+
+    /**
+     * @param sku SKU del producto.
+     * @return Las unidades vendidas.
+     */
+    public int getVendidas(String sku) {
+        return vendidas.get(indice(sku));
+    }
+
+    /**
+     * Aparta unidades de un producto.
+     *
+     * @param sku      SKU del producto.
+     * @param cantidad Unidades a apartar.
+     * @return La reserva, que retiene las unidades hasta liberarse, confirmarse o vencer.
+     * @throws StockInsuficienteException si no hay suficientes unidades disponibles.
+     * @throws IllegalArgumentException   si el SKU no está en el inventario.
+     */
+    public Reserva reservar(String sku, int cantidad) throws StockInsuficienteException {
+        // La reserva todavía no es visible para otros hilos; el conjunto de activas la publica.
+        Reserva reserva = new Reserva(indice(sku));
+        reserva.activar(cantidad);
+        return reserva;
+    }
+
+    /**
+     * Devuelve a disponibles las unidades de las reservas vencidas.
+     * Lo llama el hilo de {@link #iniciarExpiracion()}; también se puede llamar directamente.
+     *
+     * @return Las unidades devueltas.
+     */
+    public int expirarVencidas() {
+        long ahora = System.nanoTime();
+        int devueltas = 0;
+        for (Reserva reserva : activas) {
+            if (reserva.vence - ahora <= 0) {
+                devueltas += reserva.vencer(ahora);
+            }
+        }
+        return devueltas;
+    }
+
+    /**
+     * Inicia un hilo en segundo plano que revisa los vencimientos cada segundo.
+     * Llamarlo más de una vez no tiene efecto.
+     */
+    public synchronized void iniciarExpiracion() {
+        if (expirador != null) {
+            return;
+        }
+        expirador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread hilo = new Thread(r, "vencimiento-reservas");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        expirador.scheduleWithFixedDelay(this::expirarVencidas, 1, 1, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Detiene el hilo de vencimientos, si se inició.
+     */
+    public synchronized void detenerExpiracion() {
+        if (expirador != null) {
+            expirador.shutdownNow();
+            expirador = null;
+        }
+    }
+
+    private int indice(String sku) {
+        Integer i = indices.get(sku);
+        if (i == null) {
+            throw new IllegalArgumentException("Error: El producto " + sku + " no esta en el inventario.");
+        }
+        return i;
+    }
+
+    /**
+     * Toma unidades disponibles con compare-and-set; nunca deja las existencias en negativo.
+     */
+    private boolean tomar(int i, int cantidad) {
+        while (true) {
+            int actual = disponibles.get(i);
+            if (actual < cantidad) {
+                return false;
+            }
+            if (disponibles.compareAndSet(i, actual, actual - cantidad)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Unidades apartadas de un producto.
+     * <p>
+     * Cada operación renueva el vencimiento. Si la reserva ya venció, cambiar su cantidad o
+     * confirmarla intenta apartar de nuevo todas las unidades.
+     */
+    public final class Reserva {
+        private final int indice;
+        private final int hash = ThreadLocalRandom.current().nextInt();
+        private int cantidad;           // Unidades retenidas (o que se retenían, si venció).
+        private int estado = LIBERADA;
+        private volatile long vence;    // System.nanoTime() en que vence si no hay actividad.
+
+        private Reserva(int indice) {
+            this.indice = indice;
+        }
+
+        /**
+         * El hash de identidad se calcula tarde y obliga a inflar el monitor de un objeto que
+         * también se usa con `synchronized`; como la reserva vive en un conjunto, se usa uno propio.
+         */
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        /**
+         * @return El SKU del producto reservado.
+         */
+        public String getSku() {
+            return skus[indice];
+        }
+
+        /**
+         * @return Las unidades de la reserva.
+         */
+        public synchronized int getCantidad() {
+            return cantidad;
+        }
+
+        /**
+         * @return true si la reserva retiene unidades en este momento.
+         */
+        public synchronized boolean estaActiva() {
+            return estado == ACTIVA;
+        }
+
+        /**
+         * Cambia la cantidad reservada, tomando o devolviendo solo la diferencia.
+         *
+         * @param nuevaCantidad Unidades que debe retener la reserva.
+         * @throws StockInsuficienteException si no hay unidades para el aumento; la reserva no cambia.
+         */
+        public synchronized void ajustar(int nuevaCantidad) throws StockInsuficienteException {
+            validarAbierta();
+            if (estado == VENCIDA) {
+                activar(nuevaCantidad);
+                return;
+            }
+            int diferencia = nuevaCantidad - cantidad;
+            if (diferencia > 0 && !tomar(indice, diferencia)) {
+                throw sinExistencias(diferencia);
+            }
+            if (diferencia < 0) {
+                disponibles.addAndGet(indice, -diferencia);
+            }
+            reservadas.addAndGet(indice, diferencia);
+            cantidad = nuevaCantidad;
+            renovarVencimiento();
+        }
+
+        /**
+         * Renueva el vencimiento; si la reserva ya venció, vuelve a apartar las unidades.
+         *
+         * @throws StockInsuficienteException si la reserva venció y ya no hay unidades suficientes.
+         */
+        public synchronized void renovar() throws StockInsuficienteException {
+            validarAbierta();
+            if (estado == VENCIDA) {
+                activar(cantidad);
+            } else {
+                renovarVencimiento();
+            }
+        }
+
+        /**
+         * Devuelve las unidades a disponibles. No tiene efecto si ya se liberó.
+         */
+        public synchronized void liberar() {
+            if (estado == ACTIVA) {
+                disponibles.addAndGet(indice, cantidad);
+                reservadas.addAndGet(indice, -cantidad);
+                activas.remove(this);
+            }
+            if (estado != CONFIRMADA) {
+                estado = LIBERADA;
+            }
+        }
+
+        /**
+         * Convierte las unidades reservadas en vendidas.
+         *
+         * @throws StockInsuficienteException si la reserva venció y ya no hay unidades suficientes.
+         */
+        public synchronized void confirmar() throws StockInsuficienteException {
+            renovar();
+            reservadas.addAndGet(indice, -cantidad);
+            vendidas.addAndGet(indice, cantidad);
+            activas.remove(this);
+            estado = CONFIRMADA;
+        }
+
+        private void activar(int nuevaCantidad) throws StockInsuficienteException {
+            if (nuevaCantidad <= 0) {
+                throw new IllegalArgumentException("Error: La cantidad a reservar debe ser mayor a 0.");
+            }
+            if (!tomar(indice, nuevaCantidad)) {
+                throw sinExistencias(nuevaCantidad);
+            }
+            reservadas.addAndGet(indice, nuevaCantidad);
+            cantidad = nuevaCantidad;
+            estado = ACTIVA;
+            renovarVencimiento();
+            activas.add(this);
+        }
+
+        private void renovarVencimiento() {
+            vence = System.nanoTime() + vigenciaNanos;
+        }
+
+        /**
+         * Devuelve las unidades si la reserva sigue activa y ya pasó su vencimiento.
+         *
+         * @return Las unidades devueltas.
+         */
+        private synchronized int vencer(long ahora) {
+            // Se revisa de nuevo con el monitor: pudo renovarse o liberarse mientras tanto.
+            if (estado != ACTIVA || vence - ahora > 0) {
+                return 0;
+            }
+            disponibles.addAndGet(indice, cantidad);
+            reservadas.addAndGet(indice, -cantidad);
+            activas.remove(this);
+            estado = VENCIDA;
+            return cantidad;
+        }
+
+        private void validarAbierta() {
+            if (estado == CONFIRMADA) {
+                throw new IllegalStateException("Error: La reserva de " + getSku() + " ya se confirmo.");
+            }
+            if (estado == LIBERADA) {
+                throw new IllegalStateException("Error: La reserva de " + getSku() + " ya se libero.");
+            }
+        }
+
+        private StockInsuficienteException sinExistencias(int pedidas) {
+            return new StockInsuficienteException("Error: Solo hay " + disponibles.get(indice) + " unidades disponibles de "
+                + getSku() + " (se pidieron " + pedidas + " mas).");
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.tienda;
+
+import java.util.Arrays;
+
+/**
+ * La clase `MotorPrecios` concentra el cálculo de precios y descuentos de la tienda.
+ * Antes cada pantalla repetía los escalones de descuento por volumen; ahora el carrito, el
+ * ticket de consola, el ticket PDF y la pantalla del carrito consultan este motor.
+ * <p>
+ * El motor aplica un conjunto de {@link ReglaDescuento}. Los descuentos no se acumulan: a cada
+ * línea se le aplica el mayor descuento que ofrezca alguna de las reglas.
+ * <p>
+ * Los montos se manejan en centavos y los descuentos en puntos base, con las reglas de
+ * redondeo de {@link Dinero}.
+ */
+public class MotorPrecios {
+    /**
+     * Reglas de la tienda: 5% de 3 a 4 piezas, 10% de 5 a 6 y 15% a partir de 7.
+     */
+    public static final MotorPrecios ESTANDAR = new MotorPrecios(
+        new ReglaDescuento.PorVolumen(new int[] {3, 5, 7}, new int[] {500, 1000, 1500})
+    );
+
+    private final ReglaDescuento[] reglas;
+
+    /**
+     * Constructor del motor.
+     *
+     * @param reglas Reglas de descuento que se evalúan para cada línea.
+     */
+    public MotorPrecios(ReglaDescuento... reglas) {
+        this.reglas = Arrays.copyOf(reglas, reglas.length);
+    }
+
+    /**
+     * Calcula el descuento que corresponde a una línea.
+     *
+     * @param linea Producto del carrito; su `stock` es la cantidad comprada.
+     * @return El descuento en puntos base (1000 = 10%).
+     */
+    public int descuento(Producto linea) {
+        int mejor = 0;
+        for (ReglaDescuento regla : reglas) {
+            int d = regla.descuento(linea);
+            if (d > mejor) {
+                mejor = d;
+            }
+        }
+        return mejor;
+    }
+
+    /**
+     * @param linea Producto del carrito.
+     * @return El precio unitario por la cantidad, sin descuento, en centavos.
+     */
+    public long subtotal(Producto linea) {
+        return Dinero.multiplicar(linea.getPrecioCentavos(), linea.getStock());
+    }
+
+    /**
+     * @param linea Producto del carrito.
+     * @return El subtotal de la línea con su descuento aplicado, en centavos.
+     */
+    public long subtotalConDescuento(Producto linea) {
+        return Dinero.aplicarDescuento(subtotal(linea), descuento(linea));
+    }
+}
@@ -0,0 +1,16 @@
+package com.tienda;
+
+/**
+ * Recibe los eventos que publica {@link ServicioCompra}.
+ * <p>
+ * Se llama en el hilo que hizo la operación, así que debe ser rápido; si hace falta
+ * escribir a disco o a la red conviene encolar el evento, como hace {@link RegistroAsincrono}.
+ */
+@FunctionalInterface
+public interface OyenteCompra {
+
+    /**
+     * @param evento Lo que ocurrió.
+     */
+    void alOcurrir(EventoCompra evento);
+}
@@ -0,0 +1,71 @@
+package com.tienda;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * La clase `Pedido` es una compra tal como quedó en el {@link DiarioPedidos}: el número de
+ * pedido, la fecha, quién compró y cada línea con su precio y su descuento, además de los totales.
+ * <p>
+ * A diferencia de {@link Compra}, no depende del catálogo ni del motor de precios: los montos
+ * son los que se cobraron, así que el pedido se puede reproducir aunque después cambien los
+ * precios o las reglas de descuento.
+ */
+public final class Pedido {
+    private final long secuencia;
+    private final LocalDateTime fecha;
+    private final Usuario usuario;
+    private final List<Linea> lineas;
+    private final long totalSinDescuentoCentavos;
+    private final long totalCentavos;
+
+    Pedido(long secuencia, LocalDateTime fecha, Usuario usuario, List<Linea> lineas,
+           long totalSinDescuentoCentavos, long totalCentavos) {
+        this.secuencia = secuencia;
+        this.fecha = fecha;
+        this.usuario = usuario;
+        this.lineas = Collections.unmodifiableList(lineas);
+        this.totalSinDescuentoCentavos = totalSinDescuentoCentavos;
+        this.totalCentavos = totalCentavos;
+    }
+
+    /** @return Número del pedido en el diario; empieza en 1 y no tiene huecos. */
+    public long getSecuencia() { return secuencia; }
+    public LocalDateTime getFecha() { return fecha; }
+    public Usuario getUsuario() { return usuario; }
+    public List<Linea> getLineas() { return lineas; }
+    public long getTotalSinDescuentoCentavos() { return totalSinDescuentoCentavos; }
+    public long getTotalCentavos() { return totalCentavos; }
+
+    /**
+     * Una línea del pedido.
+     */
+    public static final class Linea {
+        private final String sku;
+        private final String nombre;
+        private final int cantidad;
+        private final long precioCentavos;
+        private final int descuento;
+        private final long subtotalCentavos;
+
+        Linea(String sku, String nombre, int cantidad, long precioCentavos, int descuento, long subtotalCentavos) {
+            this.sku = sku;
+            this.nombre = nombre;
+            this.cantidad = cantidad;
+            this.precioCentavos = precioCentavos;
+            this.descuento = descuento;
+            this.subtotalCentavos = subtotalCentavos;
+        }
+
+        public String getSku() { return sku; }
+        public String getNombre() { return nombre; }
+        public int getCantidad() { return cantidad; }
+        /** @return Precio unitario, en centavos. */
+        public long getPrecioCentavos() { return precioCentavos; }
+        /** @return Descuento aplicado, en puntos base (1000 = 10%). */
+        public int getDescuento() { return descuento; }
+        /** @return Subtotal con el descuento aplicado, en centavos. */
+        public long getSubtotalCentavos() { return subtotalCentavos; }
+    }
+}
@@ -0,0 +1,143 @@
+package com.tienda;
+
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.PDResources;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.font.PDType0Font;
+import org.apache.pdfbox.pdmodel.graphics.form.PDFormXObject;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * La clase `PlantillaTicket` guarda el encabezado que se repite en cada página del ticket (logo,
+ * título centrado y encabezados de la tabla) ya dibujado, para no repetir ese trabajo.
+ * <p>
+ * Se arma una vez por empresa: los operadores de dibujo se escriben y comprimen una sola vez, y
+ * el ancho del título se calcula en ese momento. En cada ticket, la plantilla se agrega una vez
+ * como Form XObject y todas las páginas lo referencian; en un ticket de varias páginas el
+ * encabezado se guarda una sola vez en el PDF.
+ * <p>
+ * El texto se guardó con los números de glifo de la fuente original. PDFBox conserva esos
+ * números al incrustar el subconjunto de la fuente (con un mapa CID a glifo), así que basta con
+ * agregar al subconjunto de cada documento los caracteres de la plantilla.
+ */
+final class PlantillaTicket {
+    // Medidas de la página, las mismas de `GeneradorPDF`.
+    static final PDRectangle PAGINA = PDRectangle.LETTER;
+    static final float MARGEN_X = 40;
+    static final float INICIO_Y = PAGINA.getHeight() - 40;
+    static final float TABLA_Y = INICIO_Y - 100;
+
+    private static final String[] COLUMNAS = { "Producto", "Categoría", "Subcategoría", "Cantidad", "Precio U.", "Subtotal" };
+    private static final float[] AVANCE_COLUMNAS = { 120, 130, 120, 50, 60 };
+
+    private final byte[] contenido;         // Operadores de dibujo, comprimidos con Flate.
+    private final COSName nombreFuente;     // Nombre de la fuente negrita en los recursos del XObject.
+    private final COSName nombreLogo;       // Nombre del logo en los recursos, o null sin logo.
+    private final String textoFijo;         // Todo el texto de la plantilla, para el subconjunto de la fuente.
+
+    private PlantillaTicket(byte[] contenido, COSName nombreFuente, COSName nombreLogo, String textoFijo) {
+        this.contenido = contenido;
+        this.nombreFuente = nombreFuente;
+        this.nombreLogo = nombreLogo;
+        this.textoFijo = textoFijo;
+    }
+
+    /**
+     * Dibuja el encabezado en un documento temporal y conserva los bytes.
+     *
+     * @param temporal Documento donde se cargó la fuente; solo se usa durante la llamada.
+     * @param negrita  Fuente negrita cargada en `temporal`.
+     * @param logo     Logo creado en `temporal`, o null para omitirlo.
+     * @param empresa  Nombre de la empresa para el título, ya apto para la fuente.
+     * @return La plantilla, lista para cualquier documento.
+     * @throws IOException Si la fuente no tiene algún carácter del texto.
+     */
+    static PlantillaTicket crear(PDDocument temporal, PDFont negrita, PDImageXObject logo, String empresa) throws IOException {
+        PDFormXObject forma = new PDFormXObject(temporal);
+        forma.setResources(new PDResources());
+        ByteArrayOutputStream operadores = new ByteArrayOutputStream(1024);
+
+        try (PDPageContentStream contenido = new PDPageContentStream(temporal, forma, operadores)) {
+            if (logo != null) {
+                contenido.drawImage(logo, MARGEN_X, PAGINA.getHeight() - 50 - 20, 100, 50);
+            }
+
+            float anchoTitulo = (negrita.getStringWidth(empresa) / 1000) * 18;
+            contenido.beginText();
+            contenido.setFont(negrita, 18);
+            contenido.newLineAtOffset((PAGINA.getWidth() - anchoTitulo) / 2, INICIO_Y - 20);
+            contenido.showText(empresa);
+            contenido.endText();
+
+            contenido.setFont(negrita, 10);
+            contenido.beginText();
+            contenido.newLineAtOffset(MARGEN_X, TABLA_Y);
+            for (int i = 0; i < COLUMNAS.length; i++) {
+                if (i > 0) {
+                    contenido.newLineAtOffset(AVANCE_COLUMNAS[i - 1], 0);
+                }
+                contenido.showText(COLUMNAS[i]);
+            }
+            contenido.endText();
+        }
+
+        ByteArrayOutputStream comprimido = new ByteArrayOutputStream(512);
+        try (OutputStream flate = new DeflaterOutputStream(comprimido)) {
+            operadores.writeTo(flate);
+        }
+
+        PDResources recursos = forma.getResources();
+        COSName nombreFuente = recursos.getFontNames().iterator().next();
+        COSName nombreLogo = logo != null ? recursos.getXObjectNames().iterator().next() : null;
+        String textoFijo = empresa + String.join("", COLUMNAS);
+        return new PlantillaTicket(comprimido.toByteArray(), nombreFuente, nombreLogo, textoFijo);
+    }
+
+    /**
+     * Crea en el documento el XObject de la plantilla, con los bytes ya comprimidos, y agrega sus
+     * caracteres al subconjunto de la fuente del documento. Se llama una vez por documento y el
+     * mismo XObject se dibuja en todas sus páginas.
+     *
+     * @param documento Documento del ticket.
+     * @param negrita   Fuente negrita del documento (la misma fuente con que se armó la plantilla).
+     * @param logo      Logo del documento, o null si la plantilla no tiene logo.
+     * @return El XObject, para dibujarlo con `drawForm`.
+     * @throws IOException Si no se pueden escribir los bytes.
+     */
+    PDFormXObject crearEn(PDDocument documento, PDFont negrita, PDImageXObject logo) throws IOException {
+        COSStream stream = documento.getDocument().createCOSStream();
+        try (OutputStream salida = stream.createRawOutputStream()) {
+            salida.write(contenido);
+        }
+        stream.setItem(COSName.FILTER, COSName.FLATE_DECODE);
+
+        PDFormXObject forma = new PDFormXObject(stream);
+        forma.setBBox(PAGINA);
+        PDResources recursos = new PDResources();
+        recursos.put(nombreFuente, negrita);
+        if (nombreLogo != null && logo != null) {
+            recursos.put(nombreLogo, logo);
+        }
+        forma.setResources(recursos);
+
+        // Una fuente estándar no se incrusta: no tiene subconjunto que completar.
+        if (negrita instanceof PDType0Font) {
+            PDType0Font incrustada = (PDType0Font) negrita;
+            for (int i = 0; i < textoFijo.length(); ) {
+                int caracter = textoFijo.codePointAt(i);
+                incrustada.addToSubset(caracter);
+                i += Character.charCount(caracter);
+            }
+        }
+        return forma;
+    }
+}
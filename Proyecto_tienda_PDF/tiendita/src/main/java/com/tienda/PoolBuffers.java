@@ -0,0 +1,155 @@
+package com.tienda;
+
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * La clase `PoolBuffers` mantiene un conjunto de búferes directos (`ByteBuffer.allocateDirect`)
+ * reutilizables para escribir tickets en memoria.
+ * <p>
+ * Los búferes directos viven fuera del heap y pueden pasarse a un canal de red o de archivo
+ * sin copias adicionales, pero su creación es costosa; por eso se devuelven al pool y se
+ * reutilizan en lugar de crearse uno por ticket.
+ */
+public class PoolBuffers {
+
+    /**
+     * Pool compartido por defecto: búferes de 64 KB, hasta 16 retenidos.
+     */
+    public static final PoolBuffers COMPARTIDO = new PoolBuffers(64 * 1024, 16);
+
+    private final int tamanoInicial;                // Capacidad de los búferes nuevos.
+    private final BlockingQueue<ByteBuffer> libres; // Búferes disponibles para reutilizar.
+
+    /**
+     * Constructor del pool.
+     *
+     * @param tamanoInicial Capacidad en bytes de cada búfer nuevo.
+     * @param maximoLibres  Número máximo de búferes que se conservan para reutilizar.
+     */
+    public PoolBuffers(int tamanoInicial, int maximoLibres) {
+        if (tamanoInicial <= 0 || maximoLibres <= 0) {
+            throw new IllegalArgumentException("Error: El tamano y el maximo de buferes deben ser mayores a 0.");
+        }
+        this.tamanoInicial = tamanoInicial;
+        this.libres = new ArrayBlockingQueue<>(maximoLibres);
+    }
+
+    /**
+     * Toma un búfer con al menos la capacidad indicada, reutilizando uno libre si es posible.
+     *
+     * @param minimo Capacidad mínima requerida.
+     * @return Un búfer directo vacío (posición 0, límite = capacidad).
+     */
+    public ByteBuffer tomar(int minimo) {
+        ByteBuffer buffer = libres.poll();
+        if (buffer != null && buffer.capacity() >= minimo) {
+            buffer.clear();
+            return buffer;
+        }
+        if (buffer != null) {
+            // Demasiado pequeño para esta petición; se regresa para otra más chica.
+            libres.offer(buffer);
+        }
+        return ByteBuffer.allocateDirect(Math.max(minimo, tamanoInicial));
+    }
+
+    /**
+     * Devuelve un búfer al pool. Si el pool ya está lleno el búfer simplemente se descarta.
+     *
+     * @param buffer El búfer a devolver.
+     */
+    public void devolver(ByteBuffer buffer) {
+        if (buffer != null && buffer.isDirect()) {
+            buffer.clear();
+            libres.offer(buffer);
+        }
+    }
+
+    /**
+     * Abre un flujo de salida que escribe sobre un búfer del pool.
+     *
+     * @return Una nueva salida; debe cerrarse para devolver el búfer.
+     */
+    public Salida abrirSalida() {
+        return new Salida();
+    }
+
+    /**
+     * @return El número de búferes libres en este momento.
+     */
+    public int getLibres() {
+        return libres.size();
+    }
+
+    /**
+     * Flujo de salida respaldado por un búfer directo del pool.
+     * Si el contenido no cabe, se toma un búfer del doble de tamaño y se devuelve el anterior,
+     * de modo que con el uso los búferes del pool se ajustan al tamaño típico de un ticket.
+     */
+    public class Salida extends OutputStream {
+        private ByteBuffer buffer = tomar(tamanoInicial);
+
+        @Override
+        public void write(int b) {
+            asegurar(1);
+            buffer.put((byte) b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            asegurar(len);
+            buffer.put(b, off, len);
+        }
+
+        private void asegurar(int adicional) {
+            if (buffer == null) {
+                throw new IllegalStateException("Error: La salida ya fue cerrada.");
+            }
+            if (buffer.remaining() >= adicional) {
+                return;
+            }
+            int requerido = buffer.position() + adicional;
+            ByteBuffer mayor = tomar(Math.max(requerido, buffer.capacity() * 2));
+            buffer.flip();
+            mayor.put(buffer);
+            devolver(buffer);
+            buffer = mayor;
+        }
+
+        /**
+         * Obtiene una vista de solo lectura de los bytes escritos, lista para leerse
+         * o enviarse a un canal. La vista es válida hasta que se cierra la salida.
+         *
+         * @return Un búfer con posición 0 y límite igual al número de bytes escritos.
+         */
+        public ByteBuffer contenido() {
+            if (buffer == null) {
+                throw new IllegalStateException("Error: La salida ya fue cerrada.");
+            }
+            ByteBuffer vista = buffer.asReadOnlyBuffer();
+            vista.flip();
+            return vista;
+        }
+
+        /**
+         * @return El número de bytes escritos hasta ahora.
+         */
+        public int tamano() {
+            return buffer == null ? 0 : buffer.position();
+        }
+
+        /**
+         * Devuelve el búfer al pool. Llamarlo más de una vez no tiene efecto.
+         */
+        @Override
+        public void close() {
+            if (buffer != null) {
+                devolver(buffer);
+                buffer = null;
+            }
+        }
+    }
+}
@@ -9,11 +9,13 @@ package com.tienda;
 public class Producto {
     // Declaración de los atributos de la clase, todos definidos como privados
     // para asegurar el encapsulamiento de los datos.
+    private String sku;             // Clave única del producto en el catálogo (ej. "LAC-001").
     private String nombre;          // Nombre descriptivo del producto.
     private String categoria;       // Categoría principal a la que pertenece el producto (ej. "Lácteos").
     private String subcategoria;    // Subcategoría para una clasificación más detallada (ej. "Leche").
-    private double precio;          // Precio unitario del producto, utilizando un tipo de dato 'double' para manejar valores con decimales.
+    private long precioCentavos;    // Precio unitario en centavos; ver la clase `Dinero`.
     private int stock;              // Cantidad de unidades del producto disponibles en el inventario.
+    private int idCategoria = -1;   // Número del par categoría/subcategoría (ver `IdsCategoria`), o -1 si aún no se pide.
 
     /**
      * Constructor de la clase Producto.
@@ -21,29 +23,91 @@ public class Producto {
      *
      */
     public Producto(String nombre, String categoria, String subcategoria, double precio, int stock) {
+        this(null, nombre, categoria, subcategoria, precio, stock);
+    }
+
+    /**
+     * Constructor de la clase Producto con clave (SKU) explícita.
+     * Se utiliza al cargar el catálogo desde un archivo, donde cada producto tiene su propia clave.
+     *
+     */
+    public Producto(String sku, String nombre, String categoria, String subcategoria, double precio, int stock) {
+        this.sku = sku;
         this.nombre = nombre;
         this.categoria = categoria;
         this.subcategoria = subcategoria;
-        this.precio = precio;
+        this.precioCentavos = Dinero.deDecimal(precio);
         this.stock = stock;
     }
 
+    /**
+     * Crea un producto con el precio ya expresado en centavos, sin conversión desde decimal.
+     *
+     * @param precioCentavos Precio unitario en centavos.
+     * @return El nuevo producto.
+     */
+    public static Producto conPrecioCentavos(String sku, String nombre, String categoria, String subcategoria,
+                                             long precioCentavos, int stock) {
+        Producto p = new Producto(sku, nombre, categoria, subcategoria, 0, stock);
+        p.precioCentavos = precioCentavos;
+        return p;
+    }
+
+    /**
+     * Crea una copia del producto con otra cantidad. El carrito guarda sus líneas como copias
+     * propias, así nadie más puede cambiarlas.
+     *
+     * @param cantidad La cantidad (`stock`) de la copia.
+     * @return Un producto nuevo con los mismos datos y la cantidad indicada.
+     */
+    Producto conCantidad(int cantidad) {
+        Producto copia = new Producto(sku, nombre, categoria, subcategoria, 0, cantidad);
+        copia.precioCentavos = precioCentavos;
+        copia.idCategoria = idCategoria();
+        return copia;
+    }
+
+    /**
+     * Número del par categoría/subcategoría, para agrupar tickets sin comparar cadenas.
+     * Se busca una sola vez por producto y pasa a sus copias.
+     */
+    int idCategoria() {
+        if (idCategoria < 0) {
+            idCategoria = IdsCategoria.de(categoria, subcategoria);
+        }
+        return idCategoria;
+    }
+
     // --- Métodos de Acceso (Getters) ---
     // Proporcionan acceso de solo lectura a los atributos privados de la clase.
 
     public String getNombre() { return nombre; }
+
+    /**
+     * Obtiene la clave del producto. Si el producto se creó sin clave, se forma una a partir
+     * de su categoría, subcategoría y nombre, que identifican al producto en el catálogo.
+     */
+    public String getSku() {
+        return sku != null ? sku : categoria + "/" + subcategoria + "/" + nombre;
+    }
+
     public String getCategoria() { return categoria; }
     public String getSubcategoria() { return subcategoria; }
-    public double getPrecio() { return precio; }
+    public double getPrecio() { return Dinero.aDecimal(precioCentavos); }
+
+    /**
+     * Obtiene el precio unitario exacto, en centavos. Es el que se usa para calcular totales.
+     */
+    public long getPrecioCentavos() { return precioCentavos; }
     public int getStock() { return stock; }
 
     // --- Métodos de Modificación (Setters) ---
     // Permiten la modificación controlada de los atributos de la clase.
 
     public void setNombre(String nombre) { this.nombre = nombre; }
-    public void setCategoria(String categoria) { this.categoria = categoria; }
-    public void setSubcategoria(String subcategoria) { this.subcategoria = subcategoria; }
-    public void setPrecio(double precio) { this.precio = precio; }
+    public void setCategoria(String categoria) { this.categoria = categoria; this.idCategoria = -1; }
+    public void setSubcategoria(String subcategoria) { this.subcategoria = subcategoria; this.idCategoria = -1; }
+    public void setPrecio(double precio) { this.precioCentavos = Dinero.deDecimal(precio); }
     public void setStock(int stock) { this.stock = stock; }
 
     /**
@@ -55,6 +119,6 @@ public class Producto {
      */
     @Override
     public String toString() {
-        return nombre + " | " + categoria + " - " + subcategoria + " | $" + precio;
+        return nombre + " | " + categoria + " - " + subcategoria + " | $" + Dinero.formatear(precioCentavos);
     }
 }
\ No newline at end of file
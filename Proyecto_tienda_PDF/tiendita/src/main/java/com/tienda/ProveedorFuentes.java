@@ -0,0 +1,285 @@
+package com.tienda;
+
+import org.apache.fontbox.ttf.TTFParser;
+import org.apache.fontbox.ttf.TrueTypeFont;
+import org.apache.pdfbox.pdmodel.font.encoding.GlyphList;
+import org.apache.pdfbox.pdmodel.font.encoding.WinAnsiEncoding;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.font.PDType0Font;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * La clase `ProveedorFuentes` decide qué fuentes usan los tickets PDF y las deja analizadas en
+ * memoria para todos los generadores.
+ * <p>
+ * Para cada estilo (regular y negrita) se busca, en orden:
+ * <ol>
+ *   <li>la ruta de la propiedad `tienda.fuente.regular` o `tienda.fuente.negrita`
+ *       (un archivo, o `classpath:/ruta.ttf` para un recurso);</li>
+ *   <li>el recurso `/fuentes/regular.ttf` o `/fuentes/negrita.ttf` empaquetado con la aplicación
+ *       (basta con copiar los archivos en `src/main/resources/fuentes/`);</li>
+ *   <li>las fuentes estándar de PDF, Helvetica y Helvetica-Bold, que no se incrustan y
+ *       funcionan en cualquier sistema, aunque solo cubren los caracteres de WinAnsi.</li>
+ * </ol>
+ * Si una ruta configurada no se puede leer, el proveedor no lo escribe en ninguna salida: lo
+ * guarda en la fuente ({@link Fuente#getFallo()}) y la aplicación decide cómo avisarlo
+ * ({@link #getAvisos()}).
+ * <p>
+ * Cada archivo TTF se lee y analiza una sola vez por proceso, y la misma instancia de
+ * `TrueTypeFont` se comparte entre hilos y documentos: PDFBox sincroniza la lectura de sus
+ * tablas, y en cada ticket solo se incrusta el subconjunto de glifos usados.
+ */
+public final class ProveedorFuentes {
+
+    // Recursos que se buscan en el classpath cuando no se configura una ruta.
+    public static final String RECURSO_REGULAR = "/fuentes/regular.ttf";
+    public static final String RECURSO_NEGRITA = "/fuentes/negrita.ttf";
+
+    // Prefijo para indicar un recurso del classpath en las propiedades.
+    public static final String PREFIJO_CLASSPATH = "classpath:";
+
+    // Fuentes ya analizadas, por origen ("archivo:/ruta/absoluta" o "recurso:/ruta").
+    private static final Map<String, TrueTypeFont> analizadas = new HashMap<>();
+
+    private final Fuente regular;
+    private final Fuente negrita;
+
+    private ProveedorFuentes(Fuente regular, Fuente negrita) {
+        this.regular = regular;
+        this.negrita = negrita;
+    }
+
+    /**
+     * Proveedor con dos archivos TTF indicados, sin alternativas: si alguno falta se informa.
+     *
+     * @param rutaRegular Ruta del archivo TTF para el texto normal.
+     * @param rutaNegrita Ruta del archivo TTF para el texto en negrita.
+     * @return El proveedor con ambas fuentes analizadas.
+     * @throws IOException Si alguna de las fuentes no se puede leer.
+     */
+    public static ProveedorFuentes deArchivos(String rutaRegular, String rutaNegrita) throws IOException {
+        return new ProveedorFuentes(new Fuente(cargar(rutaRegular), rutaRegular, null),
+            new Fuente(cargar(rutaNegrita), rutaNegrita, null));
+    }
+
+    /**
+     * Proveedor según las propiedades del sistema, con los recursos empaquetados y las fuentes
+     * estándar como alternativas. Nunca falla: si una fuente configurada no se puede leer se pasa
+     * a la siguiente opción y el motivo queda en {@link #getAvisos()}.
+     *
+     * @return El proveedor con la mejor fuente disponible de cada estilo.
+     */
+    public static ProveedorFuentes desdePropiedades() {
+        return resolver(System.getProperty(GeneradorPDF.PROPIEDAD_FUENTE_REGULAR), RECURSO_REGULAR,
+            System.getProperty(GeneradorPDF.PROPIEDAD_FUENTE_NEGRITA), RECURSO_NEGRITA);
+    }
+
+    /**
+     * Resuelve cada estilo con la ruta configurada (puede ser null), luego el recurso indicado y
+     * por último la fuente estándar.
+     */
+    static ProveedorFuentes resolver(String rutaRegular, String recursoRegular, String rutaNegrita, String recursoNegrita) {
+        return new ProveedorFuentes(
+            resolver(rutaRegular, recursoRegular, PDType1Font.HELVETICA),
+            resolver(rutaNegrita, recursoNegrita, PDType1Font.HELVETICA_BOLD));
+    }
+
+    private static Fuente resolver(String ruta, String recurso, PDType1Font estandar) {
+        String fallo = null;
+        if (ruta != null) {
+            try {
+                return new Fuente(cargar(ruta), ruta, null);
+            } catch (IOException e) {
+                fallo = "No se pudo cargar la fuente " + ruta + ": " + e.getMessage();
+            }
+        }
+        if (recurso != null) {
+            try {
+                return new Fuente(cargar(PREFIJO_CLASSPATH + recurso), PREFIJO_CLASSPATH + recurso, fallo);
+            } catch (IOException e) {
+                // El recurso empaquetado es opcional; sin él se usa la fuente estándar.
+            }
+        }
+        return new Fuente(estandar, fallo);
+    }
+
+    /**
+     * Obtiene el proveedor compartido, resuelto con las propiedades del sistema en el primer uso.
+     *
+     * @return La instancia compartida.
+     */
+    public static ProveedorFuentes obtener() {
+        return Contenedor.INSTANCIA;
+    }
+
+    /**
+     * Contenedor del proveedor compartido; se crea en el primer uso.
+     */
+    private static final class Contenedor {
+        static final ProveedorFuentes INSTANCIA = desdePropiedades();
+    }
+
+    /**
+     * Lee y analiza una fuente, o devuelve la que ya se analizó para el mismo origen.
+     */
+    private static synchronized TrueTypeFont cargar(String origen) throws IOException {
+        String clave = origen.startsWith(PREFIJO_CLASSPATH)
+            ? "recurso:" + origen.substring(PREFIJO_CLASSPATH.length())
+            : "archivo:" + Paths.get(origen).toAbsolutePath().normalize();
+        TrueTypeFont fuente = analizadas.get(clave);
+        if (fuente == null) {
+            try (InputStream in = abrir(origen)) {
+                // El analizador copia el flujo completo en memoria; después no se vuelve a leer el origen.
+                fuente = new TTFParser().parse(in);
+            }
+            analizadas.put(clave, fuente);
+        }
+        return fuente;
+    }
+
+    private static InputStream abrir(String origen) throws IOException {
+        if (!origen.startsWith(PREFIJO_CLASSPATH)) {
+            return new FileInputStream(origen);
+        }
+        String recurso = origen.substring(PREFIJO_CLASSPATH.length());
+        InputStream in = ProveedorFuentes.class.getResourceAsStream(recurso);
+        if (in == null) {
+            throw new IOException("No existe el recurso " + recurso);
+        }
+        return in;
+    }
+
+    /**
+     * @return Por qué no se usaron las fuentes configuradas, uno por estilo; vacía si no hubo problemas.
+     */
+    public List<String> getAvisos() {
+        List<String> avisos = new ArrayList<>();
+        for (Fuente fuente : new Fuente[] {regular, negrita}) {
+            if (fuente.getFallo() != null) {
+                avisos.add(fuente.getFallo());
+            }
+        }
+        return avisos;
+    }
+
+    /**
+     * @return La fuente para el texto normal.
+     */
+    public Fuente regular() {
+        return regular;
+    }
+
+    /**
+     * @return La fuente para el texto en negrita.
+     */
+    public Fuente negrita() {
+        return negrita;
+    }
+
+    /**
+     * Una fuente lista para usarse en cualquier documento: un TTF ya analizado o una de las
+     * fuentes estándar de PDF.
+     */
+    public static final class Fuente {
+        private final TrueTypeFont ttf;       // Fuente analizada, o null si es estándar.
+        private final PDType1Font estandar;   // Fuente estándar, o null si es TTF.
+        private final String origen;          // Archivo, recurso o nombre de la fuente estándar.
+        private final String fallo;           // Por qué no se usó la ruta configurada, o null.
+
+        private Fuente(TrueTypeFont ttf, String origen, String fallo) {
+            this.ttf = ttf;
+            this.estandar = null;
+            this.origen = origen;
+            this.fallo = fallo;
+        }
+
+        private Fuente(PDType1Font estandar, String fallo) {
+            this.ttf = null;
+            this.estandar = estandar;
+            this.origen = estandar.getName();
+            this.fallo = fallo;
+        }
+
+        /**
+         * Asocia la fuente a un documento. Un TTF se incrustará solo con los glifos usados;
+         * una fuente estándar no se incrusta.
+         *
+         * @param documento Documento del ticket.
+         * @return La fuente de PDFBox para ese documento.
+         * @throws IOException Si no se pueden leer las tablas del TTF.
+         */
+        public PDFont cargarEn(PDDocument documento) throws IOException {
+            return ttf != null ? PDType0Font.load(documento, ttf, true) : estandar;
+        }
+
+        /**
+         * Adapta un texto a la fuente: con un TTF se devuelve igual, y con una fuente estándar
+         * los caracteres fuera de WinAnsi se cambian por '?', para que PDFBox no rechace la línea.
+         *
+         * @param texto Texto a dibujar.
+         * @return El mismo texto, o una copia con los caracteres reemplazados.
+         */
+        public String apta(String texto) {
+            if (ttf != null) {
+                return texto;
+            }
+            StringBuilder copia = null;
+            for (int i = 0; i < texto.length(); ) {
+                int caracter = texto.codePointAt(i);
+                int largo = Character.charCount(caracter);
+                boolean valido = WinAnsiEncoding.INSTANCE.contains(GlyphList.getAdobeGlyphList().codePointToName(caracter));
+                if (!valido && copia == null) {
+                    copia = new StringBuilder(texto.length()).append(texto, 0, i);
+                }
+                if (copia != null) {
+                    if (valido) {
+                        copia.append(texto, i, i + largo);
+                    } else {
+                        copia.append('?');
+                    }
+                }
+                i += largo;
+            }
+            return copia != null ? copia.toString() : texto;
+        }
+
+        /**
+         * @return true si es una de las fuentes estándar de PDF (no incrustada).
+         */
+        public boolean esEstandar() {
+            return ttf == null;
+        }
+
+        /**
+         * @return De dónde salió la fuente: archivo, recurso o nombre de la fuente estándar.
+         */
+        public String getOrigen() {
+            return origen;
+        }
+
+        /**
+         * @return Por qué no se pudo usar la ruta configurada (y se tomó una alternativa), o null
+         *         si no había ruta configurada o se cargó bien.
+         */
+        public String getFallo() {
+            return fallo;
+        }
+
+        /**
+         * @return La fuente TTF analizada, compartida por todos los generadores, o null si es estándar.
+         */
+        TrueTypeFont getTtf() {
+            return ttf;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.tienda;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * La clase `RegistroAsincrono` escribe los eventos de compra en una bitácora sin frenar a
+ * quien los produce.
+ * <p>
+ * Antes el carrito imprimía en consola en cada operación; `System.out` se sincroniza, así que
+ * con muchas sesiones a la vez todas esperaban su turno para escribir. Ahora el evento solo se
+ * encola (sin bloquear) y un hilo aparte los escribe en lotes. Si la cola se llena, el evento
+ * se descarta y se cuenta, en lugar de frenar la compra.
+ * <p>
+ * Es opcional: solo se activa si se indica la propiedad del sistema `tienda.registro`, con el
+ * valor `consola` o la ruta de un archivo (se agrega al final).
+ */
+public final class RegistroAsincrono implements OyenteCompra, AutoCloseable {
+    // Propiedad del sistema que activa la bitácora.
+    public static final String PROPIEDAD_REGISTRO = "tienda.registro";
+
+    // Eventos que pueden esperar en la cola antes de empezar a descartar.
+    private static final int CAPACIDAD_PREDETERMINADA = 8192;
+
+    // Marca de fin que `close()` deja en la cola; el hilo escritor termina al leerla.
+    private static final EventoCompra FIN = new EventoCompra(null, null, null, 0, 0);
+
+    private final BlockingQueue<EventoCompra> cola;
+    private final Writer destino;
+    private final boolean cerrarDestino;    // No se cierra la consola.
+    private final Thread escritor;
+    private final AtomicLong escritos = new AtomicLong();
+    private final AtomicLong descartados = new AtomicLong();
+    private volatile boolean abierto = true;
+
+    /**
+     * Constructor de la bitácora.
+     *
+     * @param destino       Donde se escriben los eventos, una línea por evento.
+     * @param capacidad     Eventos que pueden esperar en la cola.
+     * @param cerrarDestino Si al cerrar la bitácora también se cierra `destino`.
+     */
+    public RegistroAsincrono(Writer destino, int capacidad, boolean cerrarDestino) {
+        this.cola = new ArrayBlockingQueue<>(capacidad);
+        this.destino = destino;
+        this.cerrarDestino = cerrarDestino;
+        this.escritor = new Thread(this::escribir, "registro-compras");
+        this.escritor.setDaemon(true);
+        this.escritor.start();
+    }
+
+    /**
+     * Crea la bitácora indicada en la propiedad `tienda.registro`.
+     *
+     * @return La bitácora, o null si la propiedad no está definida.
+     * @throws IOException Si no se puede abrir el archivo indicado.
+     */
+    public static RegistroAsincrono desdePropiedad() throws IOException {
+        String valor = System.getProperty(PROPIEDAD_REGISTRO);
+        if (valor == null || valor.isEmpty()) {
+            return null;
+        }
+        if (valor.equalsIgnoreCase("consola")) {
+            return new RegistroAsincrono(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), CAPACIDAD_PREDETERMINADA, false);
+        }
+        Writer archivo = Files.newBufferedWriter(Paths.get(valor), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        return new RegistroAsincrono(archivo, CAPACIDAD_PREDETERMINADA, true);
+    }
+
+    /**
+     * Encola el evento sin esperar; si la cola está llena, lo descarta.
+     */
+    @Override
+    public void alOcurrir(EventoCompra evento) {
+        if (!abierto || !cola.offer(evento)) {
+            descartados.incrementAndGet();
+        }
+    }
+
+    /**
+     * @return Eventos escritos hasta ahora.
+     */
+    public long getEscritos() {
+        return escritos.get();
+    }
+
+    /**
+     * @return Eventos descartados porque la cola estaba llena o la bitácora cerrada.
+     */
+    public long getDescartados() {
+        return descartados.get();
+    }
+
+    /**
+     * Escribe los eventos pendientes y detiene el hilo escritor.
+     * <p>
+     * No se interrumpe al hilo: se le deja la marca de fin al final de la cola, así que escribe
+     * todo lo anterior y termina solo. Interrumpirlo además cerraría un archivo a medio escribir.
+     */
+    @Override
+    public void close() throws IOException {
+        abierto = false;
+        try {
+            // Si la cola está llena, el escritor la vacía y libera lugar para la marca.
+            if (cola.offer(FIN, 5, TimeUnit.SECONDS)) {
+                escritor.join(TimeUnit.SECONDS.toMillis(5));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (cerrarDestino) {
+            destino.close();
+        } else {
+            destino.flush();
+        }
+    }
+
+    /**
+     * @return true mientras el hilo escritor siga vivo.
+     */
+    boolean escritorActivo() {
+        return escritor.isAlive();
+    }
+
+    private void escribir() {
+        List<EventoCompra> lote = new ArrayList<>(256);
+        StringBuilder texto = new StringBuilder(256 * 96);
+        while (true) {
+            try {
+                lote.add(cola.take());
+            } catch (InterruptedException e) {
+                // Nadie más interrumpe al escritor; se sigue hasta leer la marca de fin.
+                continue;
+            }
+            cola.drainTo(lote);
+            boolean fin = lote.removeIf(evento -> evento == FIN);
+            if (fin) {
+                // Eventos que alcanzaron a encolarse mientras se cerraba la bitácora.
+                cola.drainTo(lote);
+            }
+            if (!lote.isEmpty()) {
+                texto.setLength(0);
+                for (EventoCompra evento : lote) {
+                    texto.append(evento).append(System.lineSeparator());
+                }
+                try {
+                    destino.append(texto);
+                    destino.flush();
+                    escritos.addAndGet(lote.size());
+                } catch (IOException e) {
+                    descartados.addAndGet(lote.size());
+                }
+                lote.clear();
+            }
+            if (fin) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.tienda;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * La interfaz `ReglaDescuento` representa una regla que decide qué descuento corresponde a una
+ * línea del carrito. El {@link MotorPrecios} combina varias reglas.
+ * <p>
+ * Se incluyen tres tipos de regla:
+ * <ul>
+ *   <li>{@link PorVolumen}: descuento por escalones según la cantidad comprada.</li>
+ *   <li>{@link PorCategoria}: descuento fijo para todos los productos de una categoría.</li>
+ *   <li>{@link PorSku}: descuento fijo para productos concretos.</li>
+ * </ul>
+ */
+public interface ReglaDescuento {
+
+    /**
+     * Calcula el descuento de una línea del carrito.
+     *
+     * @param linea Producto del carrito; su `stock` es la cantidad comprada.
+     * @return El descuento en puntos base (1000 = 10%), o 0 si la regla no aplica.
+     */
+    int descuento(Producto linea);
+
+    /**
+     * Descuento por volumen: a partir de cierta cantidad se aplica un porcentaje, y el escalón
+     * más alto alcanzado es el que cuenta.
+     */
+    final class PorVolumen implements ReglaDescuento {
+        private final int[] minimos;        // Cantidad mínima de cada escalón, en orden ascendente.
+        private final int[] descuentos;     // Descuento de cada escalón, en puntos base.
+
+        /**
+         * Constructor de la regla.
+         *
+         * @param minimos    Cantidad mínima de cada escalón, en orden ascendente.
+         * @param descuentos Descuento de cada escalón en puntos base (misma longitud que `minimos`).
+         */
+        public PorVolumen(int[] minimos, int[] descuentos) {
+            if (minimos.length != descuentos.length) {
+                throw new IllegalArgumentException("Error: Cada escalon necesita un minimo y un descuento.");
+            }
+            for (int i = 1; i < minimos.length; i++) {
+                if (minimos[i] <= minimos[i - 1]) {
+                    throw new IllegalArgumentException("Error: Los escalones deben estar en orden ascendente.");
+                }
+            }
+            this.minimos = Arrays.copyOf(minimos, minimos.length);
+            this.descuentos = Arrays.copyOf(descuentos, descuentos.length);
+        }
+
+        @Override
+        public int descuento(Producto linea) {
+            int cantidad = linea.getStock();
+            for (int i = minimos.length - 1; i >= 0; i--) {
+                if (cantidad >= minimos[i]) {
+                    return descuentos[i];
+                }
+            }
+            return 0;
+        }
+    }
+
+    /**
+     * Descuento fijo por categoría.
+     */
+    final class PorCategoria implements ReglaDescuento {
+        private final Map<String, Integer> descuentos;
+
+        /**
+         * @param descuentos Descuento en puntos base por nombre de categoría.
+         */
+        public PorCategoria(Map<String, Integer> descuentos) {
+            this.descuentos = new HashMap<>(descuentos);
+        }
+
+        @Override
+        public int descuento(Producto linea) {
+            Integer d = descuentos.get(linea.getCategoria());
+            return d != null ? d : 0;
+        }
+    }
+
+    /**
+     * Descuento fijo por producto (SKU).
+     */
+    final class PorSku implements ReglaDescuento {
+        private final Map<String, Integer> descuentos;
+
+        /**
+         * @param descuentos Descuento en puntos base por SKU.
+         */
+        public PorSku(Map<String, Integer> descuentos) {
+            this.descuentos = new HashMap<>(descuentos);
+        }
+
+        @Override
+        public int descuento(Producto linea) {
+            Integer d = descuentos.get(linea.getSku());
+            return d != null ? d : 0;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.tienda;
+
+import java.io.IOException;
+import java.util.Collections;
+
+/**
+ * La clase `ServicioCatalogo` ofrece un único catálogo compartido por toda la aplicación:
+ * el menú de consola (`Controlador`) y las pantallas de JavaFX usan la misma instancia.
+ * <p>
+ * El catálogo se carga e indexa la primera vez que alguien lo pide, y a partir de ahí
+ * obtenerlo no cuesta nada. La inicialización perezosa y segura entre hilos se apoya en la
+ * carga de clases de Java (idioma "holder"): la clase interna `Contenedor` solo se inicializa
+ * en la primera llamada a {@link #obtener()}, y la JVM garantiza que ocurra una sola vez.
+ */
+public final class ServicioCatalogo {
+    private final CatalogoRepositorio repositorio;
+    private final Inventario inventario;
+    private volatile BuscadorProductos buscador; // Se construye solo si alguien busca.
+
+    private ServicioCatalogo(Producto[] catalogo, Inventario inventario) {
+        this.repositorio = new CatalogoRepositorio(catalogo);
+        this.inventario = inventario;
+    }
+
+    /**
+     * Contenedor de la instancia única; se inicializa en el primer acceso.
+     */
+    private static final class Contenedor {
+        static final ServicioCatalogo INSTANCIA = crear();
+
+        private static ServicioCatalogo crear() {
+            Producto[] catalogo;
+            try {
+                catalogo = CargadorCatalogo.cargar();
+            } catch (IOException e) {
+                System.err.println("Error al cargar el catalogo: " + e.getMessage());
+                catalogo = new Producto[0];
+            }
+            Inventario inventario;
+            try {
+                inventario = Inventario.cargar(catalogo);
+            } catch (IOException e) {
+                // Sin archivo de existencias no se puede vender nada: todo queda agotado.
+                System.err.println("Error al cargar el inventario: " + e.getMessage());
+                inventario = Inventario.deCatalogo(catalogo, Collections.emptyMap(), Inventario.VIGENCIA_PREDETERMINADA_MS);
+            }
+            inventario.iniciarExpiracion();
+            return new ServicioCatalogo(catalogo, inventario);
+        }
+    }
+
+    /**
+     * Obtiene el servicio de catálogo compartido, cargándolo la primera vez.
+     *
+     * @return La instancia única del servicio.
+     */
+    public static ServicioCatalogo obtener() {
+        return Contenedor.INSTANCIA;
+    }
+
+    /**
+     * Crea un servicio con un catálogo e inventario propios, sin tocar la instancia compartida.
+     * Lo usan las pruebas y los generadores de carga.
+     *
+     * @param catalogo   Productos del catálogo.
+     * @param inventario Existencias de esos productos.
+     * @return Un servicio independiente del compartido.
+     */
+    public static ServicioCatalogo de(Producto[] catalogo, Inventario inventario) {
+        return new ServicioCatalogo(catalogo, inventario);
+    }
+
+    /**
+     * @return El repositorio con los índices por categoría y subcategoría.
+     */
+    public CatalogoRepositorio getRepositorio() {
+        return repositorio;
+    }
+
+    /**
+     * @return Las existencias de los productos del catálogo, compartidas por todos los carritos.
+     */
+    public Inventario getInventario() {
+        return inventario;
+    }
+
+    /**
+     * Obtiene el índice de búsqueda del catálogo, construyéndolo la primera vez.
+     *
+     * @return El buscador de productos compartido.
+     */
+    public BuscadorProductos getBuscador() {
+        BuscadorProductos actual = buscador;
+        if (actual == null) {
+            synchronized (this) {
+                actual = buscador;
+                if (actual == null) {
+                    actual = new BuscadorProductos(repositorio.getProductos());
+                    buscador = actual;
+                }
+            }
+        }
+        return actual;
+    }
+}
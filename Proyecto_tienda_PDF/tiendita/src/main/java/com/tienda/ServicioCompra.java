@@ -0,0 +1,395 @@
+package com.tienda;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * La clase `ServicioCompra` reúne las operaciones de una sesión de compra: registrarse,
+ * recorrer el catálogo, modificar el carrito y cerrar la compra.
+ * <p>
+ * No tiene interfaz ni escribe en consola: cada operación devuelve su resultado (una
+ * instantánea del carrito, una {@link Compra}) o lanza la excepción de la tienda con el mensaje
+ * de error, y publica un {@link EventoCompra} a los oyentes registrados. Así el menú de consola,
+ * las pantallas de JavaFX y un generador de carga usan exactamente la misma lógica.
+ * <p>
+ * El servicio no guarda estado de las sesiones; cada una tiene su {@link Carrito}, y un mismo
+ * servicio se puede usar desde muchos hilos a la vez.
+ * <p>
+ * La bitácora es opcional: la instancia compartida ({@link #obtener()}) escribe los eventos con
+ * un {@link RegistroAsincrono} solo si se indica la propiedad `tienda.registro`. Del mismo modo,
+ * con la propiedad `tienda.diario` cada compra cerrada se guarda en un {@link DiarioPedidos}.
+ */
+public final class ServicioCompra {
+    // Cantidad máxima por línea, la misma del menú original.
+    public static final int CANTIDAD_MAXIMA = 100;
+
+    private final ServicioCatalogo catalogo;
+    private final MotorPrecios motor;
+    private final List<OyenteCompra> oyentes = new CopyOnWriteArrayList<>();
+    private volatile DiarioPedidos diario;     // null si las compras no se guardan.
+
+    /**
+     * Constructor del servicio.
+     *
+     * @param catalogo Catálogo e inventario de la tienda.
+     * @param motor    Reglas de precio y descuento de los carritos nuevos.
+     */
+    public ServicioCompra(ServicioCatalogo catalogo, MotorPrecios motor) {
+        this.catalogo = catalogo;
+        this.motor = motor;
+    }
+
+    /**
+     * Contenedor de la instancia compartida; se inicializa en el primer acceso.
+     */
+    private static final class Contenedor {
+        static final ServicioCompra INSTANCIA = crear();
+
+        private static ServicioCompra crear() {
+            ServicioCompra servicio = new ServicioCompra(ServicioCatalogo.obtener(), MotorPrecios.ESTANDAR);
+            try {
+                RegistroAsincrono registro = RegistroAsincrono.desdePropiedad();
+                if (registro != null) {
+                    servicio.agregarOyente(registro);
+                    // Al salir se escriben los eventos que queden en la cola.
+                    Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                        try {
+                            registro.close();
+                        } catch (IOException e) {
+                            System.err.println("Error al cerrar la bitacora: " + e.getMessage());
+                        }
+                    }, "cierre-registro"));
+                }
+            } catch (IOException e) {
+                System.err.println("Error al abrir la bitacora: " + e.getMessage());
+            }
+            try {
+                DiarioPedidos diario = DiarioPedidos.desdePropiedad();
+                if (diario != null) {
+                    servicio.usarDiario(diario);
+                    // Al salir se fuerzan a disco los pedidos que falten.
+                    Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                        try {
+                            diario.close();
+                        } catch (IOException e) {
+                            System.err.println("Error al cerrar el diario de pedidos: " + e.getMessage());
+                        }
+                    }, "cierre-diario"));
+                }
+            } catch (IOException e) {
+                System.err.println("Error al abrir el diario de pedidos: " + e.getMessage());
+            }
+            return servicio;
+        }
+    }
+
+    /**
+     * Obtiene el servicio compartido por la consola y las pantallas, sobre el catálogo compartido.
+     *
+     * @return La instancia única del servicio.
+     */
+    public static ServicioCompra obtener() {
+        return Contenedor.INSTANCIA;
+    }
+
+    // --- Oyentes ---
+
+    /**
+     * @param oyente Recibirá los eventos de todas las sesiones, en el hilo de cada operación.
+     */
+    public void agregarOyente(OyenteCompra oyente) {
+        oyentes.add(oyente);
+    }
+
+    /**
+     * @param oyente Oyente a quitar.
+     */
+    public void quitarOyente(OyenteCompra oyente) {
+        oyentes.remove(oyente);
+    }
+
+    /**
+     * @param diario Diario donde se guardará cada compra cerrada, o null para no guardarlas.
+     */
+    public void usarDiario(DiarioPedidos diario) {
+        this.diario = diario;
+    }
+
+    private void publicar(EventoCompra.Tipo tipo, String email, String sku, int cantidad, long totalCentavos) {
+        if (oyentes.isEmpty()) {
+            return;     // Sin oyentes no se crea el evento.
+        }
+        EventoCompra evento = new EventoCompra(tipo, email, sku, cantidad, totalCentavos);
+        for (OyenteCompra oyente : oyentes) {
+            oyente.alOcurrir(evento);
+        }
+    }
+
+    // --- Registro ---
+
+    /**
+     * Valida el nombre de un usuario.
+     *
+     * @param nombre Nombre, ya sin espacios al inicio ni al final.
+     * @throws UsuarioInvalidoException si está vacío o tiene menos de 3 caracteres
+     */
+    public static void validarNombre(String nombre) throws UsuarioInvalidoException {
+        if (nombre == null || nombre.isEmpty()) {
+            throw new UsuarioInvalidoException("Error: El nombre no puede estar vacio.");
+        }
+        if (nombre.length() < 3) {
+            throw new UsuarioInvalidoException("Error: El nombre debe tener al menos 3 caracteres.");
+        }
+    }
+
+    /**
+     * Valida el email de un usuario.
+     *
+     * @param email Email, ya sin espacios al inicio ni al final.
+     * @throws Invalidar_Email si está vacío o no tiene un formato válido
+     */
+    public static void validarEmail(String email) throws Invalidar_Email {
+        if (email == null || email.isEmpty()) {
+            throw new Invalidar_Email("Error: El email no puede estar vacio.");
+        }
+        if (!Usuario.esEmailValido(email)) {
+            throw new Invalidar_Email("Error: Formato de email invalido. Ejemplo: usuario@correo.com");
+        }
+    }
+
+    /**
+     * Valida la dirección de un usuario.
+     *
+     * @param direccion Dirección, ya sin espacios al inicio ni al final.
+     * @throws UsuarioInvalidoException si está vacía o tiene menos de 5 caracteres
+     */
+    public static void validarDireccion(String direccion) throws UsuarioInvalidoException {
+        if (direccion == null || direccion.isEmpty()) {
+            throw new UsuarioInvalidoException("Error: La direccion no puede estar vacia.");
+        }
+        if (direccion.length() < 5) {
+            throw new UsuarioInvalidoException("Error: La direccion debe tener al menos 5 caracteres.");
+        }
+    }
+
+    /**
+     * Registra un usuario. Los datos se validan en orden: nombre, email y dirección.
+     *
+     * @param nombre    Nombre completo.
+     * @param email     Correo electrónico.
+     * @param direccion Dirección de envío.
+     * @return El usuario registrado.
+     * @throws UsuarioInvalidoException si el nombre o la dirección son inválidos
+     * @throws Invalidar_Email si el email es inválido
+     */
+    public Usuario registrar(String nombre, String email, String direccion) throws UsuarioInvalidoException, Invalidar_Email {
+        nombre = nombre != null ? nombre.trim() : null;
+        email = email != null ? email.trim() : null;
+        direccion = direccion != null ? direccion.trim() : null;
+        validarNombre(nombre);
+        validarEmail(email);
+        validarDireccion(direccion);
+
+        Usuario usuario = new Usuario(nombre, email, direccion);
+        publicar(EventoCompra.Tipo.USUARIO_REGISTRADO, email, null, 0, 0);
+        return usuario;
+    }
+
+    // --- Catálogo ---
+
+    /**
+     * @return Las categorías del catálogo, en orden de aparición.
+     */
+    public List<String> categorias() {
+        return catalogo.getRepositorio().getCategorias();
+    }
+
+    /**
+     * @param categoria Nombre de la categoría.
+     * @return Sus subcategorías, o una lista vacía si no existe.
+     */
+    public List<String> subcategorias(String categoria) {
+        return catalogo.getRepositorio().getSubcategorias(categoria);
+    }
+
+    /**
+     * @param categoria Nombre de la categoría.
+     * @return Sus productos agrupados por subcategoría, o una lista vacía si no existe.
+     */
+    public List<Producto> productos(String categoria) {
+        return catalogo.getRepositorio().getProductos(categoria);
+    }
+
+    /**
+     * @param categoria    Nombre de la categoría.
+     * @param subcategoria Nombre de la subcategoría.
+     * @return Los productos de la subcategoría, o una lista vacía si no existe.
+     */
+    public List<Producto> productos(String categoria, String subcategoria) {
+        return catalogo.getRepositorio().getProductos(categoria, subcategoria);
+    }
+
+    /**
+     * @param sku Clave del producto.
+     * @return El producto del catálogo, o null si no existe.
+     */
+    public Producto producto(String sku) {
+        return catalogo.getRepositorio().getProducto(sku);
+    }
+
+    /**
+     * Busca productos por nombre, categoría o subcategoría.
+     *
+     * @param consulta Texto a buscar.
+     * @param limite   Máximo de resultados.
+     * @return Los productos más relevantes.
+     */
+    public List<Producto> buscar(String consulta, int limite) {
+        return catalogo.getBuscador().buscar(consulta, limite);
+    }
+
+    /**
+     * @param sku Clave del producto.
+     * @return Las unidades que todavía se pueden apartar.
+     */
+    public int disponibles(String sku) {
+        return catalogo.getInventario().getDisponibles(sku);
+    }
+
+    // --- Carrito ---
+
+    /**
+     * @return Un carrito vacío que aparta sus unidades del inventario de la tienda.
+     */
+    public Carrito nuevoCarrito() {
+        return new Carrito(20, motor, catalogo.getInventario());
+    }
+
+    /**
+     * Agrega unidades de un producto del catálogo al carrito.
+     *
+     * @param carrito  Carrito de la sesión.
+     * @param sku      Clave del producto.
+     * @param cantidad Unidades a agregar, de 1 a 100.
+     * @return El carrito después del cambio.
+     * @throws ProductoNoEncontradoException si el SKU no está en el catálogo
+     * @throws CantidadInvalidaException si la cantidad es inválida o no hay existencias
+     */
+    public Carrito.Instantanea agregar(Carrito carrito, String sku, int cantidad) throws ProductoNoEncontradoException, CantidadInvalidaException {
+        Producto p = producto(sku);
+        if (p == null) {
+            throw new ProductoNoEncontradoException("Error: El producto " + sku + " no existe en el catalogo.");
+        }
+        return agregar(carrito, p, cantidad);
+    }
+
+    /**
+     * Agrega unidades de un producto al carrito.
+     *
+     * @param carrito  Carrito de la sesión.
+     * @param producto Producto a agregar; su `stock` no se toma en cuenta.
+     * @param cantidad Unidades a agregar, de 1 a 100.
+     * @return El carrito después del cambio.
+     * @throws CantidadInvalidaException si la cantidad es inválida o no hay existencias
+     */
+    public Carrito.Instantanea agregar(Carrito carrito, Producto producto, int cantidad) throws CantidadInvalidaException {
+        validarCantidad(cantidad);
+        int resultante = carrito.agregarProducto(Producto.conPrecioCentavos(
+            producto.getSku(),
+            producto.getNombre(),
+            producto.getCategoria(),
+            producto.getSubcategoria(),
+            producto.getPrecioCentavos(),
+            cantidad
+        ));
+        publicar(EventoCompra.Tipo.PRODUCTO_AGREGADO, null, producto.getSku(), resultante, carrito.calcularTotalCentavos());
+        return carrito.instantanea();
+    }
+
+    /**
+     * Cambia la cantidad de una línea del carrito.
+     *
+     * @param carrito  Carrito de la sesión.
+     * @param sku      Clave del producto.
+     * @param cantidad Nueva cantidad, de 1 a 100.
+     * @return El carrito después del cambio.
+     * @throws CantidadInvalidaException si la cantidad es inválida o no hay existencias
+     * @throws IllegalArgumentException si el producto no está en el carrito
+     */
+    public Carrito.Instantanea actualizar(Carrito carrito, String sku, int cantidad) throws CantidadInvalidaException {
+        carrito.actualizarCantidad(sku, cantidad);
+        publicar(EventoCompra.Tipo.CANTIDAD_ACTUALIZADA, null, sku, cantidad, carrito.calcularTotalCentavos());
+        return carrito.instantanea();
+    }
+
+    /**
+     * Quita una línea del carrito y devuelve sus unidades al inventario.
+     *
+     * @param carrito Carrito de la sesión.
+     * @param sku     Clave del producto.
+     * @return La línea quitada, o null si no estaba en el carrito.
+     */
+    public Producto remover(Carrito carrito, String sku) {
+        Producto removido = carrito.removerProducto(sku);
+        if (removido != null) {
+            publicar(EventoCompra.Tipo.PRODUCTO_REMOVIDO, null, sku, 0, carrito.calcularTotalCentavos());
+        }
+        return removido;
+    }
+
+    /**
+     * Vacía el carrito y devuelve sus unidades al inventario.
+     *
+     * @param carrito Carrito de la sesión.
+     * @return El carrito antes de vaciarlo.
+     */
+    public Carrito.Instantanea vaciar(Carrito carrito) {
+        Carrito.Instantanea antes = carrito.vaciarCarrito();
+        publicar(EventoCompra.Tipo.CARRITO_VACIADO, null, null, 0, 0);
+        return antes;
+    }
+
+    /**
+     * Cierra la compra: las unidades apartadas pasan a vendidas y el carrito queda vacío. Si el
+     * servicio tiene diario, la compra se guarda en él y se espera a que esté en disco.
+     *
+     * @param usuario Quien compra.
+     * @param carrito Carrito de la sesión.
+     * @return La compra; está vacía si el carrito no tenía productos.
+     * @throws StockInsuficienteException si ya no hay existencias para alguna línea; el carrito no cambia
+     * @throws UncheckedIOException si no se pudo guardar el pedido en el diario
+     */
+    public Compra cerrarCompra(Usuario usuario, Carrito carrito) throws StockInsuficienteException {
+        Compra compra = new Compra(usuario, carrito.confirmarCompra());
+        if (!compra.estaVacia()) {
+            DiarioPedidos d = diario;
+            if (d != null) {
+                try {
+                    d.registrar(compra);
+                } catch (IOException e) {
+                    // Las existencias ya se confirmaron, pero el pedido no quedó guardado: se avisa como error.
+                    throw new UncheckedIOException("Error: No se pudo guardar el pedido: " + e.getMessage(), e);
+                }
+            }
+            publicar(EventoCompra.Tipo.COMPRA_CERRADA, usuario.getEmail(), null, 0, compra.getTotalCentavos());
+        }
+        return compra;
+    }
+
+    /**
+     * Valida la cantidad de una línea.
+     *
+     * @param cantidad Unidades.
+     * @throws CantidadInvalidaException si no está entre 1 y 100
+     */
+    public static void validarCantidad(int cantidad) throws CantidadInvalidaException {
+        if (cantidad <= 0) {
+            throw new CantidadInvalidaException("Error: La cantidad debe ser mayor a 0.");
+        }
+        if (cantidad > CANTIDAD_MAXIMA) {
+            throw new CantidadInvalidaException("Error: La cantidad no puede exceder 100 unidades.");
+        }
+    }
+}
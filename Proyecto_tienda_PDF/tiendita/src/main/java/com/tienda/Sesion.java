@@ -0,0 +1,51 @@
+package com.tienda;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Estado de un cliente de la tienda: el usuario con que se registró, su carrito y la última
+ * compra. Las sesiones las crea y las retira {@link AlmacenSesiones}.
+ * <p>
+ * El mismo cliente puede hacer varias operaciones a la vez; el carrito ya es seguro entre hilos
+ * y los demás campos se publican con `volatile`.
+ */
+public final class Sesion {
+    // Estimación de memoria de una sesión vacía (la sesión, el carrito con sus mapas, el id y el
+    // usuario) y de cada línea del carrito (la copia del producto, la entrada del mapa, la reserva).
+    static final long BYTES_SESION = 1024;
+    static final long BYTES_LINEA = 160;
+
+    private final String id;
+    private final Carrito carrito;
+    private volatile Usuario usuario;       // null hasta que se registra.
+    private volatile Compra ultimaCompra;   // null hasta la primera compra.
+    volatile long ultimoAcceso;             // System.nanoTime() del último uso.
+    final AtomicInteger enUso = new AtomicInteger(); // Peticiones que la están usando; no se desaloja.
+    long bytesContados;                     // Lo que el almacén tiene sumado por esta sesión.
+
+    Sesion(String id, Carrito carrito, long ahora) {
+        this.id = id;
+        this.carrito = carrito;
+        this.ultimoAcceso = ahora;
+    }
+
+    public String getId() { return id; }
+    public Carrito getCarrito() { return carrito; }
+    public Usuario getUsuario() { return usuario; }
+    public Compra getUltimaCompra() { return ultimaCompra; }
+
+    public void setUsuario(Usuario usuario) {
+        this.usuario = usuario;
+    }
+
+    public void setUltimaCompra(Compra compra) {
+        this.ultimaCompra = compra;
+    }
+
+    /**
+     * @return Memoria aproximada que ocupa la sesión, según el tamaño actual del carrito.
+     */
+    long bytesEstimados() {
+        return BYTES_SESION + BYTES_LINEA * carrito.getContador();
+    }
+}
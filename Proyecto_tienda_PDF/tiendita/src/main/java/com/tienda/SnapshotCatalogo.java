@@ -0,0 +1,219 @@
+package com.tienda;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * La clase `SnapshotCatalogo` representa un catálogo compilado a un formato binario compacto
+ * que se abre mapeando el archivo en memoria.
+ * <p>
+ * Abrir un snapshot solo lee un encabezado de 16 bytes: no se analiza texto ni se crean objetos
+ * por producto. Cada campo se lee directamente del archivo mapeado cuando se necesita, y los
+ * textos repetidos (categorías, subcategorías) se guardan una sola vez en una tabla de cadenas
+ * y se decodifican una sola vez.
+ * <p>
+ * Formato (enteros en orden big-endian):
+ * <pre>
+ *   int    MAGIA ("CTLG")
+ *   int    VERSION
+ *   int    número de productos (n)
+ *   int    número de cadenas (m)
+ *   n x    registro de 24 bytes: int sku, int nombre, int categoria, int subcategoria, long precio
+ *          (los int son índices en la tabla de cadenas; el precio va en centavos)
+ *   (m+1)x int desplazamiento de cada cadena dentro del bloque de texto
+ *   bytes  bloque de texto UTF-8
+ * </pre>
+ */
+public class SnapshotCatalogo {
+    private static final int MAGIA = 0x43544C47; // "CTLG"
+    private static final int VERSION = 2;
+    private static final int TAMANO_ENCABEZADO = 16;
+    private static final int TAMANO_REGISTRO = 24;
+
+    private final ByteBuffer datos;        // Contenido del archivo mapeado.
+    private final int productos;           // Número de productos.
+    private final int cadenas;             // Número de cadenas en la tabla.
+    private final int inicioDesplazamientos;
+    private final int inicioTexto;
+    private final String[] decodificadas;  // Cadenas ya decodificadas (se llenan bajo demanda).
+
+    private SnapshotCatalogo(ByteBuffer datos) throws IOException {
+        if (datos.limit() < TAMANO_ENCABEZADO || datos.getInt(0) != MAGIA) {
+            throw new IOException("El archivo no es un snapshot de catalogo.");
+        }
+        int version = datos.getInt(4);
+        if (version != VERSION) {
+            throw new IOException("Version de snapshot no soportada: " + version);
+        }
+        this.datos = datos;
+        this.productos = datos.getInt(8);
+        this.cadenas = datos.getInt(12);
+        if (productos < 0 || cadenas < 0) {
+            throw new IOException("Snapshot de catalogo truncado o corrupto.");
+        }
+        // Con `long` un encabezado enorme o dañado no puede dar la vuelta y parecer válido.
+        long desplazamientos = TAMANO_ENCABEZADO + (long) productos * TAMANO_REGISTRO;
+        long texto = desplazamientos + ((long) cadenas + 1) * 4;
+        if (texto > datos.limit()) {
+            throw new IOException("Snapshot de catalogo truncado o corrupto.");
+        }
+        this.inicioDesplazamientos = (int) desplazamientos;
+        this.inicioTexto = (int) texto;
+        this.decodificadas = new String[cadenas];
+    }
+
+    /**
+     * Abre un snapshot mapeando el archivo en memoria (solo lectura).
+     *
+     * @param ruta Ruta del snapshot.
+     * @return El snapshot abierto.
+     * @throws IOException Si el archivo no existe o no es un snapshot válido.
+     */
+    public static SnapshotCatalogo abrir(Path ruta) throws IOException {
+        try (FileChannel canal = FileChannel.open(ruta, StandardOpenOption.READ)) {
+            // El mapeo sigue siendo válido después de cerrar el canal.
+            MappedByteBuffer mapa = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+            return new SnapshotCatalogo(mapa);
+        }
+    }
+
+    /**
+     * Escribe un snapshot binario con los productos indicados.
+     *
+     * @param catalogo Productos a guardar.
+     * @param destino  Ruta del snapshot a generar.
+     * @throws IOException Si no se puede escribir el archivo.
+     */
+    public static void escribir(Producto[] catalogo, Path destino) throws IOException {
+        // Tabla de cadenas sin repetidos: cada texto recibe un índice.
+        Map<String, Integer> indices = new HashMap<>();
+        List<byte[]> tabla = new ArrayList<>();
+        int[] registros = new int[catalogo.length * 4];
+        for (int i = 0; i < catalogo.length; i++) {
+            Producto p = catalogo[i];
+            registros[i * 4] = indiceDe(p.getSku(), indices, tabla);
+            registros[i * 4 + 1] = indiceDe(p.getNombre(), indices, tabla);
+            registros[i * 4 + 2] = indiceDe(p.getCategoria(), indices, tabla);
+            registros[i * 4 + 3] = indiceDe(p.getSubcategoria(), indices, tabla);
+        }
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(destino), 1 << 16))) {
+            out.writeInt(MAGIA);
+            out.writeInt(VERSION);
+            out.writeInt(catalogo.length);
+            out.writeInt(tabla.size());
+
+            for (int i = 0; i < catalogo.length; i++) {
+                out.writeInt(registros[i * 4]);
+                out.writeInt(registros[i * 4 + 1]);
+                out.writeInt(registros[i * 4 + 2]);
+                out.writeInt(registros[i * 4 + 3]);
+                out.writeLong(catalogo[i].getPrecioCentavos());
+            }
+
+            int desplazamiento = 0;
+            for (byte[] cadena : tabla) {
+                out.writeInt(desplazamiento);
+                desplazamiento += cadena.length;
+            }
+            out.writeInt(desplazamiento);
+
+            for (byte[] cadena : tabla) {
+                out.write(cadena);
+            }
+        }
+    }
+
+    private static int indiceDe(String texto, Map<String, Integer> indices, List<byte[]> tabla) {
+        Integer indice = indices.get(texto);
+        if (indice == null) {
+            indice = tabla.size();
+            indices.put(texto, indice);
+            tabla.add(texto.getBytes(StandardCharsets.UTF_8));
+        }
+        return indice;
+    }
+
+    /**
+     * @return El número de productos del snapshot.
+     */
+    public int tamano() {
+        return productos;
+    }
+
+    public String getSku(int i) { return cadena(campo(i, 0)); }
+    public String getNombre(int i) { return cadena(campo(i, 4)); }
+    public String getCategoria(int i) { return cadena(campo(i, 8)); }
+    public String getSubcategoria(int i) { return cadena(campo(i, 12)); }
+
+    public double getPrecio(int i) {
+        return Dinero.aDecimal(getPrecioCentavos(i));
+    }
+
+    public long getPrecioCentavos(int i) {
+        return datos.getLong(registro(i) + 16);
+    }
+
+    /**
+     * Crea el objeto `Producto` de la posición indicada.
+     *
+     * @param i Posición del producto (0 a tamano() - 1).
+     * @return Un nuevo producto con cantidad 0.
+     */
+    public Producto producto(int i) {
+        return Producto.conPrecioCentavos(getSku(i), getNombre(i), getCategoria(i), getSubcategoria(i), getPrecioCentavos(i), 0);
+    }
+
+    /**
+     * Crea todos los productos del snapshot.
+     *
+     * @return Un arreglo con un producto por registro, en el orden del snapshot.
+     */
+    public Producto[] aProductos() {
+        Producto[] resultado = new Producto[productos];
+        for (int i = 0; i < productos; i++) {
+            resultado[i] = producto(i);
+        }
+        return resultado;
+    }
+
+    private int registro(int i) {
+        if (i < 0 || i >= productos) {
+            throw new IndexOutOfBoundsException("Error: Indice " + i + " fuera de rango.");
+        }
+        return TAMANO_ENCABEZADO + i * TAMANO_REGISTRO;
+    }
+
+    private int campo(int i, int desplazamiento) {
+        return datos.getInt(registro(i) + desplazamiento);
+    }
+
+    /**
+     * Decodifica la cadena con el índice indicado, o la toma de las ya decodificadas.
+     */
+    private String cadena(int indice) {
+        String texto = decodificadas[indice];
+        if (texto == null) {
+            int desde = datos.getInt(inicioDesplazamientos + indice * 4);
+            int hasta = datos.getInt(inicioDesplazamientos + (indice + 1) * 4);
+            byte[] bytes = new byte[hasta - desde];
+            datos.get(inicioTexto + desde, bytes);
+            texto = new String(bytes, StandardCharsets.UTF_8);
+            // Carrera benigna: si dos hilos decodifican a la vez, ambos obtienen el mismo texto.
+            decodificadas[indice] = texto;
+        }
+        return texto;
+    }
+}
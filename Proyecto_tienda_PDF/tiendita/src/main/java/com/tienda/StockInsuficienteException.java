@@ -0,0 +1,16 @@
+package com.tienda;
+
+/**
+ * Excepción personalizada para falta de existencias.
+ * Se lanza cuando se pide apartar o comprar más unidades de las que hay disponibles.
+ * Es un caso particular de cantidad inválida, así que los manejadores existentes la atrapan.
+ */
+public class StockInsuficienteException extends CantidadInvalidaException {
+    public StockInsuficienteException(String mensaje) {
+        super(mensaje);
+    }
+
+    public StockInsuficienteException(String mensaje, Throwable causa) {
+        super(mensaje, causa);
+    }
+}
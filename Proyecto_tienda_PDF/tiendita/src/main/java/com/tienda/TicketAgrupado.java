@@ -0,0 +1,170 @@
+package com.tienda;
+
+import java.util.Arrays;
+
+/**
+ * La clase `TicketAgrupado` es el ticket listo para imprimirse: las líneas agrupadas por
+ * categoría/subcategoría, con el subtotal de cada línea, de cada grupo y los totales ya sumados.
+ * La arma un {@link AgrupadorTicket} y la leen los generadores de tickets (texto, PDF carta y 80 mm).
+ * <p>
+ * Los datos se guardan en arreglos paralelos que se reutilizan de un ticket a otro, y se leen por
+ * índice, como en {@link SnapshotCatalogo}. Los grupos van en el orden en que apareció su primera
+ * línea y las líneas de cada grupo en el orden del carrito:
+ * <pre>
+ *   for (int g = 0; g < ticket.getGrupos(); g++) {
+ *       for (int l = ticket.primeraLinea(g); l >= 0; l = ticket.siguienteLinea(l)) { ... }
+ *   }
+ * </pre>
+ * No es seguro entre hilos; un ticket solo es válido hasta que se vuelve a llenar.
+ */
+public final class TicketAgrupado {
+    // Por línea, en el orden del carrito.
+    private String[] nombres = new String[0];
+    private int[] cantidades = new int[0];
+    private long[] precios = new long[0];
+    private int[] descuentos = new int[0];          // Puntos base.
+    private long[] subtotales = new long[0];        // Precio por cantidad, sin descuento.
+    private long[] subtotalesConDesc = new long[0];
+    private int[] siguientes = new int[0];          // Siguiente línea del mismo grupo, o -1.
+    private int lineas;
+
+    // Por grupo, en el orden de su primera línea.
+    private String[] categorias = new String[0];
+    private String[] subcategorias = new String[0];
+    private int[] ids = new int[0];                 // Número del par en `IdsCategoria`.
+    private int[] primeras = new int[0];
+    private int[] ultimas = new int[0];
+    private long[] subtotalesGrupo = new long[0];
+    private long[] subtotalesGrupoConDesc = new long[0];
+    private int grupos;
+
+    private long totalSinDescuento;
+    private long totalConDescuento;
+
+    /**
+     * Vacía el ticket y reserva espacio para las líneas indicadas.
+     */
+    void reiniciar(int lineasEsperadas) {
+        if (nombres.length < lineasEsperadas) {
+            crecer(Math.max(lineasEsperadas, nombres.length * 2));
+        }
+        // Se sueltan los textos del ticket anterior.
+        Arrays.fill(nombres, 0, lineas, null);
+        Arrays.fill(categorias, 0, grupos, null);
+        Arrays.fill(subcategorias, 0, grupos, null);
+        lineas = 0;
+        grupos = 0;
+        totalSinDescuento = 0;
+        totalConDescuento = 0;
+    }
+
+    /**
+     * Agrega un grupo vacío.
+     *
+     * @return El índice del grupo.
+     */
+    int agregarGrupo(int id, String categoria, String subcategoria) {
+        if (grupos == categorias.length) {
+            int capacidad = Math.max(8, grupos * 2);
+            categorias = Arrays.copyOf(categorias, capacidad);
+            subcategorias = Arrays.copyOf(subcategorias, capacidad);
+            ids = Arrays.copyOf(ids, capacidad);
+            primeras = Arrays.copyOf(primeras, capacidad);
+            ultimas = Arrays.copyOf(ultimas, capacidad);
+            subtotalesGrupo = Arrays.copyOf(subtotalesGrupo, capacidad);
+            subtotalesGrupoConDesc = Arrays.copyOf(subtotalesGrupoConDesc, capacidad);
+        }
+        categorias[grupos] = categoria;
+        subcategorias[grupos] = subcategoria;
+        ids[grupos] = id;
+        primeras[grupos] = -1;
+        ultimas[grupos] = -1;
+        subtotalesGrupo[grupos] = 0;
+        subtotalesGrupoConDesc[grupos] = 0;
+        return grupos++;
+    }
+
+    /**
+     * Agrega una línea al final de un grupo y suma sus montos al grupo y a los totales.
+     */
+    void agregarLinea(int grupo, String nombre, int cantidad, long precioCentavos, int descuentoPuntosBase,
+                      long subtotal) {
+        if (lineas == nombres.length) {
+            crecer(Math.max(8, lineas * 2));
+        }
+        long conDescuento = Dinero.aplicarDescuento(subtotal, descuentoPuntosBase);
+        int l = lineas++;
+        nombres[l] = nombre;
+        cantidades[l] = cantidad;
+        precios[l] = precioCentavos;
+        descuentos[l] = descuentoPuntosBase;
+        subtotales[l] = subtotal;
+        subtotalesConDesc[l] = conDescuento;
+        siguientes[l] = -1;
+
+        if (primeras[grupo] < 0) {
+            primeras[grupo] = l;
+        } else {
+            siguientes[ultimas[grupo]] = l;
+        }
+        ultimas[grupo] = l;
+        subtotalesGrupo[grupo] += subtotal;
+        subtotalesGrupoConDesc[grupo] += conDescuento;
+        totalSinDescuento += subtotal;
+        totalConDescuento += conDescuento;
+    }
+
+    private void crecer(int capacidad) {
+        nombres = Arrays.copyOf(nombres, capacidad);
+        cantidades = Arrays.copyOf(cantidades, capacidad);
+        precios = Arrays.copyOf(precios, capacidad);
+        descuentos = Arrays.copyOf(descuentos, capacidad);
+        subtotales = Arrays.copyOf(subtotales, capacidad);
+        subtotalesConDesc = Arrays.copyOf(subtotalesConDesc, capacidad);
+        siguientes = Arrays.copyOf(siguientes, capacidad);
+    }
+
+    int idGrupo(int grupo) { return ids[grupo]; }
+
+    // --- Grupos ---
+
+    /** @return El número de grupos. */
+    public int getGrupos() { return grupos; }
+    public String getCategoria(int grupo) { return categorias[grupo]; }
+    public String getSubcategoria(int grupo) { return subcategorias[grupo]; }
+    /** @return La suma de los subtotales sin descuento del grupo, en centavos. */
+    public long getSubtotalGrupo(int grupo) { return subtotalesGrupo[grupo]; }
+    /** @return La suma de los subtotales con descuento del grupo, en centavos. */
+    public long getSubtotalGrupoConDescuento(int grupo) { return subtotalesGrupoConDesc[grupo]; }
+
+    /** @return La primera línea del grupo, o -1 si no tiene. */
+    public int primeraLinea(int grupo) { return primeras[grupo]; }
+    /** @return La siguiente línea del mismo grupo, o -1 al terminar. */
+    public int siguienteLinea(int linea) { return siguientes[linea]; }
+
+    // --- Líneas ---
+
+    /** @return El número de líneas. */
+    public int getLineas() { return lineas; }
+    public String getNombre(int linea) { return nombres[linea]; }
+    public int getCantidad(int linea) { return cantidades[linea]; }
+    public long getPrecioCentavos(int linea) { return precios[linea]; }
+    /** @return El descuento de la línea en puntos base (500 = 5%). */
+    public int getDescuento(int linea) { return descuentos[linea]; }
+    /** @return El precio por la cantidad, sin descuento, en centavos. */
+    public long getSubtotal(int linea) { return subtotales[linea]; }
+    /** @return El subtotal con el descuento aplicado, en centavos. */
+    public long getSubtotalConDescuento(int linea) { return subtotalesConDesc[linea]; }
+
+    // --- Totales ---
+
+    public long getTotalSinDescuento() { return totalSinDescuento; }
+    public long getTotalConDescuento() { return totalConDescuento; }
+
+    /**
+     * @return true si el ticket no tiene líneas.
+     */
+    public boolean estaVacio() {
+        return lineas == 0;
+    }
+}
@@ -1,11 +1,16 @@
 package com.tienda;
 
+import java.util.regex.Pattern;
+
 /**
  * La clase Usuario representa una entidad de usuario en un sistema de tienda online.
  * Contiene información fundamental para identificar a un cliente, gestionar sus compras
  * y coordinar envíos.
  */
 public class Usuario {
+    // Patrón para validar emails: parte local, arroba y dominio.
+    private static final Pattern PATRON_EMAIL = Pattern.compile("^[A-Za-z0-9+_.-]+@(.+)$");
+
     // Atributos de la clase. Se declaran como privados para garantizar el encapsulamiento.
     private String nombre;      // Almacena el nombre completo del usuario.
     private String email;       // Guarda la dirección de correo electrónico, utilizada para comunicación y autenticación.
@@ -34,6 +39,17 @@ public class Usuario {
         this.direccion = direccion;
     }
 
+    /**
+     * Valida si el email cumple con un formato válido (por ejemplo, usuario@correo.com).
+     * Es la validación que usan tanto el registro de consola como el de JavaFX.
+     *
+     * @param email Email a validar.
+     * @return true si el email es válido, false en caso contrario.
+     */
+    public static boolean esEmailValido(String email) {
+        return email != null && PATRON_EMAIL.matcher(email).matches() && email.contains(".");
+    }
+
     // --- Métodos de Acceso (Getters) ---
     // Proporcionan acceso de solo lectura a los atributos privados de la clase,
     // permitiendo que otras clases obtengan los datos del usuario sin poder modificarlos directamente.
@@ -0,0 +1,126 @@
+package com.tienda.ui;
+
+import com.tienda.Producto;
+import javafx.scene.image.Image;
+import java.lang.ref.SoftReference;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * CacheImagenes guarda las imágenes de producto ya decodificadas para reutilizarlas
+ * entre tarjetas y entre cambios de categoría.
+ * <ul>
+ *   <li>Las imágenes se decodifican directamente al tamaño en que se muestran (150 px),
+ *       no a su resolución original.</li>
+ *   <li>La carga ocurre en segundo plano (`backgroundLoading`), así el hilo de JavaFX no
+ *       espera al disco; la tarjeta se pinta en cuanto la imagen está lista.</li>
+ *   <li>La caché es LRU con un número máximo de entradas, y cada imagen se guarda con una
+ *       referencia suave (`SoftReference`), de modo que el recolector puede liberarlas si
+ *       falta memoria.</li>
+ *   <li>La ruta de cada producto se calcula una sola vez, sin expresiones regulares.</li>
+ * </ul>
+ */
+public class CacheImagenes {
+    // Tamaño en que se muestran las imágenes en las tarjetas del catálogo.
+    public static final double TAMANO_IMAGEN = 150;
+
+    // Número máximo de imágenes retenidas en la caché.
+    private static final int CAPACIDAD_PREDETERMINADA = 512;
+
+    private static final CacheImagenes COMPARTIDA = new CacheImagenes(CAPACIDAD_PREDETERMINADA);
+
+    private final Map<String, SoftReference<Image>> imagenes;     // Ruta -> imagen, en orden de uso (LRU).
+    private final Map<String, String> rutas = new ConcurrentHashMap<>(); // SKU -> ruta de la imagen.
+    private int aciertos;
+    private int fallos;
+
+    /**
+     * Constructor de la caché.
+     *
+     * @param capacidad Número máximo de imágenes retenidas.
+     */
+    public CacheImagenes(int capacidad) {
+        this.imagenes = new LinkedHashMap<String, SoftReference<Image>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, SoftReference<Image>> eldest) {
+                return size() > capacidad;
+            }
+        };
+    }
+
+    /**
+     * @return La caché compartida por todas las pantallas.
+     */
+    public static CacheImagenes obtener() {
+        return COMPARTIDA;
+    }
+
+    /**
+     * Obtiene la imagen de un producto, decodificándola solo si no está en la caché.
+     *
+     * @param producto El producto cuya imagen se necesita.
+     * @return La imagen (puede seguir cargándose en segundo plano).
+     */
+    public Image imagen(Producto producto) {
+        String ruta = rutas.computeIfAbsent(producto.getSku(), sku -> construirRuta(producto));
+        synchronized (imagenes) {
+            SoftReference<Image> referencia = imagenes.get(ruta);
+            Image imagen = referencia != null ? referencia.get() : null;
+            if (imagen != null) {
+                aciertos++;
+                return imagen;
+            }
+            fallos++;
+            imagen = new Image(ruta, TAMANO_IMAGEN, TAMANO_IMAGEN, true, true, true);
+            imagenes.put(ruta, new SoftReference<>(imagen));
+            return imagen;
+        }
+    }
+
+    /**
+     * Construye la ruta de la imagen: imagenes/categoria/subcategoria/nombre-producto.png
+     */
+    static String construirRuta(Producto producto) {
+        StringBuilder sb = new StringBuilder("file:imagenes/");
+        sb.append(producto.getCategoria().toLowerCase()).append('/');
+        agregarNombreArchivo(sb, producto.getSubcategoria());
+        sb.append('/');
+        agregarNombreArchivo(sb, producto.getNombre());
+        return sb.append(".png").toString();
+    }
+
+    /**
+     * Agrega un texto como nombre de archivo: minúsculas, espacios como guiones y
+     * solo letras a-z, dígitos y guiones.
+     */
+    private static void agregarNombreArchivo(StringBuilder sb, String texto) {
+        String minusculas = texto.toLowerCase();
+        for (int i = 0; i < minusculas.length(); i++) {
+            char c = minusculas.charAt(i);
+            if (c == ' ') {
+                sb.append('-');
+            } else if ((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '-') {
+                sb.append(c);
+            }
+        }
+    }
+
+    /**
+     * @return Número de veces que una imagen se tomó de la caché.
+     */
+    public int getAciertos() {
+        synchronized (imagenes) {
+            return aciertos;
+        }
+    }
+
+    /**
+     * @return Número de veces que una imagen tuvo que cargarse.
+     */
+    public int getFallos() {
+        synchronized (imagenes) {
+            return fallos;
+        }
+    }
+}
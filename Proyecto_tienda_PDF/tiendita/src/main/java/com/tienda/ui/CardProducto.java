@@ -0,0 +1,146 @@
+package com.tienda.ui;
+
+import com.tienda.Dinero;
+import com.tienda.Inventario;
+import com.tienda.Producto;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.Spinner;
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.VBox;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+import java.util.function.BiConsumer;
+
+/**
+ * CardProducto es la tarjeta de un producto en el catálogo (imagen, nombre, precio y
+ * botón para agregar al carrito).
+ * <p>
+ * Los nodos se crean una sola vez y la tarjeta se reutiliza para mostrar otro producto con
+ * {@link #setProducto(Producto)}; así la cuadrícula virtual solo necesita tantas tarjetas
+ * como caben en pantalla.
+ */
+class CardProducto extends VBox {
+    // Dimensiones de la tarjeta.
+    static final double ANCHO = 220;
+    static final double ALTO = 320;
+
+    private final ImageView imagenView = new ImageView();
+    private final Label nombre = new Label();
+    private final Label descripcion = new Label();
+    private final Label precio = new Label();
+    private final Label stock = new Label();
+    private final Spinner<Integer> spinner = new Spinner<>(1, 100, 1);
+    private final Button btnAgregar = new Button("Agregar");
+    private final Inventario inventario;
+    private Producto producto;   // Producto mostrado actualmente.
+
+    /**
+     * Constructor de la tarjeta.
+     *
+     * @param alAgregar Acción al pulsar "Agregar": recibe el producto mostrado y la cantidad elegida.
+     * @param inventario Existencias a mostrar, o null para no mostrarlas.
+     */
+    CardProducto(BiConsumer<Producto, Integer> alAgregar, Inventario inventario) {
+        this.inventario = inventario;
+        setStyle("-fx-background-color: white; -fx-border-color: #ddd; -fx-border-radius: 5;");
+        setPadding(new Insets(0));
+        setSpacing(10);
+        setPrefWidth(ANCHO);
+        setMinWidth(ANCHO);
+        setMaxWidth(ANCHO);
+        setPrefHeight(ALTO);
+
+        // Imagen del producto
+        VBox imagenBox = new VBox();
+        imagenBox.setStyle("-fx-background-color: #f9f9f9;");
+        imagenBox.setPrefHeight(150);
+        imagenBox.setAlignment(Pos.CENTER);
+
+        imagenView.setFitWidth(CacheImagenes.TAMANO_IMAGEN);
+        imagenView.setFitHeight(CacheImagenes.TAMANO_IMAGEN);
+        imagenView.setPreserveRatio(true);
+        imagenBox.getChildren().add(imagenView);
+
+        // Información del producto
+        VBox infoBox = new VBox();
+        infoBox.setPadding(new Insets(12));
+        infoBox.setSpacing(8);
+
+        nombre.setFont(Font.font("Arial", FontWeight.BOLD, 12));
+        nombre.setStyle("-fx-text-fill: #333; -fx-wrap-text: true;");
+        nombre.setWrapText(true);
+
+        descripcion.setFont(Font.font("Arial", 11));
+        descripcion.setStyle("-fx-text-fill: #999;");
+        descripcion.setWrapText(true);
+
+        precio.setFont(Font.font("Arial", FontWeight.BOLD, 16));
+        precio.setStyle("-fx-text-fill: #3483FA;");
+
+        stock.setFont(Font.font("Arial", 10));
+        stock.setVisible(inventario != null);
+        stock.setManaged(inventario != null);
+
+        infoBox.getChildren().addAll(nombre, descripcion, precio, stock);
+
+        // Panel de compra
+        HBox compraBox = new HBox();
+        compraBox.setPadding(new Insets(10));
+        compraBox.setSpacing(5);
+        compraBox.setAlignment(Pos.CENTER);
+
+        spinner.setPrefWidth(70);
+        spinner.setStyle("-fx-font-size: 11;");
+
+        btnAgregar.setPrefHeight(35);
+        btnAgregar.setStyle("-fx-font-size: 11; -fx-font-weight: bold; -fx-background-color: #3483FA; -fx-text-fill: white; -fx-padding: 8;");
+        btnAgregar.setOnAction(e -> {
+            if (producto != null) {
+                alAgregar.accept(producto, spinner.getValue());
+            }
+        });
+
+        compraBox.getChildren().addAll(spinner, btnAgregar);
+
+        getChildren().addAll(imagenBox, infoBox, compraBox);
+    }
+
+    /**
+     * Muestra otro producto en esta tarjeta. Las existencias se consultan siempre, aunque
+     * sea el mismo producto, para que refrescar la cuadrícula las actualice.
+     *
+     * @param producto Producto a mostrar.
+     */
+    void setProducto(Producto producto) {
+        mostrarExistencias(producto);
+        if (producto == this.producto) {
+            return;
+        }
+        this.producto = producto;
+        nombre.setText(producto.getNombre());
+        descripcion.setText(producto.getSubcategoria());
+        precio.setText("$" + Dinero.formatear(producto.getPrecioCentavos()));
+        spinner.getValueFactory().setValue(1);
+        // La imagen se toma de la caché compartida; si no está, se carga en segundo plano.
+        imagenView.setImage(CacheImagenes.obtener().imagen(producto));
+    }
+
+    private void mostrarExistencias(Producto producto) {
+        if (inventario == null) {
+            return;
+        }
+        int disponibles = inventario.getDisponibles(producto.getSku());
+        if (disponibles > 0) {
+            stock.setText("Stock disponible: " + disponibles);
+            stock.setStyle("-fx-text-fill: #00a82d;");
+        } else {
+            stock.setText("Agotado");
+            stock.setStyle("-fx-text-fill: #d32f2f;");
+        }
+        btnAgregar.setDisable(disponibles <= 0);
+    }
+}
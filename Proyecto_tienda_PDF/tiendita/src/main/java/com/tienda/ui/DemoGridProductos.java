@@ -0,0 +1,113 @@
+package com.tienda.ui;
+
+import com.tienda.Producto;
+import javafx.animation.AnimationTimer;
+import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.geometry.Orientation;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.scene.control.ScrollBar;
+import javafx.stage.Stage;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DemoGridProductos mide la cuadrícula virtual del catálogo con una categoría enorme.
+ * <p>
+ * Crea una cuadrícula con 10,000 productos (o los indicados como primer argumento), la
+ * recorre de arriba a abajo desplazándose un poco en cada fotograma y al terminar escribe el
+ * tiempo entre fotogramas, el tiempo de CSS y layout de cada pulso y cuántas tarjetas se
+ * crearon en total. El tiempo entre fotogramas no baja de 16.7 ms a 60 Hz aunque sobre tiempo;
+ * el de layout (medido con los pulse listeners de la escena) muestra cuánto trabajo queda.
+ * Uso: {@code java com.tienda.ui.DemoGridProductos [productos]}
+ */
+public class DemoGridProductos extends Application {
+    // Fracción del recorrido total que se desplaza en cada fotograma.
+    private static final double PASO = 1.0 / 1200;
+
+    @Override
+    public void start(Stage stage) {
+        int cantidad = getParameters().getRaw().isEmpty() ? 10_000 : Integer.parseInt(getParameters().getRaw().get(0));
+        String[] categorias = {"Lacteos", "Snacks", "Limpieza", "Bebidas"};
+        List<Producto> productos = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            String categoria = categorias[i % categorias.length];
+            productos.add(new Producto("DEMO-" + i, "Producto de prueba " + i, categoria,
+                    "Subcategoria " + (i % 25), 10 + i % 90, 0));
+        }
+
+        GridProductos grid = new GridProductos((producto, cantidadElegida) -> { }, null);
+        grid.setProductos(productos);
+
+        stage.setTitle("Demo - Cuadricula de " + cantidad + " productos");
+        Scene escena = new Scene(grid, 1200, 800);
+        TiempoLayout layout = new TiempoLayout();
+        escena.addPreLayoutPulseListener(layout::inicio);
+        escena.addPostLayoutPulseListener(layout::fin);
+        stage.setScene(escena);
+        stage.show();
+
+        MedidorFotogramas medidor = new MedidorFotogramas("Cuadricula");
+        ScrollBar barra = barraVertical(grid);
+        medidor.start();
+        new AnimationTimer() {
+            @Override
+            public void handle(long ahora) {
+                if (barra.getValue() >= barra.getMax()) {
+                    stop();
+                    medidor.stop();
+                    System.out.println("Productos: " + cantidad);
+                    System.out.println("Tarjetas creadas: " + grid.getCardsCreadas());
+                    System.out.println(medidor.getResumen());
+                    System.out.println(layout.resumen());
+                    Platform.exit();
+                    return;
+                }
+                barra.setValue(Math.min(barra.getMax(), barra.getValue() + PASO * barra.getMax()));
+            }
+        }.start();
+    }
+
+    /**
+     * Busca la barra de desplazamiento vertical del `ListView` (existe una vez mostrado).
+     */
+    private static ScrollBar barraVertical(GridProductos grid) {
+        for (Node nodo : grid.lookupAll(".scroll-bar")) {
+            if (nodo instanceof ScrollBar && ((ScrollBar) nodo).getOrientation() == Orientation.VERTICAL) {
+                return (ScrollBar) nodo;
+            }
+        }
+        throw new IllegalStateException("La cuadricula no tiene barra de desplazamiento vertical.");
+    }
+
+    /**
+     * Acumula lo que tarda la fase de CSS y layout de cada pulso.
+     */
+    private static final class TiempoLayout {
+        private long inicio;
+        private long total;
+        private long maximo;
+        private int pulsos;
+
+        void inicio() {
+            inicio = System.nanoTime();
+        }
+
+        void fin() {
+            long duracion = System.nanoTime() - inicio;
+            total += duracion;
+            maximo = Math.max(maximo, duracion);
+            pulsos++;
+        }
+
+        String resumen() {
+            return String.format("Layout por pulso: %d pulsos, promedio %.2f ms, maximo %.2f ms",
+                    pulsos, pulsos == 0 ? 0 : total / 1e6 / pulsos, maximo / 1e6);
+        }
+    }
+
+    public static void main(String[] args) {
+        launch(args);
+    }
+}
@@ -0,0 +1,125 @@
+package com.tienda.ui;
+
+import com.tienda.Inventario;
+import com.tienda.Producto;
+import javafx.collections.FXCollections;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.layout.HBox;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * GridProductos muestra una lista de productos como una cuadrícula virtual de tarjetas.
+ * <p>
+ * Se apoya en `ListView`: cada elemento es una fila de productos y cada celda una fila de
+ * tarjetas. El `ListView` solo crea las celdas que caben en pantalla y las recicla al
+ * desplazarse, así que con miles de productos en una categoría se siguen creando unas pocas
+ * decenas de tarjetas, no una por producto.
+ * El número de columnas se ajusta al ancho disponible.
+ */
+class GridProductos extends ListView<List<Producto>> {
+    // Separación entre tarjetas.
+    private static final double ESPACIO = 20;
+
+    private final BiConsumer<Producto, Integer> alAgregar;
+    private final Inventario inventario;
+    private List<Producto> productos = Collections.emptyList();
+    private int columnas = 1;
+    private int cardsCreadas;   // Tarjetas creadas desde el inicio (para diagnóstico).
+
+    /**
+     * Constructor de la cuadrícula.
+     *
+     * @param alAgregar Acción de "Agregar" de cada tarjeta: recibe el producto y la cantidad.
+     * @param inventario Existencias que muestran las tarjetas, o null para no mostrarlas.
+     */
+    GridProductos(BiConsumer<Producto, Integer> alAgregar, Inventario inventario) {
+        this.alAgregar = alAgregar;
+        this.inventario = inventario;
+        setStyle("-fx-background-color: #f5f5f5; -fx-background-insets: 0; -fx-padding: 0;");
+        setFocusTraversable(false);
+        // Todas las filas miden lo mismo; así el ListView no tiene que medir cada celda.
+        setFixedCellSize(CardProducto.ALTO + ESPACIO);
+        setCellFactory(lista -> new FilaProductos());
+        widthProperty().addListener((obs, anterior, nuevo) -> ajustarColumnas(nuevo.doubleValue()));
+    }
+
+    /**
+     * Reemplaza los productos mostrados y vuelve al inicio de la cuadrícula.
+     *
+     * @param productos Productos a mostrar.
+     */
+    void setProductos(List<Producto> productos) {
+        this.productos = productos;
+        actualizarFilas();
+        scrollTo(0);
+    }
+
+    /**
+     * @return El número de tarjetas creadas hasta ahora, sin contar las reutilizadas.
+     */
+    int getCardsCreadas() {
+        return cardsCreadas;
+    }
+
+    private void ajustarColumnas(double ancho) {
+        // Se descuenta el espacio de la barra de desplazamiento vertical.
+        int nuevas = Math.max(1, (int) ((ancho - ESPACIO) / (CardProducto.ANCHO + ESPACIO)));
+        if (nuevas != columnas) {
+            columnas = nuevas;
+            actualizarFilas();
+        }
+    }
+
+    /**
+     * Genera un elemento por fila: una vista (sin copia) de los productos de esa fila.
+     */
+    private void actualizarFilas() {
+        int filas = (productos.size() + columnas - 1) / columnas;
+        List<List<Producto>> items = new ArrayList<>(filas);
+        for (int desde = 0; desde < productos.size(); desde += columnas) {
+            items.add(productos.subList(desde, Math.min(desde + columnas, productos.size())));
+        }
+        setItems(FXCollections.observableList(items));
+    }
+
+    /**
+     * Celda reutilizable: una fila de tarjetas. Al reciclarse solo cambia el producto de
+     * cada tarjeta; los nodos se conservan.
+     */
+    private final class FilaProductos extends ListCell<List<Producto>> {
+        private final HBox fila = new HBox(ESPACIO);
+        private final List<CardProducto> cards = new ArrayList<>();
+
+        FilaProductos() {
+            setStyle("-fx-background-color: transparent; -fx-padding: 0 0 " + ESPACIO + " 0;");
+            setText(null);
+        }
+
+        @Override
+        protected void updateItem(List<Producto> item, boolean empty) {
+            super.updateItem(item, empty);
+            if (empty || item == null) {
+                setGraphic(null);
+                return;
+            }
+
+            int visibles = item.size();
+            while (cards.size() < visibles) {
+                cards.add(new CardProducto(alAgregar, inventario));
+                cardsCreadas++;
+            }
+            for (int i = 0; i < visibles; i++) {
+                cards.get(i).setProducto(item.get(i));
+            }
+            // Solo se cambian los hijos de la fila si cambia el número de tarjetas.
+            if (fila.getChildren().size() != visibles) {
+                fila.getChildren().setAll(cards.subList(0, visibles));
+            }
+            setGraphic(fila);
+        }
+    }
+}
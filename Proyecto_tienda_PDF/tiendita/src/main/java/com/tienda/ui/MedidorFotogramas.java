@@ -0,0 +1,83 @@
+package com.tienda.ui;
+
+import javafx.animation.AnimationTimer;
+import java.util.Arrays;
+
+/**
+ * MedidorFotogramas mide el tiempo entre fotogramas de JavaFX para detectar tirones al
+ * desplazarse por el catálogo.
+ * <p>
+ * Se activa con la propiedad del sistema `tienda.medirFotogramas=true`; cada
+ * {@link #VENTANA} fotogramas escribe en la salida de error el promedio, el percentil 99 y
+ * el máximo. A 60 Hz un fotograma fluido dura unos 16.7 ms.
+ */
+public class MedidorFotogramas extends AnimationTimer {
+    // Propiedad del sistema que activa la medición en las pantallas.
+    public static final String PROPIEDAD_MEDIR = "tienda.medirFotogramas";
+
+    // Número de fotogramas de cada resumen.
+    public static final int VENTANA = 600;
+
+    private final long[] duraciones = new long[VENTANA];
+    private final String nombre;
+    private long anterior;
+    private int contador;
+    private String ultimoResumen = "Sin datos";
+
+    /**
+     * Constructor del medidor.
+     *
+     * @param nombre Nombre de la pantalla medida, para identificar los resúmenes.
+     */
+    public MedidorFotogramas(String nombre) {
+        this.nombre = nombre;
+    }
+
+    /**
+     * @return true si la medición está activada con la propiedad del sistema.
+     */
+    public static boolean estaActivado() {
+        return Boolean.getBoolean(PROPIEDAD_MEDIR);
+    }
+
+    @Override
+    public void start() {
+        anterior = 0;
+        contador = 0;
+        super.start();
+    }
+
+    @Override
+    public void handle(long ahora) {
+        if (anterior != 0) {
+            duraciones[contador++] = ahora - anterior;
+            if (contador == VENTANA) {
+                ultimoResumen = resumir(contador);
+                System.err.println(nombre + " - " + ultimoResumen);
+                contador = 0;
+            }
+        }
+        anterior = ahora;
+    }
+
+    /**
+     * @return El resumen de la última ventana completa, o de los fotogramas medidos hasta ahora
+     *         si todavía no se completa ninguna.
+     */
+    public String getResumen() {
+        return contador > 0 ? resumir(contador) : ultimoResumen;
+    }
+
+    private String resumir(int n) {
+        long[] ordenadas = Arrays.copyOf(duraciones, n);
+        Arrays.sort(ordenadas);
+        long suma = 0;
+        for (long d : ordenadas) {
+            suma += d;
+        }
+        double promedio = suma / 1e6 / n;
+        double p99 = ordenadas[Math.min(n - 1, (int) Math.ceil(n * 0.99) - 1)] / 1e6;
+        double maximo = ordenadas[n - 1] / 1e6;
+        return String.format("Fotogramas: %d, promedio %.2f ms, p99 %.2f ms, maximo %.2f ms", n, promedio, p99, maximo);
+    }
+}
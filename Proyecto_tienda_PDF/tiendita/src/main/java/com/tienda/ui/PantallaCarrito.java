@@ -2,7 +2,10 @@ package com.tienda.ui;
 
 import com.tienda.Usuario;
 import com.tienda.Carrito;
+import com.tienda.Dinero;
+import com.tienda.MotorPrecios;
 import com.tienda.Producto;
+import com.tienda.ServicioCompra;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
@@ -13,6 +16,8 @@ import javafx.scene.layout.VBox;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
 import javafx.stage.Stage;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * PantallaCarrito muestra los productos agregados al carrito.
@@ -80,8 +85,11 @@ public class PantallaCarrito {
         contenido.setPadding(new Insets(20));
         contenido.setSpacing(15);
 
+        // La tabla y los totales se construyen con la misma instantánea del carrito.
+        Carrito.Instantanea vista = carrito.instantanea();
+
         // Verificar si el carrito está vacío
-        if (carrito.getContador() == 0) {
+        if (vista.estaVacio()) {
             Label labelVacio = new Label("El carrito esta vacio");
             labelVacio.setFont(Font.font("Arial", 16));
             labelVacio.setStyle("-fx-text-fill: #999;");
@@ -111,12 +119,12 @@ public class PantallaCarrito {
 
         // Columna: Precio Unitario
         TableColumn<ProductoCarrito, String> colPrecio = new TableColumn<>("Precio Unit.");
-        colPrecio.setCellValueFactory(cellData -> new javafx.beans.property.SimpleStringProperty("$" + String.format("%.2f", cellData.getValue().precio)));
+        colPrecio.setCellValueFactory(cellData -> new javafx.beans.property.SimpleStringProperty("$" + Dinero.formatear(cellData.getValue().precioCentavos)));
         colPrecio.setPrefWidth(100);
 
         // Columna: Subtotal
         TableColumn<ProductoCarrito, String> colSubtotal = new TableColumn<>("Subtotal");
-        colSubtotal.setCellValueFactory(cellData -> new javafx.beans.property.SimpleStringProperty("$" + String.format("%.2f", cellData.getValue().subtotal())));
+        colSubtotal.setCellValueFactory(cellData -> new javafx.beans.property.SimpleStringProperty("$" + Dinero.formatear(cellData.getValue().subtotal())));
         colSubtotal.setPrefWidth(100);
 
         // Columna: Descuento
@@ -127,58 +135,53 @@ public class PantallaCarrito {
         tablaProductos.getColumns().addAll(colProducto, colCategoria, colCantidad, colPrecio, colSubtotal, colDescuento);
 
         // Llenar tabla con productos del carrito
-        Producto[] productosCarrito = carrito.getProductos();
-        for (int i = 0; i < carrito.getContador(); i++) {
-            Producto p = productosCarrito[i];
-            int cantidad = p.getStock();
-            double descuento = calcularDescuento(cantidad);
-            tablaProductos.getItems().add(new ProductoCarrito(p.getNombre(), p.getCategoria(), cantidad, p.getPrecio(), descuento));
-        }
+        tablaProductos.getItems().addAll(crearLineas(vista));
 
         // Panel de totales
-        VBox panelTotales = crearPanelTotales();
+        VBox panelTotales = crearPanelTotales(vista);
 
         contenido.getChildren().addAll(tablaProductos, panelTotales);
         return contenido;
     }
 
     /**
-     * Calcula el descuento según la cantidad.
+     * Crea las filas de la tabla a partir del carrito, con el descuento que decide su motor de precios.
      */
-    private double calcularDescuento(int cantidad) {
-        if (cantidad >= 3 && cantidad <= 4) return 0.05;
-        else if (cantidad >= 5 && cantidad <= 6) return 0.10;
-        else if (cantidad >= 7) return 0.15;
-        return 0;
+    public static List<ProductoCarrito> crearLineas(Carrito carrito) {
+        return crearLineas(carrito.instantanea());
+    }
+
+    /**
+     * Crea las filas de la tabla a partir de una instantánea del carrito.
+     */
+    public static List<ProductoCarrito> crearLineas(Carrito.Instantanea carrito) {
+        MotorPrecios motor = carrito.getMotorPrecios();
+        Producto[] productos = carrito.getProductos();
+        List<ProductoCarrito> lineas = new ArrayList<>(productos.length);
+        for (Producto p : productos) {
+            lineas.add(new ProductoCarrito(p.getNombre(), p.getCategoria(), p.getStock(), p.getPrecioCentavos(), motor.descuento(p)));
+        }
+        return lineas;
     }
 
     /**
      * Crea el panel de totales.
      */
-    private VBox crearPanelTotales() {
+    private VBox crearPanelTotales(Carrito.Instantanea vista) {
         VBox panel = new VBox();
         panel.setStyle("-fx-border-color: #ccc; -fx-border-radius: 5; -fx-background-color: white;");
         panel.setPadding(new Insets(15));
         panel.setSpacing(10);
         panel.setAlignment(Pos.CENTER_RIGHT);
 
-        double totalSinDesc = 0;
-        double totalConDesc = 0;
-
-        Producto[] productos = carrito.getProductos();
-        for (int i = 0; i < carrito.getContador(); i++) {
-            Producto p = productos[i];
-            int cantidad = p.getStock();
-            double descuento = calcularDescuento(cantidad);
-            double subtotal = p.getPrecio() * cantidad;
-            totalSinDesc += subtotal;
-            totalConDesc += subtotal * (1 - descuento);
-        }
+        // Los totales los mantiene el carrito; no hace falta recorrer las líneas.
+        long totalSinDesc = vista.calcularTotalSinDescuentoCentavos();
+        long totalConDesc = vista.calcularTotalCentavos();
 
-        Label labelTotalSin = new Label("Total sin descuento: $" + String.format("%.2f", totalSinDesc));
+        Label labelTotalSin = new Label("Total sin descuento: $" + Dinero.formatear(totalSinDesc));
         labelTotalSin.setStyle("-fx-font-size: 14;");
 
-        Label labelTotalCon = new Label("Total con descuento: $" + String.format("%.2f", totalConDesc));
+        Label labelTotalCon = new Label("Total con descuento: $" + Dinero.formatear(totalConDesc));
         labelTotalCon.setFont(Font.font("Arial", FontWeight.BOLD, 16));
         labelTotalCon.setStyle("-fx-text-fill: #d32f2f;");
 
@@ -207,7 +210,7 @@ public class PantallaCarrito {
         Button btnVaciar = new Button("Vaciar Carrito");
         btnVaciar.setStyle("-fx-font-size: 12; -fx-padding: 8; -fx-background-color: #d32f2f; -fx-text-fill: white;");
         btnVaciar.setOnAction(e -> {
-            carrito.vaciarCarrito();
+            ServicioCompra.obtener().vaciar(carrito);
             mostrar(stage);
         });
 
@@ -222,23 +225,23 @@ public class PantallaCarrito {
         public String nombre;
         public String categoria;
         public int cantidad;
-        public double precio;
-        public double descuento;
+        public long precioCentavos;     // Precio unitario en centavos.
+        public int descuento;           // Descuento en puntos base (500 = 5%).
 
-        public ProductoCarrito(String nombre, String categoria, int cantidad, double precio, double descuento) {
+        public ProductoCarrito(String nombre, String categoria, int cantidad, long precioCentavos, int descuento) {
             this.nombre = nombre;
             this.categoria = categoria;
             this.cantidad = cantidad;
-            this.precio = precio;
+            this.precioCentavos = precioCentavos;
             this.descuento = descuento;
         }
 
-        public double subtotal() {
-            return precio * cantidad * (1 - descuento);
+        public long subtotal() {
+            return Dinero.aplicarDescuento(Dinero.multiplicar(precioCentavos, cantidad), descuento);
         }
 
         public String descuentoTexto() {
-            return descuento > 0 ? (int)(descuento * 100) + "%" : "0%";
+            return Dinero.porcentaje(descuento) + "%";
         }
     }
 }
\ No newline at end of file
@@ -1,19 +1,20 @@
 package com.tienda.ui;
 
 import com.tienda.Usuario;
+import com.tienda.BuscadorProductos;
 import com.tienda.Carrito;
+import com.tienda.CatalogoRepositorio;
 import com.tienda.Producto;
-import com.tienda.Controlador;
-import com.tienda.Invalidar_Email;
+import com.tienda.ServicioCatalogo;
+import com.tienda.ServicioCompra;
 import com.tienda.CantidadInvalidaException;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
-import javafx.scene.image.Image;
-import javafx.scene.image.ImageView;
 import javafx.scene.layout.BorderPane;
-import javafx.scene.layout.FlowPane;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
 import javafx.scene.paint.Color;
@@ -21,42 +22,50 @@ import javafx.scene.shape.Circle;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
 import javafx.stage.Stage;
-import java.lang.reflect.Field;
-import java.util.ArrayList;
+import javafx.util.Duration;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * PantallaCatalogo mejorada con estilo Mercado Libre.
- * Muestra productos en cards con imagen, descripción y detalles.
- * Los productos se obtienen del Controlador.
+ * Muestra productos en cards con imagen, descripción y detalles, dentro de una cuadrícula
+ * virtual ({@link GridProductos}) que solo crea las cards visibles.
+ * Los productos se obtienen del catálogo compartido ({@link ServicioCatalogo}).
  */
 public class PantallaCatalogo {
     private Stage stage;
     private Usuario usuario;
     private Carrito carrito;
-    private Producto[] catalogo;
+    private CatalogoRepositorio repositorio;
+    private BuscadorProductos buscador;
+    private String categoriaActual;                              // Categoría mostrada actualmente.
+    private GridProductos gridProductos;                         // Cuadrícula virtual, reutilizada entre categorías.
+    private Label tituloProductos;
+    private Label labelVacio;
+    private final AtomicLong consultaActual = new AtomicLong();  // Identifica la última búsqueda lanzada.
+
+    // Retardo tras la última tecla antes de buscar, y máximo de resultados mostrados.
+    private static final int RETARDO_BUSQUEDA_MS = 250;
+    private static final int MAX_RESULTADOS = 100;
+
+    // Hilo único en segundo plano para las búsquedas, compartido por todas las pantallas.
+    private static final ExecutorService EJECUTOR_BUSQUEDA = Executors.newSingleThreadExecutor(r -> {
+        Thread hilo = new Thread(r, "busqueda-catalogo");
+        hilo.setDaemon(true);
+        return hilo;
+    });
     private String[] coloresProductos = {"#FF6B6B", "#4ECDC4", "#45B7D1", "#FFA07A", "#98D8C8", "#F7DC6F"};
     private int colorIndex = 0;
 
     public PantallaCatalogo(Usuario usuario, Carrito carrito) {
         this.usuario = usuario;
         this.carrito = carrito;
-        this.catalogo = obtenerCatalogoDelControlador();
-    }
-
-    /**
-     * Obtiene el catálogo del Controlador usando reflexión.
-     */
-    private Producto[] obtenerCatalogoDelControlador() {
-        try {
-            Controlador controlador = new Controlador();
-            Field field = Controlador.class.getDeclaredField("catalogo");
-            field.setAccessible(true);
-            return (Producto[]) field.get(controlador);
-        } catch (Exception e) {
-            System.err.println("Error al obtener catálogo del Controlador: " + e.getMessage());
-            return new Producto[0];
-        }
+        // El catálogo es compartido: solo se carga la primera vez que se abre la pantalla.
+        ServicioCatalogo servicio = ServicioCatalogo.obtener();
+        this.repositorio = servicio.getRepositorio();
+        this.buscador = servicio.getBuscador();
     }
 
     /**
@@ -72,9 +81,6 @@ public class PantallaCatalogo {
         VBox encabezado = crearEncabezado();
         root.setTop(encabezado);
 
-        // Barra de búsqueda y filtros
-        HBox barraBusqueda = crearBarraBusqueda();
-        
         // Contenido con categorías y productos
         VBox contenido = new VBox();
         contenido.setStyle("-fx-background-color: #f5f5f5;");
@@ -85,14 +91,11 @@ public class PantallaCatalogo {
         VBox panelCategorias = crearPanelCategorias();
         panelContenido.setLeft(panelCategorias);
         
-        // Panel central - Productos
-        VBox panelProductos = new VBox();
-        panelProductos.setPadding(new Insets(20));
-        panelProductos.setSpacing(10);
-        
-        ScrollPane scrollProductos = new ScrollPane(panelProductos);
-        scrollProductos.setFitToWidth(true);
-        scrollProductos.setStyle("-fx-control-inner-background: #f5f5f5;");
+        // Panel central - Productos (la cuadrícula tiene su propio desplazamiento)
+        VBox panelProductos = crearPanelProductos();
+
+        // Barra de búsqueda; muestra sus resultados en el panel de productos
+        HBox barraBusqueda = crearBarraBusqueda(panelProductos);
         
         // Cargar categorías
         List<String> categorias = obtenerCategorias();
@@ -110,7 +113,7 @@ public class PantallaCatalogo {
             }
         }
         
-        panelContenido.setCenter(scrollProductos);
+        panelContenido.setCenter(panelProductos);
         contenido.getChildren().addAll(barraBusqueda, panelContenido);
         
         VBox.setVgrow(panelContenido, javafx.scene.layout.Priority.ALWAYS);
@@ -124,6 +127,37 @@ public class PantallaCatalogo {
         stage.setTitle("City Market - Catálogo");
         stage.setScene(scene);
         stage.show();
+
+        if (MedidorFotogramas.estaActivado()) {
+            MedidorFotogramas medidor = new MedidorFotogramas("Catalogo");
+            medidor.start();
+            stage.setOnHidden(e -> medidor.stop());
+        }
+    }
+
+    /**
+     * Crea el panel central con el título y la cuadrícula virtual de productos.
+     */
+    private VBox crearPanelProductos() {
+        VBox panelProductos = new VBox();
+        panelProductos.setPadding(new Insets(20));
+        panelProductos.setSpacing(10);
+
+        tituloProductos = new Label();
+        tituloProductos.setFont(Font.font("Arial", FontWeight.BOLD, 18));
+        tituloProductos.setStyle("-fx-text-fill: #333;");
+
+        labelVacio = new Label("No se encontraron productos");
+        labelVacio.setFont(Font.font("Arial", 14));
+        labelVacio.setStyle("-fx-text-fill: #999;");
+        labelVacio.setVisible(false);
+        labelVacio.setManaged(false);
+
+        gridProductos = new GridProductos(this::agregarAlCarrito, carrito.getInventario());
+        VBox.setVgrow(gridProductos, javafx.scene.layout.Priority.ALWAYS);
+
+        panelProductos.getChildren().addAll(tituloProductos, labelVacio, gridProductos);
+        return panelProductos;
     }
 
     /**
@@ -162,8 +196,11 @@ public class PantallaCatalogo {
 
     /**
      * Crea la barra de búsqueda.
+     * Mientras el usuario escribe, la búsqueda se lanza cuando deja de teclear por un momento
+     * (rebote) y se ejecuta fuera del hilo de JavaFX; solo se muestra el resultado de la
+     * consulta más reciente.
      */
-    private HBox crearBarraBusqueda() {
+    private HBox crearBarraBusqueda(VBox panelProductos) {
         HBox barra = new HBox();
         barra.setStyle("-fx-background-color: white;");
         barra.setPadding(new Insets(15, 20, 15, 20));
@@ -181,10 +218,47 @@ public class PantallaCatalogo {
         btnBuscar.setPrefWidth(100);
         btnBuscar.setStyle("-fx-font-size: 13; -fx-background-color: #3483FA; -fx-text-fill: white; -fx-padding: 10;");
 
+        PauseTransition rebote = new PauseTransition(Duration.millis(RETARDO_BUSQUEDA_MS));
+        rebote.setOnFinished(e -> buscar(panelProductos, busqueda.getText()));
+        busqueda.textProperty().addListener((obs, anterior, nuevo) -> rebote.playFromStart());
+
+        busqueda.setOnAction(e -> {
+            rebote.stop();
+            buscar(panelProductos, busqueda.getText());
+        });
+        btnBuscar.setOnAction(e -> {
+            rebote.stop();
+            buscar(panelProductos, busqueda.getText());
+        });
+
         barra.getChildren().addAll(busqueda, btnBuscar);
         return barra;
     }
 
+    /**
+     * Ejecuta una búsqueda en segundo plano y muestra los resultados en el panel.
+     * Si la consulta está vacía se vuelve a mostrar la categoría seleccionada.
+     */
+    private void buscar(VBox panelProductos, String texto) {
+        long consulta = consultaActual.incrementAndGet();
+        if (texto == null || texto.isBlank()) {
+            if (categoriaActual != null) {
+                mostrarProductosPorCategoria(panelProductos, categoriaActual);
+            }
+            return;
+        }
+
+        EJECUTOR_BUSQUEDA.execute(() -> {
+            List<Producto> resultados = buscador.buscar(texto, MAX_RESULTADOS);
+            Platform.runLater(() -> {
+                // Se descartan los resultados de consultas que ya fueron reemplazadas por otra.
+                if (consulta == consultaActual.get()) {
+                    mostrarProductos(panelProductos, "Resultados para \"" + texto.trim() + "\"", resultados);
+                }
+            });
+        });
+    }
+
     /**
      * Crea el panel de categorías lateral.
      */
@@ -210,188 +284,51 @@ public class PantallaCatalogo {
      * Muestra los productos de una categoría en formato grid.
      */
     private void mostrarProductosPorCategoria(VBox panelProductos, String categoria) {
-        panelProductos.getChildren().clear();
-
-        Label labelCategoria = new Label(categoria);
-        labelCategoria.setFont(Font.font("Arial", FontWeight.BOLD, 18));
-        labelCategoria.setStyle("-fx-text-fill: #333;");
-        panelProductos.getChildren().add(labelCategoria);
-
-        // Grid de productos
-        FlowPane gridProductos = new FlowPane();
-        gridProductos.setStyle("-fx-background-color: #f5f5f5;");
-        gridProductos.setHgap(20);
-        gridProductos.setVgap(20);
-        gridProductos.setPrefWrapLength(0);
-
-        for (int i = 0; i < catalogo.length; i++) {
-            Producto p = catalogo[i];
-            if (p != null && p.getCategoria().equals(categoria)) {
-                VBox cardProducto = crearCardProducto(p, i);
-                gridProductos.getChildren().add(cardProducto);
-            }
-        }
-
-        ScrollPane scroll = new ScrollPane(gridProductos);
-        scroll.setFitToWidth(true);
-        scroll.setStyle("-fx-control-inner-background: #f5f5f5;");
-        
-        VBox.setVgrow(scroll, javafx.scene.layout.Priority.ALWAYS);
-        panelProductos.getChildren().add(scroll);
+        categoriaActual = categoria;
+        consultaActual.incrementAndGet();
+        mostrarProductos(panelProductos, categoria, repositorio.getProductos(categoria));
     }
 
     /**
-     * Crea una card de producto estilo Mercado Libre.
+     * Muestra una lista de productos en la cuadrícula bajo el título indicado.
+     * Solo se actualizan los datos: las tarjetas visibles se reutilizan.
      */
-    private VBox crearCardProducto(Producto producto, int indice) {
-        VBox card = new VBox();
-        card.setStyle("-fx-background-color: white; -fx-border-color: #ddd; -fx-border-radius: 5;");
-        card.setPadding(new Insets(0));
-        card.setSpacing(10);
-        card.setPrefWidth(220);
-        card.setPrefHeight(320);
-
-        // Imagen del producto
-        VBox imagenBox = new VBox();
-        imagenBox.setStyle("-fx-background-color: #f9f9f9;");
-        imagenBox.setPrefHeight(150);
-        imagenBox.setAlignment(Pos.CENTER);
-
-        ImageView imagenView = cargarImagen(producto);
-        imagenBox.getChildren().add(imagenView);
-
-        // Información del producto
-        VBox infoBox = new VBox();
-        infoBox.setPadding(new Insets(12));
-        infoBox.setSpacing(8);
-
-        // Nombre del producto
-        Label nombre = new Label(producto.getNombre());
-        nombre.setFont(Font.font("Arial", FontWeight.BOLD, 12));
-        nombre.setStyle("-fx-text-fill: #333; -fx-wrap-text: true;");
-        nombre.setWrapText(true);
-
-        // Descripción simulada
-        Label descripcion = new Label(producto.getSubcategoria());
-        descripcion.setFont(Font.font("Arial", 11));
-        descripcion.setStyle("-fx-text-fill: #999;");
-        descripcion.setWrapText(true);
-
-        // Precio destacado
-        Label precio = new Label("$" + String.format("%.2f", producto.getPrecio()));
-        precio.setFont(Font.font("Arial", FontWeight.BOLD, 16));
-        precio.setStyle("-fx-text-fill: #3483FA;");
-
-        // Stock disponible
-        Label stock = new Label("Stock disponible");
-        stock.setFont(Font.font("Arial", 10));
-        stock.setStyle("-fx-text-fill: #00a82d;");
-
-        infoBox.getChildren().addAll(nombre, descripcion, precio, stock);
-
-        // Panel de compra
-        HBox compraBox = new HBox();
-        compraBox.setPadding(new Insets(10));
-        compraBox.setSpacing(5);
-        compraBox.setAlignment(Pos.CENTER);
-
-        Spinner<Integer> spinner = new Spinner<>(1, 100, 1);
-        spinner.setPrefWidth(70);
-        spinner.setStyle("-fx-font-size: 11;");
-
-        Button btnAgregar = new Button("Agregar");
-        btnAgregar.setPrefHeight(35);
-        btnAgregar.setStyle("-fx-font-size: 11; -fx-font-weight: bold; -fx-background-color: #3483FA; -fx-text-fill: white; -fx-padding: 8;");
-        btnAgregar.setOnAction(e -> {
-            int cantidad = spinner.getValue();
-            try {
-                if (cantidad <= 0) {
-                    throw new CantidadInvalidaException("Error: La cantidad debe ser mayor a 0.");
-                }
-                if (cantidad > 100) {
-                    throw new CantidadInvalidaException("Error: La cantidad no puede exceder 100 unidades.");
-                }
-
-                Producto nuevoProducto = new Producto(
-                        producto.getNombre(),
-                        producto.getCategoria(),
-                        producto.getSubcategoria(),
-                        producto.getPrecio(),
-                        cantidad
-                );
-
-                carrito.agregarProducto(nuevoProducto);
-
-                Alert alerta = new Alert(Alert.AlertType.INFORMATION);
-                alerta.setTitle("Exito");
-                alerta.setHeaderText("Producto agregado");
-                alerta.setContentText(producto.getNombre() + " ha sido agregado al carrito.");
-                alerta.showAndWait();
-
-            } catch (CantidadInvalidaException | Invalidar_Email ex) {
-                Alert alerta = new Alert(Alert.AlertType.ERROR);
-                alerta.setTitle("Error");
-                alerta.setHeaderText("Error al agregar");
-                alerta.setContentText(ex.getMessage());
-                alerta.showAndWait();
-            }
-        });
-
-        compraBox.getChildren().addAll(spinner, btnAgregar);
-
-        card.getChildren().addAll(imagenBox, infoBox, compraBox);
-        return card;
+    private void mostrarProductos(VBox panelProductos, String titulo, List<Producto> productos) {
+        tituloProductos.setText(titulo);
+        labelVacio.setVisible(productos.isEmpty());
+        labelVacio.setManaged(productos.isEmpty());
+        gridProductos.setProductos(productos);
     }
 
     /**
-     * Carga la imagen de un producto desde la carpeta de recursos con subcategorías.
+     * Agrega al carrito la cantidad elegida en la tarjeta de un producto.
      */
-    private ImageView cargarImagen(Producto producto) {
-        ImageView imageView = new ImageView();
-        imageView.setFitWidth(150);
-        imageView.setFitHeight(150);
-        imageView.setPreserveRatio(true);
-
+    private void agregarAlCarrito(Producto producto, int cantidad) {
         try {
-            // Construir nombre del archivo desde el nombre del producto
-            String nombreProducto = producto.getNombre()
-                .toLowerCase()
-                .replaceAll(" ", "-")
-                .replaceAll("[^a-z0-9-]", "");
-
-            // Construir nombre de subcategoría
-            String subcategoria = producto.getSubcategoria()
-                .toLowerCase()
-                .replaceAll(" ", "-")
-                .replaceAll("[^a-z0-9-]", "");
-
-            // Ruta: imagenes/categoria/subcategoria/nombre-producto.png
-            String ruta = "file:imagenes/" + producto.getCategoria().toLowerCase() + "/" +subcategoria + "/" +nombreProducto + ".png";
-
-            Image imagen = new Image(ruta);
-            imageView.setImage(imagen);
-
-        } catch (Exception e) {
-            // Si hay error, mostrar icono de paquete
-            System.err.println("Error cargando imagen para " + producto.getNombre() + ": " + e.getMessage());
-            Label imagenLabel = new Label("📦");
-            imagenLabel.setFont(Font.font("Arial", 60));
+            ServicioCompra.obtener().agregar(carrito, producto, cantidad);
+            // Las tarjetas visibles vuelven a leer las existencias.
+            gridProductos.refresh();
+
+            Alert alerta = new Alert(Alert.AlertType.INFORMATION);
+            alerta.setTitle("Exito");
+            alerta.setHeaderText("Producto agregado");
+            alerta.setContentText(producto.getNombre() + " ha sido agregado al carrito.");
+            alerta.showAndWait();
+
+        } catch (CantidadInvalidaException ex) {
+            Alert alerta = new Alert(Alert.AlertType.ERROR);
+            alerta.setTitle("Error");
+            alerta.setHeaderText("Error al agregar");
+            alerta.setContentText(ex.getMessage());
+            alerta.showAndWait();
         }
-
-        return imageView;
     }
 
     /**
      * Obtiene las categorías únicas del catálogo.
      */
     private List<String> obtenerCategorias() {
-        List<String> categorias = new ArrayList<>();
-        for (Producto p : catalogo) {
-            if (p != null && !categorias.contains(p.getCategoria())) {
-                categorias.add(p.getCategoria());
-            }
-        }
-        return categorias;
+        return repositorio.getCategorias();
     }
 
     /**
@@ -2,6 +2,18 @@ package com.tienda.ui;
 
 import com.tienda.Usuario;
 import com.tienda.Carrito;
+import com.tienda.ColaTickets;
+import com.tienda.Compra;
+import com.tienda.Dinero;
+import com.tienda.EscritorTicketTexto;
+import com.tienda.ServicioCompra;
+import com.tienda.StockInsuficienteException;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.file.Paths;
+import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
@@ -23,6 +35,10 @@ public class PantallaPrincipal {
     private Stage stage;
     private Usuario usuario;
     private Carrito carrito;
+    // El ticket de consola se arma siempre en el mismo búfer y se escribe de una vez. La pantalla
+    // se vuelve a crear en cada navegación, así que el escritor es de la clase; solo lo usa el hilo de JavaFX.
+    private static final EscritorTicketTexto escritor = new EscritorTicketTexto(4096);
+    private static final Writer consola = new BufferedWriter(new OutputStreamWriter(System.out, System.out.charset()));
 
     /**
      * Constructor que recibe un usuario y un carrito existente
@@ -37,7 +53,7 @@ public class PantallaPrincipal {
      */
     public PantallaPrincipal(Usuario usuario) {
         this.usuario = usuario;
-        this.carrito = new Carrito(20);
+        this.carrito = ServicioCompra.obtener().nuevoCarrito();
     }
 
     /**
@@ -123,24 +139,42 @@ public class PantallaPrincipal {
         // Botón Finalizar Compra
         Button btnFinalizar = crearBoton("Finalizar Compra", 250);
         btnFinalizar.setOnAction(e -> {
-            if (carrito.getContador() == 0) {
+            // La compra se confirma (las reservas pasan a vendidas) y el carrito se vacía en una
+            // sola operación; el ticket y el total salen de esa misma compra.
+            Compra compra;
+            try {
+                compra = ServicioCompra.obtener().cerrarCompra(usuario, carrito);
+            } catch (StockInsuficienteException ex) {
+                Alert alerta = new Alert(Alert.AlertType.ERROR);
+                alerta.setTitle("Sin existencias");
+                alerta.setHeaderText("No se pudo finalizar la compra");
+                alerta.setContentText(ex.getMessage());
+                alerta.showAndWait();
+                return;
+            }
+            if (compra.estaVacia()) {
                 Alert alerta = new Alert(Alert.AlertType.WARNING);
                 alerta.setTitle("Carrito Vacio");
                 alerta.setHeaderText("No hay productos");
                 alerta.setContentText("Debes agregar productos antes de finalizar la compra.");
                 alerta.showAndWait();
             } else {
-                // Mostrar el ticket
-                carrito.imprimirTicket(usuario);
-                
+                // Mostrar el ticket; el PDF se genera en segundo plano sin detener la pantalla.
+                try {
+                    compra.escribirTicket(escritor, consola);
+                    consola.flush();
+                } catch (IOException ex) {
+                    System.err.println("Error al mostrar el ticket: " + ex.getMessage());
+                }
+                generarTicketPDF(compra);
+
                 Alert alerta = new Alert(Alert.AlertType.INFORMATION);
                 alerta.setTitle("Compra Finalizada");
                 alerta.setHeaderText("Gracias por su compra");
-                alerta.setContentText("Tu compra ha sido procesada exitosamente.\nTotal: $" + String.format("%.2f", carrito.calcularTotal()));
+                alerta.setContentText("Tu compra ha sido procesada exitosamente.\nTotal: $" + Dinero.formatear(compra.getTotalCentavos()));
                 alerta.showAndWait();
 
                 // Volver al menu principal con carrito vaciado
-                carrito.vaciarCarrito();
                 mostrar(stage);
             }
         });
@@ -186,6 +220,31 @@ public class PantallaPrincipal {
         return piePagina;
     }
 
+    /**
+     * Encola el ticket PDF de la compra. Si falla, se avisa con una alerta en el hilo de JavaFX.
+     */
+    private void generarTicketPDF(Compra compra) {
+        try {
+            ColaTickets.obtener().encolar(compra, Paths.get("ticket.pdf")).whenComplete((ruta, error) -> {
+                if (error == null) {
+                    System.out.println("Ticket PDF generado correctamente en: " + ruta);
+                } else {
+                    Platform.runLater(() -> avisarErrorTicket(error.getMessage()));
+                }
+            });
+        } catch (IOException ex) {
+            avisarErrorTicket(ex.getMessage());
+        }
+    }
+
+    private void avisarErrorTicket(String mensaje) {
+        Alert alerta = new Alert(Alert.AlertType.ERROR);
+        alerta.setTitle("Ticket PDF");
+        alerta.setHeaderText("No se pudo generar el ticket PDF");
+        alerta.setContentText(mensaje);
+        alerta.show();
+    }
+
     /**
      * Método auxiliar para crear botones con estilo consistente.
      */
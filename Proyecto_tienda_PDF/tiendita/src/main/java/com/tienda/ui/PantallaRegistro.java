@@ -3,7 +3,7 @@ package com.tienda.ui;
 import com.tienda.Usuario;
 import com.tienda.Invalidar_Email;
 import com.tienda.UsuarioInvalidoException;
-import com.tienda.CantidadInvalidaException;
+import com.tienda.ServicioCompra;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
@@ -13,7 +13,6 @@ import javafx.scene.layout.VBox;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
 import javafx.stage.Stage;
-import java.util.regex.Pattern;
 
 /**
  * PantallaRegistro crea la interfaz gráfica para el registro de usuarios.
@@ -22,17 +21,6 @@ import java.util.regex.Pattern;
 public class PantallaRegistro {
     private Stage stage;
     private Usuario usuarioRegistrado;
-    
-    // Patrón regex para validar emails
-    private static final String EMAIL_PATTERN = "^[A-Za-z0-9+_.-]+@(.+)$";
-    private static final Pattern pattern = Pattern.compile(EMAIL_PATTERN);
-
-    /**
-     * Valida si el email cumple con un formato válido.
-     */
-    private boolean esEmailValido(String email) {
-        return email != null && pattern.matcher(email).matches() && email.contains(".");
-    }
 
     /**
      * Muestra la pantalla de registro en el Stage proporcionado.
@@ -141,39 +129,9 @@ public class PantallaRegistro {
             labelError.setText("");
 
             try {
-                // Validar nombre
-                if (nombre.isEmpty()) {
-                    labelError.setText("Error: El nombre no puede estar vacio.");
-                    return;
-                }
-                if (nombre.length() < 3) {
-                    labelError.setText("Error: El nombre debe tener al menos 3 caracteres.");
-                    return;
-                }
-
-                // Validar email
-                if (email.isEmpty()) {
-                    labelError.setText("Error: El email no puede estar vacio.");
-                    return;
-                }
-                if (!esEmailValido(email)) {
-                    labelError.setText("Error: Formato de email invalido. Ejemplo: usuario@correo.com");
-                    return;
-                }
-
-                // Validar dirección
-                if (direccion.isEmpty()) {
-                    labelError.setText("Error: La direccion no puede estar vacia.");
-                    return;
-                }
-                if (direccion.length() < 5) {
-                    labelError.setText("Error: La direccion debe tener al menos 5 caracteres.");
-                    return;
-                }
-
-                // Si todo es válido, crear el usuario y pasar a la siguiente pantalla
-                usuarioRegistrado = new Usuario(nombre, email, direccion);
-                
+                // El servicio valida en orden nombre, email y dirección, y crea el usuario.
+                usuarioRegistrado = ServicioCompra.obtener().registrar(nombre, email, direccion);
+
                 // Mostrar alerta de éxito
                 Alert alerta = new Alert(Alert.AlertType.INFORMATION);
                 alerta.setTitle("Registro Exitoso");
@@ -185,8 +143,8 @@ public class PantallaRegistro {
                 PantallaPrincipal pantallaPrincipal = new PantallaPrincipal(usuarioRegistrado);
                 pantallaPrincipal.mostrar(stage);
 
-            } catch (Exception ex) {
-                labelError.setText("Error: " + ex.getMessage());
+            } catch (UsuarioInvalidoException | Invalidar_Email ex) {
+                labelError.setText(ex.getMessage());
             }
         });
 
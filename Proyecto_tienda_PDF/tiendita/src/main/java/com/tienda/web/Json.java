@@ -0,0 +1,125 @@
+package com.tienda.web;
+
+import com.tienda.Carrito;
+import com.tienda.Compra;
+import com.tienda.Dinero;
+import com.tienda.MotorPrecios;
+import com.tienda.Producto;
+import java.util.List;
+
+/**
+ * Escritura de las respuestas JSON del servidor.
+ * <p>
+ * Las respuestas son pocas y de forma fija, así que se escriben directo en un `StringBuilder`
+ * en lugar de agregar una biblioteca de JSON. Los montos se escriben como números con dos
+ * decimales, a partir de los centavos.
+ */
+final class Json {
+
+    private Json() {
+    }
+
+    /**
+     * Escribe un texto entre comillas, escapando lo que JSON no permite.
+     */
+    static StringBuilder texto(StringBuilder sb, String valor) {
+        if (valor == null) {
+            return sb.append("null");
+        }
+        sb.append('"');
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            switch (c) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        return sb.append('"');
+    }
+
+    static String error(String mensaje) {
+        return texto(new StringBuilder(mensaje.length() + 16).append("{\"error\":"), mensaje).append('}').toString();
+    }
+
+    static String textos(List<String> valores) {
+        StringBuilder sb = new StringBuilder(32 * valores.size() + 2).append('[');
+        for (int i = 0; i < valores.size(); i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            texto(sb, valores.get(i));
+        }
+        return sb.append(']').toString();
+    }
+
+    /**
+     * Productos del catálogo, con las unidades disponibles de cada uno.
+     */
+    static String productos(List<Producto> productos, int[] disponibles) {
+        StringBuilder sb = new StringBuilder(128 * productos.size() + 2).append('[');
+        for (int i = 0; i < productos.size(); i++) {
+            Producto p = productos.get(i);
+            if (i > 0) {
+                sb.append(',');
+            }
+            texto(sb.append("{\"sku\":"), p.getSku());
+            texto(sb.append(",\"nombre\":"), p.getNombre());
+            texto(sb.append(",\"categoria\":"), p.getCategoria());
+            texto(sb.append(",\"subcategoria\":"), p.getSubcategoria());
+            Dinero.formatear(p.getPrecioCentavos(), sb.append(",\"precio\":"));
+            sb.append(",\"disponibles\":").append(disponibles[i]).append('}');
+        }
+        return sb.append(']').toString();
+    }
+
+    /**
+     * Líneas y totales de una instantánea del carrito.
+     */
+    static String carrito(Carrito.Instantanea carrito) {
+        StringBuilder sb = new StringBuilder(128 * carrito.getContador() + 64);
+        carrito(sb, carrito);
+        return sb.toString();
+    }
+
+    private static void carrito(StringBuilder sb, Carrito.Instantanea carrito) {
+        MotorPrecios motor = carrito.getMotorPrecios();
+        Producto[] lineas = carrito.getProductos();
+        sb.append("{\"lineas\":[");
+        for (int i = 0; i < lineas.length; i++) {
+            Producto p = lineas[i];
+            if (i > 0) {
+                sb.append(',');
+            }
+            texto(sb.append("{\"sku\":"), p.getSku());
+            texto(sb.append(",\"nombre\":"), p.getNombre());
+            sb.append(",\"cantidad\":").append(p.getStock());
+            Dinero.formatear(p.getPrecioCentavos(), sb.append(",\"precio\":"));
+            Dinero.formatear(motor.subtotalConDescuento(p), sb.append(",\"subtotal\":"));
+            sb.append('}');
+        }
+        Dinero.formatear(carrito.calcularTotalSinDescuentoCentavos(), sb.append("],\"totalSinDescuento\":"));
+        Dinero.formatear(carrito.calcularTotalCentavos(), sb.append(",\"total\":"));
+        sb.append('}');
+    }
+
+    /**
+     * Resumen de una compra cerrada.
+     */
+    static String compra(Compra compra) {
+        StringBuilder sb = new StringBuilder(128 * compra.getLineas().getContador() + 128);
+        texto(sb.append("{\"cliente\":"), compra.getUsuario().getEmail());
+        texto(sb.append(",\"fecha\":"), compra.getFecha().toString());
+        sb.append(",\"carrito\":");
+        carrito(sb, compra.getLineas());
+        return sb.append('}').toString();
+    }
+}
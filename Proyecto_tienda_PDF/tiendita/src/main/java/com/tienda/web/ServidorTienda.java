@@ -0,0 +1,531 @@
+package com.tienda.web;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.tienda.AlmacenSesiones;
+import com.tienda.CantidadInvalidaException;
+import com.tienda.Carrito;
+import com.tienda.Compra;
+import com.tienda.GeneradorPDF;
+import com.tienda.Invalidar_Email;
+import com.tienda.Producto;
+import com.tienda.ProductoNoEncontradoException;
+import com.tienda.ProveedorFuentes;
+import com.tienda.ServicioCompra;
+import com.tienda.Sesion;
+import com.tienda.StockInsuficienteException;
+import com.tienda.Usuario;
+import com.tienda.UsuarioInvalidoException;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * La clase `ServidorTienda` atiende la tienda por HTTP, para muchos clientes desde una sola JVM.
+ * <p>
+ * Usa el servidor HTTP que trae el JDK (`com.sun.net.httpserver`) y atiende cada petición en su
+ * propio hilo virtual: las esperas de red o del inventario no ocupan un hilo del sistema, así que
+ * miles de clientes lentos no agotan un pool. Toda la lógica la pone {@link ServicioCompra}; aquí
+ * solo se traducen las peticiones y las respuestas.
+ * <p>
+ * Rutas (los parámetros van en la URL o, en los POST, como formulario):
+ * <ul>
+ *   <li>`GET /catalogo/categorias`</li>
+ *   <li>`GET /catalogo/productos?categoria=...[&subcategoria=...]`</li>
+ *   <li>`GET /catalogo/buscar?q=...[&limite=20]`</li>
+ *   <li>`POST /sesion/registro` con `nombre`, `email` y `direccion`</li>
+ *   <li>`GET /carrito`</li>
+ *   <li>`POST /carrito/agregar` con `sku` y `cantidad`; `/carrito/actualizar` igual;
+ *       `/carrito/remover` con `sku`; `/carrito/vaciar`</li>
+ *   <li>`POST /compra` cierra la compra; `GET /compra/ticket.pdf` descarga su ticket</li>
+ *   <li>`GET /metricas/sesiones` informa las sesiones vivas, la memoria estimada y los retiros</li>
+ * </ul>
+ * Las respuestas son JSON; los errores llevan `{"error": "..."}` con el mensaje de la tienda y el
+ * código 400 (datos inválidos o mal codificados), 401 (sin registro), 404 (no existe), 409 (sin
+ * existencias) o 413 (formulario de más de 16 KB). Un error inesperado responde 500 con un
+ * mensaje genérico; el detalle se escribe en la salida de errores del servidor.
+ * <p>
+ * La sesión se identifica con la cookie `sesion`, que el servidor asigna en la primera petición
+ * que la necesita. Las sesiones las guarda un {@link AlmacenSesiones}, que retira las inactivas y
+ * limita la memoria que ocupan; si una cookie ya no tiene sesión, se asigna una nueva.
+ * <p>
+ * Generar un PDF ocupa CPU y un generador no se comparte entre hilos, así que los tickets se
+ * hacen con un pool fijo de generadores: cuando todos están ocupados, las descargas esperan
+ * (en hilos virtuales, sin bloquear a nadie más).
+ */
+public class ServidorTienda {
+    // Propiedad del sistema con el puerto; 8080 si no se indica.
+    public static final String PROPIEDAD_PUERTO = "tienda.puerto";
+
+    // Propiedad del servidor HTTP del JDK que desactiva el algoritmo de Nagle en las conexiones.
+    public static final String PROPIEDAD_NODELAY = "sun.net.httpserver.nodelay";
+
+    private static final String COOKIE_SESION = "sesion";
+    private static final int LIMITE_BUSQUEDA = 20;
+    // Tamaño máximo del cuerpo de un formulario; los de la tienda ocupan unos cientos de bytes.
+    static final int MAXIMO_CUERPO = 16 * 1024;
+
+    private final ServicioCompra servicio;
+    private final HttpServer servidor;
+    private final ExecutorService hilos;
+    private final BlockingQueue<GeneradorPDF> generadores;    // Generadores libres.
+    private final boolean conTickets;                          // false si no se recibió ningún generador.
+    private final AlmacenSesiones sesiones;
+
+    /**
+     * Crea el servidor, sin empezar a atender.
+     *
+     * @param puerto      Puerto donde escuchar; 0 elige uno libre.
+     * @param servicio    Servicio de compra con el catálogo y el inventario.
+     * @param generadores Generadores de tickets PDF; cada uno atiende un ticket a la vez. Sin
+     *                    generadores, la descarga del ticket responde 503.
+     * @throws IOException Si no se puede abrir el puerto.
+     */
+    public ServidorTienda(int puerto, ServicioCompra servicio, List<GeneradorPDF> generadores) throws IOException {
+        this(puerto, servicio, new AlmacenSesiones(servicio, AlmacenSesiones.INACTIVIDAD_PREDETERMINADA_MS,
+            AlmacenSesiones.MEMORIA_PREDETERMINADA, null), generadores);
+    }
+
+    /**
+     * Crea el servidor con un almacén de sesiones propio, sin empezar a atender.
+     *
+     * @param puerto      Puerto donde escuchar; 0 elige uno libre.
+     * @param servicio    Servicio de compra con el catálogo y el inventario.
+     * @param sesiones    Almacén de las sesiones de los clientes; su limpieza empieza y termina
+     *                    con el servidor.
+     * @param generadores Generadores de tickets PDF, como en el otro constructor.
+     * @throws IOException Si no se puede abrir el puerto.
+     */
+    public ServidorTienda(int puerto, ServicioCompra servicio, AlmacenSesiones sesiones, List<GeneradorPDF> generadores)
+            throws IOException {
+        this.servicio = servicio;
+        this.sesiones = sesiones;
+        this.generadores = new ArrayBlockingQueue<>(Math.max(1, generadores.size()));
+        this.generadores.addAll(generadores);
+        this.conTickets = !generadores.isEmpty();
+        this.hilos = Executors.newVirtualThreadPerTaskExecutor();
+        this.servidor = HttpServer.create(new InetSocketAddress(puerto), 0);
+        this.servidor.setExecutor(hilos);
+
+        ruta("/catalogo/categorias", "GET", this::categorias);
+        ruta("/catalogo/productos", "GET", this::productos);
+        ruta("/catalogo/buscar", "GET", this::buscar);
+        ruta("/sesion/registro", "POST", this::registro);
+        ruta("/carrito", "GET", this::carrito);
+        ruta("/carrito/agregar", "POST", this::agregar);
+        ruta("/carrito/actualizar", "POST", this::actualizar);
+        ruta("/carrito/remover", "POST", this::remover);
+        ruta("/carrito/vaciar", "POST", this::vaciar);
+        ruta("/compra", "POST", this::compra);
+        ruta("/compra/ticket.pdf", "GET", this::ticket);
+        ruta("/metricas/sesiones", "GET", this::metricas);
+    }
+
+    /**
+     * Punto de entrada: sirve el catálogo compartido en el puerto de `tienda.puerto`, con un
+     * generador de tickets por procesador (fuentes de `tienda.fuente.regular` y
+     * `tienda.fuente.negrita`) y las sesiones configuradas con `tienda.sesiones.*`.
+     */
+    public static void main(String[] args) throws IOException {
+        desactivarNagle();
+        int puerto = Integer.getInteger(PROPIEDAD_PUERTO, 8080);
+        for (String aviso : ProveedorFuentes.obtener().getAvisos()) {
+            System.err.println(aviso);
+        }
+        List<GeneradorPDF> generadores = new ArrayList<>();
+        try {
+            for (int i = 0; i < Runtime.getRuntime().availableProcessors(); i++) {
+                generadores.add(GeneradorPDF.configurado("tiendita/src/logo.png"));
+            }
+        } catch (IOException e) {
+            System.err.println("No se pudieron cargar las fuentes; los tickets PDF no estaran disponibles: " + e.getMessage());
+            generadores.clear();
+        }
+        ServicioCompra servicio = ServicioCompra.obtener();
+        ServidorTienda servidor = new ServidorTienda(puerto, servicio, AlmacenSesiones.desdePropiedades(servicio), generadores);
+        servidor.iniciar();
+        System.out.println("City Market atendiendo en http://localhost:" + servidor.getPuerto() + "/");
+    }
+
+    /**
+     * Configura el servidor HTTP del JDK para enviar sin esperar (`sun.net.httpserver.nodelay`),
+     * salvo que ya se haya indicado otra cosa con `-D`. El servidor escribe los encabezados y el
+     * cuerpo por separado; con el algoritmo de Nagle el cuerpo espera el ACK retrasado del cliente
+     * (unos 40 ms en Linux) y cada petición tarda eso como mínimo. La propiedad se lee al crear el
+     * primer servidor del proceso, así que hay que llamarlo antes; lo hace {@link #main}.
+     */
+    public static void desactivarNagle() {
+        if (System.getProperty(PROPIEDAD_NODELAY) == null) {
+            System.setProperty(PROPIEDAD_NODELAY, "true");
+        }
+    }
+
+    /**
+     * Empieza a atender peticiones.
+     */
+    public void iniciar() {
+        sesiones.iniciarLimpieza();
+        servidor.start();
+    }
+
+    /**
+     * Deja de aceptar conexiones y espera hasta `segundos` a que terminen las peticiones en curso.
+     */
+    public void detener(int segundos) {
+        servidor.stop(segundos);
+        hilos.close();
+        sesiones.detenerLimpieza();
+    }
+
+    /**
+     * @return El puerto donde escucha el servidor.
+     */
+    public int getPuerto() {
+        return servidor.getAddress().getPort();
+    }
+
+    /**
+     * @return Las sesiones abiertas.
+     */
+    public int getSesiones() {
+        return sesiones.getVivas();
+    }
+
+    /**
+     * @return El almacén de sesiones del servidor.
+     */
+    public AlmacenSesiones getAlmacenSesiones() {
+        return sesiones;
+    }
+
+    // --- Atención de peticiones ---
+
+    /**
+     * Lo que hace una ruta: recibe la petición y devuelve la respuesta, o lanza una excepción de
+     * la tienda que se traduce a un código de error.
+     */
+    @FunctionalInterface
+    private interface Accion {
+        Respuesta atender(Peticion peticion) throws Exception;
+    }
+
+    private void ruta(String ruta, String metodo, Accion accion) {
+        servidor.createContext(ruta, intercambio -> {
+            try (intercambio) {
+                Respuesta respuesta;
+                if (!intercambio.getRequestURI().getPath().equals(ruta)) {
+                    respuesta = Respuesta.error(404, "Error: Ruta no encontrada.");
+                } else if (!intercambio.getRequestMethod().equals(metodo)) {
+                    intercambio.getResponseHeaders().set("Allow", metodo);
+                    respuesta = Respuesta.error(405, "Error: Metodo no permitido.");
+                } else {
+                    respuesta = atender(accion, intercambio);
+                }
+                enviar(intercambio, respuesta);
+            }
+        });
+    }
+
+    /**
+     * Lee los parámetros de la petición y la atiende. Un formulario mal codificado responde 400 y
+     * uno demasiado grande 413, sin llegar a la acción.
+     */
+    private Respuesta atender(Accion accion, HttpExchange intercambio) throws IOException {
+        Peticion peticion;
+        try {
+            peticion = new Peticion(intercambio);
+        } catch (CuerpoDemasiadoGrande e) {
+            return Respuesta.error(413, "Error: El formulario es demasiado grande.");
+        } catch (IllegalArgumentException e) {
+            // `URLDecoder` rechaza los escapes mal formados, como un "%" solo.
+            return Respuesta.error(400, "Error: Parametros mal codificados.");
+        }
+        try {
+            return atender(accion, peticion);
+        } finally {
+            if (peticion.sesion != null) {
+                sesiones.soltar(peticion.sesion);
+            }
+        }
+    }
+
+    private static Respuesta atender(Accion accion, Peticion peticion) {
+        try {
+            return accion.atender(peticion);
+        } catch (StockInsuficienteException e) {
+            return Respuesta.error(409, e.getMessage());
+        } catch (ProductoNoEncontradoException e) {
+            return Respuesta.error(404, e.getMessage());
+        } catch (CantidadInvalidaException | UsuarioInvalidoException | Invalidar_Email | IllegalArgumentException e) {
+            // IllegalArgumentException incluye los números mal escritos y los productos que no están en el carrito.
+            return Respuesta.error(400, e.getMessage());
+        } catch (Exception e) {
+            // El detalle queda en el registro del servidor; el cliente no ve rutas ni mensajes internos.
+            System.err.println("Error al atender " + peticion.intercambio.getRequestURI().getPath() + ": " + e);
+            return Respuesta.error(500, "Error: Error interno del servidor.");
+        }
+    }
+
+    private static void enviar(HttpExchange intercambio, Respuesta respuesta) throws IOException {
+        intercambio.getResponseHeaders().set("Content-Type", respuesta.tipo);
+        intercambio.sendResponseHeaders(respuesta.codigo, respuesta.cuerpo.length);
+        try (OutputStream salida = intercambio.getResponseBody()) {
+            salida.write(respuesta.cuerpo);
+        }
+    }
+
+    // --- Catálogo ---
+
+    private Respuesta categorias(Peticion p) {
+        return Respuesta.json(Json.textos(servicio.categorias()));
+    }
+
+    private Respuesta productos(Peticion p) {
+        String categoria = p.requerido("categoria");
+        String subcategoria = p.parametro("subcategoria");
+        List<Producto> productos = subcategoria != null
+                ? servicio.productos(categoria, subcategoria)
+                : servicio.productos(categoria);
+        return Respuesta.json(Json.productos(productos, disponibles(productos)));
+    }
+
+    private Respuesta buscar(Peticion p) {
+        String limite = p.parametro("limite");
+        List<Producto> productos = servicio.buscar(p.requerido("q"),
+                limite != null ? Integer.parseInt(limite) : LIMITE_BUSQUEDA);
+        return Respuesta.json(Json.productos(productos, disponibles(productos)));
+    }
+
+    private int[] disponibles(List<Producto> productos) {
+        int[] disponibles = new int[productos.size()];
+        for (int i = 0; i < disponibles.length; i++) {
+            disponibles[i] = servicio.disponibles(productos.get(i).getSku());
+        }
+        return disponibles;
+    }
+
+    // --- Sesión y carrito ---
+
+    private Respuesta registro(Peticion p) throws UsuarioInvalidoException, Invalidar_Email {
+        Usuario usuario = servicio.registrar(p.parametro("nombre"), p.parametro("email"), p.parametro("direccion"));
+        Sesion sesion = sesion(p);
+        sesion.setUsuario(usuario);
+        StringBuilder sb = new StringBuilder(96);
+        Json.texto(sb.append("{\"nombre\":"), usuario.getNombre());
+        Json.texto(sb.append(",\"email\":"), usuario.getEmail());
+        return Respuesta.json(sb.append('}').toString());
+    }
+
+    private Respuesta carrito(Peticion p) {
+        return Respuesta.json(Json.carrito(sesion(p).getCarrito().instantanea()));
+    }
+
+    private Respuesta agregar(Peticion p) throws ProductoNoEncontradoException, CantidadInvalidaException {
+        Carrito carrito = sesion(p).getCarrito();
+        return Respuesta.json(Json.carrito(servicio.agregar(carrito, p.requerido("sku"), p.entero("cantidad"))));
+    }
+
+    private Respuesta actualizar(Peticion p) throws CantidadInvalidaException {
+        Carrito carrito = sesion(p).getCarrito();
+        return Respuesta.json(Json.carrito(servicio.actualizar(carrito, p.requerido("sku"), p.entero("cantidad"))));
+    }
+
+    private Respuesta remover(Peticion p) throws ProductoNoEncontradoException {
+        Carrito carrito = sesion(p).getCarrito();
+        String sku = p.requerido("sku");
+        if (servicio.remover(carrito, sku) == null) {
+            throw new ProductoNoEncontradoException("Error: El producto " + sku + " no esta en el carrito.");
+        }
+        return Respuesta.json(Json.carrito(carrito.instantanea()));
+    }
+
+    private Respuesta vaciar(Peticion p) {
+        Carrito carrito = sesion(p).getCarrito();
+        servicio.vaciar(carrito);
+        return Respuesta.json(Json.carrito(carrito.instantanea()));
+    }
+
+    // --- Compra ---
+
+    private Respuesta compra(Peticion p) throws StockInsuficienteException {
+        Sesion sesion = sesion(p);
+        Usuario usuario = sesion.getUsuario();
+        if (usuario == null) {
+            return Respuesta.error(401, "Error: Debe registrarse antes de finalizar la compra.");
+        }
+        Compra compra = servicio.cerrarCompra(usuario, sesion.getCarrito());
+        if (compra.estaVacia()) {
+            return Respuesta.error(400, "Error: El carrito esta vacio.");
+        }
+        sesion.setUltimaCompra(compra);
+        return Respuesta.json(Json.compra(compra));
+    }
+
+    private Respuesta ticket(Peticion p) throws IOException, InterruptedException {
+        Compra compra = sesion(p).getUltimaCompra();
+        if (compra == null) {
+            return Respuesta.error(404, "Error: No hay una compra para generar el ticket.");
+        }
+        if (!conTickets) {
+            return Respuesta.error(503, "Error: Los tickets PDF no estan disponibles.");
+        }
+        GeneradorPDF generador = generadores.take();
+        try {
+            ByteArrayOutputStream salida = new ByteArrayOutputStream(16 * 1024);
+            generador.generar(salida, "City Market", compra.getUsuario(), compra.getLineasTicket());
+            return new Respuesta(200, "application/pdf", salida.toByteArray());
+        } finally {
+            generadores.put(generador);
+        }
+    }
+
+    // --- Métricas ---
+
+    private Respuesta metricas(Peticion p) {
+        return Respuesta.json("{\"vivas\":" + sesiones.getVivas()
+            + ",\"memoriaEstimada\":" + sesiones.getMemoriaEstimada()
+            + ",\"memoriaMaxima\":" + sesiones.getMemoriaMaxima()
+            + ",\"creadas\":" + sesiones.getCreadas()
+            + ",\"expiradas\":" + sesiones.getExpiradas()
+            + ",\"desalojadas\":" + sesiones.getDesalojadas()
+            + ",\"escritasADisco\":" + sesiones.getEscritasADisco()
+            + ",\"restauradas\":" + sesiones.getRestauradas() + "}");
+    }
+
+    /**
+     * Obtiene la sesión de la petición, creándola (y su cookie) si no existe o ya venció.
+     */
+    private Sesion sesion(Peticion p) {
+        if (p.sesion != null) {
+            return p.sesion;
+        }
+        String id = p.cookie(COOKIE_SESION);
+        Sesion sesion = sesiones.usar(id);      // Se suelta al terminar la petición.
+        if (!sesion.getId().equals(id)) {
+            p.intercambio.getResponseHeaders().add("Set-Cookie", COOKIE_SESION + "=" + sesion.getId() + "; Path=/; HttpOnly");
+        }
+        p.sesion = sesion;
+        return sesion;
+    }
+
+    /**
+     * El cuerpo de la petición pasa de {@link #MAXIMO_CUERPO}.
+     */
+    private static final class CuerpoDemasiadoGrande extends IOException {
+    }
+
+    /**
+     * Parámetros, cookies y sesión de una petición.
+     */
+    private static final class Peticion {
+        final HttpExchange intercambio;
+        final Map<String, String> parametros;
+        Sesion sesion;
+
+        Peticion(HttpExchange intercambio) throws IOException {
+            this.intercambio = intercambio;
+            Map<String, String> valores = new HashMap<>();
+            leerFormulario(intercambio.getRequestURI().getRawQuery(), valores);
+            if (intercambio.getRequestMethod().equals("POST")) {
+                String largo = intercambio.getRequestHeaders().getFirst("Content-Length");
+                if (largo != null && Long.parseLong(largo.trim()) > MAXIMO_CUERPO) {
+                    throw new CuerpoDemasiadoGrande();
+                }
+                // Sin Content-Length (por partes) el límite se aplica al leer.
+                byte[] bytes;
+                try (InputStream cuerpo = intercambio.getRequestBody()) {
+                    bytes = cuerpo.readNBytes(MAXIMO_CUERPO + 1);
+                }
+                if (bytes.length > MAXIMO_CUERPO) {
+                    throw new CuerpoDemasiadoGrande();
+                }
+                leerFormulario(new String(bytes, StandardCharsets.UTF_8), valores);
+            }
+            this.parametros = valores.isEmpty() ? Collections.emptyMap() : valores;
+        }
+
+        private static void leerFormulario(String texto, Map<String, String> destino) {
+            if (texto == null || texto.isEmpty()) {
+                return;
+            }
+            for (String par : texto.split("&")) {
+                int igual = par.indexOf('=');
+                String clave = igual >= 0 ? par.substring(0, igual) : par;
+                String valor = igual >= 0 ? par.substring(igual + 1) : "";
+                destino.put(URLDecoder.decode(clave, StandardCharsets.UTF_8), URLDecoder.decode(valor, StandardCharsets.UTF_8));
+            }
+        }
+
+        String parametro(String nombre) {
+            return parametros.get(nombre);
+        }
+
+        String requerido(String nombre) {
+            String valor = parametros.get(nombre);
+            if (valor == null || valor.isEmpty()) {
+                throw new IllegalArgumentException("Error: Falta el parametro " + nombre + ".");
+            }
+            return valor;
+        }
+
+        int entero(String nombre) {
+            try {
+                return Integer.parseInt(requerido(nombre).trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Error: Debe ingresar un numero valido en " + nombre + ".");
+            }
+        }
+
+        String cookie(String nombre) {
+            List<String> encabezados = intercambio.getRequestHeaders().get("Cookie");
+            if (encabezados == null) {
+                return null;
+            }
+            for (String encabezado : encabezados) {
+                for (String galleta : encabezado.split(";")) {
+                    String g = galleta.trim();
+                    if (g.startsWith(nombre) && g.length() > nombre.length() && g.charAt(nombre.length()) == '=') {
+                        return g.substring(nombre.length() + 1);
+                    }
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Código, tipo de contenido y cuerpo de una respuesta.
+     */
+    private static final class Respuesta {
+        final int codigo;
+        final String tipo;
+        final byte[] cuerpo;
+
+        Respuesta(int codigo, String tipo, byte[] cuerpo) {
+            this.codigo = codigo;
+            this.tipo = tipo;
+            this.cuerpo = cuerpo;
+        }
+
+        static Respuesta json(String texto) {
+            return new Respuesta(200, "application/json; charset=utf-8", texto.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Respuesta error(int codigo, String mensaje) {
+            return new Respuesta(codigo, "application/json; charset=utf-8", Json.error(mensaje).getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
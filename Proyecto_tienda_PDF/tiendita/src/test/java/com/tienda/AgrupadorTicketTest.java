@@ -0,0 +1,77 @@
+package com.tienda;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Pruebas de la agrupación de las líneas del ticket por categoría/subcategoría.
+ */
+public class AgrupadorTicketTest
+{
+    @Test
+    public void juntaLasSubcategoriasAunqueNoEstenSeguidas() throws Exception
+    {
+        Carrito lleno = new Carrito();
+        lleno.agregarProducto( new Producto( "L-1", "Leche", "Lacteos", "Leche", 28.50, 2 ) );
+        lleno.agregarProducto( new Producto( "P-1", "Pan", "Panaderia", "Pan", 40.00, 1 ) );
+        lleno.agregarProducto( new Producto( "L-2", "Deslactosada", "Lacteos", "Leche", 31.00, 1 ) );
+        lleno.agregarProducto( new Producto( "Q-1", "Queso", "Lacteos", "Quesos", 95.00, 1 ) );
+        Carrito.Instantanea carrito = lleno.instantanea();
+
+        AgrupadorTicket agrupador = new AgrupadorTicket();
+        TicketAgrupado ticket = agrupador.agrupar( carrito, new TicketAgrupado() );
+
+        assertEquals( 4, ticket.getLineas() );
+        assertEquals( 3, ticket.getGrupos() );
+        assertEquals( "Leche", ticket.getSubcategoria( 0 ) );
+        int primera = ticket.primeraLinea( 0 );
+        assertEquals( "Leche", ticket.getNombre( primera ) );
+        assertEquals( "Deslactosada", ticket.getNombre( ticket.siguienteLinea( primera ) ) );
+        assertEquals( -1, ticket.siguienteLinea( ticket.siguienteLinea( primera ) ) );
+        assertEquals( 5700 + 3100, ticket.getSubtotalGrupo( 0 ) );
+
+        long suma = 0;
+        for ( int g = 0; g < ticket.getGrupos(); g++ )
+        {
+            suma += ticket.getSubtotalGrupoConDescuento( g );
+        }
+        assertEquals( carrito.calcularTotalCentavos(), suma );
+        assertEquals( carrito.calcularTotalCentavos(), ticket.getTotalConDescuento() );
+        assertEquals( carrito.calcularTotalSinDescuentoCentavos(), ticket.getTotalSinDescuento() );
+
+        // El ticket de texto tiene un solo bloque y un solo subtotal por subcategoría.
+        String texto = carrito.ticketTexto( new Usuario( "Ana", "ana@correo.com", "Centro" ),
+                LocalDateTime.of( 2026, 10, 17, 8, 30, 0 ) );
+        assertEquals( texto.indexOf( "--- Lacteos / Leche ---" ), texto.lastIndexOf( "--- Lacteos / Leche ---" ) );
+        assertEquals( texto.indexOf( "Subtotal Leche:" ), texto.lastIndexOf( "Subtotal Leche:" ) );
+        assertTrue( texto.indexOf( "Deslactosada" ) < texto.indexOf( "--- Panaderia / Pan ---" ) );
+    }
+
+    @Test
+    public void separaSubcategoriasIgualesDeOtraCategoria()
+    {
+        List<GeneradorPDF.Producto> productos = new ArrayList<>();
+        productos.add( GeneradorPDF.Producto.enCentavos( "Jugo", "Bebidas", "Naturales", "2", 2500, 1000 ) );
+        productos.add( GeneradorPDF.Producto.enCentavos( "Manzana", "Frutas", "Naturales", "3", 1000, 0 ) );
+        productos.add( GeneradorPDF.Producto.enCentavos( "Naranjada", "Bebidas", "Naturales", "1", 2000, 0 ) );
+
+        AgrupadorTicket agrupador = new AgrupadorTicket();
+        TicketAgrupado ticket = new TicketAgrupado();
+        // El mismo agrupador y ticket se reutilizan sin arrastrar grupos del ticket anterior.
+        for ( int i = 0; i < 2; i++ )
+        {
+            agrupador.agrupar( productos, ticket );
+            assertEquals( 2, ticket.getGrupos() );
+            assertEquals( "Bebidas", ticket.getCategoria( 0 ) );
+            assertEquals( 4500 + 2000, ticket.getSubtotalGrupoConDescuento( 0 ) );
+            assertEquals( 3000, ticket.getSubtotalGrupoConDescuento( 1 ) );
+            assertEquals( 9500, ticket.getTotalConDescuento() );
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.tienda;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.nio.file.Path;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Pruebas del almacén de sesiones: vencimiento, tope de memoria y desborde a disco.
+ */
+public class AlmacenSesionesTest
+{
+    @Rule
+    public TemporaryFolder carpeta = new TemporaryFolder();
+
+    private ServicioCompra servicio;
+
+    @Before
+    public void preparar()
+    {
+        Producto[] catalogo = {
+            new Producto( "LAC-001", "Leche entera", "Lacteos", "Leche", 25.00, 0 ),
+            new Producto( "FRU-001", "Manzana", "Frutas", "Frescas", 4.00, 0 )
+        };
+        Inventario inventario = new Inventario( new String[] { "LAC-001", "FRU-001" }, new int[] { 10, 10 },
+                Inventario.VIGENCIA_PREDETERMINADA_MS );
+        servicio = new ServicioCompra( ServicioCatalogo.de( catalogo, inventario ), MotorPrecios.ESTANDAR );
+    }
+
+    @Test
+    public void retiraLasSesionesInactivasYDevuelveSuStock() throws Exception
+    {
+        AlmacenSesiones almacen = new AlmacenSesiones( servicio, 100, AlmacenSesiones.MEMORIA_PREDETERMINADA, null );
+        Sesion sesion = almacen.crear();
+        servicio.agregar( sesion.getCarrito(), "LAC-001", 4 );
+        assertEquals( 6, servicio.disponibles( "LAC-001" ) );
+        assertSame( sesion, almacen.obtener( sesion.getId() ) );
+
+        Thread.sleep( 150 );
+        assertEquals( 1, almacen.expirarInactivas() );
+        assertNull( almacen.obtener( sesion.getId() ) );
+        assertEquals( 10, servicio.disponibles( "LAC-001" ) );
+        assertEquals( 0, almacen.getVivas() );
+        assertEquals( 0, almacen.getMemoriaEstimada() );
+        assertEquals( 1, almacen.getExpiradas() );
+    }
+
+    @Test
+    public void noVencenLasSesionesEnUsoYSeMidenAlSoltarlas() throws Exception
+    {
+        AlmacenSesiones almacen = new AlmacenSesiones( servicio, 100, AlmacenSesiones.MEMORIA_PREDETERMINADA, null );
+        Sesion ocupada = almacen.usar( null );     // Una petición larga que todavía no termina.
+        servicio.agregar( ocupada.getCarrito(), "LAC-001", 3 );
+        servicio.agregar( ocupada.getCarrito(), "FRU-001", 1 );
+
+        Thread.sleep( 150 );
+        assertEquals( 0, almacen.expirarInactivas() );
+        assertEquals( 1, almacen.getVivas() );
+        assertEquals( 7, servicio.disponibles( "LAC-001" ) );
+
+        // Al soltarla, la memoria ya cuenta sus dos líneas sin esperar a la limpieza.
+        almacen.soltar( ocupada );
+        assertEquals( Sesion.BYTES_SESION + 2 * Sesion.BYTES_LINEA, almacen.getMemoriaEstimada() );
+
+        // Ya suelta, vence como cualquier otra.
+        Thread.sleep( 150 );
+        assertEquals( 1, almacen.expirarInactivas() );
+        assertEquals( 10, servicio.disponibles( "LAC-001" ) );
+        assertEquals( 0, almacen.getMemoriaEstimada() );
+    }
+
+    @Test
+    public void desalojaLasMenosUsadasAlPasarDelTope() throws Exception
+    {
+        // Caben tres sesiones vacías; la cuarta obliga a desalojar hasta el 90% (dos sesiones).
+        AlmacenSesiones almacen = new AlmacenSesiones( servicio, 60_000, 3 * Sesion.BYTES_SESION, null );
+        Sesion primera = almacen.crear();
+        Thread.sleep( 2 );
+        Sesion segunda = almacen.crear();
+        Thread.sleep( 2 );
+        Sesion tercera = almacen.crear();
+        Thread.sleep( 2 );
+        almacen.obtener( primera.getId() );     // La primera pasa a ser la más reciente.
+        Sesion cuarta = almacen.crear();
+
+        assertEquals( 2, almacen.getDesalojadas() );
+        assertNull( almacen.obtener( segunda.getId() ) );
+        assertNull( almacen.obtener( tercera.getId() ) );
+        assertNotNull( almacen.obtener( primera.getId() ) );
+        assertNotNull( almacen.obtener( cuarta.getId() ) );
+        assertEquals( 2 * Sesion.BYTES_SESION, almacen.getMemoriaEstimada() );
+    }
+
+    @Test
+    public void noDesalojaLasSesionesEnUso() throws Exception
+    {
+        Path desborde = carpeta.newFolder( "sesiones" ).toPath();
+        AlmacenSesiones almacen = new AlmacenSesiones( servicio, 60_000, 2 * Sesion.BYTES_SESION, desborde );
+        Sesion ocupada = almacen.usar( null );     // Como una petición que todavía no termina.
+        servicio.agregar( ocupada.getCarrito(), "LAC-001", 2 );
+        Thread.sleep( 2 );
+        Sesion libre = almacen.crear();
+        Thread.sleep( 2 );
+        almacen.crear();
+
+        // La más vieja está en uso: se desalojan las otras dos y la ocupada conserva su carrito.
+        assertEquals( 2, almacen.getDesalojadas() );
+        assertNull( almacen.obtener( libre.getId() ) );
+        assertSame( ocupada, almacen.usar( ocupada.getId() ) );
+        assertEquals( 2, ocupada.getCarrito().obtenerProducto( "LAC-001" ).getStock() );
+        assertEquals( 8, servicio.disponibles( "LAC-001" ) );
+
+        // Al soltarla (se usó dos veces) vuelve a poder desalojarse y se escribe en disco.
+        almacen.soltar( ocupada );
+        almacen.soltar( ocupada );
+        Thread.sleep( 2 );
+        almacen.crear();
+        almacen.crear();
+        assertEquals( 1, almacen.getEscritasADisco() );
+        assertEquals( 10, servicio.disponibles( "LAC-001" ) );
+        Sesion restaurada = almacen.obtener( ocupada.getId() );
+        assertNotSame( ocupada, restaurada );
+        assertEquals( 2, restaurada.getCarrito().obtenerProducto( "LAC-001" ).getStock() );
+    }
+
+    @Test
+    public void restauraDesdeDiscoLasSesionesDesalojadas() throws Exception
+    {
+        Path desborde = carpeta.newFolder( "sesiones" ).toPath();
+        AlmacenSesiones almacen = new AlmacenSesiones( servicio, 60_000, 2 * Sesion.BYTES_SESION, desborde );
+        Sesion vieja = almacen.crear();
+        vieja.setUsuario( new Usuario( "Ana\tLopez", "ana@correo.com", "Calle 1 #2" ) );
+        servicio.agregar( vieja.getCarrito(), "LAC-001", 3 );
+        servicio.agregar( vieja.getCarrito(), "FRU-001", 2 );
+        Thread.sleep( 2 );
+        almacen.crear();
+        almacen.crear();
+
+        assertEquals( 1, almacen.getEscritasADisco() );
+        assertEquals( 10, servicio.disponibles( "LAC-001" ) );
+
+        Sesion restaurada = almacen.obtener( vieja.getId() );
+        assertNotNull( restaurada );
+        assertEquals( "Ana Lopez", restaurada.getUsuario().getNombre() );
+        assertEquals( 3, restaurada.getCarrito().obtenerProducto( "LAC-001" ).getStock() );
+        assertEquals( 2, restaurada.getCarrito().obtenerProducto( "FRU-001" ).getStock() );
+        assertEquals( 7, servicio.disponibles( "LAC-001" ) );
+        assertEquals( 1, almacen.getRestauradas() );
+
+        // Un id que no tiene la forma de los del almacén nunca se busca en disco.
+        assertNull( almacen.obtener( "../" + vieja.getId() ) );
+    }
+}
@@ -0,0 +1,86 @@
+package com.tienda;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Pruebas del índice de búsqueda de productos.
+ */
+public class BuscadorProductosTest
+{
+    private final BuscadorProductos buscador = new BuscadorProductos( Arrays.asList(
+        new Producto( "Lala Yomi Chocolate 180 ml", "Lácteos", "Leche saborizada", 10.00, 0 ),
+        new Producto( "Chokiees 300 g", "Snacks", "Galletas", 107.00, 0 ),
+        new Producto( "Alpura Natural 1 kg", "Lacteos", "Yogurt natural", 42.00, 0 ),
+        new Producto( "Santa Clara Chocolate 180 ml", "Lacteos", "Leche saborizada", 13.00, 0 ) ) );
+
+    @Test
+    public void ignoraAcentosYMayusculas()
+    {
+        assertEquals( "lacteos 6 piezas", BuscadorProductos.normalizar( "  Lácteos (6 PIEZAS) " ) );
+        assertEquals( 3, buscador.buscar( "LÁCTEOS", 10 ).size() );
+        assertEquals( 3, buscador.buscar( "lacteos", 10 ).size() );
+    }
+
+    @Test
+    public void encuentraPorPrefijoYExigeTodasLasPalabras()
+    {
+        List<Producto> cho = buscador.buscar( "cho", 10 );
+        assertEquals( 3, cho.size() );
+
+        List<Producto> santa = buscador.buscar( "choc san", 10 );
+        assertEquals( 1, santa.size() );
+        assertEquals( "Santa Clara Chocolate 180 ml", santa.get( 0 ).getNombre() );
+
+        assertTrue( buscador.buscar( "chocolate galletas", 10 ).isEmpty() );
+        assertTrue( buscador.buscar( "   ", 10 ).isEmpty() );
+    }
+
+    @Test
+    public void ordenaPorRelevancia()
+    {
+        // "natural" aparece en el nombre y en la subcategoría del yogurt; "leche" solo en subcategorías.
+        assertEquals( "Alpura Natural 1 kg", buscador.buscar( "natural", 10 ).get( 0 ).getNombre() );
+
+        // La palabra completa pesa más que el prefijo: "chokiees" completo gana a "chocolate".
+        assertEquals( "Chokiees 300 g", buscador.buscar( "chokiees", 10 ).get( 0 ).getNombre() );
+        assertEquals( 1, buscador.buscar( "cho", 1 ).size() );
+    }
+
+    @Test
+    public void respetaElLimiteEnUnCatalogoGrande()
+    {
+        // La latencia con catálogos grandes se mide en CatalogoBenchmark.buscar; aquí solo el resultado.
+        String[] marcas = { "Lala", "Alpura", "Santa Clara", "Marinela", "Sabritas", "Ariel" };
+        String[] sabores = { "Fresa", "Chocolate", "Vainilla", "Limón", "Original" };
+        List<Producto> productos = new ArrayList<>();
+        for ( int i = 0; i < 10_000; i++ )
+        {
+            productos.add( new Producto( marcas[i % marcas.length] + " " + sabores[i % sabores.length] + " " + i + " g",
+                "Categoria" + ( i % 20 ), "Subcategoria" + ( i % 300 ), 10, 0 ) );
+        }
+        BuscadorProductos grande = new BuscadorProductos( productos );
+
+        List<Producto> lala = grande.buscar( "lala fre", 20 );
+        assertEquals( 20, lala.size() );
+        for ( Producto p : lala )
+        {
+            assertTrue( p.getNombre(), p.getNombre().startsWith( "Lala Fresa " ) );
+        }
+
+        List<Producto> limon = grande.buscar( "limon 99", 50 );
+        assertFalse( limon.isEmpty() );
+        for ( Producto p : limon )
+        {
+            String nombre = BuscadorProductos.normalizar( p.getNombre() );
+            assertTrue( nombre, nombre.contains( "limon" ) && nombre.contains( " 99" ) );
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.tienda;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Test;
+
+/**
+ * Pruebas de carga del catálogo desde CSV y desde snapshot binario.
+ */
+public class CargadorCatalogoTest
+{
+    @Test
+    public void cargaElCatalogoIncluido() throws Exception
+    {
+        Producto[] catalogo = CargadorCatalogo.cargar();
+        assertEquals( 58, catalogo.length );
+        assertEquals( "LAC-001", catalogo[0].getSku() );
+        assertEquals( "Lala 1 L", catalogo[0].getNombre() );
+        assertEquals( 28.50, catalogo[0].getPrecio(), 0.0 );
+        assertEquals( "Energizantes", catalogo[57].getSubcategoria() );
+    }
+
+    @Test
+    public void respetaCamposEntreComillas() throws Exception
+    {
+        Producto[] productos = CargadorCatalogo.leerCsv( new StringReader(
+            "sku,nombre,categoria,subcategoria,precio\n"
+            + "# comentario\n"
+            + "X-1,\"Galletas \"\"surtidas\"\", 450 g\",Snacks,Galletas,73.50\n" ) );
+        assertEquals( 1, productos.length );
+        assertEquals( "Galletas \"surtidas\", 450 g", productos[0].getNombre() );
+    }
+
+    @Test
+    public void elSnapshotConservaLosProductos() throws Exception
+    {
+        Producto[] catalogo = CargadorCatalogo.cargar();
+        Path snapshot = Files.createTempFile( "catalogo", ".bin" );
+        try
+        {
+            SnapshotCatalogo.escribir( catalogo, snapshot );
+            Producto[] leidos = CargadorCatalogo.cargar( snapshot );
+            assertEquals( catalogo.length, leidos.length );
+            for ( int i = 0; i < catalogo.length; i++ )
+            {
+                assertEquals( catalogo[i].getSku(), leidos[i].getSku() );
+                assertEquals( catalogo[i].toString(), leidos[i].toString() );
+            }
+        }
+        finally
+        {
+            Files.deleteIfExists( snapshot );
+        }
+    }
+
+    @Test
+    public void rechazaUnEncabezadoQueDesbordaLosDesplazamientos() throws Exception
+    {
+        // 178956971 registros de 24 bytes dan 2^32 + 8: con aritmética `int` parecía un archivo de 28 bytes.
+        ByteBuffer encabezado = ByteBuffer.allocate( 32 );
+        encabezado.putInt( 0x43544C47 ).putInt( 2 ).putInt( 178956971 ).putInt( 0 );
+        Path snapshot = Files.createTempFile( "corrupto", ".bin" );
+        try
+        {
+            Files.write( snapshot, encabezado.array() );
+            SnapshotCatalogo.abrir( snapshot );
+            fail( "El snapshot corrupto debio rechazarse" );
+        }
+        catch ( IOException e )
+        {
+            assertEquals( "Snapshot de catalogo truncado o corrupto.", e.getMessage() );
+        }
+        finally
+        {
+            Files.deleteIfExists( snapshot );
+        }
+    }
+}
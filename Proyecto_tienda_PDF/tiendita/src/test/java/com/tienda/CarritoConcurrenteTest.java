@@ -0,0 +1,216 @@
+package com.tienda;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Pruebas de estrés del carrito con muchos hilos modificándolo y leyéndolo a la vez.
+ */
+public class CarritoConcurrenteTest
+{
+    private static final int HILOS = 8;
+
+    private ExecutorService hilos;
+
+    @Before
+    public void preparar()
+    {
+        hilos = Executors.newFixedThreadPool( HILOS * 2 );
+    }
+
+    @After
+    public void restaurar() throws Exception
+    {
+        hilos.shutdownNow();
+        hilos.awaitTermination( 10, TimeUnit.SECONDS );
+    }
+
+    private static Producto linea( String sku, int cantidad )
+    {
+        return new Producto( sku, "Producto " + sku, "Cat", "Sub", 12.35, cantidad );
+    }
+
+    @Test
+    public void noSePierdenCantidadesAlAgregarEnParalelo() throws Exception
+    {
+        Carrito carrito = new Carrito();
+        // Cada línea termina en 8 x 12 = 96 unidades, dentro del máximo de 100 por línea.
+        int skus = 800;
+        int rondas = 12;
+        CountDownLatch salida = new CountDownLatch( 1 );
+        List<Future<?>> tareas = new ArrayList<>();
+        for ( int h = 0; h < HILOS; h++ )
+        {
+            tareas.add( hilos.submit( () -> {
+                salida.await();
+                for ( int r = 0; r < rondas; r++ )
+                {
+                    for ( int s = 0; s < skus; s++ )
+                    {
+                        carrito.agregarProducto( linea( "SKU-" + s, 1 ) );
+                    }
+                }
+                return null;
+            } ) );
+        }
+        salida.countDown();
+        for ( Future<?> t : tareas )
+        {
+            t.get( 60, TimeUnit.SECONDS );
+        }
+
+        assertEquals( skus, carrito.getContador() );
+        for ( int s = 0; s < skus; s++ )
+        {
+            assertEquals( HILOS * rondas, carrito.obtenerProducto( "SKU-" + s ).getStock() );
+        }
+        assertEquals( recalcular( carrito.instantanea() ), carrito.calcularTotalCentavos() );
+    }
+
+    @Test
+    public void lasInstantaneasSiempreSonConsistentes() throws Exception
+    {
+        Carrito carrito = new Carrito();
+        AtomicBoolean terminado = new AtomicBoolean();
+        CountDownLatch salida = new CountDownLatch( 1 );
+
+        List<Future<?>> escritores = new ArrayList<>();
+        for ( int h = 0; h < HILOS; h++ )
+        {
+            long semilla = h;
+            escritores.add( hilos.submit( () -> {
+                Random azar = new Random( semilla );
+                salida.await();
+                for ( int i = 0; i < 20_000; i++ )
+                {
+                    String sku = "SKU-" + azar.nextInt( 40 );
+                    switch ( azar.nextInt( 5 ) )
+                    {
+                        case 0:
+                        case 1:
+                            try
+                            {
+                                carrito.agregarProducto( linea( sku, 1 + azar.nextInt( 8 ) ) );
+                            }
+                            catch ( CantidadInvalidaException llena )
+                            {
+                                // La línea llegaría a más de 100 unidades; el carrito no cambia.
+                            }
+                            break;
+                        case 2:
+                            try
+                            {
+                                carrito.actualizarCantidad( sku, 1 + azar.nextInt( 10 ) );
+                            }
+                            catch ( IllegalArgumentException noEstaba )
+                            {
+                                // Otro hilo lo quitó antes.
+                            }
+                            break;
+                        case 3:
+                            carrito.removerProducto( sku );
+                            break;
+                        default:
+                            try
+                            {
+                                carrito.removerProducto( azar.nextInt( 40 ) );
+                            }
+                            catch ( IndexOutOfBoundsException fueraDeRango )
+                            {
+                                // El carrito tenía menos líneas.
+                            }
+                    }
+                }
+                return null;
+            } ) );
+        }
+
+        List<Future<Integer>> lectores = new ArrayList<>();
+        for ( int h = 0; h < HILOS; h++ )
+        {
+            lectores.add( hilos.submit( () -> {
+                salida.await();
+                int revisadas = 0;
+                while ( !terminado.get() )
+                {
+                    Carrito.Instantanea vista = carrito.instantanea();
+                    assertEquals( recalcular( vista ), vista.calcularTotalCentavos() );
+                    assertEquals( recalcularSinDescuento( vista ), vista.calcularTotalSinDescuentoCentavos() );
+                    assertTrue( carrito.calcularTotalCentavos() >= 0 );
+                    revisadas++;
+                }
+                return revisadas;
+            } ) );
+        }
+
+        salida.countDown();
+        for ( Future<?> t : escritores )
+        {
+            t.get( 120, TimeUnit.SECONDS );
+        }
+        terminado.set( true );
+        for ( Future<Integer> t : lectores )
+        {
+            assertTrue( t.get( 60, TimeUnit.SECONDS ) > 0 );
+        }
+
+        Carrito.Instantanea fin = carrito.instantanea();
+        assertEquals( recalcular( fin ), carrito.calcularTotalCentavos() );
+        assertEquals( fin.getContador(), carrito.getContador() );
+    }
+
+    @Test
+    public void modificarLosProductosDevueltosNoCambiaElCarrito() throws Exception
+    {
+        Carrito carrito = new Carrito();
+        Producto agregado = linea( "LAC-001", 2 );
+        carrito.agregarProducto( agregado );
+        long total = carrito.calcularTotalCentavos();
+
+        agregado.setStock( 50 );
+        carrito.obtenerProducto( "LAC-001" ).setStock( 60 );
+        carrito.getProductos()[0].setStock( 70 );
+
+        assertEquals( 2, carrito.obtenerProducto( 0 ).getStock() );
+        assertEquals( total, carrito.calcularTotalCentavos() );
+
+        Carrito.Instantanea antes = carrito.vaciarCarrito();
+        assertEquals( 1, antes.getContador() );
+        assertEquals( total, antes.calcularTotalCentavos() );
+        assertTrue( carrito.estaVacio() );
+    }
+
+    private static long recalcular( Carrito.Instantanea vista )
+    {
+        long total = 0;
+        for ( Producto p : vista.getProductos() )
+        {
+            total += vista.getMotorPrecios().subtotalConDescuento( p );
+        }
+        return total;
+    }
+
+    private static long recalcularSinDescuento( Carrito.Instantanea vista )
+    {
+        long total = 0;
+        for ( Producto p : vista.getProductos() )
+        {
+            total += vista.getMotorPrecios().subtotal( p );
+        }
+        return total;
+    }
+}
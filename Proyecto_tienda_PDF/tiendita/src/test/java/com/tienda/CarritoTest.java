@@ -0,0 +1,82 @@
+package com.tienda;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+/**
+ * Pruebas del almacenamiento de líneas del carrito.
+ */
+public class CarritoTest
+{
+    private static Producto producto( String sku, int cantidad )
+    {
+        return new Producto( sku, "Producto " + sku, "Lacteos", "Leche", 10.00, cantidad );
+    }
+
+    @Test
+    public void combinaCantidadesDelMismoSku() throws Exception
+    {
+        Carrito carrito = new Carrito( 2 );
+        carrito.agregarProducto( producto( "LAC-001", 2 ) );
+        carrito.agregarProducto( producto( "LAC-002", 1 ) );
+        carrito.agregarProducto( producto( "LAC-001", 3 ) );
+
+        assertEquals( 2, carrito.getContador() );
+        assertEquals( 5, carrito.obtenerProducto( "LAC-001" ).getStock() );
+        assertEquals( "LAC-001", carrito.obtenerProducto( 0 ).getSku() );
+    }
+
+    @Test
+    public void creceSinLimiteYConservaElOrden() throws Exception
+    {
+        Carrito carrito = new Carrito( 2 );
+        for ( int i = 0; i < 1000; i++ )
+        {
+            carrito.agregarProducto( producto( "SKU-" + i, 1 ) );
+        }
+        assertFalse( carrito.estaLleno() );
+        assertEquals( 1000, carrito.getContador() );
+
+        assertEquals( "SKU-10", carrito.removerProducto( 10 ).getSku() );
+        assertEquals( "SKU-11", carrito.obtenerProducto( 10 ).getSku() );
+        assertEquals( 999, carrito.getProductos().length );
+
+        assertNull( carrito.removerProducto( "SKU-10" ) );
+        carrito.actualizarCantidad( "SKU-999", 7 );
+        assertEquals( 7, carrito.obtenerProducto( 998 ).getStock() );
+
+        carrito.vaciarCarrito();
+        assertTrue( carrito.estaVacio() );
+    }
+
+    @Test
+    public void agregarRespetaElMaximoDeLaLinea() throws Exception
+    {
+        Carrito carrito = new Carrito();
+        carrito.agregarProducto( producto( "LAC-001", 60 ) );
+        try
+        {
+            carrito.agregarProducto( producto( "LAC-001", 41 ) );
+            fail( "Debio rechazar 101 unidades" );
+        }
+        catch ( CantidadInvalidaException e )
+        {
+            assertEquals( "Error: La cantidad no puede exceder 100 unidades.", e.getMessage() );
+        }
+        assertEquals( 60, carrito.obtenerProducto( "LAC-001" ).getStock() );
+        assertEquals( 100, carrito.agregarProducto( producto( "LAC-001", 40 ) ) );
+    }
+
+    @Test( expected = IndexOutOfBoundsException.class )
+    public void rechazaIndicesFueraDeRango() throws Exception
+    {
+        Carrito carrito = new Carrito();
+        carrito.agregarProducto( producto( "LAC-001", 1 ) );
+        carrito.obtenerProducto( 1 );
+    }
+}
@@ -0,0 +1,158 @@
+package com.tienda;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Pruebas de la cola de tickets: generación en segundo plano, reintentos y cierre.
+ */
+public class ColaTicketsTest
+{
+    private static final String FUENTE_REGULAR = "/usr/share/fonts/truetype/dejavu/DejaVuSans.ttf";
+    private static final String FUENTE_NEGRITA = "/usr/share/fonts/truetype/dejavu/DejaVuSans-Bold.ttf";
+
+    @Rule
+    public TemporaryFolder carpeta = new TemporaryFolder();
+
+    private Compra compra;
+
+    @Before
+    public void preparar() throws Exception
+    {
+        Producto[] catalogo = { new Producto( "LAC-001", "Leche entera", "Lacteos", "Leche", 25.00, 0 ) };
+        Inventario inventario = new Inventario( new String[] { "LAC-001" }, new int[] { 100 },
+                Inventario.VIGENCIA_PREDETERMINADA_MS );
+        ServicioCompra servicio = new ServicioCompra( ServicioCatalogo.de( catalogo, inventario ), MotorPrecios.ESTANDAR );
+        Carrito carrito = servicio.nuevoCarrito();
+        servicio.agregar( carrito, "LAC-001", 2 );
+        compra = servicio.cerrarCompra( new Usuario( "Ana Lopez", "ana@correo.com", "Calle 1 #2" ), carrito );
+    }
+
+    private static GeneradorPDF generador() throws IOException
+    {
+        return new GeneradorPDF( FUENTE_REGULAR, FUENTE_NEGRITA, null );
+    }
+
+    @Test
+    public void generaLosTicketsEnSegundoPlano() throws Exception
+    {
+        ColaTickets cola = new ColaTickets( Arrays.asList( generador(), generador() ), 16, 0, 10 );
+        Path destino = carpeta.getRoot().toPath().resolve( "ticket.pdf" );
+        CompletableFuture<Path> archivo = cola.encolar( compra, destino );
+        CompletableFuture<byte[]> memoria = cola.encolarEnMemoria( compra );
+
+        assertEquals( destino, archivo.get( 30, TimeUnit.SECONDS ) );
+        assertEquals( "%PDF", new String( Files.readAllBytes( destino ), 0, 4, StandardCharsets.US_ASCII ) );
+        assertEquals( "%PDF", new String( memoria.get( 30, TimeUnit.SECONDS ), 0, 4, StandardCharsets.US_ASCII ) );
+
+        // Varios trabajos al mismo destino a la vez: cada uno usa su propio temporal.
+        CompletableFuture<?>[] mismos = new CompletableFuture<?>[6];
+        for ( int i = 0; i < mismos.length; i++ )
+        {
+            mismos[i] = cola.encolar( compra, destino );
+        }
+        CompletableFuture.allOf( mismos ).get( 60, TimeUnit.SECONDS );
+        assertEquals( "%PDF", new String( Files.readAllBytes( destino ), 0, 4, StandardCharsets.US_ASCII ) );
+        try ( Stream<Path> archivos = Files.list( carpeta.getRoot().toPath() ) )
+        {
+            assertEquals( Collections.singletonList( destino ), archivos.collect( Collectors.toList() ) );
+        }
+
+        assertTrue( cola.cerrar( 1000 ) );
+        assertEquals( 2 + mismos.length, cola.getCompletados() );
+        assertEquals( 0, cola.getPendientes() );
+        try
+        {
+            cola.encolarEnMemoria( compra ).get();
+            fail( "La cola cerrada debio rechazar el ticket" );
+        }
+        catch ( ExecutionException e )
+        {
+            assertTrue( e.getCause() instanceof RejectedExecutionException );
+        }
+        assertEquals( 1, cola.getRechazados() );
+    }
+
+    @Test
+    public void reintentaLosTicketsQueFallan() throws Exception
+    {
+        ColaTickets cola = new ColaTickets( Collections.singletonList( generador() ), 16, 3, 100 );
+
+        // El directorio no existe: el primer intento falla y el reintento lo encuentra creado.
+        Path directorio = carpeta.getRoot().toPath().resolve( "tickets" );
+        CompletableFuture<Path> ticket = cola.encolar( compra, directorio.resolve( "ticket.pdf" ) );
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos( 30 );
+        while ( cola.getReintentos() == 0 && System.nanoTime() < limite )
+        {
+            Thread.sleep( 5 );
+        }
+        Files.createDirectories( directorio );
+        assertTrue( Files.exists( ticket.get( 30, TimeUnit.SECONDS ) ) );
+
+        // Sin directorio posible, se agotan los reintentos y el futuro falla.
+        Path imposible = carpeta.newFile( "archivo" ).toPath().resolve( "ticket.pdf" );
+        try
+        {
+            cola.encolar( compra, imposible ).get( 30, TimeUnit.SECONDS );
+            fail( "El ticket debio fallar" );
+        }
+        catch ( ExecutionException e )
+        {
+            assertTrue( e.getCause() instanceof IOException );
+        }
+        assertEquals( 1, cola.getFallidos() );
+        assertEquals( 2, cola.getCompletados() + cola.getFallidos() );
+        assertEquals( 1 + 3, cola.getReintentos() );
+        cola.close();
+    }
+
+    @Test
+    public void alCerrarFallanLosTicketsQueEsperanUnReintento() throws Exception
+    {
+        // El primer reintento espera un minuto: al cerrar sigue programado.
+        ColaTickets cola = new ColaTickets( Collections.singletonList( generador() ), 16, 2, 60_000 );
+        Path imposible = carpeta.newFile( "archivo" ).toPath().resolve( "ticket.pdf" );
+        CompletableFuture<Path> ticket = cola.encolar( compra, imposible );
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos( 30 );
+        while ( cola.getReintentos() == 0 && System.nanoTime() < limite )
+        {
+            Thread.sleep( 5 );
+        }
+        assertEquals( 1, cola.getReintentos() );
+
+        long inicio = System.nanoTime();
+        assertFalse( cola.cerrar( 100 ) );
+        assertTrue( TimeUnit.NANOSECONDS.toMillis( System.nanoTime() - inicio ) < 5_000 );
+        try
+        {
+            ticket.get( 1, TimeUnit.SECONDS );
+            fail( "El ticket debio fallar al cerrar la cola" );
+        }
+        catch ( ExecutionException e )
+        {
+            assertTrue( e.getCause() instanceof RejectedExecutionException );
+        }
+        assertEquals( 0, cola.getPendientes() );
+        assertEquals( 1, cola.getFallidos() );
+    }
+}
@@ -0,0 +1,215 @@
+package com.tienda;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Pruebas del diario de pedidos: lectura en orden, segmentos, recuperación y escritura simultánea.
+ */
+public class DiarioPedidosTest
+{
+    @Rule
+    public TemporaryFolder carpeta = new TemporaryFolder();
+
+    private ServicioCompra servicio;
+    private Usuario usuario;
+
+    @Before
+    public void preparar()
+    {
+        Producto[] catalogo = {
+            new Producto( "LAC-001", "Leche entera", "Lacteos", "Leche", 25.00, 0 ),
+            new Producto( "FRU-001", "Manzana", "Frutas", "Frescas", 4.00, 0 )
+        };
+        Inventario inventario = new Inventario( new String[] { "LAC-001", "FRU-001" }, new int[] { 1_000_000, 1_000_000 },
+                Inventario.VIGENCIA_PREDETERMINADA_MS );
+        servicio = new ServicioCompra( ServicioCatalogo.de( catalogo, inventario ), MotorPrecios.ESTANDAR );
+        usuario = new Usuario( "Ana López", "ana@correo.com", "Calle 1 #2" );
+    }
+
+    private Compra comprar( int leches ) throws Exception
+    {
+        Carrito carrito = servicio.nuevoCarrito();
+        servicio.agregar( carrito, "LAC-001", leches );
+        servicio.agregar( carrito, "FRU-001", 2 );
+        return servicio.cerrarCompra( usuario, carrito );
+    }
+
+    private static List<Pedido> leerTodo( Path directorio ) throws Exception
+    {
+        List<Pedido> pedidos = new ArrayList<>();
+        try ( DiarioPedidos.Lector lector = DiarioPedidos.leer( directorio, 1 ) )
+        {
+            for ( Pedido p; ( p = lector.siguiente() ) != null; )
+            {
+                pedidos.add( p );
+            }
+        }
+        return pedidos;
+    }
+
+    @Test
+    public void guardaLasComprasYLasLeeEnOrden() throws Exception
+    {
+        Path directorio = carpeta.newFolder( "diario" ).toPath();
+        // Segmentos pequeños para que 200 pedidos ocupen varios.
+        try ( DiarioPedidos diario = new DiarioPedidos( directorio, 4096 ) )
+        {
+            servicio.usarDiario( diario );
+            for ( int i = 1; i <= 200; i++ )
+            {
+                comprar( 1 + i % 20 );
+            }
+            assertEquals( 200, diario.getEscritos() );
+        }
+        assertTrue( directorio.toFile().list().length > 1 );
+
+        List<Pedido> pedidos = leerTodo( directorio );
+        assertEquals( 200, pedidos.size() );
+        Pedido p = pedidos.get( 9 );
+        assertEquals( 10, p.getSecuencia() );
+        assertEquals( "Ana López", p.getUsuario().getNombre() );
+        assertEquals( "Calle 1 #2", p.getUsuario().getDireccion() );
+        Pedido.Linea leche = p.getLineas().get( 0 );
+        assertEquals( "LAC-001", leche.getSku() );
+        assertEquals( 11, leche.getCantidad() );
+        assertEquals( 2500, leche.getPrecioCentavos() );
+        assertEquals( 1500, leche.getDescuento() );         // 15% a partir de 7 piezas.
+        assertEquals( 23375, leche.getSubtotalCentavos() );
+        assertEquals( 28300, p.getTotalSinDescuentoCentavos() );
+        assertEquals( 23375 + 800, p.getTotalCentavos() );
+
+        try ( DiarioPedidos.Lector lector = DiarioPedidos.leer( directorio, 150 ) )
+        {
+            assertEquals( 150, lector.siguiente().getSecuencia() );
+        }
+    }
+
+    @Test
+    public void descartaElUltimoPedidoIncompletoAlAbrir() throws Exception
+    {
+        Path directorio = carpeta.newFolder( "diario" ).toPath();
+        try ( DiarioPedidos diario = new DiarioPedidos( directorio, 64 * 1024 ) )
+        {
+            for ( int i = 0; i < 10; i++ )
+            {
+                diario.registrar( comprar( 1 ) );
+            }
+        }
+
+        // Se daña el último byte del último pedido, como si el corte llegara a media escritura.
+        File segmento = directorio.toFile().listFiles()[ 0 ];
+        try ( FileChannel canal = FileChannel.open( segmento.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE ) )
+        {
+            ByteBuffer contenido = ByteBuffer.allocate( (int) canal.size() );
+            canal.read( contenido, 0 );
+            int fin = contenido.capacity();
+            while ( contenido.get( fin - 1 ) == 0 )
+            {
+                fin--;
+            }
+            canal.write( ByteBuffer.wrap( new byte[] { (byte) ~contenido.get( fin - 1 ) } ), fin - 1 );
+        }
+
+        try ( DiarioPedidos diario = new DiarioPedidos( directorio, 64 * 1024 ) )
+        {
+            assertEquals( 9, diario.getRecuperados() );
+            assertEquals( 10, diario.registrar( comprar( 3 ) ) );
+        }
+        List<Pedido> pedidos = leerTodo( directorio );
+        assertEquals( 10, pedidos.size() );
+        assertEquals( 3, pedidos.get( 9 ).getLineas().get( 0 ).getCantidad() );
+    }
+
+    @Test
+    public void abreUnUltimoSegmentoQueQuedoSinCabecera() throws Exception
+    {
+        Path directorio = carpeta.newFolder( "diario" ).toPath();
+        try ( DiarioPedidos diario = new DiarioPedidos( directorio, 64 * 1024 ) )
+        {
+            for ( int i = 0; i < 10; i++ )
+            {
+                diario.registrar( comprar( 1 ) );
+            }
+        }
+
+        // Un corte justo después de rodar: el segmento nuevo existe, pero en ceros.
+        Files.write( directorio.resolve( "pedidos-00000000000000000011.diario" ), new byte[ 64 * 1024 ] );
+        assertEquals( 10, leerTodo( directorio ).size() );
+        try ( DiarioPedidos diario = new DiarioPedidos( directorio, 64 * 1024 ) )
+        {
+            assertEquals( 0, diario.getRecuperados() );
+            assertEquals( 11, diario.registrar( comprar( 2 ) ) );
+        }
+
+        // O vacío, si el tamaño del archivo tampoco llegó a disco.
+        Files.createFile( directorio.resolve( "pedidos-00000000000000000012.diario" ) );
+        try ( DiarioPedidos diario = new DiarioPedidos( directorio, 64 * 1024 ) )
+        {
+            assertEquals( 0, diario.getRecuperados() );
+            assertEquals( 12, diario.registrar( comprar( 3 ) ) );
+        }
+
+        List<Pedido> pedidos = leerTodo( directorio );
+        assertEquals( 12, pedidos.size() );
+        assertEquals( 2, pedidos.get( 10 ).getLineas().get( 0 ).getCantidad() );
+        assertEquals( 12, pedidos.get( 11 ).getSecuencia() );
+    }
+
+    @Test
+    public void agrupaLasEscriturasADiscoDeVariosHilos() throws Exception
+    {
+        Path directorio = carpeta.newFolder( "diario" ).toPath();
+        final Compra compra = comprar( 1 );
+        final DiarioPedidos diario = new DiarioPedidos( directorio, 1024 * 1024 );
+        Thread[] hilos = new Thread[ 8 ];
+        for ( int h = 0; h < hilos.length; h++ )
+        {
+            hilos[ h ] = new Thread( () -> {
+                try
+                {
+                    for ( int i = 0; i < 250; i++ )
+                    {
+                        diario.registrar( compra );
+                    }
+                }
+                catch ( Exception e )
+                {
+                    throw new AssertionError( e );
+                }
+            } );
+            hilos[ h ].start();
+        }
+        for ( Thread hilo : hilos )
+        {
+            hilo.join();
+        }
+        diario.close();
+
+        assertEquals( 2000, diario.getEscritos() );
+        assertTrue( "fsync por pedido: " + diario.getForzados(), diario.getForzados() < 2000 );
+        List<Pedido> pedidos = leerTodo( directorio );
+        assertEquals( 2000, pedidos.size() );
+        assertEquals( 2000, pedidos.get( 1999 ).getSecuencia() );
+
+        try ( DiarioPedidos.Lector lector = DiarioPedidos.leer( directorio, 2001 ) )
+        {
+            assertNull( lector.siguiente() );
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.tienda;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Pruebas de la aritmética de montos en centavos.
+ */
+public class DineroTest
+{
+    @Test
+    public void convierteDecimalesRedondeandoMitadesHaciaArriba()
+    {
+        assertEquals( 2850, Dinero.deDecimal( 28.50 ) );
+        assertEquals( 10, Dinero.deDecimal( 0.1 ) );
+        assertEquals( 101, Dinero.deDecimal( 1.005 ) );
+        assertEquals( -101, Dinero.deDecimal( -1.005 ) );
+        assertEquals( 1250, Dinero.parsear( " 12.5 " ) );
+        assertEquals( 11, Dinero.parsear( "0.105" ) );
+    }
+
+    @Test
+    public void aplicaDescuentosRedondeadosAlCentavo()
+    {
+        // 3 x 13.00 con 5%: 39.00 - 1.95 = 37.05
+        assertEquals( 3705, Dinero.aplicarDescuento( Dinero.multiplicar( 1300, 3 ), 500 ) );
+        // 0.10 con 5% = 0.005, se redondea a un centavo de descuento.
+        assertEquals( 1, Dinero.descuento( 10, 500 ) );
+        assertEquals( -1, Dinero.descuento( -10, 500 ) );
+        assertEquals( 0, Dinero.descuento( 9, 500 ) );
+    }
+
+    @Test
+    public void sumaSinErroresDeRedondeo()
+    {
+        long total = 0;
+        double totalDouble = 0;
+        for ( int i = 0; i < 1000; i++ )
+        {
+            total += Dinero.deDecimal( 0.10 );
+            totalDouble += 0.10;
+        }
+        assertEquals( 10000, total );
+        assertEquals( "100.00", Dinero.formatear( total ) );
+        // Con double la misma suma ya no es exacta.
+        assertEquals( false, totalDouble == 100.0 );
+    }
+
+    @Test
+    public void daFormatoConDosDecimales()
+    {
+        assertEquals( "0.05", Dinero.formatear( 5 ) );
+        assertEquals( "-0.05", Dinero.formatear( -5 ) );
+        assertEquals( "1234.50", Dinero.formatear( 123450 ) );
+        assertEquals( "-92233720368547758.08", Dinero.formatear( Long.MIN_VALUE ) );
+        assertEquals( "5", Dinero.porcentaje( 500 ) );
+        assertEquals( "12.5", Dinero.porcentaje( 1250 ) );
+    }
+}
@@ -0,0 +1,92 @@
+package com.tienda;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.StringWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.LocalDateTime;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Pruebas del ticket de texto: una sola escritura por ticket y sin basura por renglón.
+ */
+public class EscritorTicketTextoTest
+{
+    private static final int LINEAS = 200;
+
+    private Carrito.Instantanea carrito;
+    private Usuario usuario;
+    private LocalDateTime fecha;
+
+    @Before
+    public void preparar() throws Exception
+    {
+        Carrito lleno = new Carrito();
+        for ( int i = 0; i < LINEAS; i++ )
+        {
+            lleno.agregarProducto( new Producto( "SKU-" + i, "Producto " + i, "Categoria " + i % 4,
+                    "Sub " + i % 7, 10.25 + i, 1 + i % 8 ) );
+        }
+        carrito = lleno.instantanea();
+        usuario = new Usuario( "Ana Lopez", "ana@correo.com", "Calle Falsa 123" );
+        fecha = LocalDateTime.of( 2026, 10, 17, 8, 30, 0 );
+    }
+
+    @Test
+    public void escribeElTicketEnUnaSolaEscritura() throws Exception
+    {
+        StringBuilder destino = new StringBuilder();
+        new EscritorTicketTexto( 64 ).escribir( carrito, usuario, fecha, destino );
+
+        assertEquals( carrito.ticketTexto( usuario, fecha ), destino.toString() );
+        assertTrue( destino.indexOf( "Fecha: 17/10/2026 08:30:00" ) > 0 );
+        assertTrue( destino.indexOf( "Producto 7                       8 x  17.25 =  117.30 (Desc 15%)" ) > 0 );
+    }
+
+    @Test
+    public void laCompraEscribeSuTicketConElEscritorDelQueLlama() throws Exception
+    {
+        Compra compra = new Compra( usuario, carrito );
+        EscritorTicketTexto escritor = new EscritorTicketTexto( 64 );
+        StringWriter primero = new StringWriter();
+        StringWriter segundo = new StringWriter();
+        compra.escribirTicket( escritor, primero );
+        compra.escribirTicket( escritor, segundo );
+
+        assertEquals( compra.ticketTexto(), primero.toString() );
+        assertEquals( primero.toString(), segundo.toString() );
+    }
+
+    @Test
+    public void noGeneraBasuraPorRenglon() throws Exception
+    {
+        ThreadMXBean hilos = ManagementFactory.getThreadMXBean();
+        assumeTrue( hilos instanceof com.sun.management.ThreadMXBean );
+        com.sun.management.ThreadMXBean medidor = (com.sun.management.ThreadMXBean) hilos;
+        assumeTrue( medidor.isThreadAllocatedMemorySupported() );
+        medidor.setThreadAllocatedMemoryEnabled( true );
+
+        EscritorTicketTexto escritor = new EscritorTicketTexto( 64 );
+        Writer destino = Writer.nullWriter();
+        // Primeros tickets: los búferes crecen al tamaño del ticket y el código se compila.
+        for ( int i = 0; i < 200; i++ )
+        {
+            escritor.escribir( carrito, usuario, fecha, destino );
+        }
+
+        int tickets = 100;
+        long antes = medidor.getCurrentThreadAllocatedBytes();
+        for ( int i = 0; i < tickets; i++ )
+        {
+            escritor.escribir( carrito, usuario, fecha, destino );
+        }
+        long porRenglon = ( medidor.getCurrentThreadAllocatedBytes() - antes ) / ( tickets * LINEAS );
+        assertTrue( "Bytes por renglon: " + porRenglon, porRenglon < 4 );
+    }
+}
@@ -0,0 +1,133 @@
+package com.tienda;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Pruebas de la generación de tickets por lotes con una cola acotada.
+ */
+public class GeneradorLotesTest
+{
+    private static final String FUENTE_REGULAR = "/usr/share/fonts/truetype/dejavu/DejaVuSans.ttf";
+    private static final String FUENTE_NEGRITA = "/usr/share/fonts/truetype/dejavu/DejaVuSans-Bold.ttf";
+
+    @Rule
+    public TemporaryFolder carpeta = new TemporaryFolder();
+
+    @Test
+    public void generaElLoteYCuentaLosPedidosFallidos() throws Exception
+    {
+        assumeTrue( new File( FUENTE_REGULAR ).exists() && new File( FUENTE_NEGRITA ).exists() );
+        Usuario usuario = new Usuario( "Ana Lopez", "ana@correo.com", "Calle Falsa 123" );
+        List<GeneradorPDF.Producto> productos = Collections.singletonList(
+                GeneradorPDF.Producto.enCentavos( "Lala 1 L", "Lacteos", "Leche", "2", 2850, 500 ) );
+        // La cantidad no es un número: el ticket 4 falla sin detener el lote.
+        List<GeneradorPDF.Producto> invalidos = Collections.singletonList(
+                GeneradorPDF.Producto.enCentavos( "Lala 1 L", "Lacteos", "Leche", "dos", 2850, 0 ) );
+
+        // Dos trabajadores y una cola de un solo pedido: quien envía espera casi siempre.
+        GeneradorLotes lotes = new GeneradorLotes( FUENTE_REGULAR, FUENTE_NEGRITA, null, 2, 1 );
+        Stream<GeneradorLotes.Pedido> pedidos = IntStream.rangeClosed( 1, 8 )
+                .mapToObj( i -> new GeneradorLotes.Pedido( usuario, i == 4 ? invalidos : productos ) );
+        Path directorio = carpeta.getRoot().toPath().resolve( "tickets" );
+
+        // El lote no escribe en la consola: todo queda en el reporte.
+        PrintStream consola = System.out;
+        ByteArrayOutputStream impreso = new ByteArrayOutputStream();
+        GeneradorLotes.Reporte reporte;
+        System.setOut( new PrintStream( impreso, true ) );
+        try
+        {
+            reporte = lotes.generar( pedidos, directorio, "City Market" );
+        }
+        finally
+        {
+            System.setOut( consola );
+        }
+        assertEquals( "", impreso.toString() );
+
+        assertEquals( 7, reporte.getGenerados() );
+        assertEquals( 1, reporte.getFallidos() );
+        assertEquals( 1, reporte.getErrores().size() );
+        assertTrue( reporte.getErrores().get( 0 ), reporte.getErrores().get( 0 ).contains( "ticket-000004.pdf" ) );
+        assertTrue( reporte.getPercentilMs( 50 ) > 0 );
+        assertTrue( reporte.getPercentilMs( 99 ) >= reporte.getPercentilMs( 50 ) );
+
+        // Un archivo por ticket generado, cada uno con el número de su pedido.
+        List<String> nombres;
+        try ( Stream<Path> archivos = Files.list( directorio ) )
+        {
+            nombres = archivos.map( p -> p.getFileName().toString() ).sorted().collect( Collectors.toList() );
+        }
+        List<String> esperados = new ArrayList<>();
+        for ( int i : Arrays.asList( 1, 2, 3, 5, 6, 7, 8 ) )
+        {
+            esperados.add( String.format( "ticket-%06d.pdf", i ) );
+        }
+        assertEquals( esperados, nombres );
+        assertFalse( nombres.contains( "ticket-000004.pdf" ) );
+    }
+
+    @Test( timeout = 60000 )
+    public void siguenLosTrabajadoresVivosYFallaSiNoQuedaNinguno() throws Exception
+    {
+        assumeTrue( new File( FUENTE_REGULAR ).exists() && new File( FUENTE_NEGRITA ).exists() );
+        Usuario usuario = new Usuario( "Ana Lopez", "ana@correo.com", "Calle Falsa 123" );
+        // Un `Error` (no una excepción) termina al trabajador que genera este ticket.
+        Usuario mortal = new Usuario( "Ana Lopez", "ana@correo.com", "Calle Falsa 123" )
+        {
+            @Override
+            public String getNombre()
+            {
+                throw new AssertionError( "falla del trabajador" );
+            }
+        };
+        List<GeneradorPDF.Producto> productos = Collections.singletonList(
+                GeneradorPDF.Producto.enCentavos( "Lala 1 L", "Lacteos", "Leche", "2", 2850, 500 ) );
+        ProveedorFuentes fuentes = ProveedorFuentes.deArchivos( FUENTE_REGULAR, FUENTE_NEGRITA );
+
+        // Con dos trabajadores, el que queda termina el lote.
+        Path directorio = carpeta.getRoot().toPath().resolve( "dos" );
+        GeneradorLotes.Reporte reporte = new GeneradorLotes( fuentes, null, 2, 1 ).generar(
+                IntStream.rangeClosed( 1, 8 ).mapToObj( i -> new GeneradorLotes.Pedido( i == 3 ? mortal : usuario, productos ) ),
+                directorio, "City Market" );
+        assertEquals( 7, reporte.getGenerados() );
+        assertEquals( 1, reporte.getFallidos() );
+        assertTrue( reporte.getErrores().get( 0 ), reporte.getErrores().get( 0 ).contains( "ticket-000003.pdf" ) );
+        assertFalse( Files.exists( directorio.resolve( "ticket-000003.pdf" ) ) );
+
+        // Con uno solo, quien envía los pedidos no se queda esperando con la cola llena.
+        try
+        {
+            new GeneradorLotes( fuentes, null, 1, 1 ).generar(
+                    IntStream.rangeClosed( 1, 20 ).mapToObj( i -> new GeneradorLotes.Pedido( i == 1 ? mortal : usuario, productos ) ),
+                    carpeta.getRoot().toPath().resolve( "uno" ), "City Market" );
+            fail( "El lote debio fallar sin trabajadores" );
+        }
+        catch ( IOException e )
+        {
+            assertTrue( e.getCause() instanceof AssertionError );
+        }
+    }
+}
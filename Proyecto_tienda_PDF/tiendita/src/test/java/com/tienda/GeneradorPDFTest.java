@@ -0,0 +1,150 @@
+package com.tienda;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDResources;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Pruebas de generación de tickets PDF en memoria.
+ */
+public class GeneradorPDFTest
+{
+    private static final String FUENTE_REGULAR = "/usr/share/fonts/truetype/dejavu/DejaVuSans.ttf";
+    private static final String FUENTE_NEGRITA = "/usr/share/fonts/truetype/dejavu/DejaVuSans-Bold.ttf";
+
+    private GeneradorPDF generador;
+    private Usuario usuario;
+    private List<GeneradorPDF.Producto> productos;
+
+    @Before
+    public void preparar() throws Exception
+    {
+        assumeTrue( new File( FUENTE_REGULAR ).exists() && new File( FUENTE_NEGRITA ).exists() );
+        generador = new GeneradorPDF( FUENTE_REGULAR, FUENTE_NEGRITA, null );
+        usuario = new Usuario( "Ana Lopez", "ana@correo.com", "Calle Falsa 123" );
+        productos = new ArrayList<>();
+        productos.add( new GeneradorPDF.Producto( "Lala 1 L", "Lacteos", "Leche entera", "3", 28.50, 0.05 ) );
+        productos.add( new GeneradorPDF.Producto( "Doritos Rojos 75 g", "Snacks", "Botanas", "1", 18.00, 0 ) );
+    }
+
+    @Test
+    public void generaEnFlujoSinEscribirArchivos() throws Exception
+    {
+        Set<String> antesTemporal = listar( new File( System.getProperty( "java.io.tmpdir" ) ) );
+        Set<String> antesTrabajo = listar( new File( "." ) );
+
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        generador.generar( salida, "City Market", usuario, productos );
+
+        assertTrue( new String( salida.toByteArray(), 0, 5, "US-ASCII" ).startsWith( "%PDF-" ) );
+        assertEquals( antesTemporal, listar( new File( System.getProperty( "java.io.tmpdir" ) ) ) );
+        assertEquals( antesTrabajo, listar( new File( "." ) ) );
+    }
+
+    @Test
+    public void canalYBufferProducenElMismoDocumentoQueElFlujo() throws Exception
+    {
+        ByteArrayOutputStream porCanal = new ByteArrayOutputStream();
+        generador.generar( Channels.newChannel( porCanal ), "City Market", usuario, productos );
+
+        PoolBuffers pool = new PoolBuffers( 1024, 2 );
+        byte[] porBuffer;
+        try ( PoolBuffers.Salida salida = generador.generarEnBuffer( pool, "City Market", usuario, productos ) )
+        {
+            ByteBuffer contenido = salida.contenido();
+            assertTrue( contenido.isDirect() );
+            porBuffer = new byte[contenido.remaining()];
+            contenido.get( porBuffer );
+        }
+        assertTrue( pool.getLibres() >= 1 );
+
+        // Los documentos solo difieren en la fecha de generación y en el identificador del PDF.
+        assertTrue( porCanal.size() > 0 );
+        assertEquals( porCanal.size(), porBuffer.length, 64 );
+        assertArrayEquals( Arrays.copyOf( porCanal.toByteArray(), 5 ), Arrays.copyOf( porBuffer, 5 ) );
+    }
+
+    @Test
+    public void generaTicketsDeVariasPaginas() throws Exception
+    {
+        List<GeneradorPDF.Producto> muchos = new ArrayList<>();
+        for ( int i = 0; i < 100; i++ )
+        {
+            muchos.add( new GeneradorPDF.Producto( "Producto " + i, "Lacteos", "Leche", String.valueOf( 1 + i % 8 ), 10.00, 0 ) );
+        }
+
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        generador.generar( salida, "City Market", usuario, muchos );
+
+        try ( PDDocument documento = PDDocument.load( salida.toByteArray() ) )
+        {
+            assertTrue( documento.getNumberOfPages() > 1 );
+
+            // Cada página repite el encabezado, y todas usan el mismo XObject de la plantilla.
+            PDFTextStripper extractor = new PDFTextStripper();
+            Set<COSBase> encabezados = new HashSet<>();
+            for ( int p = 1; p <= documento.getNumberOfPages(); p++ )
+            {
+                extractor.setStartPage( p );
+                extractor.setEndPage( p );
+                String texto = extractor.getText( documento );
+                assertTrue( texto, texto.contains( "City Market" ) );
+                assertTrue( texto, texto.contains( "Subcategoría" ) );
+
+                PDResources recursos = documento.getPage( p - 1 ).getResources();
+                for ( COSName nombre : recursos.getXObjectNames() )
+                {
+                    encabezados.add( recursos.getXObject( nombre ).getCOSObject() );
+                }
+            }
+            assertEquals( 1, encabezados.size() );
+        }
+    }
+
+    @Test
+    public void cadaTicketLlevaElEncabezadoCompleto() throws Exception
+    {
+        // Dos tickets del mismo generador: el segundo no depende de nada que dejara el primero.
+        for ( int i = 0; i < 2; i++ )
+        {
+            ByteArrayOutputStream salida = new ByteArrayOutputStream();
+            generador.generar( salida, "City Market", usuario, productos );
+            try ( PDDocument documento = PDDocument.load( salida.toByteArray() ) )
+            {
+                PDFTextStripper extractor = new PDFTextStripper();
+                extractor.setSortByPosition( true );
+                String texto = extractor.getText( documento );
+                assertTrue( texto, texto.contains( "City Market" ) );
+                assertTrue( texto, texto.contains( "Nombre: Ana Lopez" ) );
+                assertTrue( texto, texto.contains( "Dirección: Calle Falsa 123" ) );
+                assertTrue( texto, texto.contains( "Categoría" ) );
+                assertTrue( texto, texto.contains( "Doritos Rojos 75 g" ) );
+            }
+        }
+    }
+
+    private static Set<String> listar( File directorio )
+    {
+        String[] nombres = directorio.list();
+        return nombres == null ? new HashSet<>() : new HashSet<>( Arrays.asList( nombres ) );
+    }
+}
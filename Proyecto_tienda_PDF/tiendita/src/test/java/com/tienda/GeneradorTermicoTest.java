@@ -0,0 +1,98 @@
+package com.tienda;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Pruebas de los tickets de 80 mm: comandos ESC/POS y PDF angosto.
+ */
+public class GeneradorTermicoTest
+{
+    private Usuario usuario;
+    private LocalDateTime fecha;
+    private List<GeneradorPDF.Producto> productos;
+
+    @Before
+    public void preparar()
+    {
+        usuario = new Usuario( "Ana Muñoz", "ana@correo.com", "Calle \u001B@ 123" );
+        fecha = LocalDateTime.of( 2026, 10, 7, 9, 5, 3 );
+        productos = new ArrayList<>();
+        productos.add( GeneradorPDF.Producto.enCentavos( "Lala 1 L", "Lacteos", "Leche entera", "3", 2850, 500 ) );
+        productos.add( GeneradorPDF.Producto.enCentavos( "Té (verde)", "Bebidas", "Té", "1", 1800, 0 ) );
+    }
+
+    @Test
+    public void escribeLosComandosEscPos()
+    {
+        BufferTicket buffer = new BufferTicket( 64 );
+        new GeneradorEscPos().escribir( "City Market", usuario, fecha, productos, buffer );
+        byte[] bytes = buffer.copia();
+
+        assertEquals( 0x1B, bytes[0] );
+        assertEquals( '@', bytes[1] );
+        assertEquals( 0x1D, bytes[bytes.length - 4] );
+        assertEquals( 'V', bytes[bytes.length - 3] );
+
+        String texto = new String( bytes, Charset.forName( "IBM850" ) );
+        assertTrue( texto, texto.contains( "Cliente: Ana Muñoz\n" ) );
+        assertTrue( texto, texto.contains( "Fecha: 07/10/2026 09:05:03\n" ) );
+        assertTrue( texto, texto.contains( "  3 x $28.50                              $85.50\n" ) );
+        assertTrue( texto, texto.contains( "  Descuento 5%                            -$4.28\n" ) );
+        assertTrue( texto, texto.contains( "TOTAL CON DESCUENTO:                      $99.22\n" ) );
+        // El ESC del texto no llega a la impresora como comando.
+        assertTrue( texto, texto.contains( "Direccion: Calle  @ 123\n" ) );
+
+        // El búfer se reutiliza: un segundo ticket igual ocupa los mismos bytes.
+        new GeneradorEscPos().escribir( "City Market", usuario, fecha, productos, buffer );
+        assertEquals( bytes.length, buffer.getTamano() );
+    }
+
+    @Test
+    public void escribeEnterosEnTodoElRango()
+    {
+        BufferTicket buffer = new BufferTicket( 4 );
+        long[] valores = { 0, 7, -7, 1234567890123L, Long.MAX_VALUE, Long.MIN_VALUE, Long.MIN_VALUE + 1 };
+        for ( long valor : valores )
+        {
+            buffer.reiniciar();
+            buffer.agregarEntero( valor );
+            assertEquals( Long.toString( valor ), new String( buffer.copia(), StandardCharsets.US_ASCII ) );
+        }
+    }
+
+    @Test
+    public void escribeUnPdfDeOchentaMilimetros() throws Exception
+    {
+        BufferTicket buffer = new BufferTicket( 64 );
+        GeneradorPDFTermico generador = new GeneradorPDFTermico();
+        generador.escribir( "City Market", usuario, fecha, productos, buffer );
+        generador.escribir( "City Market", usuario, fecha, productos, buffer );
+
+        try ( PDDocument documento = PDDocument.load( buffer.copia() ) )
+        {
+            assertEquals( 1, documento.getNumberOfPages() );
+            PDRectangle pagina = documento.getPage( 0 ).getMediaBox();
+            assertEquals( 226.77f, pagina.getWidth(), 0.01f );
+            assertTrue( pagina.getHeight() > 100 && pagina.getHeight() < 300 );
+
+            String texto = new PDFTextStripper().getText( documento );
+            assertTrue( texto, texto.contains( "City Market" ) );
+            assertTrue( texto, texto.contains( "Cliente: Ana Muñoz" ) );
+            assertTrue( texto, texto.contains( "Té (verde)" ) );
+            assertTrue( texto, texto.contains( "$99.22" ) );
+        }
+    }
+}
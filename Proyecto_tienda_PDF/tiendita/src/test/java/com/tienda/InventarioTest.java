@@ -0,0 +1,165 @@
+package com.tienda;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Pruebas del inventario y de las reservas que hace el carrito.
+ */
+public class InventarioTest
+{
+    private static Producto linea( String sku, int cantidad )
+    {
+        return new Producto( sku, "Producto " + sku, "Cat", "Sub", 10.00, cantidad );
+    }
+
+    @Test
+    public void nuncaSeVendeDeMasConMilesDeReservasConcurrentes() throws Exception
+    {
+        Inventario inventario = new Inventario( new String[] { "A", "B" }, new int[] { 5000, 10 }, 60_000 );
+        int hilos = 16;
+        int intentos = 1000;
+        ExecutorService ejecutor = Executors.newFixedThreadPool( hilos );
+        CountDownLatch salida = new CountDownLatch( 1 );
+        List<Future<Integer>> tareas = new ArrayList<>();
+        for ( int h = 0; h < hilos; h++ )
+        {
+            tareas.add( ejecutor.submit( () -> {
+                salida.await();
+                int logradas = 0;
+                for ( int i = 0; i < intentos; i++ )
+                {
+                    try
+                    {
+                        inventario.reservar( i % 2 == 0 ? "A" : "B", 1 );
+                        logradas++;
+                    }
+                    catch ( StockInsuficienteException agotado )
+                    {
+                        // Esperado cuando se acaban las unidades.
+                    }
+                }
+                return logradas;
+            } ) );
+        }
+        salida.countDown();
+        int total = 0;
+        for ( Future<Integer> t : tareas )
+        {
+            total += t.get( 60, TimeUnit.SECONDS );
+        }
+        ejecutor.shutdown();
+
+        assertEquals( 5000 + 10, total );
+        assertEquals( 0, inventario.getDisponibles( "A" ) );
+        assertEquals( 0, inventario.getDisponibles( "B" ) );
+        assertEquals( 5000, inventario.getReservadas( "A" ) );
+        assertEquals( 10, inventario.getReservadas( "B" ) );
+    }
+
+    @Test
+    public void elCarritoApartaLiberaYConfirma() throws Exception
+    {
+        Inventario inventario = new Inventario( new String[] { "A", "B" }, new int[] { 10, 4 }, 60_000 );
+        Carrito carrito = new Carrito( 10, MotorPrecios.ESTANDAR, inventario );
+
+        carrito.agregarProducto( linea( "A", 3 ) );
+        carrito.agregarProducto( linea( "A", 2 ) );
+        carrito.agregarProducto( linea( "B", 4 ) );
+        assertEquals( 5, inventario.getDisponibles( "A" ) );
+        assertEquals( 0, inventario.getDisponibles( "B" ) );
+
+        try
+        {
+            carrito.agregarProducto( linea( "B", 1 ) );
+            fail( "Se aparto una unidad que no existe" );
+        }
+        catch ( StockInsuficienteException esperado )
+        {
+            assertEquals( 4, carrito.obtenerProducto( "B" ).getStock() );
+        }
+
+        carrito.actualizarCantidad( "A", 2 );
+        assertEquals( 8, inventario.getDisponibles( "A" ) );
+
+        carrito.removerProducto( "B" );
+        assertEquals( 4, inventario.getDisponibles( "B" ) );
+
+        carrito.confirmarCompra();
+        assertTrue( carrito.estaVacio() );
+        assertEquals( 8, inventario.getDisponibles( "A" ) );
+        assertEquals( 0, inventario.getReservadas( "A" ) );
+        assertEquals( 2, inventario.getVendidas( "A" ) );
+
+        carrito.agregarProducto( linea( "A", 8 ) );
+        carrito.vaciarCarrito();
+        assertEquals( 8, inventario.getDisponibles( "A" ) );
+    }
+
+    @Test
+    public void lasReservasInactivasVencenYSeRecuperan() throws Exception
+    {
+        Inventario inventario = new Inventario( new String[] { "A" }, new int[] { 5 }, 50 );
+        Carrito carrito = new Carrito( 10, MotorPrecios.ESTANDAR, inventario );
+        carrito.agregarProducto( linea( "A", 3 ) );
+
+        assertEquals( 0, inventario.expirarVencidas() );
+        Thread.sleep( 120 );
+        assertEquals( 3, inventario.expirarVencidas() );
+        assertEquals( 5, inventario.getDisponibles( "A" ) );
+        assertEquals( 0, inventario.getReservadas( "A" ) );
+
+        // La línea se conserva y al confirmar se vuelven a apartar las unidades.
+        assertEquals( 3, carrito.obtenerProducto( "A" ).getStock() );
+        carrito.confirmarCompra();
+        assertEquals( 2, inventario.getDisponibles( "A" ) );
+        assertEquals( 3, inventario.getVendidas( "A" ) );
+    }
+
+    @Test
+    public void siNoHayExistenciasAlConfirmarElCarritoNoCambia() throws Exception
+    {
+        Inventario inventario = new Inventario( new String[] { "A" }, new int[] { 3 }, 50 );
+        Carrito carrito = new Carrito( 10, MotorPrecios.ESTANDAR, inventario );
+        carrito.agregarProducto( linea( "A", 3 ) );
+        Thread.sleep( 120 );
+        inventario.expirarVencidas();
+        inventario.reservar( "A", 1 );
+
+        try
+        {
+            carrito.confirmarCompra();
+            fail( "Se confirmo una compra sin existencias" );
+        }
+        catch ( StockInsuficienteException esperado )
+        {
+            assertFalse( carrito.estaVacio() );
+            assertEquals( 0, inventario.getVendidas( "A" ) );
+        }
+    }
+
+    @Test
+    public void leeLasExistenciasDesdeCsv() throws Exception
+    {
+        Map<String, Integer> existencias = Inventario.leerCsv( new StringReader( "sku,existencias\nLAC-001,12\n# comentario\nSNK-002,0\n" ) );
+        assertEquals( Integer.valueOf( 12 ), existencias.get( "LAC-001" ) );
+        assertEquals( Integer.valueOf( 0 ), existencias.get( "SNK-002" ) );
+
+        Inventario inventario = Inventario.cargar( CargadorCatalogo.cargar() );
+        assertTrue( inventario.getDisponibles( "LAC-001" ) > 0 );
+    }
+}
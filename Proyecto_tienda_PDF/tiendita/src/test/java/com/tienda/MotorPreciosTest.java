@@ -0,0 +1,130 @@
+package com.tienda;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Collections;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.tienda.ui.PantallaCarrito;
+
+/**
+ * Pruebas del motor de precios y de los totales del carrito.
+ */
+public class MotorPreciosTest
+{
+    private static Producto linea( String sku, String categoria, double precio, int cantidad )
+    {
+        return new Producto( sku, "Producto " + sku, categoria, "Sub " + categoria, precio, cantidad );
+    }
+
+    @Test
+    public void aplicaLosEscalonesDeVolumen()
+    {
+        MotorPrecios motor = MotorPrecios.ESTANDAR;
+        assertEquals( 0, motor.descuento( linea( "A", "Lacteos", 10, 2 ) ) );
+        assertEquals( 500, motor.descuento( linea( "A", "Lacteos", 10, 3 ) ) );
+        assertEquals( 500, motor.descuento( linea( "A", "Lacteos", 10, 4 ) ) );
+        assertEquals( 1000, motor.descuento( linea( "A", "Lacteos", 10, 6 ) ) );
+        assertEquals( 1500, motor.descuento( linea( "A", "Lacteos", 10, 40 ) ) );
+    }
+
+    @Test
+    public void aplicaElMayorDescuentoEntreReglas()
+    {
+        MotorPrecios motor = new MotorPrecios(
+            new ReglaDescuento.PorVolumen( new int[] { 3 }, new int[] { 500 } ),
+            new ReglaDescuento.PorCategoria( Collections.singletonMap( "Bebidas", 800 ) ),
+            new ReglaDescuento.PorSku( Collections.singletonMap( "BEB-001", 2000 ) ) );
+
+        assertEquals( 500, motor.descuento( linea( "LAC-001", "Lacteos", 10, 3 ) ) );
+        assertEquals( 800, motor.descuento( linea( "BEB-002", "Bebidas", 10, 3 ) ) );
+        assertEquals( 2000, motor.descuento( linea( "BEB-001", "Bebidas", 10, 1 ) ) );
+    }
+
+    @Test
+    public void losTotalesAcumuladosCoincidenConRecalcular() throws Exception
+    {
+        Carrito carrito = new Carrito();
+        Random azar = new Random( 42 );
+        for ( int i = 0; i < 2000; i++ )
+        {
+            String sku = "SKU-" + azar.nextInt( 30 );
+            int operacion = azar.nextInt( 4 );
+            if ( operacion <= 1 )
+            {
+                carrito.agregarProducto( linea( sku, "Cat" + azar.nextInt( 3 ), 0.5 + azar.nextInt( 20000 ) / 100.0, 1 + azar.nextInt( 4 ) ) );
+            }
+            else if ( operacion == 2 && carrito.contieneProducto( sku ) )
+            {
+                carrito.actualizarCantidad( sku, 1 + azar.nextInt( 10 ) );
+            }
+            else
+            {
+                carrito.removerProducto( sku );
+            }
+            assertEquals( recalcular( carrito ), carrito.calcularTotalCentavos() );
+        }
+    }
+
+    @Test
+    public void todasLasPantallasDanElMismoTotal() throws Exception
+    {
+        Carrito carrito = new Carrito();
+        carrito.agregarProducto( linea( "LAC-001", "Lacteos", 28.50, 1 ) );
+        carrito.agregarProducto( linea( "LAC-002", "Lacteos", 13.00, 3 ) );
+        carrito.agregarProducto( linea( "SNK-001", "Snacks", 107.00, 5 ) );
+        carrito.agregarProducto( linea( "BEB-001", "Bebidas", 19.90, 8 ) );
+        carrito.agregarProducto( linea( "LAC-002", "Lacteos", 13.00, 1 ) );
+        carrito.actualizarCantidad( "SNK-001", 6 );
+
+        long esperado = recalcular( carrito );
+
+        // Carrito.calcularTotal
+        assertEquals( esperado, carrito.calcularTotalCentavos() );
+        assertEquals( esperado / 100.0, carrito.calcularTotal(), 0 );
+
+        // Ticket de texto (el que imprime la consola)
+        assertEquals( Dinero.formatear( esperado ), totalDelTicketDeTexto( carrito ) );
+
+        // Controlador.resumenCompra (líneas del ticket PDF)
+        long totalPdf = 0;
+        for ( GeneradorPDF.Producto p : Controlador.productosTicket( carrito ) )
+        {
+            totalPdf += p.subtotalConDescuento();
+        }
+        assertEquals( esperado, totalPdf );
+
+        // PantallaCarrito (filas de la tabla)
+        long totalPantalla = 0;
+        for ( PantallaCarrito.ProductoCarrito p : PantallaCarrito.crearLineas( carrito ) )
+        {
+            totalPantalla += p.subtotal();
+        }
+        assertEquals( esperado, totalPantalla );
+    }
+
+    private static long recalcular( Carrito carrito )
+    {
+        long total = 0;
+        for ( Producto p : carrito.getProductos() )
+        {
+            total += carrito.getMotorPrecios().subtotalConDescuento( p );
+        }
+        return total;
+    }
+
+    private static String totalDelTicketDeTexto( Carrito carrito )
+    {
+        String ticket = carrito.instantanea().ticketTexto( new Usuario( "Ana", "ana@correo.com", "Calle 1" ) );
+        for ( String renglon : ticket.split( "\\R" ) )
+        {
+            if ( renglon.startsWith( "TOTAL CON DESCUENTO:" ) )
+            {
+                return renglon.substring( "TOTAL CON DESCUENTO:".length() ).trim();
+            }
+        }
+        throw new AssertionError( "El ticket no tiene total con descuento" );
+    }
+}
@@ -0,0 +1,71 @@
+package com.tienda;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.util.Collections;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.junit.Test;
+
+/**
+ * Pruebas del proveedor de fuentes: fuentes estándar sin fuentes del sistema y análisis compartido.
+ */
+public class ProveedorFuentesTest
+{
+    private static final String FUENTE_REGULAR = "/usr/share/fonts/truetype/dejavu/DejaVuSans.ttf";
+    private static final String FUENTE_NEGRITA = "/usr/share/fonts/truetype/dejavu/DejaVuSans-Bold.ttf";
+
+    @Test
+    public void sinFuentesDelSistemaUsaLasEstandar() throws Exception
+    {
+        // Rutas configuradas que no existen y ningún recurso empaquetado, como en un servidor sin fuentes.
+        ProveedorFuentes fuentes = ProveedorFuentes.resolver( "/no/existe/regular.ttf", "/no/existe.ttf",
+                "/no/existe/negrita.ttf", null );
+        assertTrue( fuentes.regular().esEstandar() );
+        assertTrue( fuentes.negrita().esEstandar() );
+        assertEquals( "Helvetica", fuentes.regular().getOrigen() );
+        // El motivo queda en el proveedor, sin escribirse en la salida de error.
+        assertEquals( 2, fuentes.getAvisos().size() );
+        assertTrue( fuentes.regular().getFallo(), fuentes.regular().getFallo().contains( "/no/existe/regular.ttf" ) );
+        assertEquals( "Sin cambios ñ", fuentes.regular().apta( "Sin cambios ñ" ) );
+        assertEquals( "Cafe ? ok", fuentes.regular().apta( "Cafe 中 ok" ) );
+
+        GeneradorPDF generador = new GeneradorPDF( fuentes, null );
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        generador.generar( salida, "City Market", new Usuario( "Ana Lopez", "ana@correo.com", "Calle Falsa 123" ),
+                Collections.singletonList( new GeneradorPDF.Producto( "Té 中", "Bebidas", "Té", "2", 30.00, 0 ) ) );
+
+        try ( PDDocument documento = PDDocument.load( salida.toByteArray() ) )
+        {
+            PDFTextStripper extractor = new PDFTextStripper();
+            extractor.setSortByPosition( true );
+            String texto = extractor.getText( documento );
+            assertTrue( texto, texto.contains( "City Market" ) );
+            assertTrue( texto, texto.contains( "Categoría" ) );
+            assertTrue( texto, texto.contains( "Ana Lopez" ) );
+            assertTrue( texto, texto.contains( "Té ?" ) );
+            assertTrue( texto, texto.contains( "TOTAL CON DESCUENTO: $60.00" ) );
+        }
+    }
+
+    @Test
+    public void comparteLaFuenteAnalizadaEntreProveedores() throws Exception
+    {
+        assumeTrue( new File( FUENTE_REGULAR ).exists() && new File( FUENTE_NEGRITA ).exists() );
+        ProveedorFuentes uno = ProveedorFuentes.deArchivos( FUENTE_REGULAR, FUENTE_NEGRITA );
+        ProveedorFuentes otro = ProveedorFuentes.resolver( FUENTE_REGULAR, null, FUENTE_NEGRITA, null );
+
+        assertFalse( uno.regular().esEstandar() );
+        assertSame( uno.regular().getTtf(), otro.regular().getTtf() );
+        assertSame( uno.negrita().getTtf(), otro.negrita().getTtf() );
+        assertTrue( otro.getAvisos().isEmpty() );
+        assertEquals( "Café 中", uno.regular().apta( "Café 中" ) );
+    }
+}
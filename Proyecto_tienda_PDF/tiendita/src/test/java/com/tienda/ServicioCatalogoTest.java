@@ -0,0 +1,96 @@
+package com.tienda;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.tienda.ui.PantallaCatalogo;
+import org.junit.Test;
+
+/**
+ * Pruebas del catálogo compartido: una sola carga y la misma instancia en cada apertura.
+ */
+public class ServicioCatalogoTest
+{
+    @Test
+    public void todosLosHilosObtienenLaMismaInstancia() throws Exception
+    {
+        ServicioCatalogo primero = enParalelo( ServicioCatalogo::obtener );
+        assertSame( primero.getBuscador(), ServicioCatalogo.obtener().getBuscador() );
+        assertEquals( 58, primero.getRepositorio().tamano() );
+    }
+
+    @Test
+    public void elBuscadorSeConstruyeUnaSolaVezAunqueLoPidanVariosHilos() throws Exception
+    {
+        // Un servicio propio, para que el primer acceso ocurra en esta prueba y no en otra.
+        Producto[] catalogo = {
+            new Producto( "LAC-001", "Leche entera", "Lacteos", "Leche", 25.00, 0 ),
+            new Producto( "FRU-001", "Manzana", "Frutas", "Frescas", 4.00, 0 )
+        };
+        ServicioCatalogo servicio = ServicioCatalogo.de( catalogo,
+                Inventario.deCatalogo( catalogo, Collections.emptyMap(), Inventario.VIGENCIA_PREDETERMINADA_MS ) );
+
+        BuscadorProductos buscador = enParalelo( servicio::getBuscador );
+        assertSame( buscador, servicio.getBuscador() );
+        assertEquals( 1, buscador.buscar( "leche", 10 ).size() );
+    }
+
+    @Test
+    public void abrirElCatalogoDeNuevoUsaElMismoCatalogo()
+    {
+        // Lo que cuesta abrir la pantalla se mide en ServicioCatalogoBenchmark.
+        ServicioCatalogo servicio = ServicioCatalogo.obtener();
+        for ( int i = 0; i < 3; i++ )
+        {
+            new PantallaCatalogo( new Usuario(), new Carrito() );
+            assertSame( servicio, ServicioCatalogo.obtener() );
+            assertSame( servicio.getRepositorio(), ServicioCatalogo.obtener().getRepositorio() );
+            assertSame( servicio.getBuscador(), ServicioCatalogo.obtener().getBuscador() );
+        }
+    }
+
+    /**
+     * Hace la misma llamada desde 32 tareas que arrancan juntas y comprueba que todas obtienen
+     * la misma instancia.
+     */
+    private static <T> T enParalelo( Callable<T> llamada ) throws Exception
+    {
+        int tareas = 32;
+        ExecutorService hilos = Executors.newFixedThreadPool( 8 );
+        try
+        {
+            CyclicBarrier salida = new CyclicBarrier( 8 );
+            List<Future<T>> resultados = new ArrayList<>();
+            for ( int i = 0; i < tareas; i++ )
+            {
+                boolean esperar = i < 8;    // Las primeras ocho ocupan los hilos y salen a la vez.
+                resultados.add( hilos.submit( () -> {
+                    if ( esperar )
+                    {
+                        salida.await();
+                    }
+                    return llamada.call();
+                } ) );
+            }
+            T primero = resultados.get( 0 ).get();
+            for ( Future<T> resultado : resultados )
+            {
+                assertSame( primero, resultado.get() );
+            }
+            return primero;
+        }
+        finally
+        {
+            hilos.shutdown();
+        }
+    }
+}
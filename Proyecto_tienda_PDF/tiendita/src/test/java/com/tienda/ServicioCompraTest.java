@@ -0,0 +1,185 @@
+package com.tienda;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Pruebas del servicio de compra sin interfaz.
+ */
+public class ServicioCompraTest
+{
+    private ServicioCompra servicio;
+    private Inventario inventario;
+    private List<EventoCompra> eventos;
+
+    @Before
+    public void preparar()
+    {
+        Producto[] catalogo = {
+            new Producto( "LAC-001", "Leche entera", "Lacteos", "Leche", 25.00, 0 ),
+            new Producto( "LAC-002", "Yogur natural", "Lacteos", "Yogur", 18.50, 0 ),
+            new Producto( "FRU-001", "Manzana", "Frutas", "Frescas", 4.00, 0 )
+        };
+        inventario = new Inventario( new String[] { "LAC-001", "LAC-002", "FRU-001" }, new int[] { 10, 10, 2 },
+                Inventario.VIGENCIA_PREDETERMINADA_MS );
+        servicio = new ServicioCompra( ServicioCatalogo.de( catalogo, inventario ), MotorPrecios.ESTANDAR );
+        eventos = Collections.synchronizedList( new ArrayList<EventoCompra>() );
+        servicio.agregarOyente( eventos::add );
+    }
+
+    @Test
+    public void validaElRegistroEnOrden() throws Exception
+    {
+        try
+        {
+            servicio.registrar( "Al", "malo", "" );
+            fail( "Debio rechazar el nombre" );
+        }
+        catch ( UsuarioInvalidoException e )
+        {
+            assertEquals( "Error: El nombre debe tener al menos 3 caracteres.", e.getMessage() );
+        }
+        try
+        {
+            servicio.registrar( "Ana Lopez", "ana@correo", "" );
+            fail( "Debio rechazar el email" );
+        }
+        catch ( Invalidar_Email e )
+        {
+            assertEquals( "Error: Formato de email invalido. Ejemplo: usuario@correo.com", e.getMessage() );
+        }
+        assertTrue( eventos.isEmpty() );
+
+        Usuario usuario = servicio.registrar( "  Ana Lopez ", "ana@correo.com", "Calle 1 #2" );
+        assertEquals( "Ana Lopez", usuario.getNombre() );
+        assertEquals( 1, eventos.size() );
+        assertEquals( EventoCompra.Tipo.USUARIO_REGISTRADO, eventos.get( 0 ).getTipo() );
+    }
+
+    @Test
+    public void publicaCadaCambioDelCarrito() throws Exception
+    {
+        Carrito carrito = servicio.nuevoCarrito();
+        servicio.agregar( carrito, "LAC-001", 2 );
+        Carrito.Instantanea vista = servicio.agregar( carrito, "LAC-001", 1 );
+        assertEquals( 1, vista.getContador() );
+        assertEquals( 7500, vista.calcularTotalSinDescuentoCentavos() );
+
+        servicio.actualizar( carrito, "LAC-001", 4 );
+        servicio.agregar( carrito, "LAC-002", 1 );
+        assertNull( servicio.remover( carrito, "FRU-001" ) );
+        servicio.remover( carrito, "LAC-002" );
+        servicio.vaciar( carrito );
+
+        assertEquals( 6, eventos.size() );
+        assertEquals( EventoCompra.Tipo.PRODUCTO_AGREGADO, eventos.get( 1 ).getTipo() );
+        assertEquals( 3, eventos.get( 1 ).getCantidad() );
+        assertEquals( EventoCompra.Tipo.CANTIDAD_ACTUALIZADA, eventos.get( 2 ).getTipo() );
+        assertEquals( 9500, eventos.get( 2 ).getTotalCentavos() );
+        assertEquals( EventoCompra.Tipo.PRODUCTO_REMOVIDO, eventos.get( 4 ).getTipo() );
+        assertEquals( 10, inventario.getDisponibles( "LAC-001" ) );
+    }
+
+    @Test
+    public void rechazaCantidadesYProductosInvalidos() throws Exception
+    {
+        Carrito carrito = servicio.nuevoCarrito();
+        try
+        {
+            servicio.agregar( carrito, "LAC-001", 101 );
+            fail( "Debio rechazar la cantidad" );
+        }
+        catch ( CantidadInvalidaException e )
+        {
+            assertEquals( "Error: La cantidad no puede exceder 100 unidades.", e.getMessage() );
+        }
+        try
+        {
+            servicio.agregar( carrito, "XXX-999", 1 );
+            fail( "Debio rechazar el SKU" );
+        }
+        catch ( ProductoNoEncontradoException e )
+        {
+            // Esperado.
+        }
+        try
+        {
+            servicio.agregar( carrito, "FRU-001", 3 );
+            fail( "Solo hay 2 manzanas" );
+        }
+        catch ( StockInsuficienteException e )
+        {
+            // Esperado.
+        }
+        assertTrue( carrito.estaVacio() );
+        assertTrue( eventos.isEmpty() );
+    }
+
+    @Test
+    public void cierraLaCompraYDevuelveElTicket() throws Exception
+    {
+        Usuario usuario = servicio.registrar( "Ana Lopez", "ana@correo.com", "Calle 1 #2" );
+        Carrito carrito = servicio.nuevoCarrito();
+        servicio.agregar( carrito, "FRU-001", 2 );
+        servicio.agregar( carrito, "LAC-002", 1 );
+
+        Compra compra = servicio.cerrarCompra( usuario, carrito );
+
+        assertFalse( compra.estaVacia() );
+        assertTrue( carrito.estaVacio() );
+        assertEquals( 2, compra.getLineasTicket().size() );
+        assertTrue( compra.ticketTexto().contains( "Cliente: Ana Lopez" ) );
+        assertEquals( 2, inventario.getVendidas( "FRU-001" ) );
+        EventoCompra cierre = eventos.get( eventos.size() - 1 );
+        assertEquals( EventoCompra.Tipo.COMPRA_CERRADA, cierre.getTipo() );
+        assertEquals( "ana@correo.com", cierre.getEmail() );
+        assertEquals( compra.getTotalCentavos(), cierre.getTotalCentavos() );
+
+        assertTrue( servicio.cerrarCompra( usuario, carrito ).estaVacia() );
+    }
+
+    @Test
+    public void laBitacoraEscribeEnSegundoPlano() throws Exception
+    {
+        StringWriter destino = new StringWriter();
+        RegistroAsincrono registro = new RegistroAsincrono( destino, 16, true );
+        servicio.agregarOyente( registro );
+        Carrito carrito = servicio.nuevoCarrito();
+        servicio.agregar( carrito, "LAC-001", 1 );
+        servicio.vaciar( carrito );
+        registro.close();
+
+        assertEquals( 2, registro.getEscritos() );
+        assertTrue( destino.toString().contains( "PRODUCTO_AGREGADO sku=LAC-001 cantidad=1" ) );
+        assertTrue( destino.toString().contains( "CARRITO_VACIADO" ) );
+    }
+
+    @Test
+    public void cerrarLaBitacoraDetieneElEscritorEnSeguida() throws Exception
+    {
+        StringWriter destino = new StringWriter();
+        RegistroAsincrono registro = new RegistroAsincrono( destino, 16, true );
+        servicio.agregarOyente( registro );
+        servicio.agregar( servicio.nuevoCarrito(), "LAC-001", 1 );
+
+        long inicio = System.nanoTime();
+        registro.close();
+        long milisegundos = ( System.nanoTime() - inicio ) / 1_000_000;
+
+        // Antes el escritor se quedaba esperando en la cola y `close()` agotaba los 5 s de espera.
+        assertTrue( "close() tardo " + milisegundos + " ms", milisegundos < 2000 );
+        assertFalse( registro.escritorActivo() );
+        assertEquals( 1, registro.getEscritos() );
+    }
+}
@@ -0,0 +1,145 @@
+package com.tienda.web;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.tienda.GeneradorPDF;
+import com.tienda.Inventario;
+import com.tienda.MotorPrecios;
+import com.tienda.Producto;
+import com.tienda.ServicioCatalogo;
+import com.tienda.ServicioCompra;
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Pruebas del servidor HTTP con un catálogo pequeño, por la red local.
+ */
+public class ServidorTiendaTest
+{
+    private static final String FUENTE_REGULAR = "/usr/share/fonts/truetype/dejavu/DejaVuSans.ttf";
+    private static final String FUENTE_NEGRITA = "/usr/share/fonts/truetype/dejavu/DejaVuSans-Bold.ttf";
+
+    private ServidorTienda servidor;
+    private HttpClient cliente;
+    private String cookie;
+
+    @Before
+    public void iniciar() throws Exception
+    {
+        Producto[] catalogo = {
+            new Producto( "LAC-001", "Leche \"entera\"", "Lacteos", "Leche", 25.00, 0 ),
+            new Producto( "FRU-001", "Manzana", "Frutas", "Frescas", 4.00, 0 )
+        };
+        Inventario inventario = new Inventario( new String[] { "LAC-001", "FRU-001" }, new int[] { 10, 2 },
+                Inventario.VIGENCIA_PREDETERMINADA_MS );
+        ServicioCompra servicio = new ServicioCompra( ServicioCatalogo.de( catalogo, inventario ), MotorPrecios.ESTANDAR );
+        servidor = new ServidorTienda( 0, servicio,
+                Collections.singletonList( new GeneradorPDF( FUENTE_REGULAR, FUENTE_NEGRITA, null ) ) );
+        servidor.iniciar();
+        cliente = HttpClient.newHttpClient();
+    }
+
+    @After
+    public void detener()
+    {
+        servidor.detener( 0 );
+    }
+
+    private HttpResponse<byte[]> pedir( String metodo, String ruta, String formulario ) throws Exception
+    {
+        HttpRequest.Builder peticion = HttpRequest.newBuilder( URI.create( "http://localhost:" + servidor.getPuerto() + ruta ) );
+        if ( cookie != null )
+        {
+            peticion.header( "Cookie", cookie );
+        }
+        if ( metodo.equals( "POST" ) )
+        {
+            peticion.header( "Content-Type", "application/x-www-form-urlencoded" )
+                    .POST( HttpRequest.BodyPublishers.ofString( formulario ) );
+        }
+        HttpResponse<byte[]> respuesta = cliente.send( peticion.build(), HttpResponse.BodyHandlers.ofByteArray() );
+        respuesta.headers().firstValue( "Set-Cookie" ).ifPresent( c -> cookie = c.substring( 0, c.indexOf( ';' ) ) );
+        return respuesta;
+    }
+
+    private static String texto( HttpResponse<byte[]> respuesta )
+    {
+        return new String( respuesta.body(), StandardCharsets.UTF_8 );
+    }
+
+    @Test
+    public void recorreElCatalogo() throws Exception
+    {
+        assertEquals( "[\"Lacteos\",\"Frutas\"]", texto( pedir( "GET", "/catalogo/categorias", null ) ) );
+
+        String productos = texto( pedir( "GET", "/catalogo/productos?categoria=Lacteos", null ) );
+        assertEquals( "[{\"sku\":\"LAC-001\",\"nombre\":\"Leche \\\"entera\\\"\",\"categoria\":\"Lacteos\","
+                + "\"subcategoria\":\"Leche\",\"precio\":25.00,\"disponibles\":10}]", productos );
+
+        assertTrue( texto( pedir( "GET", "/catalogo/buscar?q=manzana", null ) ).contains( "\"FRU-001\"" ) );
+        assertEquals( 400, pedir( "GET", "/catalogo/buscar", null ).statusCode() );
+        assertEquals( 405, pedir( "POST", "/catalogo/categorias", "" ).statusCode() );
+        assertEquals( 404, pedir( "GET", "/catalogo/otra", null ).statusCode() );
+    }
+
+    @Test
+    public void compraYDescargaElTicket() throws Exception
+    {
+        assertEquals( 200, pedir( "POST", "/carrito/agregar", "sku=LAC-001&cantidad=3" ).statusCode() );
+        assertEquals( 409, pedir( "POST", "/carrito/agregar", "sku=FRU-001&cantidad=5" ).statusCode() );
+        assertEquals( 404, pedir( "POST", "/carrito/agregar", "sku=XXX&cantidad=1" ).statusCode() );
+        assertEquals( 400, pedir( "POST", "/carrito/agregar", "sku=FRU-001&cantidad=cero" ).statusCode() );
+        assertEquals( 401, pedir( "POST", "/compra", "" ).statusCode() );
+
+        HttpResponse<byte[]> registro = pedir( "POST", "/sesion/registro",
+                "nombre=Ana+Lopez&email=ana%40correo.com&direccion=Calle+1+%232" );
+        assertEquals( texto( registro ), 200, registro.statusCode() );
+        assertTrue( texto( pedir( "GET", "/carrito", null ) ).contains( "\"cantidad\":3" ) );
+
+        HttpResponse<byte[]> compra = pedir( "POST", "/compra", "" );
+        assertEquals( 200, compra.statusCode() );
+        assertTrue( texto( compra ).contains( "\"total\":71.25" ) );
+        assertTrue( texto( pedir( "GET", "/carrito", null ) ).startsWith( "{\"lineas\":[]" ) );
+
+        HttpResponse<byte[]> ticket = pedir( "GET", "/compra/ticket.pdf", null );
+        assertEquals( 200, ticket.statusCode() );
+        assertEquals( "application/pdf", ticket.headers().firstValue( "Content-Type" ).get() );
+        assertEquals( "%PDF", new String( ticket.body(), 0, 4, StandardCharsets.US_ASCII ) );
+        assertEquals( 1, servidor.getSesiones() );
+    }
+
+    @Test
+    public void rechazaFormulariosMalCodificadosOGrandes() throws Exception
+    {
+        // HttpClient no acepta una URI con un escape mal formado: la petición se escribe a mano.
+        try ( Socket conexion = new Socket( "localhost", servidor.getPuerto() ) )
+        {
+            conexion.getOutputStream().write( ( "GET /catalogo/buscar?q=% HTTP/1.1\r\nHost: localhost\r\n"
+                    + "Connection: close\r\n\r\n" ).getBytes( StandardCharsets.US_ASCII ) );
+            String linea = new BufferedReader( new InputStreamReader( conexion.getInputStream(),
+                    StandardCharsets.US_ASCII ) ).readLine();
+            assertEquals( "HTTP/1.1 400 Bad Request", linea );
+        }
+        assertEquals( 400, pedir( "POST", "/carrito/agregar", "sku=%&cantidad=1" ).statusCode() );
+
+        char[] relleno = new char[ServidorTienda.MAXIMO_CUERPO];
+        Arrays.fill( relleno, 'a' );
+        assertEquals( 413, pedir( "POST", "/carrito/agregar", "sku=LAC-001&cantidad=1&x=" + new String( relleno ) )
+                .statusCode() );
+        // El servidor sigue atendiendo.
+        assertEquals( 200, pedir( "POST", "/carrito/agregar", "sku=LAC-001&cantidad=1" ).statusCode() );
+    }
+}